@@ -3,10 +3,34 @@ package ru.maga.urlshortener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.maga.urlshortener.cli.ConsoleInterface;
+import ru.maga.urlshortener.cluster.ClusterNode;
+import ru.maga.urlshortener.cluster.ClusteredShortUrlRepository;
 import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.events.LinkEventPublisher;
+import ru.maga.urlshortener.journal.ClickJournal;
+import ru.maga.urlshortener.metrics.MetricsRegistry;
+import ru.maga.urlshortener.replication.ReadOnlyShortUrlRepository;
+import ru.maga.urlshortener.replication.ReplicaClient;
+import ru.maga.urlshortener.replication.ReplicatingShortUrlRepository;
+import ru.maga.urlshortener.replication.ReplicationLog;
+import ru.maga.urlshortener.replication.ReplicationServer;
+import ru.maga.urlshortener.repository.ClickCounterFile;
+import ru.maga.urlshortener.repository.ConnectionPool;
+import ru.maga.urlshortener.repository.HeapLinkStore;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.repository.JdbcShortUrlRepository;
+import ru.maga.urlshortener.repository.JdbcUserRepository;
 import ru.maga.urlshortener.repository.ShortUrlRepository;
+import ru.maga.urlshortener.repository.TieredLinkStore;
 import ru.maga.urlshortener.repository.UserRepository;
 import ru.maga.urlshortener.service.*;
+import ru.maga.urlshortener.util.CachedTimeSource;
+import ru.maga.urlshortener.util.TimeSource;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 
 /**
  * Main application entry point.
@@ -23,21 +47,118 @@ public class Application {
             AppConfig config = new AppConfig();
 
             // Initialize repositories
-            UserRepository userRepository = new UserRepository();
-            ShortUrlRepository shortUrlRepository = new ShortUrlRepository();
+            ConnectionPool connectionPool = config.isJdbcEnabled()
+                    ? new ConnectionPool(config.getJdbcUrl(), config.getJdbcUser(), config.getJdbcPassword(),
+                            config.getJdbcPoolSize())
+                    : null;
+            UserRepository userRepository;
+            ShortUrlRepository storage;
+            if (connectionPool != null) {
+                userRepository = new JdbcUserRepository(connectionPool);
+                storage = new JdbcShortUrlRepository(connectionPool,
+                        config.getJdbcCacheCapacity(), config.getJdbcFlushMillis(),
+                        config.getFilterExpectedLinks(), config.getFilterFalsePositiveRate());
+            } else {
+                userRepository = new InMemoryUserRepository();
+                int shardCount = config.getRepositoryShardCount();
+                int hotCapacityPerShard = Math.max(1, (config.getHotStorageCapacity() + shardCount - 1) / shardCount);
+                Path coldDirectory = Path.of(config.getColdStorageDirectory());
+                storage = new InMemoryShortUrlRepository(
+                        userRepository.getIdRegistry(),
+                        shardCount,
+                        shard -> config.isTieredStorageEnabled()
+                                ? new TieredLinkStore(hotCapacityPerShard, coldDirectory.resolve("shard-" + shard))
+                                : new HeapLinkStore(),
+                        config.getFilterExpectedLinks(),
+                        config.getFilterFalsePositiveRate()
+                );
+            }
+
+            // Set up replication
+            ReplicationLog replicationLog = "primary".equals(config.getReplicationRole())
+                    ? new ReplicationLog(config.getReplicationLogCapacity(), TimeSource.system())
+                    : null;
+            ReplicationServer replicationServer = replicationLog != null
+                    ? new ReplicationServer(config.getReplicationPort(), replicationLog, storage).start()
+                    : null;
+            ReplicaClient replica = "replica".equals(config.getReplicationRole())
+                    ? new ReplicaClient(new InetSocketAddress(config.getReplicationPrimaryHost(),
+                            config.getReplicationPrimaryPort()), storage).start()
+                    : null;
+            // Only the replica client changes a replica's links; the service can read them and count clicks
+            ShortUrlRepository replicated = replicationLog != null
+                    ? new ReplicatingShortUrlRepository(storage, replicationLog, config.getReplicationClickFlushMillis())
+                    : replica != null ? new ReadOnlyShortUrlRepository(storage) : storage;
+
+            // Join the cluster: this node stores its share of the codes and forwards calls for the others
+            ClusterNode clusterNode = config.isClusterEnabled()
+                    ? new ClusterNode(config.getClusterHost(), config.getClusterPort(), replicated,
+                            config.getClusterVirtualNodes())
+                    : null;
+            if (clusterNode != null && !config.getClusterMember().isEmpty()) {
+                clusterNode.join(config.getClusterMember());
+            }
+            ClusteredShortUrlRepository cluster = clusterNode != null
+                    ? new ClusteredShortUrlRepository(clusterNode)
+                    : null;
+            ShortUrlRepository shortUrlRepository = cluster != null ? cluster : replicated;
 
             // Initialize services
             UrlShortenerService urlShortenerService = new UrlShortenerService(config.getShortenerCodeLength());
-            NotificationService notificationService = new NotificationService(config.isNotificationEnabled());
-
-            LinkManagementService linkManagementService = new LinkManagementService(
-                    userRepository,
-                    shortUrlRepository,
-                    urlShortenerService,
-                    notificationService,
-                    config
+            NotificationService notificationService = new NotificationService(
+                    config.isNotificationEnabled(),
+                    new NotificationDeduplicator(
+                            config.getNotificationDedupCapacity(),
+                            config.getNotificationDedupWindowSeconds()
+                    )
             );
 
+            CachedTimeSource timeSource = new CachedTimeSource(config.getClockTickMillis());
+
+            MetricsRegistry metrics = new MetricsRegistry();
+            if (config.isJmxEnabled()) {
+                metrics.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+            }
+            if (replicationServer != null) {
+                metrics.gauge("replication.sequence", replicationLog::getLastSequence);
+                metrics.gauge("replication.replicas", replicationServer::getReplicaCount);
+            }
+            if (cluster != null) {
+                metrics.gauge("cluster.nodes", () -> clusterNode.getRing().getNodes().size());
+                metrics.gauge("cluster.rebalancing", () -> clusterNode.isRebalancing() ? 1 : 0);
+                metrics.gauge("cluster.links.moved", clusterNode::getMovedLinkCount);
+                metrics.gauge("cluster.links.handed.off", clusterNode::getHandedOffLinkCount);
+                metrics.gauge("cluster.forwarded", cluster::getForwardedCount);
+            }
+            if (replica != null) {
+                metrics.gauge("replication.lag.mutations", replica::getLagMutations);
+                metrics.gauge("replication.lag.millis", replica::getLagMillis);
+                metrics.gauge("replication.snapshots", replica::getSnapshotCount);
+            }
+
+            ClickJournal journal = config.isJournalEnabled()
+                    ? new ClickJournal(Path.of(config.getJournalDirectory()),
+                            config.getJournalSegmentMegabytes() * 1024L * 1024L)
+                    : null;
+            // The counter file is per process and would hold clicks on links other nodes own, so not in a cluster
+            ClickCounterFile clickCounters = config.isCountersEnabled() && cluster == null
+                    ? new ClickCounterFile(Path.of(config.getCountersFile()))
+                    : null;
+            LinkEventPublisher events = new LinkEventPublisher(config.getEventsBufferCapacity());
+
+            LinkManagementService linkManagementService = LinkManagementService.builder(
+                            userRepository,
+                            shortUrlRepository,
+                            urlShortenerService,
+                            notificationService,
+                            config)
+                    .timeSource(timeSource)
+                    .metrics(metrics)
+                    .journal(journal)
+                    .events(events)
+                    .clickCounters(clickCounters)
+                    .build();
+
             // Start cleanup scheduler
             CleanupScheduler cleanupScheduler = new CleanupScheduler(
                     linkManagementService,
@@ -49,6 +170,25 @@ public class Application {
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("Shutting down application");
                 cleanupScheduler.stop();
+                events.close();
+                if (replica != null) {
+                    replica.close();
+                }
+                if (replicationServer != null) {
+                    replicationServer.close();
+                }
+                shortUrlRepository.close();
+                userRepository.close();
+                if (connectionPool != null) {
+                    connectionPool.close();
+                }
+                if (journal != null) {
+                    journal.close();
+                }
+                if (clickCounters != null) {
+                    clickCounters.close();
+                }
+                timeSource.close();
             }));
 
             // Start CLI
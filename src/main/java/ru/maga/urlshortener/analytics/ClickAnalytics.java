@@ -0,0 +1,121 @@
+package ru.maga.urlshortener.analytics;
+
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point for click analytics fed from the redirect path.
+ * Recording a click does not allocate, except that a link's click history and unique-visitor sketch are
+ * allocated on its first click, so links that are never opened cost nothing. It does not lock either,
+ * except briefly when a visitor's click raises the link's visitor sketch.
+ */
+public class ClickAnalytics {
+    public static final int DEFAULT_VISITOR_PRECISION = 10;
+
+    private final HeavyHitters heavyHitters;
+    private final int visitorPrecision;
+    private final Map<String, LinkClickHistory> histories = new ConcurrentHashMap<>();
+    private final Map<String, HyperLogLog> visitors = new ConcurrentHashMap<>();
+
+    public ClickAnalytics(HeavyHitters heavyHitters) {
+        this(heavyHitters, DEFAULT_VISITOR_PRECISION);
+    }
+
+    /**
+     * @param visitorPrecision HyperLogLog precision of the per-link unique-visitor count
+     */
+    public ClickAnalytics(HeavyHitters heavyHitters, int visitorPrecision) {
+        if (visitorPrecision < HyperLogLog.MIN_PRECISION || visitorPrecision > HyperLogLog.MAX_PRECISION) {
+            throw new IllegalArgumentException("Visitor precision must be between " + HyperLogLog.MIN_PRECISION
+                    + " and " + HyperLogLog.MAX_PRECISION + ": " + visitorPrecision);
+        }
+        this.heavyHitters = heavyHitters;
+        this.visitorPrecision = visitorPrecision;
+    }
+
+    /**
+     * Records a successful redirect at the given time in epoch milliseconds.
+     *
+     * @param clientId who followed the link, or null if unknown; unknown clients are not counted as visitors
+     */
+    public void recordClick(String shortCode, UUID clientId, long nowMillis) {
+        heavyHitters.record(shortCode);
+        LinkClickHistory history = histories.get(shortCode);
+        if (history == null) {
+            history = histories.computeIfAbsent(shortCode, code -> new LinkClickHistory());
+        }
+        history.record(nowMillis);
+        if (clientId != null) {
+            HyperLogLog sketch = visitors.get(shortCode);
+            if (sketch == null) {
+                sketch = visitors.computeIfAbsent(shortCode, code -> new HyperLogLog(visitorPrecision));
+            }
+            sketch.add(clientId);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the links clicked most recently, hottest first.
+     */
+    public List<HeavyHitter> getTopLinks(int limit) {
+        return heavyHitters.top(limit);
+    }
+
+    /**
+     * Returns the clicks of a link per minute, hour and day up to the given time.
+     */
+    public ClickHistory getClickHistory(String shortCode, long nowMillis) {
+        LinkClickHistory history = histories.get(shortCode);
+        return history != null ? history.snapshot(nowMillis) : ClickHistory.empty(nowMillis);
+    }
+
+    /**
+     * Returns the estimated number of distinct clients that followed a link.
+     */
+    public long getUniqueVisitors(String shortCode) {
+        HyperLogLog sketch = visitors.get(shortCode);
+        return sketch != null ? sketch.estimate() : 0;
+    }
+
+    /**
+     * Drops the click history and visitor count of a link that was removed.
+     */
+    public void forget(String shortCode) {
+        histories.remove(shortCode);
+        visitors.remove(shortCode);
+    }
+
+    public HeavyHitters getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    /**
+     * Returns the heap held by the heavy-hitter tracking, which does not depend on the number of links.
+     */
+    public long getMemoryBytes() {
+        return heavyHitters.getMemoryBytes();
+    }
+
+    /**
+     * Returns the heap held by the click histories of links that have been clicked.
+     */
+    public long getHistoryMemoryBytes() {
+        int size = histories.size();
+        return MemoryLayout.concurrentHashMapBytes(size) + size * LinkClickHistory.memoryBytes();
+    }
+
+    /**
+     * Returns the heap held by the unique-visitor sketches; scans all of them.
+     */
+    public long getVisitorMemoryBytes() {
+        long bytes = MemoryLayout.concurrentHashMapBytes(visitors.size());
+        for (HyperLogLog sketch : visitors.values()) {
+            bytes += sketch.memoryBytes();
+        }
+        return bytes;
+    }
+}
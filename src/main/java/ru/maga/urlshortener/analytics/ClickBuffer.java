@@ -0,0 +1,81 @@
+package ru.maga.urlshortener.analytics;
+
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy multi-producer buffer of clicked short codes, striped by thread.
+ * Offering a code is one CAS on the stripe's own cache line and never blocks or allocates; if the stripe
+ * is full, or another thread wins the race for the slot, the click is dropped. Dropping is harmless for
+ * heavy-hitter tracking, since a hot link keeps showing up in the clicks that do get through.
+ * A single consumer at a time drains the buffer.
+ */
+class ClickBuffer {
+    private static final int STRIPE_SIZE = 64;
+    // Counters of different stripes are 16 longs (128 bytes) apart to avoid false sharing
+    private static final int PADDING = 16;
+
+    private final int stripeMask;
+    private final AtomicReferenceArray<String> slots;
+    private final AtomicLongArray tails;
+    private final AtomicLongArray heads;
+
+    ClickBuffer() {
+        int stripes = Math.min(64, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)));
+        this.stripeMask = stripes - 1;
+        this.slots = new AtomicReferenceArray<>(stripes * STRIPE_SIZE);
+        this.tails = new AtomicLongArray(stripes * PADDING);
+        this.heads = new AtomicLongArray(stripes * PADDING);
+    }
+
+    /**
+     * Adds the code unless its stripe is full; returns the number of codes now waiting in the stripe,
+     * or -1 if the code was dropped.
+     */
+    int offer(String shortCode) {
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        long tail = tails.get(stripe * PADDING);
+        long pending = tail - heads.get(stripe * PADDING);
+        if (pending >= STRIPE_SIZE || !tails.compareAndSet(stripe * PADDING, tail, tail + 1)) {
+            return -1;
+        }
+        slots.lazySet(stripe * STRIPE_SIZE + (int) (tail & (STRIPE_SIZE - 1)), shortCode);
+        return (int) pending + 1;
+    }
+
+    /**
+     * Passes every published code to the consumer; must not run concurrently with itself.
+     */
+    void drainTo(Consumer<String> consumer) {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            long head = heads.get(stripe * PADDING);
+            long tail = tails.get(stripe * PADDING);
+            while (head < tail) {
+                int index = stripe * STRIPE_SIZE + (int) (head & (STRIPE_SIZE - 1));
+                String shortCode = slots.get(index);
+                if (shortCode == null) {
+                    // Claimed but not yet written; pick it up on the next drain
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(shortCode);
+                head++;
+            }
+            heads.lazySet(stripe * PADDING, head);
+        }
+    }
+
+    /**
+     * Returns how many codes a stripe should hold before the producer asks for a drain.
+     */
+    static int drainThreshold() {
+        return STRIPE_SIZE / 2;
+    }
+
+    long memoryBytes() {
+        return MemoryLayout.referenceArrayBytes(slots.length()) + 2 * MemoryLayout.arrayBytes(tails.length(), Long.BYTES);
+    }
+}
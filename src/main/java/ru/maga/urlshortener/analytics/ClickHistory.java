@@ -0,0 +1,64 @@
+package ru.maga.urlshortener.analytics;
+
+/**
+ * Clicks of a link per minute over the last hour, per hour over the last day and per day over the
+ * last 30 days. Each series is ordered oldest first and ends with the bucket containing {@link #getAsOfMillis()};
+ * minutes, hours and days are counted in UTC.
+ */
+public class ClickHistory {
+    private final long asOfMillis;
+    private final long[] minutes;
+    private final long[] hours;
+    private final long[] days;
+
+    public ClickHistory(long asOfMillis, long[] minutes, long[] hours, long[] days) {
+        this.asOfMillis = asOfMillis;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.days = days;
+    }
+
+    /**
+     * Returns a history of a link that has not been clicked.
+     */
+    public static ClickHistory empty(long asOfMillis) {
+        return new ClickHistory(asOfMillis, new long[LinkClickHistory.MINUTES],
+                new long[LinkClickHistory.HOURS], new long[LinkClickHistory.DAYS]);
+    }
+
+    public long getAsOfMillis() {
+        return asOfMillis;
+    }
+
+    public long[] getMinutes() {
+        return minutes.clone();
+    }
+
+    public long[] getHours() {
+        return hours.clone();
+    }
+
+    public long[] getDays() {
+        return days.clone();
+    }
+
+    public long getLastHourTotal() {
+        return sum(minutes);
+    }
+
+    public long getLastDayTotal() {
+        return sum(hours);
+    }
+
+    public long getTotal() {
+        return sum(days);
+    }
+
+    private static long sum(long[] series) {
+        long total = 0;
+        for (long count : series) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.maga.urlshortener.analytics;
+
+/**
+ * Count-Min sketch of 4 rows of 32-bit counters with conservative update: an increment only raises
+ * the counters that hold the current minimum, which keeps overestimates from colliding keys low.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+class CountMinSketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final int[] table;
+    private final int width;
+    private final int widthMask;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    CountMinSketch(int width) {
+        this.width = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+        this.widthMask = this.width - 1;
+        this.table = new int[SEEDS.length * this.width];
+    }
+
+    /**
+     * Counts one occurrence and returns the new estimate.
+     */
+    int increment(int hashCode) {
+        int estimate = estimate(hashCode);
+        if (estimate == Integer.MAX_VALUE) {
+            return estimate;
+        }
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hashCode, row);
+            if (table[index] == estimate) {
+                table[index]++;
+            }
+        }
+        return estimate + 1;
+    }
+
+    int estimate(int hashCode) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, table[indexOf(hashCode, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter, so older occurrences weigh half as much as newer ones.
+     */
+    void halve() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+    }
+
+    long memoryBytes() {
+        return (long) table.length * Integer.BYTES;
+    }
+
+    private int indexOf(int hashCode, int row) {
+        long hash = (hashCode + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return row * width + ((int) hash & widthMask);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.maga.urlshortener.analytics;
+
+/**
+ * A hot link and its estimated number of recent clicks.
+ */
+public class HeavyHitter {
+    private final String shortCode;
+    private final long clicks;
+
+    public HeavyHitter(String shortCode, long clicks) {
+        this.shortCode = shortCode;
+        this.clicks = clicks;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    /**
+     * Returns the estimated clicks, with clicks older than one decay interval counted at half weight,
+     * older than two at a quarter and so on.
+     */
+    public long getClicks() {
+        return clicks;
+    }
+
+    @Override
+    public String toString() {
+        return shortCode + "=" + clicks;
+    }
+}
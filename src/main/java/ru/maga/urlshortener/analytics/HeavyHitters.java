@@ -0,0 +1,201 @@
+package ru.maga.urlshortener.analytics;
+
+import ru.maga.urlshortener.util.MemoryLayout;
+import ru.maga.urlshortener.util.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming top-K of the most clicked links in fixed memory.
+ * Clicks go into a lossy {@link ClickBuffer}; whichever thread finds its stripe half full drains the
+ * buffer into a {@link CountMinSketch} and a min-heap of the K codes with the highest estimates, unless
+ * another thread is already draining. Every decay interval all counts are halved, so the ranking
+ * follows what is hot now rather than since start; clicks still buffered when a decay is applied
+ * are counted at full weight.
+ */
+public class HeavyHitters implements HeavyHittersMXBean {
+    private static final int MAX_DECAYS = 32;
+
+    private final ClickBuffer buffer = new ClickBuffer();
+    private final CountMinSketch sketch;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final TimeSource timeSource;
+    private final long decayIntervalMillis;
+    private final LongAdder dropped = new LongAdder();
+
+    // Min-heap of the top codes by estimate, with each code's position in the heap
+    private final String[] heapCodes;
+    private final long[] heapCounts;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int heapSize;
+    private long lastDecayMillis;
+
+    /**
+     * @param capacity            number of hottest links to track
+     * @param sketchWidth         counters per sketch row; 4 rows of 4 bytes each
+     * @param decayIntervalMillis interval after which all counts are halved
+     */
+    public HeavyHitters(int capacity, int sketchWidth, long decayIntervalMillis, TimeSource timeSource) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (decayIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Decay interval must be positive: " + decayIntervalMillis);
+        }
+        this.sketch = new CountMinSketch(sketchWidth);
+        this.heapCodes = new String[capacity];
+        this.heapCounts = new long[capacity];
+        this.decayIntervalMillis = decayIntervalMillis;
+        this.timeSource = timeSource;
+        this.lastDecayMillis = timeSource.currentTimeMillis();
+    }
+
+    /**
+     * Records a click; never blocks and does not allocate.
+     */
+    public void record(String shortCode) {
+        int pending = buffer.offer(shortCode);
+        if (pending < 0) {
+            dropped.increment();
+        }
+        if ((pending < 0 || pending >= ClickBuffer.drainThreshold()) && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} hottest links, hottest first.
+     */
+    public List<HeavyHitter> top(int limit) {
+        List<HeavyHitter> top = new ArrayList<>(heapCodes.length);
+        drainLock.lock();
+        try {
+            drain();
+            for (int i = 0; i < heapSize; i++) {
+                top.add(new HeavyHitter(heapCodes[i], heapCounts[i]));
+            }
+        } finally {
+            drainLock.unlock();
+        }
+        top.sort(Comparator.comparingLong(HeavyHitter::getClicks).reversed()
+                .thenComparing(HeavyHitter::getShortCode));
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    @Override
+    public String[] getTopLinks() {
+        return top(heapCodes.length).stream().map(HeavyHitter::toString).toArray(String[]::new);
+    }
+
+    public int getCapacity() {
+        return heapCodes.length;
+    }
+
+    /**
+     * Returns the number of clicks not counted because the buffer was full.
+     */
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        return sketch.memoryBytes()
+                + buffer.memoryBytes()
+                + MemoryLayout.referenceArrayBytes(heapCodes.length)
+                + MemoryLayout.arrayBytes(heapCounts.length, Long.BYTES);
+    }
+
+    private void drain() {
+        decayIfDue();
+        buffer.drainTo(this::count);
+    }
+
+    private void decayIfDue() {
+        long now = timeSource.currentTimeMillis();
+        long intervals = (now - lastDecayMillis) / decayIntervalMillis;
+        if (intervals <= 0) {
+            return;
+        }
+        for (int i = 0; i < Math.min(intervals, MAX_DECAYS); i++) {
+            sketch.halve();
+        }
+        int shift = (int) Math.min(intervals, MAX_DECAYS);
+        for (int i = 0; i < heapSize; i++) {
+            heapCounts[i] >>>= shift;
+        }
+        lastDecayMillis += intervals * decayIntervalMillis;
+    }
+
+    private void count(String shortCode) {
+        long estimate = sketch.increment(shortCode.hashCode());
+        Integer position = positions.get(shortCode);
+        if (position != null) {
+            heapCounts[position] = estimate;
+            siftDown(position);
+        } else if (heapSize < heapCodes.length) {
+            heapCodes[heapSize] = shortCode;
+            heapCounts[heapSize] = estimate;
+            positions.put(shortCode, heapSize);
+            siftUp(heapSize++);
+        } else if (estimate > heapCounts[0]) {
+            positions.remove(heapCodes[0]);
+            heapCodes[0] = shortCode;
+            heapCounts[0] = estimate;
+            positions.put(shortCode, 0);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapCounts[parent] <= heapCounts[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && heapCounts[left] < heapCounts[smallest]) {
+                smallest = left;
+            }
+            if (right < heapSize && heapCounts[right] < heapCounts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String code = heapCodes[i];
+        long count = heapCounts[i];
+        heapCodes[i] = heapCodes[j];
+        heapCounts[i] = heapCounts[j];
+        heapCodes[j] = code;
+        heapCounts[j] = count;
+        positions.put(heapCodes[i], i);
+        positions.put(heapCodes[j], j);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.maga.urlshortener.analytics;
+
+/**
+ * JMX view of {@link HeavyHitters}.
+ */
+public interface HeavyHittersMXBean {
+
+    /**
+     * Returns the hottest links as {@code code=clicks}, hottest first.
+     */
+    String[] getTopLinks();
+
+    long getDroppedCount();
+
+    long getMemoryBytes();
+}
@@ -0,0 +1,206 @@
+package ru.maga.urlshortener.analytics;
+
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Approximate count of distinct visitors with a HyperLogLog sketch of 2^precision registers.
+ * A sketch starts sparse, as a sorted array of the non-zero registers packed as {@code index << 8 | rank},
+ * and switches to one byte per register once the sparse form would take as much memory; its size is
+ * therefore bounded by the dense array. The standard error is about {@code 1.04 / sqrt(2^precision)}.
+ * Sketches of the same precision can be merged, so counts kept per thread or per node can be combined.
+ * A visitor already seen costs one array read without locking; anything else takes the sketch's monitor.
+ */
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final int INITIAL_SPARSE_CAPACITY = 4;
+
+    private final int precision;
+    private int[] sparse = new int[INITIAL_SPARSE_CAPACITY];
+    private int sparseSize;
+    private volatile byte[] dense;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Records a visitor.
+     */
+    public void add(UUID visitor) {
+        addHash(hash(visitor.getMostSignificantBits(), visitor.getLeastSignificantBits()));
+    }
+
+    /**
+     * Records a visitor given as a 64-bit id.
+     */
+    public void add(long visitor) {
+        addHash(hash(visitor, 0));
+    }
+
+    /**
+     * Returns the estimated number of distinct visitors recorded.
+     */
+    public long estimate() {
+        byte[] registers = dense;
+        if (registers == null) {
+            synchronized (this) {
+                if (dense == null) {
+                    double sum = 0;
+                    for (int i = 0; i < sparseSize; i++) {
+                        sum += 1.0 / (1L << (sparse[i] & 0xFF));
+                    }
+                    int zeros = (1 << precision) - sparseSize;
+                    return estimate(sum + zeros, zeros);
+                }
+                registers = dense;
+            }
+        }
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        return estimate(sum, zeros);
+    }
+
+    /**
+     * Adds all visitors recorded in another sketch of the same precision to this one.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision
+                    + " into precision " + precision);
+        }
+        byte[] registers = other.toDense();
+        synchronized (this) {
+            for (int index = 0; index < registers.length; index++) {
+                if (registers[index] != 0) {
+                    update(index, registers[index]);
+                }
+            }
+        }
+    }
+
+    public synchronized long memoryBytes() {
+        byte[] registers = dense;
+        long arrays = registers != null
+                ? MemoryLayout.arrayBytes(registers.length, Byte.BYTES)
+                : MemoryLayout.arrayBytes(sparse.length, Integer.BYTES);
+        return MemoryLayout.objectBytes(2 * Integer.BYTES, 2) + arrays;
+    }
+
+    boolean isSparse() {
+        return dense == null;
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // The remaining bits, with a stop bit so the rank never exceeds what they can show
+        int rank = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        byte[] registers = dense;
+        if (registers != null && registers[index] >= rank) {
+            return;
+        }
+        synchronized (this) {
+            update(index, (byte) rank);
+        }
+    }
+
+    private void update(int index, byte rank) {
+        byte[] registers = dense;
+        if (registers != null) {
+            if (registers[index] < rank) {
+                registers[index] = rank;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(sparse, 0, sparseSize, index << 8);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position < sparseSize && sparse[position] >>> 8 == index) {
+            if ((sparse[position] & 0xFF) < rank) {
+                sparse[position] = index << 8 | rank;
+            }
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            if ((long) sparse.length * 2 * Integer.BYTES >= 1L << precision) {
+                toDenseLocked()[index] = rank;
+                return;
+            }
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = index << 8 | rank;
+        sparseSize++;
+    }
+
+    /**
+     * Returns a copy of the registers, one byte each.
+     */
+    private synchronized byte[] toDense() {
+        byte[] registers = dense;
+        if (registers != null) {
+            return registers.clone();
+        }
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        return registers;
+    }
+
+    private byte[] toDenseLocked() {
+        byte[] registers = toDense();
+        dense = registers;
+        sparse = null;
+        sparseSize = 0;
+        return registers;
+    }
+
+    private long estimate(double sum, int zeros) {
+        int registerCount = 1 << precision;
+        double estimate = alpha(registerCount) * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static long hash(long high, long low) {
+        return mix(high ^ mix(low + 0x9E3779B97F4A7C15L));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static double alpha(int registerCount) {
+        return switch (registerCount) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / registerCount);
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package ru.maga.urlshortener.analytics;
+
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Clicks of one link in three rings of time buckets: the last 60 minutes, 24 hours and 30 days.
+ * Each slot packs the bucket's number since the epoch in the high 32 bits and its click count in the low 32,
+ * so counting a click is one compare-and-set on the current minute's slot.
+ * When a slot is reused for a newer bucket, the old count is rolled up into the next coarser ring;
+ * every click is therefore held in exactly one slot, and older clicks are dropped only when they fall
+ * out of the day ring.
+ */
+class LinkClickHistory {
+    static final int MINUTES = 60;
+    static final int HOURS = 24;
+    static final int DAYS = 30;
+
+    private static final int HOUR_OFFSET = MINUTES;
+    private static final int DAY_OFFSET = MINUTES + HOURS;
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private final AtomicLongArray slots = new AtomicLongArray(MINUTES + HOURS + DAYS);
+
+    /**
+     * Counts a click at the given time in epoch milliseconds.
+     */
+    void record(long nowMillis) {
+        long minute = nowMillis / MILLIS_PER_MINUTE;
+        int index = (int) (minute % MINUTES);
+        while (true) {
+            long slot = slots.get(index);
+            long bucket = slot >>> 32;
+            if (bucket >= minute) {
+                // A click racing with a newer one is counted in the newer minute
+                if (slots.compareAndSet(index, slot, slot + 1)) {
+                    return;
+                }
+            } else if (slots.compareAndSet(index, slot, pack(minute, 1))) {
+                addToHour(bucket / 60, slot & COUNT_MASK);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the clicks per minute, hour and day up to the given time.
+     */
+    ClickHistory snapshot(long nowMillis) {
+        long nowMinute = nowMillis / MILLIS_PER_MINUTE;
+        long nowHour = nowMinute / 60;
+        long nowDay = nowHour / 24;
+        long[] minutes = new long[MINUTES];
+        long[] hours = new long[HOURS];
+        long[] days = new long[DAYS];
+        for (int i = 0; i < MINUTES; i++) {
+            long slot = slots.get(i);
+            long minute = slot >>> 32;
+            long count = slot & COUNT_MASK;
+            add(minutes, nowMinute - minute, count);
+            add(hours, nowHour - minute / 60, count);
+            add(days, nowDay - minute / (60 * 24), count);
+        }
+        for (int i = 0; i < HOURS; i++) {
+            long slot = slots.get(HOUR_OFFSET + i);
+            long hour = slot >>> 32;
+            long count = slot & COUNT_MASK;
+            add(hours, nowHour - hour, count);
+            add(days, nowDay - hour / 24, count);
+        }
+        for (int i = 0; i < DAYS; i++) {
+            long slot = slots.get(DAY_OFFSET + i);
+            add(days, nowDay - (slot >>> 32), slot & COUNT_MASK);
+        }
+        return new ClickHistory(nowMillis, minutes, hours, days);
+    }
+
+    static long memoryBytes() {
+        return MemoryLayout.objectBytes(0, 1)
+                + MemoryLayout.objectBytes(0, 1)
+                + MemoryLayout.arrayBytes(MINUTES + HOURS + DAYS, Long.BYTES);
+    }
+
+    private void addToHour(long hour, long count) {
+        if (count == 0) {
+            return;
+        }
+        int index = HOUR_OFFSET + (int) (hour % HOURS);
+        while (true) {
+            long slot = slots.get(index);
+            long bucket = slot >>> 32;
+            if (bucket == hour) {
+                if (slots.compareAndSet(index, slot, slot + count)) {
+                    return;
+                }
+            } else if (bucket > hour) {
+                // The slot already moved past this hour, which is older than the whole ring
+                addToDay(hour / 24, count);
+                return;
+            } else if (slots.compareAndSet(index, slot, pack(hour, count))) {
+                addToDay(bucket / 24, slot & COUNT_MASK);
+                return;
+            }
+        }
+    }
+
+    private void addToDay(long day, long count) {
+        if (count == 0) {
+            return;
+        }
+        int index = DAY_OFFSET + (int) (day % DAYS);
+        while (true) {
+            long slot = slots.get(index);
+            long bucket = slot >>> 32;
+            if (bucket > day) {
+                return;
+            }
+            long updated = bucket == day ? slot + count : pack(day, count);
+            if (slots.compareAndSet(index, slot, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static void add(long[] series, long age, long count) {
+        if (age >= 0 && age < series.length) {
+            series[series.length - 1 - (int) age] += count;
+        }
+    }
+
+    private static long pack(long bucket, long count) {
+        return bucket << 32 | count;
+    }
+}
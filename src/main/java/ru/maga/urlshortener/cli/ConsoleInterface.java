@@ -2,8 +2,14 @@ package ru.maga.urlshortener.cli;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.analytics.ClickHistory;
+import ru.maga.urlshortener.analytics.HeavyHitter;
 import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ResolvedLink;
 import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.journal.ClickQuery;
+import ru.maga.urlshortener.journal.ClickReport;
 import ru.maga.urlshortener.service.LinkManagementService;
 
 import java.awt.*;
@@ -26,6 +32,11 @@ public class ConsoleInterface {
     private static final Logger logger = LoggerFactory.getLogger(ConsoleInterface.class);
     private static final DateTimeFormatter DATE_FORMATTER =
             DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DAY_FORMATTER =
+            DateTimeFormatter.ofPattern("dd.MM").withZone(ZoneId.systemDefault());
+    private static final long MILLIS_PER_MINUTE = 60_000L;
 
     private final LinkManagementService linkService;
     private final AppConfig config;
@@ -114,7 +125,9 @@ public class ConsoleInterface {
                 case "info" -> handleInfo(parts);
                 case "update" -> handleUpdate(parts);
                 case "delete" -> handleDelete(parts);
-                case "stats" -> handleStats();
+                case "stats" -> handleStats(parts);
+                case "top" -> handleTop(parts);
+                case "journal" -> handleJournal(parts);
                 case "uuid" -> printCurrentUuid();
                 case "cleanup" -> handleCleanup();
                 case "exit", "quit" -> handleExit();
@@ -124,6 +137,8 @@ public class ConsoleInterface {
             System.out.println("❌ Ошибка: " + e.getMessage());
         } catch (SecurityException e) {
             System.out.println("🔒 Ошибка доступа: " + e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            System.out.println("❌ Ошибка: " + e.getMessage());
         } catch (Exception e) {
             logger.error("Error processing command", e);
             System.out.println("❌ Произошла ошибка при выполнении команды");
@@ -146,7 +161,11 @@ public class ConsoleInterface {
         System.out.println("                          Пример: update aB3Xy9 200");
         System.out.println("\n  delete <код>          - Удалить ссылку (только владелец)");
         System.out.println("                          Пример: delete aB3Xy9");
-        System.out.println("\n  stats                 - Показать статистику системы");
+        System.out.println("\n  stats [--detailed]    - Показать статистику системы");
+        System.out.println("                          --detailed: счётчики и задержки операций (p50/p99/p999)");
+        System.out.println("  stats --memory [N]    - Оценка памяти по структурам и прогноз кучи для N ссылок");
+        System.out.println("  top [N]               - Показать N самых популярных ссылок за последнее время (по умолчанию 10)");
+        System.out.println("  journal [часов] [код] - Отчёт по журналу переходов за последние N часов (по умолчанию 24)");
         System.out.println("  uuid                  - Показать ваш UUID");
         System.out.println("  cleanup               - Запустить очистку истекших ссылок");
         System.out.println("  help                  - Показать эту справку");
@@ -187,22 +206,23 @@ public class ConsoleInterface {
         }
 
         String shortCode = parts[1];
-        Optional<String> originalUrl = linkService.processClick(shortCode);
+        ResolvedLink resolved = new ResolvedLink();
+        LinkStatus status = linkService.resolve(shortCode, currentUserId, resolved);
 
-        if (originalUrl.isEmpty()) {
+        if (status != LinkStatus.ACTIVE) {
             System.out.println("❌ Ссылка недоступна или не найдена");
-            linkService.getShortUrlInfo(shortCode).ifPresent(url -> {
-                if (url.isExpired()) {
-                    System.out.println("⏰ Причина: истёк срок действия");
-                } else if (url.hasReachedClickLimit()) {
-                    System.out.println("🚫 Причина: исчерпан лимит переходов");
+            switch (status) {
+                case EXPIRED -> System.out.println("⏰ Причина: истёк срок действия");
+                case LIMIT_REACHED -> System.out.println("🚫 Причина: исчерпан лимит переходов");
+                case DELETED -> System.out.println("🗑  Причина: ссылка удалена владельцем");
+                default -> {
                 }
-            });
+            }
             return;
         }
 
-        System.out.println("🌐 Открываю URL: " + originalUrl.get());
-        openUrlInBrowser(originalUrl.get());
+        System.out.println("🌐 Открываю URL: " + resolved.getOriginalUrl());
+        openUrlInBrowser(resolved.getOriginalUrl());
     }
 
     private void handleList() {
@@ -238,7 +258,12 @@ public class ConsoleInterface {
         Optional<ShortUrl> shortUrlOpt = linkService.getShortUrlInfo(shortCode);
 
         if (shortUrlOpt.isEmpty()) {
-            System.out.println("❌ Ссылка не найдена");
+            LinkStatus status = linkService.getLinkStatus(shortCode);
+            switch (status) {
+                case EXPIRED -> System.out.println("⏰ Срок действия ссылки истёк, ссылка удалена");
+                case DELETED -> System.out.println("🗑  Ссылка удалена владельцем");
+                default -> System.out.println("❌ Ссылка не найдена");
+            }
             return;
         }
 
@@ -254,6 +279,41 @@ public class ConsoleInterface {
         System.out.println("🔢 Переходов: " + shortUrl.getClickCount() + "/" + formatLimit(shortUrl.getClickLimit()));
         System.out.println("📊 Статус: " + (shortUrl.isAccessible() ? "✅ Активна" :
                 (shortUrl.isExpired() ? "⏰ Истекла" : "🚫 Лимит исчерпан")));
+
+        if (shortUrl.isOwnedBy(currentUserId)) {
+            System.out.println("👥 Уникальных посетителей: ~" + linkService.getUniqueVisitors(shortCode, currentUserId));
+            printClickHistory(linkService.getClickHistory(shortCode, currentUserId));
+        }
+    }
+
+    private void printClickHistory(ClickHistory history) {
+        System.out.printf("📈 Переходы за час: %d, за сутки: %d, за 30 дней: %d%n",
+                history.getLastHourTotal(), history.getLastDayTotal(), history.getTotal());
+        printSeries("По минутам", history.getMinutes(), MILLIS_PER_MINUTE, history.getAsOfMillis(), TIME_FORMATTER);
+        printSeries("По часам", history.getHours(), 60 * MILLIS_PER_MINUTE, history.getAsOfMillis(), TIME_FORMATTER);
+        printSeries("По дням", history.getDays(), 24 * 60 * MILLIS_PER_MINUTE, history.getAsOfMillis(), DAY_FORMATTER);
+    }
+
+    /**
+     * Prints the non-empty buckets of a series that ends with the bucket containing {@code asOfMillis}.
+     */
+    private void printSeries(String label, long[] series, long bucketMillis, long asOfMillis,
+                             DateTimeFormatter formatter) {
+        long lastBucketStart = asOfMillis - asOfMillis % bucketMillis;
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < series.length; i++) {
+            if (series[i] == 0) {
+                continue;
+            }
+            long bucketStart = lastBucketStart - (series.length - 1 - i) * bucketMillis;
+            if (line.length() > 0) {
+                line.append(", ");
+            }
+            line.append(formatter.format(Instant.ofEpochMilli(bucketStart))).append(" — ").append(series[i]);
+        }
+        if (line.length() > 0) {
+            System.out.println("   " + label + ": " + line);
+        }
     }
 
     private void handleUpdate(String[] parts) throws IOException {
@@ -286,13 +346,100 @@ public class ConsoleInterface {
         System.out.println("✅ Ссылка успешно удалена");
     }
 
-    private void handleStats() {
+    private void handleStats(String[] parts) {
         System.out.println("\n📊 Статистика системы:");
         System.out.println("─".repeat(40));
         System.out.println(linkService.getStatistics());
+        System.out.println(linkService.getFilterStatistics());
         System.out.println("⚙️  TTL по умолчанию: " + config.getLinkTtlSeconds() + "с (" +
                 (config.getLinkTtlSeconds() / 3600) + "ч)");
         System.out.println("🔢 Лимит по умолчанию: " + formatLimit(config.getDefaultClickLimit()));
+        String[] options = parts.length > 1 ? parts[1].trim().split("\\s+") : new String[0];
+        if (options.length > 0 && options[0].equals("--detailed")) {
+            System.out.println("\n📈 Метрики:");
+            System.out.println("─".repeat(40));
+            System.out.println(linkService.getDetailedStatistics());
+        } else if (options.length > 0 && options[0].equals("--memory")) {
+            long targetLinks = config.getFilterExpectedLinks();
+            if (options.length > 1) {
+                try {
+                    targetLinks = Long.parseLong(options[1]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Число ссылок должно быть целым: " + options[1]);
+                }
+            }
+            System.out.println("\n🧠 Память:");
+            System.out.println("─".repeat(40));
+            System.out.println(linkService.getMemoryStatistics(targetLinks));
+        }
+    }
+
+    private void handleTop(String[] parts) {
+        int limit = 10;
+        if (parts.length > 1) {
+            try {
+                limit = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Количество должно быть целым числом: " + parts[1].trim());
+            }
+        }
+        List<HeavyHitter> top = linkService.getTopLinks(limit);
+        if (top.isEmpty()) {
+            System.out.println("\n🔥 Переходов пока не было");
+            return;
+        }
+        System.out.println("\n🔥 Самые популярные ссылки (оценка недавних переходов):");
+        System.out.println("─".repeat(40));
+        for (int i = 0; i < top.size(); i++) {
+            HeavyHitter hitter = top.get(i);
+            System.out.printf("%2d. %s/%s — ~%d%n", i + 1, config.getShortenerDomain(),
+                    hitter.getShortCode(), hitter.getClicks());
+        }
+    }
+
+    private void handleJournal(String[] parts) {
+        if (!linkService.isJournalEnabled()) {
+            System.out.println("❌ Журнал переходов отключён (journal.enabled=false)");
+            return;
+        }
+        String[] args = parts.length > 1 ? parts[1].trim().split("\\s+") : new String[0];
+        int hours = 24;
+        if (args.length > 0) {
+            try {
+                hours = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Количество часов должно быть целым числом: " + args[0]);
+            }
+            if (hours <= 0) {
+                throw new IllegalArgumentException("Количество часов должно быть положительным: " + hours);
+            }
+        }
+        String shortCode = args.length > 1 ? args[1] : null;
+        long now = System.currentTimeMillis();
+        ClickReport report = linkService.queryClickJournal(
+                new ClickQuery(now - hours * 3_600_000L, now + 1, shortCode));
+
+        System.out.println("\n🧾 Журнал переходов за " + hours + " ч" + (shortCode != null ? " по " + shortCode : "") + ":");
+        System.out.println("─".repeat(40));
+        System.out.println("Событий: " + report.getEventCount());
+        report.getOutcomes().forEach((status, count) -> {
+            if (count > 0) {
+                System.out.printf("  %-14s %d%n", status, count);
+            }
+        });
+        if (shortCode != null) {
+            report.getHourlyClicks(shortCode).forEach((hour, clicks) ->
+                    System.out.println("  " + DATE_FORMATTER.format(hour) + " — " + clicks));
+        } else {
+            System.out.println("Самые посещаемые ссылки:");
+            report.getTopLinks(10).forEach((code, clicks) ->
+                    System.out.println("  " + config.getShortenerDomain() + "/" + code + " — " + clicks));
+        }
+        System.out.println("Самые активные пользователи:");
+        report.getTopClients(5).forEach((client, clicks) -> System.out.println("  " + client + " — " + clicks));
+        System.out.printf("Просканировано %,d МБ в %d сегментах (пропущено %d) за %d мс: %.2f ГБ/с%n",
+                report.getScannedBytes() / (1024 * 1024), report.getSegmentsScanned(), report.getSegmentsSkipped(),
+                report.getElapsedNanos() / 1_000_000, report.getGigabytesPerSecond());
     }
 
     private void printCurrentUuid() {
@@ -0,0 +1,651 @@
+package ru.maga.urlshortener.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.replication.ReplicationProtocol;
+import ru.maga.urlshortener.repository.RepositoryException;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One node of a cluster that splits the short codes between nodes with a {@link HashRing}. The node keeps
+ * the links it owns in a repository of its own and serves other nodes' requests for them over TCP;
+ * {@link ClusteredShortUrlRepository} sends every call to the owning node.
+ * <p>
+ * A new node joins through any member, which adds it to the ring, sends the new ring to every node and then
+ * has each of the old nodes stream the links and tombstones it no longer owns to their new owners, in
+ * batches, from a thread of its own, so dead codes stay dead on their new owner. A node that is asked for a code it has just taken over but does not hold yet takes the
+ * link over from the previous owner on the spot, so links stay reachable while they move. Once every old
+ * node has reported that it is done, the previous ring is forgotten. A node still rebalancing turns joins
+ * away, so nodes join one at a time; two nodes joining through different members at once are not supported.
+ */
+public final class ClusterNode implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterNode.class);
+    private static final int TRANSFER_BATCH_SIZE = 512;
+    private static final long REBALANCE_RETRY_MILLIS = 1000;
+    private static final long JOIN_RETRY_MILLIS = 200;
+    private static final int JOIN_ATTEMPTS = 150;
+    private static final LinkStatus[] STATUSES = LinkStatus.values();
+
+    private final String name;
+    private final ShortUrlRepository local;
+    private final ServerSocket serverSocket;
+    private final Map<String, PeerClient> peers = new ConcurrentHashMap<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionThreads = new AtomicInteger();
+    private final ScheduledExecutorService rebalancer;
+    private final Object membership = new Object();
+    private final Object handoffs = new Object();
+    private final Map<String, CompletableFuture<ShortUrl>> pendingHandoffs = new ConcurrentHashMap<>();
+    private final Set<String> rebalancingNodes = new HashSet<>();
+    private final LongAdder movedLinks = new LongAdder();
+    private final LongAdder handedOffLinks = new LongAdder();
+    private volatile HashRing ring;
+    private volatile HashRing previousRing;
+    private volatile boolean closed;
+
+    /**
+     * Starts listening; port 0 picks a free port. The node is named {@code host:port}, so the host must be
+     * the one other nodes reach it by.
+     *
+     * @param local        repository for the links this node owns
+     * @param virtualNodes points per node on the ring; a node that joins a cluster takes the cluster's value
+     */
+    public ClusterNode(String host, int port, ShortUrlRepository local, int virtualNodes) {
+        this.local = local;
+        try {
+            this.serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for cluster nodes on " + host + ":" + port, e);
+        }
+        this.name = host + ":" + serverSocket.getLocalPort();
+        this.ring = HashRing.of(name, virtualNodes);
+        this.rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cluster-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread acceptor = new Thread(this::acceptLoop, "cluster-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Cluster node {} listening", name);
+    }
+
+    public static ClusterNode onLoopback(ShortUrlRepository local) {
+        return new ClusterNode(InetAddress.getLoopbackAddress().getHostAddress(), 0, local,
+                HashRing.DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Joins the cluster of the given member, {@code host:port}, and returns once this node is on the ring;
+     * links move to it in the background. Waits while the member is still rebalancing after an earlier join.
+     */
+    public void join(String member) {
+        if (ring.getNodes().size() > 1) {
+            throw new IllegalStateException("Node " + name + " is already in a cluster");
+        }
+        PeerClient client = peer(member);
+        for (int attempt = 1; ; attempt++) {
+            boolean accepted = client.call(ClusterProtocol.JOIN, out -> out.writeUTF(name),
+                    DataInputStream::readBoolean);
+            if (accepted) {
+                break;
+            }
+            if (attempt == JOIN_ATTEMPTS) {
+                throw new RepositoryException("Node " + member + " is still rebalancing");
+            }
+            try {
+                Thread.sleep(JOIN_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RepositoryException("Interrupted while joining " + member, e);
+            }
+        }
+        logger.info("Node {} joined the cluster {}", name, ring.getNodes());
+    }
+
+    /**
+     * Returns the name other nodes know this node by, {@code host:port}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public HashRing getRing() {
+        return ring;
+    }
+
+    public ShortUrlRepository getLocal() {
+        return local;
+    }
+
+    /**
+     * Returns true from a change of the ring until every node that was on the ring before has moved away
+     * the links it no longer owns.
+     */
+    public boolean isRebalancing() {
+        return previousRing != null;
+    }
+
+    /**
+     * Returns how many links this node has streamed to other nodes.
+     */
+    public long getMovedLinkCount() {
+        return movedLinks.sum();
+    }
+
+    /**
+     * Returns how many links this node took over on demand before the rebalance brought them.
+     */
+    public long getHandedOffLinkCount() {
+        return handedOffLinks.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close cluster listener", e);
+        }
+        for (Socket connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                logger.debug("Cannot close cluster connection", e);
+            }
+        }
+        rebalancer.shutdownNow();
+        peers.values().forEach(PeerClient::close);
+    }
+
+    boolean owns(String shortCode) {
+        return ring.ownerOf(shortCode).equals(name);
+    }
+
+    PeerClient peer(String node) {
+        return peers.computeIfAbsent(node, PeerClient::new);
+    }
+
+    /**
+     * Returns this node's link for a code it owns, first taking it over from the previous owner if the ring
+     * changed and the rebalance has not brought it yet. Only lookups of the same code wait for each other's
+     * handoff; the round trip to the previous owner is made without holding a node-wide lock.
+     */
+    ShortUrl lookup(String shortCode) {
+        ShortUrl link = local.getByShortCode(shortCode);
+        HashRing previous = previousRing;
+        if (link != null || previous == null) {
+            return link;
+        }
+        String previousOwner = previous.ownerOf(shortCode);
+        if (previousOwner.equals(name)) {
+            return null;
+        }
+        CompletableFuture<ShortUrl> handoff = new CompletableFuture<>();
+        CompletableFuture<ShortUrl> pending = pendingHandoffs.putIfAbsent(shortCode, handoff);
+        if (pending != null) {
+            // Another lookup is taking this code over already; the previous owner gives the link up only once
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            link = takeOver(shortCode, previousOwner);
+            handoff.complete(link);
+            return link;
+        } catch (RuntimeException e) {
+            handoff.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingHandoffs.remove(shortCode, handoff);
+        }
+    }
+
+    private ShortUrl takeOver(String shortCode, String previousOwner) {
+        ShortUrl link = local.getByShortCode(shortCode);
+        if (link != null) {
+            return link;
+        }
+        ShortUrl handedOff = peer(previousOwner).call(ClusterProtocol.HANDOFF,
+                out -> out.writeUTF(shortCode), ClusterProtocol::readOptionalLink);
+        synchronized (handoffs) {
+            link = local.getByShortCode(shortCode);
+            if (link != null || handedOff == null) {
+                // Brought here by the rebalance meanwhile, or never existed
+                return link;
+            }
+            local.save(handedOff);
+        }
+        handedOffLinks.increment();
+        return handedOff;
+    }
+
+    /**
+     * Returns the tombstone of a code this node owns; while rebalancing, the previous owner may not have
+     * moved the tombstones of the codes that moved yet, and is asked if this node has none.
+     */
+    Optional<LinkStatus> findTombstone(String shortCode, boolean askPrevious) {
+        Optional<LinkStatus> reason = local.findTombstone(shortCode);
+        HashRing previous = previousRing;
+        if (reason.isPresent() || !askPrevious || previous == null) {
+            return reason;
+        }
+        String previousOwner = previous.ownerOf(shortCode);
+        if (previousOwner.equals(name)) {
+            return reason;
+        }
+        int ordinal = peer(previousOwner).call(ClusterProtocol.TOMBSTONE, out -> {
+            out.writeUTF(shortCode);
+            out.writeBoolean(false);
+        }, DataInputStream::readByte);
+        return ordinal < 0 ? Optional.empty() : Optional.of(STATUSES[ordinal]);
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> serve(socket),
+                        "cluster-connection-" + connectionThreads.incrementAndGet());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Cannot accept cluster connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        connections.add(socket);
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (in.readInt() != ClusterProtocol.MAGIC) {
+                logger.warn("Rejected connection from {}: not a cluster node", socket.getRemoteSocketAddress());
+                return;
+            }
+            while (!closed) {
+                byte operation;
+                try {
+                    operation = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    handle(operation, in, out);
+                } catch (RuntimeException e) {
+                    logger.warn("Cluster request {} failed", (char) operation, e);
+                    out.writeByte(ClusterProtocol.ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.debug("Cluster connection from {} closed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Reads the arguments, acts, and only then writes {@link ClusterProtocol#OK} and the result, so a failure
+     * can still be answered with an error.
+     */
+    private void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (operation) {
+            case ClusterProtocol.GET -> {
+                ShortUrl link = lookup(in.readUTF());
+                out.writeByte(ClusterProtocol.OK);
+                ClusterProtocol.writeOptionalLink(out, link);
+            }
+            case ClusterProtocol.EXISTS -> {
+                boolean exists = lookup(in.readUTF()) != null;
+                out.writeByte(ClusterProtocol.OK);
+                out.writeBoolean(exists);
+            }
+            case ClusterProtocol.SAVE -> {
+                local.save(ReplicationProtocol.readLink(in));
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.SAVE_ALL -> {
+                local.saveAll(ClusterProtocol.readLinks(in));
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.TRANSFER -> {
+                accept(ClusterProtocol.readLinks(in));
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.TRANSFER_TOMBSTONES -> {
+                acceptTombstones(ClusterProtocol.readTombstones(in));
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.HANDOFF -> {
+                ShortUrl link = handOff(in.readUTF());
+                out.writeByte(ClusterProtocol.OK);
+                ClusterProtocol.writeOptionalLink(out, link);
+            }
+            case ClusterProtocol.CLICK -> {
+                boolean counted = click(in.readUTF());
+                out.writeByte(ClusterProtocol.OK);
+                out.writeBoolean(counted);
+            }
+            case ClusterProtocol.LIMIT -> {
+                String shortCode = in.readUTF();
+                int clickLimit = in.readInt();
+                boolean updated = setClickLimit(shortCode, clickLimit);
+                out.writeByte(ClusterProtocol.OK);
+                out.writeBoolean(updated);
+            }
+            case ClusterProtocol.BURY -> {
+                String shortCode = in.readUTF();
+                LinkStatus reason = STATUSES[in.readUnsignedByte()];
+                long atMillis = in.readLong();
+                boolean buried = lookup(shortCode) != null && local.bury(shortCode, reason, atMillis);
+                out.writeByte(ClusterProtocol.OK);
+                out.writeBoolean(buried);
+            }
+            case ClusterProtocol.DELETE -> {
+                String shortCode = in.readUTF();
+                if (lookup(shortCode) != null) {
+                    local.delete(shortCode);
+                }
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.TOMBSTONE -> {
+                String shortCode = in.readUTF();
+                Optional<LinkStatus> reason = findTombstone(shortCode, in.readBoolean());
+                out.writeByte(ClusterProtocol.OK);
+                out.writeByte(reason.map(Enum::ordinal).orElse(-1));
+            }
+            case ClusterProtocol.BY_OWNER -> {
+                List<ShortUrl> links = local.findByOwnerId(new UUID(in.readLong(), in.readLong()));
+                out.writeByte(ClusterProtocol.OK);
+                ClusterProtocol.writeLinks(out, links);
+            }
+            case ClusterProtocol.ALL -> {
+                List<ShortUrl> links = local.findAll();
+                out.writeByte(ClusterProtocol.OK);
+                ClusterProtocol.writeLinks(out, links);
+            }
+            case ClusterProtocol.COUNT -> {
+                int links = local.count();
+                int tombstones = local.tombstoneCount();
+                out.writeByte(ClusterProtocol.OK);
+                out.writeInt(links);
+                out.writeInt(tombstones);
+            }
+            case ClusterProtocol.JOIN -> {
+                boolean accepted = admit(in.readUTF());
+                out.writeByte(ClusterProtocol.OK);
+                out.writeBoolean(accepted);
+            }
+            case ClusterProtocol.RING -> {
+                long version = in.readLong();
+                int virtualNodes = in.readInt();
+                List<String> nodes = ClusterProtocol.readNodes(in);
+                install(version, virtualNodes, nodes, in.readUTF());
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.REBALANCE -> {
+                long version = in.readLong();
+                rebalancer.execute(() -> rebalance(version));
+                out.writeByte(ClusterProtocol.OK);
+            }
+            case ClusterProtocol.DONE -> {
+                long version = in.readLong();
+                finished(version, in.readUTF());
+                out.writeByte(ClusterProtocol.OK);
+            }
+            default -> throw new IOException("Unknown cluster operation: " + operation);
+        }
+    }
+
+    private boolean click(String shortCode) {
+        ShortUrl link = lookup(shortCode);
+        return link != null && local.tryClick(link);
+    }
+
+    private boolean setClickLimit(String shortCode, int clickLimit) {
+        ShortUrl link = lookup(shortCode);
+        if (link == null) {
+            return false;
+        }
+        link.setClickLimit(clickLimit);
+        local.update(link);
+        return true;
+    }
+
+    /**
+     * Gives up a link this node no longer owns to its new owner, which asked for it ahead of the rebalance.
+     */
+    private ShortUrl handOff(String shortCode) {
+        ShortUrl link = local.getByShortCode(shortCode);
+        if (link == null || owns(shortCode)) {
+            return null;
+        }
+        local.delete(shortCode);
+        return link;
+    }
+
+    /**
+     * Saves links moved here by a rebalance, except ones already handed off or removed since.
+     */
+    private void accept(List<ShortUrl> links) {
+        synchronized (handoffs) {
+            for (ShortUrl link : links) {
+                String shortCode = link.getShortCode();
+                if (local.getByShortCode(shortCode) == null && !local.isTombstoned(shortCode)) {
+                    local.save(link);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records tombstones moved here by a rebalance, except for codes that have a link or tombstone here.
+     */
+    private void acceptTombstones(List<ClusterProtocol.Tombstone> tombstones) {
+        synchronized (handoffs) {
+            for (ClusterProtocol.Tombstone tombstone : tombstones) {
+                local.restoreTombstone(tombstone.shortCode(), tombstone.reason(), tombstone.atMillis());
+            }
+        }
+    }
+
+    /**
+     * Adds a joining node: every node gets the new ring first, and only then do the old nodes start moving
+     * links, so no node hears that another is done before it has the ring.
+     */
+    private boolean admit(String joining) {
+        synchronized (membership) {
+            HashRing current = ring;
+            if (current.contains(joining)) {
+                return true;
+            }
+            if (isRebalancing()) {
+                return false;
+            }
+            HashRing next = current.withNode(joining);
+            for (String node : next.getNodes()) {
+                if (node.equals(name)) {
+                    install(next.getVersion(), next.getVirtualNodes(), next.getNodes(), joining);
+                } else {
+                    peer(node).call(ClusterProtocol.RING, out -> {
+                        out.writeLong(next.getVersion());
+                        out.writeInt(next.getVirtualNodes());
+                        ClusterProtocol.writeNodes(out, next.getNodes());
+                        out.writeUTF(joining);
+                    });
+                }
+            }
+            for (String node : current.getNodes()) {
+                if (node.equals(name)) {
+                    rebalancer.execute(() -> rebalance(next.getVersion()));
+                } else {
+                    peer(node).call(ClusterProtocol.REBALANCE, out -> out.writeLong(next.getVersion()));
+                }
+            }
+            logger.info("Node {} added to the cluster, ring version {}", joining, next.getVersion());
+            return true;
+        }
+    }
+
+    private void install(long version, int virtualNodes, List<String> nodes, String joined) {
+        synchronized (membership) {
+            if (version <= ring.getVersion()) {
+                return;
+            }
+            List<String> previousNodes = new ArrayList<>(nodes);
+            previousNodes.remove(joined);
+            rebalancingNodes.clear();
+            rebalancingNodes.addAll(previousNodes);
+            previousRing = new HashRing(version - 1, previousNodes, virtualNodes);
+            ring = new HashRing(version, nodes, virtualNodes);
+            logger.info("Node {} now on ring version {} of {} nodes", name, version, nodes.size());
+        }
+    }
+
+    private void rebalance(long version) {
+        if (closed || ring.getVersion() != version) {
+            return;
+        }
+        try {
+            if (!moveAway(version)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Rebalance of node {} failed, retrying: {}", name, e.getMessage());
+            rebalancer.schedule(() -> rebalance(version), REBALANCE_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        for (String node : ring.getNodes()) {
+            if (node.equals(name)) {
+                finished(version, name);
+                continue;
+            }
+            try {
+                peer(node).call(ClusterProtocol.DONE, out -> {
+                    out.writeLong(version);
+                    out.writeUTF(name);
+                });
+            } catch (RepositoryException e) {
+                logger.warn("Cannot tell node {} that the rebalance is done: {}", node, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Streams every link and tombstone this node no longer owns to its owner, a batch at a time, removing
+     * each batch once the owner has it. Returns false if the ring changed meanwhile.
+     */
+    private boolean moveAway(long version) {
+        HashRing current = ring;
+        Map<String, List<ShortUrl>> moving = new HashMap<>();
+        for (ShortUrl link : local.findAll()) {
+            String owner = current.ownerOf(link.getShortCode());
+            if (!owner.equals(name)) {
+                moving.computeIfAbsent(owner, node -> new ArrayList<>()).add(link);
+            }
+        }
+        Map<String, List<ClusterProtocol.Tombstone>> movingTombstones = new HashMap<>();
+        local.forEachTombstone((shortCode, reason, atMillis) -> {
+            String owner = current.ownerOf(shortCode);
+            if (!owner.equals(name)) {
+                movingTombstones.computeIfAbsent(owner, node -> new ArrayList<>())
+                        .add(new ClusterProtocol.Tombstone(shortCode, reason, atMillis));
+            }
+        });
+        int moved = 0;
+        for (Map.Entry<String, List<ShortUrl>> entry : moving.entrySet()) {
+            PeerClient owner = peer(entry.getKey());
+            List<ShortUrl> links = entry.getValue();
+            for (int from = 0; from < links.size(); from += TRANSFER_BATCH_SIZE) {
+                if (closed || ring.getVersion() != version) {
+                    return false;
+                }
+                List<ShortUrl> batch = links.subList(from, Math.min(links.size(), from + TRANSFER_BATCH_SIZE));
+                owner.call(ClusterProtocol.TRANSFER, out -> ClusterProtocol.writeLinks(out, batch));
+                for (ShortUrl link : batch) {
+                    local.delete(link.getShortCode());
+                }
+                movedLinks.add(batch.size());
+                moved += batch.size();
+            }
+        }
+        int movedTombstones = 0;
+        for (Map.Entry<String, List<ClusterProtocol.Tombstone>> entry : movingTombstones.entrySet()) {
+            PeerClient owner = peer(entry.getKey());
+            List<ClusterProtocol.Tombstone> tombstones = entry.getValue();
+            for (int from = 0; from < tombstones.size(); from += TRANSFER_BATCH_SIZE) {
+                if (closed || ring.getVersion() != version) {
+                    return false;
+                }
+                List<ClusterProtocol.Tombstone> batch =
+                        tombstones.subList(from, Math.min(tombstones.size(), from + TRANSFER_BATCH_SIZE));
+                owner.call(ClusterProtocol.TRANSFER_TOMBSTONES, out -> ClusterProtocol.writeTombstones(out, batch));
+                for (ClusterProtocol.Tombstone tombstone : batch) {
+                    local.removeTombstone(tombstone.shortCode());
+                }
+                movedTombstones += batch.size();
+            }
+        }
+        Set<String> targets = new HashSet<>(moving.keySet());
+        targets.addAll(movingTombstones.keySet());
+        logger.info("Node {} moved {} links and {} tombstones to {} nodes", name, moved, movedTombstones,
+                targets.size());
+        return true;
+    }
+
+    private void finished(long version, String node) {
+        synchronized (membership) {
+            if (version != ring.getVersion()) {
+                return;
+            }
+            rebalancingNodes.remove(node);
+            if (rebalancingNodes.isEmpty() && previousRing != null) {
+                previousRing = null;
+                logger.info("Cluster rebalanced at ring version {}", version);
+            }
+        }
+    }
+}
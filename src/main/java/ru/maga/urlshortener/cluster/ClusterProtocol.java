@@ -0,0 +1,154 @@
+package ru.maga.urlshortener.cluster;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.replication.ReplicationProtocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Wire format between cluster nodes. A connection opens with {@link #MAGIC} and then carries requests, each
+ * answered before the next is sent: an operation byte and its arguments, answered by {@link #OK} and the
+ * result or {@link #ERROR} and a message. Requests act on the receiving node's own partition only; routing
+ * is done by the sender. Links use the replication encoding.
+ */
+final class ClusterProtocol {
+    static final int MAGIC = 0x55524C43;
+    private static final LinkStatus[] STATUSES = LinkStatus.values();
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    /**
+     * Code; answered with a flag and the link if there is one.
+     */
+    static final byte GET = 'G';
+    static final byte EXISTS = 'E';
+    static final byte SAVE = 'S';
+    /**
+     * Count and links.
+     */
+    static final byte SAVE_ALL = 'A';
+    /**
+     * Count and links moved here by a rebalance; a link is only saved if the node has neither it nor its
+     * tombstone, since one handed off earlier may have changed since.
+     */
+    static final byte TRANSFER = 'T';
+    /**
+     * Count and tombstones moved here by a rebalance; a tombstone is only recorded if the node has neither
+     * a link nor a tombstone for the code.
+     */
+    static final byte TRANSFER_TOMBSTONES = 'K';
+    /**
+     * Code; removes the link if the node no longer owns it and answers like {@link #GET}.
+     */
+    static final byte HANDOFF = 'H';
+    /**
+     * Code; counts a click on the node's copy of the link unless its limit is reached, answers a flag.
+     */
+    static final byte CLICK = 'C';
+    static final byte LIMIT = 'L';
+    static final byte BURY = 'B';
+    static final byte DELETE = 'D';
+    /**
+     * Code and whether the previous owner may be asked; answers the reason ordinal or -1.
+     */
+    static final byte TOMBSTONE = 'X';
+    static final byte BY_OWNER = 'O';
+    static final byte ALL = 'F';
+    /**
+     * Answers the number of links and of tombstones.
+     */
+    static final byte COUNT = 'N';
+    /**
+     * Node name; answers whether the node was added. A node that is still rebalancing turns joins away.
+     */
+    static final byte JOIN = 'J';
+    /**
+     * Ring version, virtual nodes, node names and the name of the node just added.
+     */
+    static final byte RING = 'R';
+    /**
+     * Ring version; starts moving the links the node no longer owns to their new owners.
+     */
+    static final byte REBALANCE = 'M';
+    /**
+     * Ring version and node name: that node has moved away all links it no longer owns.
+     */
+    static final byte DONE = 'Z';
+
+    /**
+     * A dead code with the reason and time it died, as moved between nodes.
+     */
+    record Tombstone(String shortCode, LinkStatus reason, long atMillis) {
+    }
+
+    private ClusterProtocol() {
+    }
+
+    static void writeLinks(DataOutputStream out, Collection<ShortUrl> links) throws IOException {
+        out.writeInt(links.size());
+        for (ShortUrl link : links) {
+            ReplicationProtocol.writeLink(out, link);
+        }
+    }
+
+    static List<ShortUrl> readLinks(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<ShortUrl> links = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            links.add(ReplicationProtocol.readLink(in));
+        }
+        return links;
+    }
+
+    static void writeTombstones(DataOutputStream out, Collection<Tombstone> tombstones) throws IOException {
+        out.writeInt(tombstones.size());
+        for (Tombstone tombstone : tombstones) {
+            out.writeUTF(tombstone.shortCode());
+            out.writeByte(tombstone.reason().ordinal());
+            out.writeLong(tombstone.atMillis());
+        }
+    }
+
+    static List<Tombstone> readTombstones(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Tombstone> tombstones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tombstones.add(new Tombstone(in.readUTF(), STATUSES[in.readUnsignedByte()], in.readLong()));
+        }
+        return tombstones;
+    }
+
+    static void writeOptionalLink(DataOutputStream out, ShortUrl link) throws IOException {
+        out.writeBoolean(link != null);
+        if (link != null) {
+            ReplicationProtocol.writeLink(out, link);
+        }
+    }
+
+    static ShortUrl readOptionalLink(DataInputStream in) throws IOException {
+        return in.readBoolean() ? ReplicationProtocol.readLink(in) : null;
+    }
+
+    static void writeNodes(DataOutputStream out, Collection<String> nodes) throws IOException {
+        out.writeInt(nodes.size());
+        for (String node : nodes) {
+            out.writeUTF(node);
+        }
+    }
+
+    static List<String> readNodes(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(in.readUTF());
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,340 @@
+package ru.maga.urlshortener.cluster;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.replication.ReplicationProtocol;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Routing layer of a cluster: calls for a code this node owns go to its own repository, all others to the
+ * owning node over TCP. Links of other nodes are returned as copies, so {@link #tryClick} leaves the limit
+ * check to the owner, which checks and counts the click on its own link in one call. Calls over all
+ * links (owner lists, counts, {@link #findAll}) ask every node. Expired links and old tombstones are removed
+ * by each node from its own partition only, since a predicate cannot be sent, so every node runs its own
+ * cleanup. Memory and filter figures are those of this node.
+ */
+public class ClusteredShortUrlRepository implements ShortUrlRepository {
+    private static final LinkStatus[] STATUSES = LinkStatus.values();
+
+    private final ClusterNode node;
+    private final LongAdder forwarded = new LongAdder();
+
+    public ClusteredShortUrlRepository(ClusterNode node) {
+        this.node = node;
+    }
+
+    public ClusterNode getNode() {
+        return node;
+    }
+
+    /**
+     * Returns how many calls were sent to other nodes.
+     */
+    public long getForwardedCount() {
+        return forwarded.sum();
+    }
+
+    /**
+     * Returns the number of links each node holds, by node name.
+     */
+    public Map<String, Integer> countByNode() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String member : node.getRing().getNodes()) {
+            counts.put(member, member.equals(node.getName())
+                    ? node.getLocal().count()
+                    : remote(member).call(ClusterProtocol.COUNT, out -> {
+                    }, in -> {
+                        int links = in.readInt();
+                        in.readInt();
+                        return links;
+                    }));
+        }
+        return counts;
+    }
+
+    @Override
+    public void save(ShortUrl shortUrl) {
+        String owner = ownerOf(shortUrl.getShortCode());
+        if (owner == null) {
+            node.getLocal().save(shortUrl);
+        } else {
+            remote(owner).call(ClusterProtocol.SAVE, out -> ReplicationProtocol.writeLink(out, shortUrl));
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<ShortUrl> shortUrls) {
+        Map<String, List<ShortUrl>> byOwner = new HashMap<>();
+        List<ShortUrl> own = new ArrayList<>();
+        for (ShortUrl shortUrl : shortUrls) {
+            String owner = ownerOf(shortUrl.getShortCode());
+            if (owner == null) {
+                own.add(shortUrl);
+            } else {
+                byOwner.computeIfAbsent(owner, member -> new ArrayList<>()).add(shortUrl);
+            }
+        }
+        if (!own.isEmpty()) {
+            node.getLocal().saveAll(own);
+        }
+        byOwner.forEach((owner, links) ->
+                remote(owner).call(ClusterProtocol.SAVE_ALL, out -> ClusterProtocol.writeLinks(out, links)));
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        return Optional.ofNullable(getByShortCode(shortCode));
+    }
+
+    @Override
+    public ShortUrl getByShortCode(String shortCode) {
+        String owner = ownerOf(shortCode);
+        if (owner == null) {
+            return node.lookup(shortCode);
+        }
+        return remote(owner).call(ClusterProtocol.GET, out -> out.writeUTF(shortCode),
+                ClusterProtocol::readOptionalLink);
+    }
+
+    @Override
+    public List<ShortUrl> findByOwnerId(UUID ownerId) {
+        List<ShortUrl> links = new ArrayList<>();
+        for (String member : node.getRing().getNodes()) {
+            if (member.equals(node.getName())) {
+                links.addAll(node.getLocal().findByOwnerId(ownerId));
+            } else {
+                links.addAll(remote(member).call(ClusterProtocol.BY_OWNER, out -> {
+                    out.writeLong(ownerId.getMostSignificantBits());
+                    out.writeLong(ownerId.getLeastSignificantBits());
+                }, ClusterProtocol::readLinks));
+            }
+        }
+        return links;
+    }
+
+    @Override
+    public void recordClick(ShortUrl shortUrl) {
+        String owner = ownerOf(shortUrl.getShortCode());
+        if (owner == null) {
+            node.getLocal().recordClick(shortUrl);
+        } else {
+            remote(owner).call(ClusterProtocol.CLICK, out -> out.writeUTF(shortUrl.getShortCode()),
+                    DataInputStream::readBoolean);
+        }
+    }
+
+    /**
+     * Counts the click on the owner's link; a copy from another node is only brought in step when the
+     * owner counted it.
+     */
+    @Override
+    public boolean tryClick(ShortUrl shortUrl) {
+        String owner = ownerOf(shortUrl.getShortCode());
+        if (owner == null) {
+            return node.getLocal().tryClick(shortUrl);
+        }
+        boolean counted = remote(owner).call(ClusterProtocol.CLICK, out -> out.writeUTF(shortUrl.getShortCode()),
+                DataInputStream::readBoolean);
+        if (counted) {
+            shortUrl.incrementClickCount();
+        }
+        return counted;
+    }
+
+    @Override
+    public void update(ShortUrl shortUrl) {
+        String owner = ownerOf(shortUrl.getShortCode());
+        if (owner == null) {
+            node.getLocal().update(shortUrl);
+        } else {
+            remote(owner).call(ClusterProtocol.LIMIT, out -> {
+                out.writeUTF(shortUrl.getShortCode());
+                out.writeInt(shortUrl.getClickLimit());
+            }, DataInputStream::readBoolean);
+        }
+    }
+
+    @Override
+    public void delete(String shortCode) {
+        String owner = ownerOf(shortCode);
+        if (owner == null) {
+            if (node.lookup(shortCode) != null) {
+                node.getLocal().delete(shortCode);
+            }
+        } else {
+            remote(owner).call(ClusterProtocol.DELETE, out -> out.writeUTF(shortCode));
+        }
+    }
+
+    @Override
+    public boolean bury(String shortCode, LinkStatus reason, long atMillis) {
+        String owner = ownerOf(shortCode);
+        if (owner == null) {
+            return node.lookup(shortCode) != null && node.getLocal().bury(shortCode, reason, atMillis);
+        }
+        return remote(owner).call(ClusterProtocol.BURY, out -> {
+            out.writeUTF(shortCode);
+            out.writeByte(reason.ordinal());
+            out.writeLong(atMillis);
+        }, DataInputStream::readBoolean);
+    }
+
+    /**
+     * Buries matching links of this node's partition only.
+     */
+    @Override
+    public List<ShortUrl> buryIf(Predicate<ShortUrl> predicate, LinkStatus reason, long atMillis) {
+        return node.getLocal().buryIf(predicate, reason, atMillis);
+    }
+
+    @Override
+    public Optional<LinkStatus> findTombstone(String shortCode) {
+        String owner = ownerOf(shortCode);
+        if (owner == null) {
+            return node.findTombstone(shortCode, true);
+        }
+        int ordinal = remote(owner).call(ClusterProtocol.TOMBSTONE, out -> {
+            out.writeUTF(shortCode);
+            out.writeBoolean(true);
+        }, DataInputStream::readByte);
+        return ordinal < 0 ? Optional.empty() : Optional.of(STATUSES[ordinal]);
+    }
+
+    @Override
+    public boolean isTombstoned(String shortCode) {
+        return findTombstone(shortCode).isPresent();
+    }
+
+    /**
+     * Prunes the tombstones of this node's partition only.
+     */
+    @Override
+    public int pruneTombstones(long olderThanMillis) {
+        return node.getLocal().pruneTombstones(olderThanMillis);
+    }
+
+    @Override
+    public int tombstoneCount() {
+        int count = 0;
+        for (String member : node.getRing().getNodes()) {
+            count += member.equals(node.getName())
+                    ? node.getLocal().tombstoneCount()
+                    : remote(member).call(ClusterProtocol.COUNT, out -> {
+                    }, in -> {
+                        in.readInt();
+                        return in.readInt();
+                    });
+        }
+        return count;
+    }
+
+    /**
+     * Visits the tombstones of this node's partition only.
+     */
+    @Override
+    public void forEachTombstone(TombstoneConsumer action) {
+        node.getLocal().forEachTombstone(action);
+    }
+
+    /**
+     * Records the tombstone in this node's partition only; rebalancing uses it to take tombstones over.
+     */
+    @Override
+    public boolean restoreTombstone(String shortCode, LinkStatus reason, long atMillis) {
+        return node.getLocal().restoreTombstone(shortCode, reason, atMillis);
+    }
+
+    /**
+     * Drops the tombstone from this node's partition only.
+     */
+    @Override
+    public boolean removeTombstone(String shortCode) {
+        return node.getLocal().removeTombstone(shortCode);
+    }
+
+    @Override
+    public List<ShortUrl> findAll() {
+        List<ShortUrl> links = new ArrayList<>();
+        for (String member : node.getRing().getNodes()) {
+            links.addAll(member.equals(node.getName())
+                    ? node.getLocal().findAll()
+                    : remote(member).call(ClusterProtocol.ALL, out -> {
+                    }, ClusterProtocol::readLinks));
+        }
+        return links;
+    }
+
+    @Override
+    public boolean exists(String shortCode) {
+        String owner = ownerOf(shortCode);
+        if (owner == null) {
+            return node.lookup(shortCode) != null;
+        }
+        return remote(owner).call(ClusterProtocol.EXISTS, out -> out.writeUTF(shortCode),
+                DataInputStream::readBoolean);
+    }
+
+    @Override
+    public int count() {
+        return countByNode().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        return node.getLocal().getMemoryFootprint();
+    }
+
+    @Override
+    public double filterExpectedFalsePositiveRate() {
+        return node.getLocal().filterExpectedFalsePositiveRate();
+    }
+
+    @Override
+    public double filterObservedFalsePositiveRate() {
+        return node.getLocal().filterObservedFalsePositiveRate();
+    }
+
+    @Override
+    public long filterRejectionCount() {
+        return node.getLocal().filterRejectionCount();
+    }
+
+    @Override
+    public long filterMemoryBytes() {
+        return node.getLocal().filterMemoryBytes();
+    }
+
+    /**
+     * Stops the node and closes its repository; the other nodes keep it on their ring.
+     */
+    @Override
+    public void close() {
+        node.close();
+        node.getLocal().close();
+    }
+
+    /**
+     * Returns the node owning the code, or null if it is this one.
+     */
+    private String ownerOf(String shortCode) {
+        String owner = node.getRing().ownerOf(shortCode);
+        return owner.equals(node.getName()) ? null : owner;
+    }
+
+    private PeerClient remote(String member) {
+        forwarded.increment();
+        return node.peer(member);
+    }
+}
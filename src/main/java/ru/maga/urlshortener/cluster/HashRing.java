@@ -0,0 +1,128 @@
+package ru.maga.urlshortener.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Consistent hashing of short codes onto nodes. Every node is placed on a ring of 64-bit hashes at a number
+ * of virtual points, and a code belongs to the node of the first point at or after the code's hash. With
+ * enough virtual points each node owns a near-equal share of the codes, and adding a node takes only about
+ * {@code 1 / nodes} of the codes, all of them from the other nodes to the new one.
+ * The ring depends only on the node names and the number of virtual points, so every node computes the same
+ * ring. Rings are immutable; {@link #withNode} returns a new one with the next version.
+ */
+public final class HashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final long version;
+    private final int virtualNodes;
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * @param nodes        node names, {@code host:port}
+     * @param virtualNodes points per node on the ring
+     */
+    public HashRing(long version, Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be positive: " + virtualNodes);
+        }
+        this.version = version;
+        this.virtualNodes = virtualNodes;
+        this.nodes = List.copyOf(new TreeSet<>(nodes));
+        int count = this.nodes.size() * virtualNodes;
+        long[] hashes = new long[count];
+        int[] indexes = new int[count];
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int point = 0; point < virtualNodes; point++) {
+                int slot = node * virtualNodes + point;
+                hashes[slot] = hash(this.nodes.get(node) + '#' + point);
+                indexes[slot] = node;
+            }
+        }
+        // Sort points by hash, carrying their owners along
+        Integer[] order = new Integer[count];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        this.points = new long[count];
+        this.owners = new int[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = indexes[order[i]];
+        }
+    }
+
+    public static HashRing of(String node, int virtualNodes) {
+        return new HashRing(1, List.of(node), virtualNodes);
+    }
+
+    /**
+     * Returns the ring with the node added and the version incremented, or this ring if it has the node.
+     */
+    public HashRing withNode(String node) {
+        if (nodes.contains(node)) {
+            return this;
+        }
+        List<String> added = new ArrayList<>(nodes);
+        added.add(node);
+        return new HashRing(version + 1, added, virtualNodes);
+    }
+
+    /**
+     * Returns the node that owns the short code.
+     */
+    public String ownerOf(String shortCode) {
+        if (points.length == 0) {
+            throw new IllegalStateException("Ring has no nodes");
+        }
+        long hash = hash(shortCode);
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return nodes.get(owners[index == points.length ? 0 : index]);
+    }
+
+    public boolean contains(String node) {
+        return nodes.contains(node);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Returns the node names in sorted order.
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "HashRing{version=" + version + ", nodes=" + nodes + '}';
+    }
+
+    /**
+     * FNV-1a over the characters, without allocating, spread over all 64 bits by a finalizer so that codes
+     * differing in one character land far apart on the ring.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,134 @@
+package ru.maga.urlshortener.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.repository.RepositoryException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Connections to one other node. Each request takes an idle connection, or opens one, and returns it once
+ * answered, so concurrent requests to a node each get a connection of their own.
+ */
+final class PeerClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PeerClient.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    @FunctionalInterface
+    interface Request {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Response<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private final String node;
+    private final InetSocketAddress address;
+    private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    PeerClient(String node) {
+        this.node = node;
+        this.address = addressOf(node);
+    }
+
+    /**
+     * Parses a {@code host:port} node name.
+     */
+    static InetSocketAddress addressOf(String node) {
+        int colon = node.lastIndexOf(':');
+        if (colon <= 0 || colon == node.length() - 1) {
+            throw new IllegalArgumentException("Node must be host:port: " + node);
+        }
+        return new InetSocketAddress(node.substring(0, colon), Integer.parseInt(node.substring(colon + 1)));
+    }
+
+    <T> T call(byte operation, Request request, Response<T> response) {
+        if (closed) {
+            throw new RepositoryException("Client of node " + node + " is closed");
+        }
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = new Connection(address);
+            }
+            connection.out.writeByte(operation);
+            request.write(connection.out);
+            connection.out.flush();
+            byte status = connection.in.readByte();
+            if (status == ClusterProtocol.ERROR) {
+                String message = connection.in.readUTF();
+                release(connection);
+                throw new RepositoryException("Node " + node + " failed: " + message);
+            }
+            T result = response.read(connection.in);
+            release(connection);
+            return result;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new RepositoryException("Cannot reach node " + node + ": " + e.getMessage(), e);
+        }
+    }
+
+    void call(byte operation, Request request) {
+        call(operation, request, in -> null);
+    }
+
+    private void release(Connection connection) {
+        idle.offer(connection);
+        if (closed && idle.remove(connection)) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Connection(InetSocketAddress address) throws IOException {
+            this.socket = new Socket();
+            try {
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeInt(ClusterProtocol.MAGIC);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Cannot close connection to {}", socket.getRemoteSocketAddress(), e);
+            }
+        }
+    }
+}
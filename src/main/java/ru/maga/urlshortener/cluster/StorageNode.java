@@ -0,0 +1,37 @@
+package ru.maga.urlshortener.cluster;
+
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+
+import java.io.IOException;
+
+/**
+ * Runs a cluster node that only stores its partition in memory, with no user interface, joining the cluster
+ * of the given member if there is one. Prints the node's name and ring once on it, and stops when standard
+ * input is closed. Port 0 picks a free port.
+ *
+ * <pre>
+ * java -cp url-shortener.jar ru.maga.urlshortener.cluster.StorageNode localhost 7101 localhost:7100
+ * </pre>
+ */
+public class StorageNode {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Использование: StorageNode <хост> <порт> [<хост:порт> участника кластера]");
+            System.exit(2);
+        }
+        try (ClusteredShortUrlRepository repository = new ClusteredShortUrlRepository(new ClusterNode(
+                args[0], Integer.parseInt(args[1]), new InMemoryShortUrlRepository(),
+                HashRing.DEFAULT_VIRTUAL_NODES))) {
+            ClusterNode node = repository.getNode();
+            if (args.length == 3) {
+                node.join(args[2]);
+            }
+            System.out.println(node.getName() + " " + node.getRing());
+            System.out.flush();
+            while (System.in.read() != -1) {
+                // Runs until standard input is closed
+            }
+        }
+    }
+}
@@ -17,18 +17,96 @@ public class AppConfig {
     private final int linkTtlSeconds;
     private final int defaultClickLimit;
     private final int cleanupIntervalSeconds;
+    private final int clockTickMillis;
+    private final int tombstoneRetentionSeconds;
+    private final int repositoryShardCount;
+    private final int filterExpectedLinks;
+    private final double filterFalsePositiveRate;
+    private final boolean tieredStorageEnabled;
+    private final int hotStorageCapacity;
+    private final String coldStorageDirectory;
     private final String shortenerDomain;
     private final int shortenerCodeLength;
     private final boolean notificationEnabled;
+    private final int notificationDedupCapacity;
+    private final int notificationDedupWindowSeconds;
+    private final boolean jmxEnabled;
+    private final int analyticsTopCapacity;
+    private final int analyticsSketchWidth;
+    private final int analyticsDecaySeconds;
+    private final int analyticsVisitorPrecision;
+    private final boolean journalEnabled;
+    private final String journalDirectory;
+    private final int journalSegmentMegabytes;
+    private final boolean countersEnabled;
+    private final String countersFile;
+    private final int eventsBufferCapacity;
+    private final boolean jdbcEnabled;
+    private final String jdbcUrl;
+    private final String jdbcUser;
+    private final String jdbcPassword;
+    private final int jdbcPoolSize;
+    private final int jdbcCacheCapacity;
+    private final int jdbcFlushMillis;
+    private final String replicationRole;
+    private final int replicationPort;
+    private final String replicationPrimaryHost;
+    private final int replicationPrimaryPort;
+    private final int replicationLogCapacity;
+    private final int replicationClickFlushMillis;
+    private final boolean clusterEnabled;
+    private final String clusterHost;
+    private final int clusterPort;
+    private final String clusterMember;
+    private final int clusterVirtualNodes;
 
     public AppConfig() {
         Properties props = loadProperties();
         this.linkTtlSeconds = getIntProperty(props, "link.ttl.seconds", 86400);
         this.defaultClickLimit = getIntProperty(props, "link.default.click.limit", 100);
         this.cleanupIntervalSeconds = getIntProperty(props, "cleanup.scheduler.interval.seconds", 3600);
+        this.clockTickMillis = getIntProperty(props, "clock.tick.millis", 10);
+        this.tombstoneRetentionSeconds = getIntProperty(props, "link.tombstone.retention.seconds", 604800);
+        this.repositoryShardCount = getIntProperty(props, "repository.shards", 16);
+        this.filterExpectedLinks = getIntProperty(props, "repository.filter.expected.links", 100000);
+        this.filterFalsePositiveRate = getDoubleProperty(props, "repository.filter.false.positive.rate", 0.01);
+        this.tieredStorageEnabled = getBooleanProperty(props, "storage.tiered.enabled", false);
+        this.hotStorageCapacity = getIntProperty(props, "storage.hot.capacity", 100000);
+        this.coldStorageDirectory = props.getProperty("storage.cold.directory", "data/links");
         this.shortenerDomain = props.getProperty("shortener.domain", "short.ly");
         this.shortenerCodeLength = getIntProperty(props, "shortener.code.length", 6);
         this.notificationEnabled = getBooleanProperty(props, "notification.enabled", true);
+        this.notificationDedupCapacity = getIntProperty(props, "notification.dedup.capacity", 16384);
+        this.notificationDedupWindowSeconds = getIntProperty(props, "notification.dedup.window.seconds", 3600);
+        this.jmxEnabled = getBooleanProperty(props, "metrics.jmx.enabled", true);
+        this.analyticsTopCapacity = getIntProperty(props, "analytics.top.capacity", 100);
+        this.analyticsSketchWidth = getIntProperty(props, "analytics.sketch.width", 4096);
+        this.analyticsDecaySeconds = getIntProperty(props, "analytics.decay.seconds", 60);
+        this.analyticsVisitorPrecision = getIntProperty(props, "analytics.visitors.precision", 10);
+        this.journalEnabled = getBooleanProperty(props, "journal.enabled", true);
+        this.journalDirectory = props.getProperty("journal.directory", "data/clicks");
+        this.journalSegmentMegabytes = getIntProperty(props, "journal.segment.megabytes", 64);
+        this.countersEnabled = getBooleanProperty(props, "counters.enabled", true);
+        this.countersFile = props.getProperty("counters.file", "data/click-counters.bin");
+        this.eventsBufferCapacity = getIntProperty(props, "events.buffer.capacity", 1024);
+        this.jdbcEnabled = getBooleanProperty(props, "storage.jdbc.enabled", false);
+        this.jdbcUrl = props.getProperty("storage.jdbc.url", "jdbc:h2:./data/shortener");
+        this.jdbcUser = props.getProperty("storage.jdbc.user", "sa");
+        this.jdbcPassword = props.getProperty("storage.jdbc.password", "");
+        this.jdbcPoolSize = getIntProperty(props, "storage.jdbc.pool.size", 4);
+        this.jdbcCacheCapacity = getIntProperty(props, "storage.jdbc.cache.capacity", 100000);
+        this.jdbcFlushMillis = getIntProperty(props, "storage.jdbc.flush.millis", 1000);
+        this.replicationRole = props.getProperty("replication.role", "none").trim();
+        this.replicationPort = getIntProperty(props, "replication.port", 7070);
+        this.replicationPrimaryHost = props.getProperty("replication.primary.host", "localhost");
+        this.replicationPrimaryPort = getIntProperty(props, "replication.primary.port", 7070);
+        this.replicationLogCapacity = getIntProperty(props, "replication.log.capacity", 100000);
+        this.replicationClickFlushMillis = getIntProperty(props, "replication.click.flush.millis", 100);
+        this.clusterEnabled = getBooleanProperty(props, "cluster.enabled", false);
+        this.clusterHost = props.getProperty("cluster.host", "localhost").trim();
+        this.clusterPort = getIntProperty(props, "cluster.port", 7100);
+        this.clusterMember = props.getProperty("cluster.member", "").trim();
+        this.clusterVirtualNodes = getIntProperty(props, "cluster.virtual.nodes", 128);
 
         logger.info("Configuration loaded: TTL={}s, ClickLimit={}, CleanupInterval={}s",
                 linkTtlSeconds, defaultClickLimit, cleanupIntervalSeconds);
@@ -46,6 +124,11 @@ public class AppConfig {
         } catch (IOException e) {
             logger.error("Error loading configuration file", e);
         }
+        // System properties (-Dkey=value) override the file, e.g. to run several instances side by side
+        Properties system = System.getProperties();
+        for (String key : system.stringPropertyNames()) {
+            props.setProperty(key, system.getProperty(key));
+        }
         return props;
     }
 
@@ -61,6 +144,18 @@ public class AppConfig {
         return defaultValue;
     }
 
+    private double getDoubleProperty(Properties props, String key, double defaultValue) {
+        String value = props.getProperty(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid numeric value for {}: {}, using default: {}", key, value, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     private boolean getBooleanProperty(Properties props, String key, boolean defaultValue) {
         String value = props.getProperty(key);
         if (value != null) {
@@ -81,6 +176,38 @@ public class AppConfig {
         return cleanupIntervalSeconds;
     }
 
+    public int getClockTickMillis() {
+        return clockTickMillis;
+    }
+
+    public int getTombstoneRetentionSeconds() {
+        return tombstoneRetentionSeconds;
+    }
+
+    public int getRepositoryShardCount() {
+        return repositoryShardCount;
+    }
+
+    public int getFilterExpectedLinks() {
+        return filterExpectedLinks;
+    }
+
+    public double getFilterFalsePositiveRate() {
+        return filterFalsePositiveRate;
+    }
+
+    public boolean isTieredStorageEnabled() {
+        return tieredStorageEnabled;
+    }
+
+    public int getHotStorageCapacity() {
+        return hotStorageCapacity;
+    }
+
+    public String getColdStorageDirectory() {
+        return coldStorageDirectory;
+    }
+
     public String getShortenerDomain() {
         return shortenerDomain;
     }
@@ -92,5 +219,134 @@ public class AppConfig {
     public boolean isNotificationEnabled() {
         return notificationEnabled;
     }
-}
 
+    public int getNotificationDedupCapacity() {
+        return notificationDedupCapacity;
+    }
+
+    public int getNotificationDedupWindowSeconds() {
+        return notificationDedupWindowSeconds;
+    }
+
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    public int getAnalyticsTopCapacity() {
+        return analyticsTopCapacity;
+    }
+
+    public int getAnalyticsSketchWidth() {
+        return analyticsSketchWidth;
+    }
+
+    public int getAnalyticsDecaySeconds() {
+        return analyticsDecaySeconds;
+    }
+
+    public int getAnalyticsVisitorPrecision() {
+        return analyticsVisitorPrecision;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public int getJournalSegmentMegabytes() {
+        return journalSegmentMegabytes;
+    }
+
+    public boolean isCountersEnabled() {
+        return countersEnabled;
+    }
+
+    public String getCountersFile() {
+        return countersFile;
+    }
+
+    public int getEventsBufferCapacity() {
+        return eventsBufferCapacity;
+    }
+
+    public boolean isJdbcEnabled() {
+        return jdbcEnabled;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getJdbcUser() {
+        return jdbcUser;
+    }
+
+    public String getJdbcPassword() {
+        return jdbcPassword;
+    }
+
+    public int getJdbcPoolSize() {
+        return jdbcPoolSize;
+    }
+
+    public int getJdbcCacheCapacity() {
+        return jdbcCacheCapacity;
+    }
+
+    public int getJdbcFlushMillis() {
+        return jdbcFlushMillis;
+    }
+
+    /**
+     * Returns {@code none}, {@code primary} or {@code replica}.
+     */
+    public String getReplicationRole() {
+        return replicationRole;
+    }
+
+    public int getReplicationPort() {
+        return replicationPort;
+    }
+
+    public String getReplicationPrimaryHost() {
+        return replicationPrimaryHost;
+    }
+
+    public int getReplicationPrimaryPort() {
+        return replicationPrimaryPort;
+    }
+
+    public int getReplicationLogCapacity() {
+        return replicationLogCapacity;
+    }
+
+    public int getReplicationClickFlushMillis() {
+        return replicationClickFlushMillis;
+    }
+
+    public boolean isClusterEnabled() {
+        return clusterEnabled;
+    }
+
+    public String getClusterHost() {
+        return clusterHost;
+    }
+
+    public int getClusterPort() {
+        return clusterPort;
+    }
+
+    /**
+     * Returns {@code host:port} of a node to join the cluster through, or an empty string to start a new cluster.
+     */
+    public String getClusterMember() {
+        return clusterMember;
+    }
+
+    public int getClusterVirtualNodes() {
+        return clusterVirtualNodes;
+    }
+}
@@ -0,0 +1,238 @@
+package ru.maga.urlshortener.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Mutable click state of a {@link ShortUrl}, kept in its own object apart from the immutable link data.
+ * The click count and limit are packed into one {@code long} (limit in the high half, count in the low half)
+ * and updated with CAS, so a redirect never writes to the cache line readers of the URL and owner touch.
+ * Links start with a compact counter; once a link reaches {@link #HOT_CLICKS} clicks its state moves to a
+ * counter padded on both sides, so only hot links pay for a cache line of their own. The compact counter is
+ * then sealed and forwards every call to the padded one, so threads still holding it lose no clicks.
+ */
+abstract class ClickCounter {
+    /**
+     * Clicks after which a link counts as hot and gets a padded counter.
+     */
+    static final int HOT_CLICKS = 1000;
+
+    // Limit -1 with count -1: never a real state, since counts are not negative
+    private static final long MOVED = -1L;
+    private static final VarHandle SUCCESSOR;
+
+    static {
+        try {
+            SUCCESSOR = MethodHandles.lookup().findVarHandle(ClickCounter.class, "successor", ClickCounter.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile ClickCounter successor;
+
+    static ClickCounter create(int clickLimit, int clickCount) {
+        return new CompactClickCounter(pack(clickLimit, clickCount));
+    }
+
+    abstract long state();
+
+    abstract boolean compareAndSetState(long expected, long state);
+
+    abstract boolean isPadded();
+
+    int getClickCount() {
+        long current = state();
+        return current == MOVED ? successor.getClickCount() : countOf(current);
+    }
+
+    int getClickLimit() {
+        long current = state();
+        return current == MOVED ? successor.getClickLimit() : limitOf(current);
+    }
+
+    boolean hasReachedLimit() {
+        long current = state();
+        return current == MOVED ? successor.hasReachedLimit() : reached(current);
+    }
+
+    /**
+     * Counts a click unconditionally and returns the new count.
+     */
+    int increment() {
+        long current;
+        do {
+            current = state();
+            if (current == MOVED) {
+                return successor.increment();
+            }
+            if (countOf(current) == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+        } while (!compareAndSetState(current, current + 1));
+        return countOf(current) + 1;
+    }
+
+    /**
+     * Counts a click unless the limit is already reached; returns the new count, or -1 if it was.
+     */
+    int tryIncrement() {
+        long current;
+        do {
+            current = state();
+            if (current == MOVED) {
+                return successor.tryIncrement();
+            }
+            if (reached(current) || countOf(current) == Integer.MAX_VALUE) {
+                return -1;
+            }
+        } while (!compareAndSetState(current, current + 1));
+        return countOf(current) + 1;
+    }
+
+    /**
+     * Raises the count to the given one unless it is already at least that high; returns the count before.
+     */
+    int raiseTo(int clickCount) {
+        long current;
+        do {
+            current = state();
+            if (current == MOVED) {
+                return successor.raiseTo(clickCount);
+            }
+            if (countOf(current) >= clickCount) {
+                return countOf(current);
+            }
+        } while (!compareAndSetState(current, pack(limitOf(current), clickCount)));
+        return countOf(current);
+    }
+
+    void setClickLimit(int clickLimit) {
+        long current;
+        do {
+            current = state();
+            if (current == MOVED) {
+                successor.setClickLimit(clickLimit);
+                return;
+            }
+        } while (!compareAndSetState(current, pack(clickLimit, countOf(current))));
+    }
+
+    /**
+     * Moves the state into a padded counter and seals this one. Returns the padded counter, or null if
+     * another thread is already moving it.
+     */
+    ClickCounter pad() {
+        PaddedClickCounter padded = new PaddedClickCounter();
+        if (!SUCCESSOR.compareAndSet(this, null, padded)) {
+            return null;
+        }
+        long current;
+        do {
+            current = state();
+            // Only followed once this counter is sealed, so no other thread writes it yet
+            padded.state = current;
+        } while (!compareAndSetState(current, MOVED));
+        return padded;
+    }
+
+    private static boolean reached(long state) {
+        int limit = limitOf(state);
+        return limit > 0 && countOf(state) >= limit;
+    }
+
+    private static long pack(int clickLimit, int clickCount) {
+        return ((long) clickLimit << 32) | (clickCount & 0xFFFFFFFFL);
+    }
+
+    private static int countOf(long state) {
+        return (int) state;
+    }
+
+    private static int limitOf(long state) {
+        return (int) (state >>> 32);
+    }
+}
+
+/**
+ * Unpadded counter every link starts with.
+ */
+final class CompactClickCounter extends ClickCounter {
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(CompactClickCounter.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long state;
+
+    CompactClickCounter(long state) {
+        this.state = state;
+    }
+
+    @Override
+    long state() {
+        return state;
+    }
+
+    @Override
+    boolean compareAndSetState(long expected, long state) {
+        return STATE.compareAndSet(this, expected, state);
+    }
+
+    @Override
+    boolean isPadded() {
+        return false;
+    }
+}
+
+/**
+ * Counter of a hot link, with its state on a cache line of its own.
+ */
+final class PaddedClickCounter extends ClickCounterValue {
+    // Trailing padding; the leading padding lives in ClickCounterPadding so field layout cannot reorder it
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+
+    @Override
+    long state() {
+        return state;
+    }
+
+    @Override
+    boolean compareAndSetState(long expected, long state) {
+        return STATE.compareAndSet(this, expected, state);
+    }
+
+    @Override
+    boolean isPadded() {
+        return true;
+    }
+}
+
+/**
+ * Leading cache-line padding of {@link PaddedClickCounter}.
+ */
+abstract class ClickCounterPadding extends ClickCounter {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * The packed click state of {@link PaddedClickCounter}, laid out between the leading and trailing padding.
+ */
+abstract class ClickCounterValue extends ClickCounterPadding {
+    static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(ClickCounterValue.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile long state;
+}
@@ -0,0 +1,12 @@
+package ru.maga.urlshortener.domain;
+
+/**
+ * Status of a short code as seen by a redirect or info lookup.
+ */
+public enum LinkStatus {
+    ACTIVE,
+    EXPIRED,
+    LIMIT_REACHED,
+    DELETED,
+    NOT_FOUND
+}
@@ -0,0 +1,32 @@
+package ru.maga.urlshortener.domain;
+
+/**
+ * Reusable holder for the link a redirect resolved to.
+ * Filled in place by the service so that a successful redirect allocates nothing;
+ * a caller may keep one instance per thread and pass it to every resolve call.
+ */
+public class ResolvedLink {
+    private ShortUrl shortUrl;
+
+    public void set(ShortUrl shortUrl) {
+        this.shortUrl = shortUrl;
+    }
+
+    public void clear() {
+        this.shortUrl = null;
+    }
+
+    /**
+     * Returns the resolved link, or null if the last resolve failed.
+     */
+    public ShortUrl getShortUrl() {
+        return shortUrl;
+    }
+
+    /**
+     * Returns the URL to redirect to, or null if the last resolve failed.
+     */
+    public String getOriginalUrl() {
+        return shortUrl == null ? null : shortUrl.getOriginalUrl();
+    }
+}
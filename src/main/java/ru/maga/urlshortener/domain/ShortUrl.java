@@ -1,5 +1,7 @@
 package ru.maga.urlshortener.domain;
 
+import ru.maga.urlshortener.util.MemoryLayout;
+
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
@@ -7,33 +9,64 @@ import java.util.UUID;
 /**
  * Represents a shortened URL with its metadata.
  * Each short URL is owned by a specific user and has TTL and click limits.
+ * The link data is immutable; the click count and limit live in a separate {@link ClickCounter}, so
+ * redirects that count clicks do not invalidate the cache line other readers of the link use. The counter
+ * is swapped for a padded one once the link turns hot.
+ * Timestamps are stored as epoch milliseconds, so an expiry check is a single comparison.
  */
 public class ShortUrl {
     private final String shortCode;
     private final String originalUrl;
     private final UUID ownerId;
-    private final Instant createdAt;
-    private final Instant expiresAt;
-    private int clickLimit;
-    private int clickCount;
+    private final long createdAtMillis;
+    private final long expiresAtMillis;
+    private volatile ClickCounter clicks;
 
     public ShortUrl(String shortCode, String originalUrl, UUID ownerId,
                     Instant createdAt, Instant expiresAt, int clickLimit) {
+        this(shortCode, originalUrl, ownerId, createdAt, expiresAt, clickLimit, 0);
+    }
+
+    /**
+     * Restores a short URL that has already been clicked, e.g. when reading it back from storage.
+     */
+    public ShortUrl(String shortCode, String originalUrl, UUID ownerId,
+                    Instant createdAt, Instant expiresAt, int clickLimit, int clickCount) {
+        this(shortCode, originalUrl, ownerId,
+                Objects.requireNonNull(createdAt, "Created timestamp cannot be null").toEpochMilli(),
+                Objects.requireNonNull(expiresAt, "Expiration timestamp cannot be null").toEpochMilli(),
+                clickLimit, clickCount);
+    }
+
+    /**
+     * Creates a short URL with timestamps given in epoch milliseconds.
+     */
+    public ShortUrl(String shortCode, String originalUrl, UUID ownerId,
+                    long createdAtMillis, long expiresAtMillis, int clickLimit, int clickCount) {
         this.shortCode = Objects.requireNonNull(shortCode, "Short code cannot be null");
         this.originalUrl = Objects.requireNonNull(originalUrl, "Original URL cannot be null");
         this.ownerId = Objects.requireNonNull(ownerId, "Owner ID cannot be null");
-        this.createdAt = Objects.requireNonNull(createdAt, "Created timestamp cannot be null");
-        this.expiresAt = Objects.requireNonNull(expiresAt, "Expiration timestamp cannot be null");
-        this.clickLimit = clickLimit;
-        this.clickCount = 0;
+        this.createdAtMillis = createdAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        if (clickCount < 0) {
+            throw new IllegalArgumentException("Click count cannot be negative: " + clickCount);
+        }
+        this.clicks = ClickCounter.create(clickLimit, clickCount);
     }
 
     public boolean isExpired() {
-        return Instant.now().isAfter(expiresAt);
+        return isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Checks expiry against the given time in epoch milliseconds.
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiresAtMillis;
     }
 
     public boolean hasReachedClickLimit() {
-        return clickLimit > 0 && clickCount >= clickLimit;
+        return clicks.hasReachedLimit();
     }
 
     public boolean isAccessible() {
@@ -41,7 +74,32 @@ public class ShortUrl {
     }
 
     public void incrementClickCount() {
-        this.clickCount++;
+        ClickCounter counter = clicks;
+        padIfHot(counter, counter.increment());
+    }
+
+    /**
+     * Atomically counts a click unless the click limit is already reached.
+     * Returns false, without counting, if the limit was reached.
+     */
+    public boolean tryIncrementClickCount() {
+        ClickCounter counter = clicks;
+        int count = counter.tryIncrement();
+        padIfHot(counter, count);
+        return count >= 0;
+    }
+
+    /**
+     * Atomically raises the click count to one reached elsewhere, unless it is already at least that high.
+     * Returns whether it was raised.
+     */
+    public boolean raiseClickCountTo(int clickCount) {
+        ClickCounter counter = clicks;
+        if (counter.raiseTo(clickCount) >= clickCount) {
+            return false;
+        }
+        padIfHot(counter, clickCount);
+        return true;
     }
 
     public boolean isOwnedBy(UUID userId) {
@@ -61,23 +119,40 @@ public class ShortUrl {
     }
 
     public Instant getCreatedAt() {
-        return createdAt;
+        return Instant.ofEpochMilli(createdAtMillis);
     }
 
     public Instant getExpiresAt() {
-        return expiresAt;
+        return Instant.ofEpochMilli(expiresAtMillis);
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
     }
 
     public int getClickLimit() {
-        return clickLimit;
+        return clicks.getClickLimit();
     }
 
     public void setClickLimit(int clickLimit) {
-        this.clickLimit = clickLimit;
+        clicks.setClickLimit(clickLimit);
     }
 
     public int getClickCount() {
-        return clickCount;
+        return clicks.getClickCount();
+    }
+
+    private void padIfHot(ClickCounter counter, int count) {
+        if (count >= ClickCounter.HOT_CLICKS && !counter.isPadded()) {
+            ClickCounter padded = counter.pad();
+            if (padded != null) {
+                clicks = padded;
+            }
+        }
     }
 
     @Override
@@ -99,10 +174,18 @@ public class ShortUrl {
                 "shortCode='" + shortCode + '\'' +
                 ", originalUrl='" + originalUrl + '\'' +
                 ", ownerId=" + ownerId +
-                ", clickCount=" + clickCount +
-                ", clickLimit=" + clickLimit +
-                ", expiresAt=" + expiresAt +
+                ", clickCount=" + getClickCount() +
+                ", clickLimit=" + getClickLimit() +
+                ", expiresAt=" + getExpiresAt() +
                 '}';
     }
-}
 
+    /**
+     * Returns the heap size of a link object with its compact click counter, without the strings and owner
+     * id it references. The padded counters of hot links are not included.
+     */
+    public static long objectMemoryBytes() {
+        return MemoryLayout.objectBytes(2 * Long.BYTES, 4)
+                + MemoryLayout.objectBytes(Long.BYTES, 1);
+    }
+}
@@ -1,5 +1,7 @@
 package ru.maga.urlshortener.domain;
 
+import ru.maga.urlshortener.util.MemoryLayout;
+
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
@@ -46,5 +48,13 @@ public class User {
     public String toString() {
         return "User{id=" + id + ", createdAt=" + createdAt + "}";
     }
-}
 
+    /**
+     * Returns the heap size of a user object with its UUID and creation time.
+     */
+    public static long objectMemoryBytes() {
+        return MemoryLayout.objectBytes(0, 2)
+                + MemoryLayout.objectBytes(2 * Long.BYTES, 0)
+                + MemoryLayout.objectBytes(Long.BYTES + Integer.BYTES, 0);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.maga.urlshortener.events;
+
+import java.util.UUID;
+
+/**
+ * Something that happened to a link, published by {@link LinkEventPublisher}.
+ */
+public final class LinkEvent {
+    public enum Type {
+        CREATED,
+        CLICKED,
+        UPDATED,
+        EXPIRED,
+        DELETED
+    }
+
+    private final Type type;
+    private final String shortCode;
+    private final String originalUrl;
+    private final UUID ownerId;
+    private final UUID clientId;
+    private final long timeMillis;
+
+    public LinkEvent(Type type, String shortCode, String originalUrl, UUID ownerId, UUID clientId, long timeMillis) {
+        this.type = type;
+        this.shortCode = shortCode;
+        this.originalUrl = originalUrl;
+        this.ownerId = ownerId;
+        this.clientId = clientId;
+        this.timeMillis = timeMillis;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public String getOriginalUrl() {
+        return originalUrl;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Returns who followed the link for {@link Type#CLICKED}, or null if unknown or for other events.
+     */
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + shortCode + " at " + timeMillis;
+    }
+}
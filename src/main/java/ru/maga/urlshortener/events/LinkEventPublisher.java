@@ -0,0 +1,109 @@
+package ru.maga.urlshortener.events;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Publishes link lifecycle events to any number of {@link Flow.Subscriber}s.
+ * Every subscriber has its own bounded buffer and is fed from a pool thread at the pace it requests.
+ * Publishing never waits: an event that does not fit into a subscriber's buffer is dropped for that
+ * subscriber only and counted, so a slow subscriber loses events instead of slowing down the service.
+ * Until someone subscribes, publishing does nothing and does not create the event.
+ */
+public class LinkEventPublisher implements Flow.Publisher<LinkEvent>, AutoCloseable {
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    private final SubmissionPublisher<LinkEvent> publisher;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final BiPredicate<Flow.Subscriber<? super LinkEvent>, LinkEvent> onDrop = (subscriber, event) -> {
+        dropped.increment();
+        return false;
+    };
+    private volatile boolean subscribed;
+
+    public LinkEventPublisher() {
+        this(DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param bufferCapacity events buffered per subscriber, rounded up to a power of two
+     */
+    public LinkEventPublisher(int bufferCapacity) {
+        AtomicInteger threads = new AtomicInteger();
+        this.publisher = new SubmissionPublisher<>(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "link-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LinkEvent> subscriber) {
+        subscribed = true;
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Returns whether anyone has subscribed, i.e. whether events are worth creating.
+     */
+    public boolean hasSubscribers() {
+        return subscribed;
+    }
+
+    /**
+     * Offers an event to every subscriber without waiting for room in their buffers.
+     */
+    public void publish(LinkEvent.Type type, String shortCode, String originalUrl, UUID ownerId, UUID clientId,
+                        long timeMillis) {
+        if (!subscribed) {
+            return;
+        }
+        try {
+            publisher.offer(new LinkEvent(type, shortCode, originalUrl, ownerId, clientId, timeMillis), onDrop);
+            published.increment();
+        } catch (IllegalStateException e) {
+            // Closed while the service is still serving the last requests
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Returns the number of events offered to subscribers.
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * Returns the number of times an event was dropped for a subscriber whose buffer was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the largest number of events published but not yet consumed by any one subscriber.
+     */
+    public long getMaximumLag() {
+        return publisher.estimateMaximumLag();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Completes every subscriber once it has consumed the events already buffered for it.
+     * The pool threads are daemons and go away once idle, so they do not hold up shutdown.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
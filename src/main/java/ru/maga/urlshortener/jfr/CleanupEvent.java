@@ -0,0 +1,59 @@
+package ru.maga.urlshortener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One sweep of expired links and old tombstones.
+ */
+@Name("ru.maga.urlshortener.Cleanup")
+@Label("Cleanup Sweep")
+@Category({"URL Shortener", "Maintenance"})
+@Description("Sweep removing expired links and pruning old tombstones")
+@StackTrace(false)
+@Threshold("0 ms")
+public class CleanupEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(CleanupEvent.class);
+
+    @Label("Links Scanned")
+    int scanned;
+
+    @Label("Links Removed")
+    int removed;
+
+    @Label("Tombstones Pruned")
+    int tombstonesPruned;
+
+    /**
+     * Starts timing a sweep, or returns null if the event is not being recorded.
+     */
+    public static CleanupEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        CleanupEvent event = new CleanupEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event started by {@link #start} if it passes the threshold; does nothing for null.
+     */
+    public static void finish(CleanupEvent event, int scanned, int removed, int tombstonesPruned) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.scanned = scanned;
+            event.removed = removed;
+            event.tombstonesPruned = tombstonesPruned;
+            event.commit();
+        }
+    }
+}
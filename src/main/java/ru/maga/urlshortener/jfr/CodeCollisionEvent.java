@@ -0,0 +1,36 @@
+package ru.maga.urlshortener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A generated short code that was already taken by a live or removed link.
+ */
+@Name("ru.maga.urlshortener.CodeCollision")
+@Label("Code Collision")
+@Category({"URL Shortener", "Links"})
+@Description("A generated short code was already taken and had to be regenerated")
+@StackTrace(false)
+public class CodeCollisionEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(CodeCollisionEvent.class);
+
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Attempt")
+    int attempt;
+
+    public static void emit(String shortCode, int attempt) {
+        if (!TYPE.isEnabled()) {
+            return;
+        }
+        CodeCollisionEvent event = new CodeCollisionEvent();
+        event.shortCode = shortCode;
+        event.attempt = attempt;
+        event.commit();
+    }
+}
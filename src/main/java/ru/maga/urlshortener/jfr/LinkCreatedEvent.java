@@ -0,0 +1,51 @@
+package ru.maga.urlshortener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Creation of a short link, from validation to storing it.
+ */
+@Name("ru.maga.urlshortener.LinkCreated")
+@Label("Link Created")
+@Category({"URL Shortener", "Links"})
+@Description("Creation of a short link including code generation; collisions are recorded as separate events")
+@StackTrace(false)
+@Threshold("0 ms")
+public class LinkCreatedEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(LinkCreatedEvent.class);
+
+    @Label("Short Code")
+    String shortCode;
+
+    /**
+     * Starts timing a link creation, or returns null without allocating if the event is not being recorded.
+     */
+    public static LinkCreatedEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        LinkCreatedEvent event = new LinkCreatedEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event started by {@link #start} if it passes the threshold; does nothing for null.
+     */
+    public static void finish(LinkCreatedEvent event, String shortCode) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.shortCode = shortCode;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.maga.urlshortener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A notification about a link that was either delivered or suppressed as a duplicate.
+ */
+@Name("ru.maga.urlshortener.Notification")
+@Label("Notification")
+@Category({"URL Shortener", "Notifications"})
+@Description("Notification about a link, delivered or suppressed as a duplicate")
+@StackTrace(false)
+public class NotificationEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(NotificationEvent.class);
+
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Delivered")
+    @Description("False if the notification was suppressed as a duplicate")
+    boolean delivered;
+
+    public static void emit(String shortCode, String kind, boolean delivered) {
+        if (!TYPE.isEnabled()) {
+            return;
+        }
+        NotificationEvent event = new NotificationEvent();
+        event.shortCode = shortCode;
+        event.kind = kind;
+        event.delivered = delivered;
+        event.commit();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.maga.urlshortener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import ru.maga.urlshortener.domain.LinkStatus;
+
+/**
+ * Resolution of a short code for a redirect. By default only redirects slower than 1 ms are recorded.
+ */
+@Name("ru.maga.urlshortener.Redirect")
+@Label("Redirect")
+@Category({"URL Shortener", "Links"})
+@Description("Resolution of a short code for a redirect and its outcome")
+@StackTrace(false)
+@Threshold("1 ms")
+public class RedirectEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(RedirectEvent.class);
+
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Starts timing a redirect, or returns null without allocating if the event is not being recorded.
+     */
+    public static RedirectEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        RedirectEvent event = new RedirectEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event started by {@link #start} if it passes the threshold; does nothing for null.
+     */
+    public static void finish(RedirectEvent event, String shortCode, LinkStatus outcome) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.shortCode = shortCode;
+            event.outcome = outcome.name();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.maga.urlshortener.journal;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.util.LongLongHashMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Partial result of a journal query over some of its records; partials of disjoint ranges are merged.
+ * Links and clients are keyed by primitives, so scanning a record does not allocate once its link and
+ * client have been seen. Clients are keyed by the high half of their id with the low half checked; clients
+ * that share a high half with an earlier one, which random UUIDs practically never do, go to an overflow map.
+ */
+class ClickAggregate {
+    static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private static final int ACTIVE = LinkStatus.ACTIVE.ordinal();
+    private static final long HOUR_MASK = 0xFFFF_FFFFL;
+
+    final long[] outcomes = new long[LinkStatus.values().length];
+    long events;
+    long scannedBytes;
+
+    // Successful redirects per link, and per link and hour keyed by slot << 32 | (hour number + 1)
+    private final LongLongHashMap linkSlots = new LongLongHashMap(64, -1);
+    private long[] linkCodes = new long[16];
+    private long[] linkClicks = new long[16];
+    private int linkCount;
+    private final LongLongHashMap hourlyClicks = new LongLongHashMap(64, 0);
+
+    // Successful redirects per client
+    private final LongLongHashMap clientSlots = new LongLongHashMap(64, -1);
+    private long[] clientHighs = new long[16];
+    private long[] clientLows = new long[16];
+    private long[] clientClicks = new long[16];
+    private int clientCount;
+    private final Map<UUID, Long> clientOverflow = new HashMap<>();
+
+    void record(long timeMillis, long code, int outcome, long clientHigh, long clientLow) {
+        events++;
+        outcomes[outcome]++;
+        if (outcome != ACTIVE) {
+            return;
+        }
+        if (code > 0) {
+            addLink(code, Math.floorDiv(timeMillis, MILLIS_PER_HOUR) + 1, 1);
+        }
+        if (clientHigh != 0 || clientLow != 0) {
+            addClient(clientHigh, clientLow, 1);
+        }
+    }
+
+    /**
+     * Adds another partial to this one.
+     */
+    ClickAggregate merge(ClickAggregate other) {
+        events += other.events;
+        scannedBytes += other.scannedBytes;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] += other.outcomes[i];
+        }
+        other.hourlyClicks.forEach((key, clicks) -> addLink(other.linkCodes[(int) (key >>> 32)], key & HOUR_MASK, clicks));
+        for (int slot = 0; slot < other.clientCount; slot++) {
+            addClient(other.clientHighs[slot], other.clientLows[slot], other.clientClicks[slot]);
+        }
+        other.clientOverflow.forEach((client, clicks) ->
+                addClient(client.getMostSignificantBits(), client.getLeastSignificantBits(), clicks));
+        return this;
+    }
+
+    /**
+     * Passes every link with its successful redirects to the consumer.
+     */
+    void forEachLink(LongLongHashMap.EntryConsumer consumer) {
+        for (int slot = 0; slot < linkCount; slot++) {
+            consumer.accept(linkCodes[slot], linkClicks[slot]);
+        }
+    }
+
+    /**
+     * Passes the successful redirects of a link by hour number since the epoch to the consumer.
+     */
+    void forEachHour(long code, LongLongHashMap.EntryConsumer consumer) {
+        long slot = linkSlots.get(code);
+        if (slot < 0) {
+            return;
+        }
+        hourlyClicks.forEach((key, clicks) -> {
+            if (key >>> 32 == slot) {
+                consumer.accept((key & HOUR_MASK) - 1, clicks);
+            }
+        });
+    }
+
+    /**
+     * Passes every client with its successful redirects to the consumer.
+     */
+    void forEachClient(ObjLongConsumer<UUID> consumer) {
+        for (int slot = 0; slot < clientCount; slot++) {
+            consumer.accept(new UUID(clientHighs[slot], clientLows[slot]), clientClicks[slot]);
+        }
+        clientOverflow.forEach(consumer::accept);
+    }
+
+    private void addLink(long code, long hourKey, long clicks) {
+        long slot = linkSlots.get(code);
+        if (slot < 0) {
+            if (linkCount == linkCodes.length) {
+                linkCodes = Arrays.copyOf(linkCodes, linkCount * 2);
+                linkClicks = Arrays.copyOf(linkClicks, linkCount * 2);
+            }
+            slot = linkCount++;
+            linkSlots.put(code, slot);
+            linkCodes[(int) slot] = code;
+        }
+        linkClicks[(int) slot] += clicks;
+        hourlyClicks.addTo(slot << 32 | hourKey, clicks);
+    }
+
+    private void addClient(long high, long low, long clicks) {
+        long slot = high != 0 ? clientSlots.get(high) : -1;
+        if (slot >= 0 && clientLows[(int) slot] == low) {
+            clientClicks[(int) slot] += clicks;
+            return;
+        }
+        if (slot >= 0 || high == 0) {
+            clientOverflow.merge(new UUID(high, low), clicks, Long::sum);
+            return;
+        }
+        if (clientCount == clientLows.length) {
+            clientHighs = Arrays.copyOf(clientHighs, clientCount * 2);
+            clientLows = Arrays.copyOf(clientLows, clientCount * 2);
+            clientClicks = Arrays.copyOf(clientClicks, clientCount * 2);
+        }
+        clientSlots.put(high, clientCount);
+        clientHighs[clientCount] = high;
+        clientLows[clientCount] = low;
+        clientClicks[clientCount] = clicks;
+        clientCount++;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.maga.urlshortener.journal;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One redirect as read back from the {@link ClickJournal}.
+ */
+public class ClickEvent {
+    private final long timeMillis;
+    private final long encodedCode;
+    private final LinkStatus outcome;
+    private final UUID clientId;
+
+    public ClickEvent(long timeMillis, long encodedCode, LinkStatus outcome, UUID clientId) {
+        this.timeMillis = timeMillis;
+        this.encodedCode = encodedCode;
+        this.outcome = outcome;
+        this.clientId = clientId;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Returns the short code packed by {@link ShortCodeCodec}, or {@link ShortCodeCodec#NOT_ENCODABLE}
+     * for a code that could not be packed, which is never a code the service issued.
+     */
+    public long getEncodedCode() {
+        return encodedCode;
+    }
+
+    /**
+     * Returns the short code, or null if it could not be recorded.
+     */
+    public String getShortCode() {
+        return encodedCode > 0 ? ShortCodeCodec.decode(encodedCode) : null;
+    }
+
+    public LinkStatus getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns who followed the link, or null if unknown.
+     */
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timeMillis) + " " + (encodedCode > 0 ? getShortCode() : "?") + " "
+                + outcome + " " + (clientId != null ? clientId : "-");
+    }
+}
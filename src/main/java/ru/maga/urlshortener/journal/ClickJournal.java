@@ -0,0 +1,231 @@
+package ru.maga.urlshortener.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary journal of redirects in memory-mapped segment files.
+ * Every event is a fixed 40-byte record: time, short code packed by {@link ShortCodeCodec}, client id,
+ * outcome and a commit marker. Writers claim a slot with one atomic add on the segment's position, fill it
+ * with plain stores and publish it by storing the marker with release semantics, so appends from any
+ * number of threads never lock or allocate. The thread whose claim runs past the end of a segment maps the
+ * next one; that is the only step that takes a lock.
+ * Records are in the page cache as soon as they are written and so survive a crash of the process;
+ * {@link #flush()} forces them to disk. Segments are never deleted; archive or remove old ones as needed.
+ */
+public class ClickJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ClickJournal.class);
+
+    static final int RECORD_BYTES = 40;
+    static final int TIME_OFFSET = 0;
+    static final int CODE_OFFSET = 8;
+    static final int CLIENT_HIGH_OFFSET = 16;
+    static final int CLIENT_LOW_OFFSET = 24;
+    static final int OUTCOME_OFFSET = 32;
+    static final int COMMIT_OFFSET = 36;
+    /**
+     * Marker of a fully written record; a claimed slot still being written reads as zero.
+     */
+    static final int COMMITTED = 0x4B4C4331;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, BYTE_ORDER);
+    static final String FILE_PREFIX = "clicks-";
+    static final String FILE_SUFFIX = ".journal";
+
+    private static final long RETRY_AFTER_FAILURE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Segment CLOSED = new Segment(-1, null, 0);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final LongAdder dropped = new LongAdder();
+    private volatile Segment current;
+    private long completedEvents;
+    private long retryAtNanos;
+    private boolean closed;
+
+    /**
+     * Opens a journal in the given directory; appends always go to a new segment after any existing ones.
+     *
+     * @param segmentBytes size of each segment file, rounded down to whole records
+     */
+    public ClickJournal(Path directory, long segmentBytes) {
+        if (segmentBytes < RECORD_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between " + RECORD_BYTES + " and "
+                    + Integer.MAX_VALUE + " bytes: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = (int) (segmentBytes - segmentBytes % RECORD_BYTES);
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing = listSegments(directory);
+            long sequence = existing.isEmpty() ? 0 : sequenceOf(existing.get(existing.size() - 1)) + 1;
+            this.current = openSegment(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open click journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Records a redirect. Never blocks, except for the one caller per segment that maps the next one;
+     * if that fails the event is dropped and counted in {@link #getDroppedCount()}.
+     *
+     * @param clientId who followed the link, or null if unknown
+     */
+    public void append(long timeMillis, String shortCode, UUID clientId, LinkStatus outcome) {
+        long code = ShortCodeCodec.encode(shortCode);
+        long clientHigh = clientId != null ? clientId.getMostSignificantBits() : 0;
+        long clientLow = clientId != null ? clientId.getLeastSignificantBits() : 0;
+        while (true) {
+            Segment segment = current;
+            long offset = segment.position.getAndAdd(RECORD_BYTES);
+            if (offset + RECORD_BYTES <= segment.capacity) {
+                ByteBuffer buffer = segment.buffer;
+                int index = (int) offset;
+                buffer.putLong(index + TIME_OFFSET, timeMillis);
+                buffer.putLong(index + CODE_OFFSET, code);
+                buffer.putLong(index + CLIENT_HIGH_OFFSET, clientHigh);
+                buffer.putLong(index + CLIENT_LOW_OFFSET, clientLow);
+                buffer.putInt(index + OUTCOME_OFFSET, outcome.ordinal());
+                INT_VIEW.setRelease(buffer, index + COMMIT_OFFSET, COMMITTED);
+                return;
+            }
+            if (!rotate(segment)) {
+                dropped.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forces the records of the current segment to disk.
+     */
+    public void flush() {
+        Segment segment = current;
+        if (segment.buffer != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Returns the number of events appended since the journal was opened.
+     */
+    public synchronized long getEventCount() {
+        Segment segment = current;
+        return completedEvents + Math.min(segment.position.get(), segment.capacity) / RECORD_BYTES;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        Segment segment = current;
+        completedEvents += Math.min(segment.position.get(), segment.capacity) / RECORD_BYTES;
+        closed = true;
+        current = CLOSED;
+    }
+
+    /**
+     * Replaces a full segment with the next one, unless another thread already has.
+     * Returns false if there is nowhere to write: the journal is closed or the next segment cannot be mapped.
+     */
+    private synchronized boolean rotate(Segment full) {
+        if (current != full) {
+            return true;
+        }
+        if (closed || System.nanoTime() - retryAtNanos < 0) {
+            return false;
+        }
+        try {
+            Segment next = openSegment(full.sequence + 1);
+            completedEvents += full.capacity / RECORD_BYTES;
+            current = next;
+            return true;
+        } catch (IOException e) {
+            logger.error("Cannot open click journal segment {} in {}", full.sequence + 1, directory, e);
+            retryAtNanos = System.nanoTime() + RETRY_AFTER_FAILURE_NANOS;
+            return false;
+        }
+    }
+
+    private Segment openSegment(long sequence) throws IOException {
+        Path file = directory.resolve(fileName(sequence));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.order(BYTE_ORDER);
+            return new Segment(sequence, buffer, segmentBytes);
+        }
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX);
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Returns the segment files in the directory, oldest first.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).forEach(segments::add);
+        }
+        // Sequence numbers are zero-padded, so names sort in order
+        segments.sort(null);
+        return segments;
+    }
+
+    private static final class Segment {
+        final long sequence;
+        final MappedByteBuffer buffer;
+        final long capacity;
+        final AtomicLong position = new AtomicLong();
+
+        Segment(long sequence, MappedByteBuffer buffer, long capacity) {
+            this.sequence = sequence;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+    }
+}
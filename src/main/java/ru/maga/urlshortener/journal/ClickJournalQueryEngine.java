@@ -0,0 +1,165 @@
+package ru.maga.urlshortener.journal;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates the click journal without loading it: segments are cut into chunks, each chunk is mapped
+ * read-only and scanned by a fork/join task into its own {@link ClickAggregate}, and partials are merged
+ * as the tasks join. The query's time range and link are checked on the raw record fields, and segments
+ * whose records all lie outside the time range are not read at all. Segments may be scanned while the
+ * journal is being written; records not committed yet are left out.
+ */
+public class ClickJournalQueryEngine {
+    /**
+     * How far a record's time may be from the order it was claimed in: the time is taken just before the
+     * slot is claimed, so a writer descheduled in between can land a little behind later records.
+     */
+    static final long SEGMENT_TIME_SLACK_MILLIS = 60_000;
+
+    private static final int CHUNK_RECORDS = 1 << 18;
+    private static final int OUTCOME_COUNT = LinkStatus.values().length;
+
+    private final Path directory;
+    private final ForkJoinPool pool;
+
+    public ClickJournalQueryEngine(Path directory) {
+        this(directory, ForkJoinPool.commonPool());
+    }
+
+    public ClickJournalQueryEngine(Path directory, ForkJoinPool pool) {
+        this.directory = directory;
+        this.pool = pool;
+    }
+
+    public ClickReport run(ClickQuery query) {
+        long start = System.nanoTime();
+        try {
+            List<Path> segments = ClickJournal.listSegments(directory);
+            long[] firstTimes = new long[segments.size()];
+            for (int i = 0; i < firstTimes.length; i++) {
+                firstTimes[i] = firstTimeOf(segments.get(i));
+            }
+
+            List<Chunk> chunks = new ArrayList<>();
+            int scanned = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                boolean startsAfter = firstTimes[i] != Long.MIN_VALUE
+                        && firstTimes[i] - SEGMENT_TIME_SLACK_MILLIS >= query.getToMillis();
+                boolean endsBefore = i + 1 < segments.size() && firstTimes[i + 1] != Long.MIN_VALUE
+                        && firstTimes[i + 1] + SEGMENT_TIME_SLACK_MILLIS < query.getFromMillis();
+                if (startsAfter || endsBefore) {
+                    continue;
+                }
+                scanned++;
+                long records = sizeOf(segments.get(i)) / ClickJournal.RECORD_BYTES;
+                for (long first = 0; first < records; first += CHUNK_RECORDS) {
+                    chunks.add(new Chunk(segments.get(i), first, (int) Math.min(CHUNK_RECORDS, records - first)));
+                }
+            }
+
+            ClickAggregate aggregate = chunks.isEmpty()
+                    ? new ClickAggregate()
+                    : pool.invoke(new ScanTask(chunks, 0, chunks.size(), query));
+            return new ClickReport(aggregate, scanned, segments.size() - scanned, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot query click journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the time of a segment's first record, or {@link Long#MIN_VALUE} if it is not committed yet.
+     */
+    private static long firstTimeOf(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(ClickJournal.RECORD_BYTES).order(ClickJournal.BYTE_ORDER);
+            while (record.hasRemaining()) {
+                if (channel.read(record, record.position()) < 0) {
+                    return Long.MIN_VALUE;
+                }
+            }
+            return record.getInt(ClickJournal.COMMIT_OFFSET) == ClickJournal.COMMITTED
+                    ? record.getLong(ClickJournal.TIME_OFFSET)
+                    : Long.MIN_VALUE;
+        }
+    }
+
+    private static long sizeOf(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.size();
+        }
+    }
+
+    private record Chunk(Path segment, long firstRecord, int records) {
+    }
+
+    private static final class ScanTask extends RecursiveTask<ClickAggregate> {
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final ClickQuery query;
+
+        ScanTask(List<Chunk> chunks, int from, int to, ClickQuery query) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.query = query;
+        }
+
+        @Override
+        protected ClickAggregate compute() {
+            if (to - from == 1) {
+                return scan(chunks.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask right = new ScanTask(chunks, middle, to, query);
+            right.fork();
+            ClickAggregate left = new ScanTask(chunks, from, middle, query).compute();
+            return left.merge(right.join());
+        }
+
+        private ClickAggregate scan(Chunk chunk) {
+            ClickAggregate aggregate = new ClickAggregate();
+            long bytes = (long) chunk.records() * ClickJournal.RECORD_BYTES;
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(chunk.segment(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        chunk.firstRecord() * ClickJournal.RECORD_BYTES, bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map click journal segment " + chunk.segment(), e);
+            }
+            buffer.order(ClickJournal.BYTE_ORDER);
+            for (int offset = 0; offset < bytes; offset += ClickJournal.RECORD_BYTES) {
+                if ((int) ClickJournal.INT_VIEW.getAcquire(buffer, offset + ClickJournal.COMMIT_OFFSET)
+                        != ClickJournal.COMMITTED) {
+                    continue;
+                }
+                long time = buffer.getLong(offset + ClickJournal.TIME_OFFSET);
+                long code = buffer.getLong(offset + ClickJournal.CODE_OFFSET);
+                int outcome = buffer.getInt(offset + ClickJournal.OUTCOME_OFFSET);
+                if (outcome < 0 || outcome >= OUTCOME_COUNT) {
+                    throw new IllegalStateException("Corrupt click record in " + chunk.segment() + " at "
+                            + (chunk.firstRecord() * ClickJournal.RECORD_BYTES + offset));
+                }
+                if (query.matches(time, code)) {
+                    aggregate.record(time, code, outcome,
+                            buffer.getLong(offset + ClickJournal.CLIENT_HIGH_OFFSET),
+                            buffer.getLong(offset + ClickJournal.CLIENT_LOW_OFFSET));
+                }
+            }
+            aggregate.scannedBytes = bytes;
+            return aggregate;
+        }
+    }
+}
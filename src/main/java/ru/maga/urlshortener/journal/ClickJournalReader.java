@@ -0,0 +1,176 @@
+package ru.maga.urlshortener.journal;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the events of a {@link ClickJournal} in the order they were claimed, and can follow it while it is
+ * being written. A slot that is not committed yet stops reading, since a writer may still be filling it.
+ * Once a newer segment exists such a slot can only belong to a writer that is about to finish or that died
+ * mid-write, so it is skipped after a grace period.
+ *
+ * <pre>
+ * java -cp url-shortener.jar ru.maga.urlshortener.journal.ClickJournalReader data/clicks [--follow]
+ * </pre>
+ */
+public class ClickJournalReader {
+    public static final long DEFAULT_SKIP_AFTER_MILLIS = 1000;
+
+    private static final LinkStatus[] OUTCOMES = LinkStatus.values();
+    private static final long FOLLOW_INTERVAL_MILLIS = 100;
+
+    private final Path directory;
+    private final long skipAfterNanos;
+    private long sequence = -1;
+    private MappedByteBuffer buffer;
+    private int offset;
+    private long waitingSinceNanos;
+    private long skippedCount;
+
+    public ClickJournalReader(Path directory) {
+        this(directory, DEFAULT_SKIP_AFTER_MILLIS);
+    }
+
+    /**
+     * @param skipAfterMillis how long an uncommitted slot in an older segment is waited for; 0 for a
+     *                        journal that is no longer written
+     */
+    public ClickJournalReader(Path directory, long skipAfterMillis) {
+        this.directory = directory;
+        this.skipAfterNanos = TimeUnit.MILLISECONDS.toNanos(skipAfterMillis);
+    }
+
+    /**
+     * Passes every event committed since the previous call to the consumer and returns how many there were.
+     */
+    public int poll(Consumer<ClickEvent> consumer) {
+        try {
+            int count = 0;
+            while (buffer != null || openNext()) {
+                while (offset + ClickJournal.RECORD_BYTES <= buffer.capacity() && isCommitted(offset)) {
+                    consumer.accept(decode(offset));
+                    offset += ClickJournal.RECORD_BYTES;
+                    waitingSinceNanos = 0;
+                    count++;
+                }
+                if (offset + ClickJournal.RECORD_BYTES <= buffer.capacity()) {
+                    if (!hasNewerSegment() || !waitedEnough()) {
+                        return count;
+                    }
+                    skipUncommitted();
+                    continue;
+                }
+                buffer = null;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read click journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the number of slots skipped because they were never committed.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    private boolean isCommitted(int index) {
+        return (int) ClickJournal.INT_VIEW.getAcquire(buffer, index + ClickJournal.COMMIT_OFFSET)
+                == ClickJournal.COMMITTED;
+    }
+
+    private ClickEvent decode(int index) {
+        int outcome = buffer.getInt(index + ClickJournal.OUTCOME_OFFSET);
+        if (outcome < 0 || outcome >= OUTCOMES.length) {
+            throw new IllegalStateException("Corrupt click record in segment " + sequence + " at " + index);
+        }
+        long clientHigh = buffer.getLong(index + ClickJournal.CLIENT_HIGH_OFFSET);
+        long clientLow = buffer.getLong(index + ClickJournal.CLIENT_LOW_OFFSET);
+        return new ClickEvent(
+                buffer.getLong(index + ClickJournal.TIME_OFFSET),
+                buffer.getLong(index + ClickJournal.CODE_OFFSET),
+                OUTCOMES[outcome],
+                clientHigh == 0 && clientLow == 0 ? null : new UUID(clientHigh, clientLow));
+    }
+
+    private boolean waitedEnough() {
+        long now = System.nanoTime();
+        if (waitingSinceNanos == 0) {
+            waitingSinceNanos = now;
+        }
+        return now - waitingSinceNanos >= skipAfterNanos;
+    }
+
+    /**
+     * Moves to the next committed slot of the segment, or to its end; unused slots at the end of a segment
+     * that was closed early are not counted as skipped.
+     */
+    private void skipUncommitted() {
+        int next = offset;
+        while (next + ClickJournal.RECORD_BYTES <= buffer.capacity() && !isCommitted(next)) {
+            next += ClickJournal.RECORD_BYTES;
+        }
+        if (next + ClickJournal.RECORD_BYTES <= buffer.capacity()) {
+            skippedCount += (next - offset) / ClickJournal.RECORD_BYTES;
+        }
+        offset = next;
+        waitingSinceNanos = 0;
+    }
+
+    private boolean hasNewerSegment() throws IOException {
+        List<Path> segments = ClickJournal.listSegments(directory);
+        return !segments.isEmpty() && ClickJournal.sequenceOf(segments.get(segments.size() - 1)) > sequence;
+    }
+
+    /**
+     * Maps the segment after the current one, if it exists and the writer has sized it.
+     */
+    private boolean openNext() throws IOException {
+        for (Path segment : ClickJournal.listSegments(directory)) {
+            long next = ClickJournal.sequenceOf(segment);
+            if (next <= sequence) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < ClickJournal.RECORD_BYTES) {
+                    return false;
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                buffer.order(ClickJournal.BYTE_ORDER);
+            }
+            sequence = next;
+            offset = 0;
+            return true;
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !"--follow".equals(args[1]))) {
+            System.err.println("Использование: ClickJournalReader <каталог журнала> [--follow]");
+            System.exit(2);
+        }
+        boolean follow = args.length == 2;
+        ClickJournalReader reader = new ClickJournalReader(Path.of(args[0]), follow ? DEFAULT_SKIP_AFTER_MILLIS : 0);
+        do {
+            if (reader.poll(System.out::println) == 0 && follow) {
+                Thread.sleep(FOLLOW_INTERVAL_MILLIS);
+            }
+        } while (follow);
+        if (reader.getSkippedCount() > 0) {
+            System.err.println("Пропущено незавершённых записей: " + reader.getSkippedCount());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.maga.urlshortener.journal;
+
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+/**
+ * Which events of the click journal a {@link ClickJournalQueryEngine} aggregates: a time range and
+ * optionally a single link. Both are checked on the raw records before anything is decoded, and the time
+ * range also skips whole segments.
+ */
+public class ClickQuery {
+    private final long fromMillis;
+    private final long toMillis;
+    private final String shortCode;
+    private final long encodedCode;
+
+    /**
+     * @param fromMillis start of the range in epoch milliseconds, inclusive
+     * @param toMillis   end of the range in epoch milliseconds, exclusive
+     * @param shortCode  the only link to include, or null for all links
+     */
+    public ClickQuery(long fromMillis, long toMillis, String shortCode) {
+        if (fromMillis >= toMillis) {
+            throw new IllegalArgumentException("Empty time range: " + fromMillis + ".." + toMillis);
+        }
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.shortCode = shortCode;
+        this.encodedCode = shortCode != null ? ShortCodeCodec.encode(shortCode) : 0;
+    }
+
+    /**
+     * Returns a query over all events of all links.
+     */
+    public static ClickQuery all() {
+        return new ClickQuery(Long.MIN_VALUE, Long.MAX_VALUE, null);
+    }
+
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    boolean matches(long timeMillis, long code) {
+        return timeMillis >= fromMillis && timeMillis < toMillis
+                && (shortCode == null || (code == encodedCode && code != ShortCodeCodec.NOT_ENCODABLE));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.maga.urlshortener.journal;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Result of a {@link ClickQuery}: outcome breakdown of the matching events, successful redirects per link,
+ * per link and hour and per client, and how much of the journal was scanned to get them.
+ */
+public class ClickReport {
+    private final ClickAggregate aggregate;
+    private final int segmentsScanned;
+    private final int segmentsSkipped;
+    private final long elapsedNanos;
+
+    ClickReport(ClickAggregate aggregate, int segmentsScanned, int segmentsSkipped, long elapsedNanos) {
+        this.aggregate = aggregate;
+        this.segmentsScanned = segmentsScanned;
+        this.segmentsSkipped = segmentsSkipped;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of events that matched the query, whatever their outcome.
+     */
+    public long getEventCount() {
+        return aggregate.events;
+    }
+
+    public Map<LinkStatus, Long> getOutcomes() {
+        Map<LinkStatus, Long> outcomes = new EnumMap<>(LinkStatus.class);
+        for (LinkStatus status : LinkStatus.values()) {
+            outcomes.put(status, aggregate.outcomes[status.ordinal()]);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Returns up to {@code limit} links with the most successful redirects, most clicked first.
+     */
+    public Map<String, Long> getTopLinks(int limit) {
+        PriorityQueue<long[]> top = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[1]));
+        aggregate.forEachLink((code, clicks) -> offer(top, limit, new long[]{code, clicks}));
+        Map<String, Long> links = new LinkedHashMap<>();
+        for (long[] entry : descending(top)) {
+            links.put(ShortCodeCodec.decode(entry[0]), entry[1]);
+        }
+        return links;
+    }
+
+    /**
+     * Returns up to {@code limit} clients with the most successful redirects, most active first.
+     */
+    public Map<UUID, Long> getTopClients(int limit) {
+        PriorityQueue<Map.Entry<UUID, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        aggregate.forEachClient((client, clicks) -> offer(top, limit, Map.entry(client, clicks)));
+        Map<UUID, Long> clients = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Long> entry : descending(top)) {
+            clients.put(entry.getKey(), entry.getValue());
+        }
+        return clients;
+    }
+
+    /**
+     * Returns the successful redirects of a link by the start of each hour that had any.
+     */
+    public SortedMap<Instant, Long> getHourlyClicks(String shortCode) {
+        SortedMap<Instant, Long> hourly = new TreeMap<>();
+        aggregate.forEachHour(ShortCodeCodec.encode(shortCode), (hour, clicks) ->
+                hourly.put(Instant.ofEpochMilli(hour * ClickAggregate.MILLIS_PER_HOUR), clicks));
+        return hourly;
+    }
+
+    public long getScannedBytes() {
+        return aggregate.scannedBytes;
+    }
+
+    public int getSegmentsScanned() {
+        return segmentsScanned;
+    }
+
+    /**
+     * Returns the number of segments left unread because they lie outside the query's time range.
+     */
+    public int getSegmentsSkipped() {
+        return segmentsSkipped;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the scan throughput in gigabytes (10^9 bytes) per second.
+     */
+    public double getGigabytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (double) aggregate.scannedBytes / elapsedNanos;
+    }
+
+    private static <T> void offer(PriorityQueue<T> top, int limit, T entry) {
+        top.add(entry);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static <T> List<T> descending(PriorityQueue<T> top) {
+        List<T> entries = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            entries.add(0, top.poll());
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,91 @@
+package ru.maga.urlshortener.loadgen;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Drives an HTTP front end, typically on localhost, with plain-text requests:
+ * <ul>
+ *     <li>{@code POST /api/users} returns the new user's UUID;</li>
+ *     <li>{@code POST /api/users/{userId}/links} with the URL as the body returns the short code;</li>
+ *     <li>{@code GET /{code}} answers with a redirect, or 404/410 if the link is gone;</li>
+ *     <li>{@code GET /api/links/{code}} returns the link's details, or 404/410;</li>
+ *     <li>{@code DELETE /api/users/{userId}/links/{code}} deletes the link.</li>
+ * </ul>
+ */
+public class HttpLoadTarget implements LoadTarget {
+    private final URI baseUri;
+    private final HttpClient client;
+
+    public HttpLoadTarget(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Override
+    public UUID createUser() {
+        return UUID.fromString(send(HttpRequest.newBuilder(resolve("/api/users"))
+                .POST(HttpRequest.BodyPublishers.noBody()), 200).trim());
+    }
+
+    @Override
+    public String createLink(UUID userId, String originalUrl) {
+        return send(HttpRequest.newBuilder(resolve("/api/users/" + userId + "/links"))
+                .POST(HttpRequest.BodyPublishers.ofString(originalUrl)), 200).trim();
+    }
+
+    @Override
+    public boolean redirect(String shortCode) {
+        return exchange(HttpRequest.newBuilder(resolve("/" + shortCode)).GET()) / 100 == 3;
+    }
+
+    @Override
+    public boolean info(String shortCode) {
+        return exchange(HttpRequest.newBuilder(resolve("/api/links/" + shortCode)).GET()) == 200;
+    }
+
+    @Override
+    public void delete(String shortCode, UUID userId) {
+        send(HttpRequest.newBuilder(resolve("/api/users/" + userId + "/links/" + shortCode)).DELETE(), 200);
+    }
+
+    private URI resolve(String path) {
+        return baseUri.resolve(path);
+    }
+
+    private String send(HttpRequest.Builder request, int expectedStatus) {
+        HttpResponse<String> response = call(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " from " + response.uri());
+        }
+        return response.body();
+    }
+
+    private int exchange(HttpRequest.Builder request) {
+        int status = call(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status >= 500) {
+            throw new IllegalStateException("Server error " + status);
+        }
+        return status;
+    }
+
+    private <T> HttpResponse<T> call(HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return client.send(request.timeout(Duration.ofSeconds(10)).build(), handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.maga.urlshortener.loadgen;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ResolvedLink;
+import ru.maga.urlshortener.service.LinkManagementService;
+
+import java.util.UUID;
+
+/**
+ * Drives a {@link LinkManagementService} in the same JVM, calling the same methods the CLI uses.
+ */
+public class InProcessLoadTarget implements LoadTarget {
+    private final LinkManagementService linkService;
+    private final ThreadLocal<ResolvedLink> resolved = ThreadLocal.withInitial(ResolvedLink::new);
+
+    public InProcessLoadTarget(LinkManagementService linkService) {
+        this.linkService = linkService;
+    }
+
+    @Override
+    public UUID createUser() {
+        return linkService.createUser();
+    }
+
+    @Override
+    public String createLink(UUID userId, String originalUrl) {
+        return linkService.createShortUrl(originalUrl, userId, -1).getShortCode();
+    }
+
+    @Override
+    public boolean redirect(String shortCode) {
+        return linkService.resolve(shortCode, resolved.get()) == LinkStatus.ACTIVE;
+    }
+
+    @Override
+    public boolean info(String shortCode) {
+        return linkService.getShortUrlInfo(shortCode).isPresent();
+    }
+
+    @Override
+    public void delete(String shortCode, UUID userId) {
+        linkService.deleteShortUrl(shortCode, userId);
+    }
+}
@@ -0,0 +1,273 @@
+package ru.maga.urlshortener.loadgen;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.metrics.LatencyHistogram;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+import ru.maga.urlshortener.repository.UserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+import ru.maga.urlshortener.util.CachedTimeSource;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Macro-benchmark driver: builds a population of users and links through a {@link LoadTarget},
+ * then replays a weighted mix of creates, redirects, info calls and deletes from many threads.
+ * Redirects and info calls pick links of the initial population with Zipf popularity; deletes remove
+ * links the same thread created earlier, so the population the popularity applies to stays stable.
+ * With a target rate the load is open-loop: latency is measured from when a request was due,
+ * so a stalled system is charged for the requests queued behind the stall.
+ * Prints throughput and p50/p99/p999 latency for every report interval and a per-operation summary.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final LoadTarget target;
+    private final LoadOptions options;
+    private final PrintStream out;
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final LatencyHistogram intervalLatencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final Operation[] operationTable;
+    private UUID[] users;
+    private String[] codes;
+    private ZipfSampler sampler;
+
+    public LoadGenerator(LoadTarget target, LoadOptions options, PrintStream out) {
+        this.target = target;
+        this.options = options;
+        this.out = out;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        List<Operation> table = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            for (int i = 0; i < options.getWeight(operation); i++) {
+                table.add(operation);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Смесь операций пуста");
+        }
+        this.operationTable = table.toArray(new Operation[0]);
+    }
+
+    /**
+     * Builds the population, runs the load for the configured duration and returns the latencies
+     * recorded per operation.
+     */
+    public Map<Operation, LatencyHistogram> run() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getThreads());
+        try {
+            populate(workers);
+            sampler = new ZipfSampler(codes.length, options.getZipfExponent());
+            replay(workers);
+        } finally {
+            workers.shutdownNow();
+        }
+        printSummary();
+        return latencies;
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    private void populate(ExecutorService workers) throws InterruptedException {
+        long start = System.nanoTime();
+        users = new UUID[options.getUsers()];
+        codes = new String[options.getLinks()];
+        runOnAllThreads(workers, thread -> {
+            for (int i = thread; i < users.length; i += options.getThreads()) {
+                users[i] = target.createUser();
+            }
+        });
+        runOnAllThreads(workers, thread -> {
+            for (int i = thread; i < codes.length; i += options.getThreads()) {
+                codes[i] = target.createLink(users[i % users.length], "https://example.com/page/" + i);
+            }
+        });
+        out.printf("Создано пользователей: %d, ссылок: %d за %.1f с%n",
+                users.length, codes.length, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void replay(ExecutorService workers) throws InterruptedException {
+        long intervalNanos = options.getRate() > 0
+                ? (long) (1e9 * options.getThreads() / options.getRate())
+                : 0;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> reportInterval(start), options.getReportIntervalSeconds(),
+                options.getReportIntervalSeconds(), TimeUnit.SECONDS);
+        try {
+            runOnAllThreads(workers, thread -> {
+                SplittableRandom random = new SplittableRandom(thread * 0x9E3779B97F4A7C15L + start);
+                ArrayDeque<String[]> created = new ArrayDeque<>();
+                // Spread the threads' schedules evenly over one interval
+                long due = start + intervalNanos * thread / options.getThreads();
+                while (true) {
+                    long now = System.nanoTime();
+                    if (intervalNanos > 0) {
+                        if (due - now > 0) {
+                            LockSupport.parkNanos(due - now);
+                        }
+                    } else {
+                        due = now;
+                    }
+                    if (due - end >= 0 || Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    Operation operation = operationTable[random.nextInt(operationTable.length)];
+                    try {
+                        operation = execute(operation, random, created);
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                        logger.debug("Load operation {} failed", operation, e);
+                    }
+                    long latency = System.nanoTime() - due;
+                    latencies.get(operation).record(latency);
+                    intervalLatencies.record(latency);
+                    due += intervalNanos;
+                }
+            });
+        } finally {
+            reporter.shutdownNow();
+        }
+    }
+
+    /**
+     * Performs the operation and returns the one actually performed.
+     */
+    private Operation execute(Operation operation, SplittableRandom random, ArrayDeque<String[]> created) {
+        switch (operation) {
+            case REDIRECT -> target.redirect(codes[sampler.next(random)]);
+            case INFO -> target.info(codes[sampler.next(random)]);
+            case DELETE -> {
+                String[] link = created.pollFirst();
+                if (link == null) {
+                    // Nothing of our own to delete yet
+                    return execute(Operation.CREATE, random, created);
+                }
+                target.delete(link[0], UUID.fromString(link[1]));
+            }
+            case CREATE -> {
+                UUID userId = users[random.nextInt(users.length)];
+                String code = target.createLink(userId, "https://example.org/new/" + random.nextLong());
+                created.addLast(new String[]{code, userId.toString()});
+            }
+        }
+        return operation;
+    }
+
+    private void reportInterval(long start) {
+        LatencyHistogram interval = intervalLatencies.drain();
+        out.printf("%6.1f с  %10.0f оп/с  p50=%s  p99=%s  p999=%s  max=%s  ошибок=%d%n",
+                (System.nanoTime() - start) / 1e9,
+                (double) interval.getCount() / options.getReportIntervalSeconds(),
+                formatLatency(interval.getValueAtPercentile(50)),
+                formatLatency(interval.getValueAtPercentile(99)),
+                formatLatency(interval.getValueAtPercentile(99.9)),
+                formatLatency(interval.getMax()),
+                errors.sum());
+    }
+
+    private void printSummary() {
+        out.println("Итого:");
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.printf("  %-8s %10d оп  %10.0f оп/с  p50=%s  p99=%s  p999=%s  max=%s%n",
+                    entry.getKey(),
+                    histogram.getCount(),
+                    (double) histogram.getCount() / options.getDurationSeconds(),
+                    formatLatency(histogram.getValueAtPercentile(50)),
+                    formatLatency(histogram.getValueAtPercentile(99)),
+                    formatLatency(histogram.getValueAtPercentile(99.9)),
+                    formatLatency(histogram.getMax()));
+        }
+        out.printf("  Ошибок: %d%n", errors.sum());
+    }
+
+    private void runOnAllThreads(ExecutorService workers, ThreadTask task) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < options.getThreads(); thread++) {
+            int index = thread;
+            futures.add(workers.submit(() -> task.run(index)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Нагрузочный поток завершился с ошибкой", e.getCause());
+            }
+        }
+    }
+
+    private static String formatLatency(long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.1fмс", nanos / 1e6);
+        }
+        return String.format("%.1fмкс", nanos / 1e3);
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadOptions options = LoadOptions.parse(args);
+        // Per-request INFO logs would measure the appender instead of the service
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("ru.maga.urlshortener")).setLevel(Level.WARN);
+
+        try (CachedTimeSource timeSource = new CachedTimeSource(10);
+             LoadTarget target = createTarget(options.getTarget(), timeSource)) {
+            LoadGenerator generator = new LoadGenerator(target, options, System.out);
+            generator.run();
+        }
+    }
+
+    private static LoadTarget createTarget(String target, CachedTimeSource timeSource) {
+        if (!"inprocess".equals(target)) {
+            return new HttpLoadTarget(URI.create(target));
+        }
+        UserRepository userRepository = new InMemoryUserRepository();
+        AppConfig config = new AppConfig();
+        ShortUrlRepository shortUrlRepository = new InMemoryShortUrlRepository(
+                config.getFilterExpectedLinks(), config.getFilterFalsePositiveRate());
+        return new InProcessLoadTarget(LinkManagementService.builder(
+                        userRepository,
+                        shortUrlRepository,
+                        new UrlShortenerService(config.getShortenerCodeLength()),
+                        new NotificationService(false),
+                        config)
+                .timeSource(timeSource)
+                .build());
+    }
+}
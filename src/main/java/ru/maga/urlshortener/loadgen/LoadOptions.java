@@ -0,0 +1,118 @@
+package ru.maga.urlshortener.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load run, parsed from {@code --name value} command-line pairs.
+ */
+public class LoadOptions {
+    private String target = "inprocess";
+    private int users = 1_000;
+    private int links = 100_000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int rate = 0;
+    private int durationSeconds = 30;
+    private int reportIntervalSeconds = 1;
+    private double zipfExponent = 1.1;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    public LoadOptions() {
+        mix.put(Operation.CREATE, 2);
+        mix.put(Operation.REDIRECT, 90);
+        mix.put(Operation.INFO, 6);
+        mix.put(Operation.DELETE, 2);
+    }
+
+    /**
+     * Parses options such as {@code --threads 8 --rate 50000 --mix redirect=95,info=5}.
+     * {@code --target} is {@code inprocess} or the base URL of an HTTP front end, e.g. {@code http://localhost:8080}.
+     */
+    public static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Ожидается --параметр значение: " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i].substring(2)) {
+                case "target" -> options.target = value;
+                case "users" -> options.users = positive(args[i], value);
+                case "links" -> options.links = positive(args[i], value);
+                case "threads" -> options.threads = positive(args[i], value);
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = positive(args[i], value);
+                case "report-interval" -> options.reportIntervalSeconds = positive(args[i], value);
+                case "zipf" -> options.zipfExponent = Double.parseDouble(value);
+                case "mix" -> options.parseMix(value);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+            }
+        }
+        return options;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getLinks() {
+        return links;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the target rate in operations per second across all threads; 0 runs as fast as possible.
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getWeight(Operation operation) {
+        return mix.get(operation);
+    }
+
+    private void parseMix(String value) {
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, 0);
+        }
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Ожидается операция=вес: " + part);
+            }
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase());
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Вес операции не может быть отрицательным: " + part);
+            }
+            mix.put(operation, weight);
+        }
+    }
+
+    private static int positive(String name, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException("Значение " + name + " должно быть положительным: " + value);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.maga.urlshortener.loadgen;
+
+import java.util.UUID;
+
+/**
+ * The system a {@link LoadGenerator} drives: the in-process service API or a network front end.
+ * Methods throw on errors; a redirect or info call for a code that is gone is not an error.
+ */
+public interface LoadTarget extends AutoCloseable {
+
+    UUID createUser();
+
+    /**
+     * Creates a link with no click limit and returns its short code.
+     */
+    String createLink(UUID userId, String originalUrl);
+
+    /**
+     * Follows the short code and returns whether it resolved to a URL.
+     */
+    boolean redirect(String shortCode);
+
+    /**
+     * Reads the link's details and returns whether the link was found.
+     */
+    boolean info(String shortCode);
+
+    void delete(String shortCode, UUID userId);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,11 @@
+package ru.maga.urlshortener.loadgen;
+
+/**
+ * Kinds of requests a {@link LoadGenerator} replays.
+ */
+public enum Operation {
+    CREATE,
+    REDIRECT,
+    INFO,
+    DELETE
+}
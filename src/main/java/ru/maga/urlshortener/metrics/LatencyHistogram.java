@@ -0,0 +1,133 @@
+package ru.maga.urlshortener.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear histogram of latencies in nanoseconds.
+ * Each power of two is split into 32 linear buckets, so any recorded value is reported within about 3%
+ * of its true value, from single nanoseconds up to hours, in a fixed 15 KB table per stripe. Recording is a
+ * few uncontended atomic updates and never allocates: the bucket table is striped by thread, so threads
+ * recording similar latencies do not fight over the same counter.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final int STRIPES = Math.min(16,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    // STRIPES consecutive tables of BUCKET_COUNT counters
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        counts.incrementAndGet(stripe * BUCKET_COUNT + indexOf(value));
+        count.increment();
+        sum.add(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0.0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Returns the value at or below which the given percentage (0-100) of recorded values fall,
+     * as the upper bound of the bucket holding it; 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] buckets = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucket = counts.get(i);
+            buckets[i % BUCKET_COUNT] += bucket;
+            total += bucket;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Adds all values recorded in the other histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long bucket = other.counts.get(i);
+            if (bucket != 0) {
+                counts.addAndGet(i, bucket);
+            }
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        long otherMax = other.max.get();
+        long currentMax = max.get();
+        while (otherMax > currentMax && !max.compareAndSet(currentMax, otherMax)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Moves everything recorded so far into a new histogram and leaves this one empty,
+     * e.g. to report one interval at a time while recording continues.
+     */
+    public LatencyHistogram drain() {
+        LatencyHistogram drained = new LatencyHistogram();
+        for (int i = 0; i < counts.length(); i++) {
+            long bucket = counts.getAndSet(i, 0);
+            if (bucket != 0) {
+                drained.counts.set(i, bucket);
+            }
+        }
+        drained.count.add(count.sumThenReset());
+        drained.sum.add(sum.sumThenReset());
+        drained.max.set(max.getAndSet(0));
+        return drained;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.maga.urlshortener.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimated heap held by the service's data structures, by component, and a projection of the heap
+ * needed for another number of links.
+ * The projection keeps fixed-size components as they are and scales everything else linearly with
+ * the link count, so it assumes future links look like the current ones (URL lengths, links per owner).
+ */
+public class MemoryFootprint {
+    /**
+     * Share of the heap the live data should stay under to leave the collector room to work.
+     */
+    public static final double TARGET_HEAP_OCCUPANCY = 0.5;
+
+    private final Map<String, Long> components;
+    private final long linkCount;
+    private final long fixedBytes;
+
+    /**
+     * @param components estimated bytes by component name
+     * @param linkCount  number of links the estimate was taken at
+     * @param fixedBytes part of the total that does not grow with the number of links
+     */
+    public MemoryFootprint(Map<String, Long> components, long linkCount, long fixedBytes) {
+        this.components = Collections.unmodifiableMap(new LinkedHashMap<>(components));
+        this.linkCount = linkCount;
+        this.fixedBytes = fixedBytes;
+    }
+
+    public Map<String, Long> getComponents() {
+        return components;
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (long bytes : components.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    public long getLinkCount() {
+        return linkCount;
+    }
+
+    /**
+     * Returns the average bytes each link adds, or 0 if there are no links to measure.
+     */
+    public double getBytesPerLink() {
+        return linkCount == 0 ? 0.0 : (double) (getTotalBytes() - fixedBytes) / linkCount;
+    }
+
+    /**
+     * Projects the live data for the given number of links; needs at least one link to measure.
+     */
+    public long projectLiveBytes(long targetLinks) {
+        if (linkCount == 0) {
+            throw new IllegalStateException("Нет ссылок для оценки памяти на ссылку");
+        }
+        return fixedBytes + Math.round(getBytesPerLink() * targetLinks);
+    }
+
+    /**
+     * Projects the maximum heap size to configure for the given number of links.
+     */
+    public long projectHeapBytes(long targetLinks) {
+        return Math.round(projectLiveBytes(targetLinks) / TARGET_HEAP_OCCUPANCY);
+    }
+}
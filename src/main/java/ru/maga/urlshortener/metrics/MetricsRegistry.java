@@ -0,0 +1,232 @@
+package ru.maga.urlshortener.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named counters, gauges and latency histograms of the service.
+ * Metrics are created once and kept by the code that records them, so recording is a single
+ * {@link LongAdder} or {@link LatencyHistogram} update without any lookup.
+ * Once {@link #registerMBeans} is called, every metric, including ones created later, is also
+ * published as an MXBean under {@code ru.maga.urlshortener:type=<kind>,name=<name>}.
+ */
+public class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final String DOMAIN = "ru.maga.urlshortener";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> views = new ConcurrentHashMap<>();
+    private volatile Supplier<MemoryFootprint> memoryFootprint;
+    private volatile MBeanServer mbeanServer;
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> {
+            LongAdder counter = new LongAdder();
+            register("counter", key, (CounterMXBean) counter::sum, CounterMXBean.class);
+            return counter;
+        });
+    }
+
+    /**
+     * Registers a gauge whose value is read from the supplier whenever it is reported.
+     */
+    public void gauge(String name, LongSupplier value) {
+        if (gauges.putIfAbsent(name, value) == null) {
+            register("gauge", name, (GaugeMXBean) value::getAsLong, GaugeMXBean.class);
+        }
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating it on first use.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            register("histogram", key, new HistogramView(histogram), HistogramMXBean.class);
+            return histogram;
+        });
+    }
+
+    /**
+     * Sets where the memory footprint is taken from; it is computed on every read, since it may scan all links.
+     */
+    public void memoryFootprint(Supplier<MemoryFootprint> source) {
+        this.memoryFootprint = source;
+        view("memory", "footprint", new MemoryView(source), MemoryFootprintMXBean.class);
+    }
+
+    /**
+     * Publishes a component's own MXBean next to the metrics, e.g. a view that cannot be reduced to numbers.
+     */
+    public <T> void view(String type, String name, T view, Class<T> mxbeanInterface) {
+        Runnable registration = () -> register(type, name, view, mxbeanInterface);
+        if (views.putIfAbsent(type + "/" + name, registration) == null) {
+            registration.run();
+        }
+    }
+
+    public MemoryFootprint getMemoryFootprint() {
+        Supplier<MemoryFootprint> source = memoryFootprint;
+        return source != null ? source.get() : null;
+    }
+
+    /**
+     * Returns the current counter and gauge values by name.
+     */
+    public SortedMap<String, Long> getValues() {
+        SortedMap<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    public SortedMap<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Publishes all metrics, present and future, on the given MBean server.
+     */
+    public synchronized void registerMBeans(MBeanServer server) {
+        this.mbeanServer = server;
+        counters.forEach((name, counter) -> register("counter", name, (CounterMXBean) counter::sum, CounterMXBean.class));
+        gauges.forEach((name, gauge) -> register("gauge", name, (GaugeMXBean) gauge::getAsLong, GaugeMXBean.class));
+        histograms.forEach((name, histogram) ->
+                register("histogram", name, new HistogramView(histogram), HistogramMXBean.class));
+        views.values().forEach(Runnable::run);
+    }
+
+    private synchronized <T> void register(String type, String name, T metric, Class<T> mxbeanInterface) {
+        MBeanServer server = mbeanServer;
+        if (server == null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new StandardMBean(metric, mxbeanInterface, true), objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Failed to register metric {} in JMX", name, e);
+        }
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public interface GaugeMXBean {
+        long getValue();
+    }
+
+    /**
+     * Latency distribution since start; all values in nanoseconds.
+     */
+    public interface HistogramMXBean {
+        long getCount();
+
+        double getMeanNanos();
+
+        long getP50Nanos();
+
+        long getP99Nanos();
+
+        long getP999Nanos();
+
+        long getMaxNanos();
+    }
+
+    /**
+     * Estimated heap use of the service's data; every read recomputes the estimate.
+     */
+    public interface MemoryFootprintMXBean {
+        Map<String, Long> getComponents();
+
+        long getTotalBytes();
+
+        long getLinkCount();
+
+        double getBytesPerLink();
+
+        /**
+         * Returns the maximum heap size to configure for the given number of links.
+         */
+        long projectHeapBytes(long targetLinks);
+    }
+
+    private record MemoryView(Supplier<MemoryFootprint> source) implements MemoryFootprintMXBean {
+        @Override
+        public Map<String, Long> getComponents() {
+            return source.get().getComponents();
+        }
+
+        @Override
+        public long getTotalBytes() {
+            return source.get().getTotalBytes();
+        }
+
+        @Override
+        public long getLinkCount() {
+            return source.get().getLinkCount();
+        }
+
+        @Override
+        public double getBytesPerLink() {
+            return source.get().getBytesPerLink();
+        }
+
+        @Override
+        public long projectHeapBytes(long targetLinks) {
+            return source.get().projectHeapBytes(targetLinks);
+        }
+    }
+
+    private record HistogramView(LatencyHistogram histogram) implements HistogramMXBean {
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMeanNanos() {
+            return histogram.getMean();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return histogram.getValueAtPercentile(50);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return histogram.getValueAtPercentile(99);
+        }
+
+        @Override
+        public long getP999Nanos() {
+            return histogram.getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return histogram.getMax();
+        }
+    }
+}
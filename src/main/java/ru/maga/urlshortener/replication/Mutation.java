@@ -0,0 +1,104 @@
+package ru.maga.urlshortener.replication;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.time.Instant;
+
+/**
+ * One change to the links of the primary, numbered in the order it was made.
+ * What {@link #getValue()} holds depends on the type: the time of death for {@link Type#BURY}, the new
+ * limit for {@link Type#LIMIT}, the click count reached for {@link Type#CLICKS} and the cut-off time for
+ * {@link Type#PRUNE}.
+ */
+public final class Mutation {
+    public enum Type {
+        SAVE,
+        DELETE,
+        BURY,
+        LIMIT,
+        CLICKS,
+        PRUNE
+    }
+
+    private final long sequence;
+    private final long timeMillis;
+    private final Type type;
+    private final String shortCode;
+    private final ShortUrl link;
+    private final LinkStatus reason;
+    private final long value;
+
+    Mutation(long sequence, long timeMillis, Type type, String shortCode, ShortUrl link, LinkStatus reason,
+             long value) {
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.type = type;
+        this.shortCode = shortCode;
+        this.link = link;
+        this.reason = reason;
+        this.value = value;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns when the primary made the change, by its clock.
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the code of the changed link, or null for {@link Type#PRUNE}.
+     */
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    /**
+     * Returns the saved link for {@link Type#SAVE}, or null.
+     */
+    public ShortUrl getLink() {
+        return link;
+    }
+
+    /**
+     * Returns why the link was removed for {@link Type#BURY}, or null.
+     */
+    public LinkStatus getReason() {
+        return reason;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder()
+                .append(sequence).append(' ')
+                .append(Instant.ofEpochMilli(timeMillis)).append(' ')
+                .append(type);
+        if (shortCode != null) {
+            line.append(' ').append(shortCode);
+        }
+        switch (type) {
+            case SAVE -> line.append(' ').append(link.getOriginalUrl())
+                    .append(" clicks=").append(link.getClickCount()).append('/').append(link.getClickLimit());
+            case BURY -> line.append(' ').append(reason);
+            case LIMIT -> line.append(" limit=").append(value);
+            case CLICKS -> line.append(" clicks=").append(value);
+            case PRUNE -> line.append(" before=").append(Instant.ofEpochMilli(value));
+            default -> {
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package ru.maga.urlshortener.replication;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Repository of a replica as the service sees it: reads and clicks go to the repository the
+ * {@link ReplicaClient} applies mutations to, while creating, changing and deleting links is rejected, since
+ * such changes would never reach the primary and the next snapshot would wipe them. Expired links are left for
+ * the primary to bury: burials for expiry do nothing and report that nothing was buried. Lookups by code return
+ * a copy, so a change rejected here leaves the replica's link as it was.
+ */
+public final class ReadOnlyShortUrlRepository implements ShortUrlRepository {
+    static final String READ_ONLY_MESSAGE = "Реплика только обслуживает переходы: ссылки изменяются на основном узле";
+
+    private final ShortUrlRepository delegate;
+
+    public ReadOnlyShortUrlRepository(ShortUrlRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    public ShortUrlRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void save(ShortUrl shortUrl) {
+        throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+    }
+
+    @Override
+    public void saveAll(Collection<ShortUrl> shortUrls) {
+        throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        return delegate.findByShortCode(shortCode).map(link -> new ShortUrl(link.getShortCode(),
+                link.getOriginalUrl(), link.getOwnerId(), link.getCreatedAtMillis(), link.getExpiresAtMillis(),
+                link.getClickLimit(), link.getClickCount()));
+    }
+
+    @Override
+    public ShortUrl getByShortCode(String shortCode) {
+        return delegate.getByShortCode(shortCode);
+    }
+
+    @Override
+    public List<ShortUrl> findByOwnerId(UUID ownerId) {
+        return delegate.findByOwnerId(ownerId);
+    }
+
+    /**
+     * Counts the click locally; the primary's count overtakes it as it arrives.
+     */
+    @Override
+    public void recordClick(ShortUrl shortUrl) {
+        delegate.recordClick(shortUrl);
+    }
+
+    @Override
+    public boolean tryClick(ShortUrl shortUrl) {
+        return delegate.tryClick(shortUrl);
+    }
+
+    @Override
+    public void update(ShortUrl shortUrl) {
+        throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+    }
+
+    @Override
+    public void delete(String shortCode) {
+        throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+    }
+
+    @Override
+    public boolean bury(String shortCode, LinkStatus reason, long atMillis) {
+        rejectUnlessExpiry(reason);
+        return false;
+    }
+
+    @Override
+    public List<ShortUrl> buryIf(Predicate<ShortUrl> predicate, LinkStatus reason, long atMillis) {
+        rejectUnlessExpiry(reason);
+        return List.of();
+    }
+
+    @Override
+    public Optional<LinkStatus> findTombstone(String shortCode) {
+        return delegate.findTombstone(shortCode);
+    }
+
+    @Override
+    public boolean isTombstoned(String shortCode) {
+        return delegate.isTombstoned(shortCode);
+    }
+
+    /**
+     * Does nothing: tombstones are pruned when the primary's prune arrives.
+     */
+    @Override
+    public int pruneTombstones(long olderThanMillis) {
+        return 0;
+    }
+
+    @Override
+    public int tombstoneCount() {
+        return delegate.tombstoneCount();
+    }
+
+    @Override
+    public void forEachTombstone(TombstoneConsumer action) {
+        delegate.forEachTombstone(action);
+    }
+
+    @Override
+    public boolean restoreTombstone(String shortCode, LinkStatus reason, long atMillis) {
+        throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+    }
+
+    @Override
+    public boolean removeTombstone(String shortCode) {
+        throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+    }
+
+    @Override
+    public List<ShortUrl> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean exists(String shortCode) {
+        return delegate.exists(shortCode);
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        return delegate.getMemoryFootprint();
+    }
+
+    @Override
+    public double filterExpectedFalsePositiveRate() {
+        return delegate.filterExpectedFalsePositiveRate();
+    }
+
+    @Override
+    public double filterObservedFalsePositiveRate() {
+        return delegate.filterObservedFalsePositiveRate();
+    }
+
+    @Override
+    public long filterRejectionCount() {
+        return delegate.filterRejectionCount();
+    }
+
+    @Override
+    public long filterMemoryBytes() {
+        return delegate.filterMemoryBytes();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static void rejectUnlessExpiry(LinkStatus reason) {
+        if (reason != LinkStatus.EXPIRED) {
+            throw new UnsupportedOperationException(READ_ONLY_MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package ru.maga.urlshortener.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Replica side of replication: follows a {@link ReplicationServer} and applies its mutations to a local
+ * repository, from a thread of its own. The replica reconnects whenever the connection is lost and
+ * continues from the last mutation it applied, or from a snapshot if the primary no longer has it. Every
+ * mutation can be applied twice: saves replace, removals of missing links do nothing, and click counts only
+ * ever move up. Clicks counted by the replica itself are not sent to the primary, and are overtaken by the
+ * primary's counts as they arrive.
+ */
+public class ReplicaClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaClient.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final long MIN_RETRY_MILLIS = 100;
+    private static final long MAX_RETRY_MILLIS = 5000;
+
+    private final InetSocketAddress primary;
+    private final ShortUrlRepository repository;
+    private final Consumer<Mutation> listener;
+    private volatile Thread follower;
+    private volatile Socket socket;
+    private volatile boolean closed;
+    private volatile boolean connected;
+    private volatile long epoch;
+    private volatile long appliedSequence;
+    private volatile long appliedTimeMillis;
+    private volatile long primarySequence;
+    private volatile long primaryTimeMillis;
+    private volatile long snapshotCount;
+
+    public ReplicaClient(InetSocketAddress primary, ShortUrlRepository repository) {
+        this(primary, repository, mutation -> {
+        });
+    }
+
+    /**
+     * Creates a replica of the primary; {@link #start()} begins following it.
+     *
+     * @param listener called with every mutation after it is applied, on the replication thread
+     */
+    public ReplicaClient(InetSocketAddress primary, ShortUrlRepository repository, Consumer<Mutation> listener) {
+        this.primary = primary;
+        this.repository = repository;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts following the primary on a thread of its own; returns this replica.
+     */
+    public ReplicaClient start() {
+        Thread thread = new Thread(this::followLoop, "replication-replica");
+        thread.setDaemon(true);
+        follower = thread;
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Returns the sequence number of the last mutation applied.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Returns how many mutations the primary had made that are not applied here yet, as of the last
+     * heartbeat or mutation received.
+     */
+    public long getLagMutations() {
+        return Math.max(0, primarySequence - appliedSequence);
+    }
+
+    /**
+     * Returns how far behind the primary the replica is, by the primary's clock: the time from the last
+     * applied mutation to the last heartbeat, or 0 if nothing is pending.
+     */
+    public long getLagMillis() {
+        if (getLagMutations() == 0) {
+            return 0;
+        }
+        return Math.max(0, primaryTimeMillis - appliedTimeMillis);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns how many snapshots have been loaded, i.e. how many times the replica started over.
+     */
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                logger.debug("Cannot close connection to primary", e);
+            }
+        }
+        Thread thread = follower;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(CONNECT_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void followLoop() {
+        long retryMillis = MIN_RETRY_MILLIS;
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(primary, CONNECT_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                follow(connection);
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Lost connection to primary {}: {}", primary, e.getMessage());
+                }
+            }
+            if (connected) {
+                // Back off only while the primary cannot be reached at all
+                connected = false;
+                retryMillis = MIN_RETRY_MILLIS;
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+        out.writeInt(ReplicationProtocol.MAGIC);
+        out.writeLong(epoch);
+        out.writeLong(appliedSequence);
+        out.flush();
+        byte start = in.readByte();
+        if (start == ReplicationProtocol.SNAPSHOT) {
+            loadSnapshot(in);
+        } else if (start == ReplicationProtocol.RESUME) {
+            epoch = in.readLong();
+        } else {
+            throw new IOException("Unexpected frame from primary: " + start);
+        }
+        connected = true;
+        logger.info("Following primary {} from mutation {}", primary, appliedSequence);
+        while (!closed) {
+            byte frame = in.readByte();
+            if (frame == ReplicationProtocol.MUTATION) {
+                Mutation mutation = ReplicationProtocol.readMutation(in);
+                apply(mutation);
+                primarySequence = Math.max(primarySequence, mutation.getSequence());
+                primaryTimeMillis = Math.max(primaryTimeMillis, mutation.getTimeMillis());
+                appliedTimeMillis = mutation.getTimeMillis();
+                appliedSequence = mutation.getSequence();
+                listener.accept(mutation);
+            } else if (frame == ReplicationProtocol.HEARTBEAT) {
+                primarySequence = in.readLong();
+                primaryTimeMillis = in.readLong();
+            } else {
+                throw new IOException("Unexpected frame from primary: " + frame);
+            }
+        }
+    }
+
+    /**
+     * Replaces the local links with the snapshot's; tombstones are kept.
+     */
+    private void loadSnapshot(DataInputStream in) throws IOException {
+        long snapshotEpoch = in.readLong();
+        long sequence = in.readLong();
+        int count = in.readInt();
+        Set<String> codes = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            ShortUrl link = ReplicationProtocol.readLink(in);
+            repository.save(link);
+            codes.add(link.getShortCode());
+        }
+        List<ShortUrl> local = repository.findAll();
+        for (ShortUrl link : local) {
+            if (!codes.contains(link.getShortCode())) {
+                repository.delete(link.getShortCode());
+            }
+        }
+        epoch = snapshotEpoch;
+        appliedSequence = sequence;
+        primarySequence = sequence;
+        snapshotCount++;
+        logger.info("Loaded snapshot of {} links at mutation {}", count, sequence);
+    }
+
+    private void apply(Mutation mutation) {
+        switch (mutation.getType()) {
+            case SAVE -> repository.save(mutation.getLink());
+            case DELETE -> repository.delete(mutation.getShortCode());
+            case BURY -> {
+                // A link the replica never had, or a tombstone moved from another node, still leaves a tombstone
+                if (!repository.bury(mutation.getShortCode(), mutation.getReason(), mutation.getValue())) {
+                    repository.restoreTombstone(mutation.getShortCode(), mutation.getReason(), mutation.getValue());
+                }
+            }
+            case LIMIT -> {
+                ShortUrl link = repository.getByShortCode(mutation.getShortCode());
+                if (link != null) {
+                    link.setClickLimit((int) mutation.getValue());
+                    repository.update(link);
+                }
+            }
+            case CLICKS -> {
+                ShortUrl link = repository.getByShortCode(mutation.getShortCode());
+                if (link != null && link.raiseClickCountTo((int) mutation.getValue())) {
+                    repository.recordClick(link);
+                }
+            }
+            case PRUNE -> repository.pruneTombstones(mutation.getValue());
+        }
+    }
+}
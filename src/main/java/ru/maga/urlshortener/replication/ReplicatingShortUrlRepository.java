@@ -0,0 +1,253 @@
+package ru.maga.urlshortener.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Repository of the primary: passes every call to the repository it wraps and appends each change to a
+ * {@link ReplicationLog} for replicas. Clicks are coalesced: a clicked link is only marked, and every
+ * flush interval one {@link Mutation.Type#CLICKS} mutation per marked link carries the count it has reached.
+ * Carrying the count rather than the number of new clicks lets a replica apply the same mutation twice,
+ * as it does for mutations made while its snapshot was being read.
+ */
+public final class ReplicatingShortUrlRepository implements ShortUrlRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicatingShortUrlRepository.class);
+    public static final long DEFAULT_CLICK_FLUSH_MILLIS = 100;
+
+    private final ShortUrlRepository delegate;
+    private final ReplicationLog log;
+    private final Map<String, ShortUrl> pendingClicks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public ReplicatingShortUrlRepository(ShortUrlRepository delegate, ReplicationLog log) {
+        this(delegate, log, DEFAULT_CLICK_FLUSH_MILLIS);
+    }
+
+    /**
+     * @param clickFlushMillis how often the click counts of clicked links are appended to the log
+     */
+    public ReplicatingShortUrlRepository(ShortUrlRepository delegate, ReplicationLog log, long clickFlushMillis) {
+        this.delegate = delegate;
+        this.log = log;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replication-click-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushClicksQuietly, clickFlushMillis, clickFlushMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends the click counts of all links clicked since the last flush and returns how many were appended.
+     */
+    public int flushClicks() {
+        int count = 0;
+        for (String shortCode : pendingClicks.keySet()) {
+            ShortUrl shortUrl = pendingClicks.remove(shortCode);
+            if (shortUrl != null) {
+                // Read after unmarking, so a click counted from here on marks the link again
+                log.append(Mutation.Type.CLICKS, shortCode, null, null, shortUrl.getClickCount());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public ShortUrlRepository getDelegate() {
+        return delegate;
+    }
+
+    public ReplicationLog getLog() {
+        return log;
+    }
+
+    @Override
+    public void save(ShortUrl shortUrl) {
+        delegate.save(shortUrl);
+        log.append(Mutation.Type.SAVE, shortUrl.getShortCode(), shortUrl, null, 0);
+    }
+
+    @Override
+    public void saveAll(Collection<ShortUrl> shortUrls) {
+        delegate.saveAll(shortUrls);
+        for (ShortUrl shortUrl : shortUrls) {
+            log.append(Mutation.Type.SAVE, shortUrl.getShortCode(), shortUrl, null, 0);
+        }
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        return delegate.findByShortCode(shortCode);
+    }
+
+    @Override
+    public ShortUrl getByShortCode(String shortCode) {
+        return delegate.getByShortCode(shortCode);
+    }
+
+    @Override
+    public List<ShortUrl> findByOwnerId(UUID ownerId) {
+        return delegate.findByOwnerId(ownerId);
+    }
+
+    @Override
+    public void recordClick(ShortUrl shortUrl) {
+        delegate.recordClick(shortUrl);
+        pendingClicks.putIfAbsent(shortUrl.getShortCode(), shortUrl);
+    }
+
+    @Override
+    public void update(ShortUrl shortUrl) {
+        delegate.update(shortUrl);
+        log.append(Mutation.Type.LIMIT, shortUrl.getShortCode(), null, null, shortUrl.getClickLimit());
+    }
+
+    @Override
+    public void delete(String shortCode) {
+        delegate.delete(shortCode);
+        pendingClicks.remove(shortCode);
+        log.append(Mutation.Type.DELETE, shortCode, null, null, 0);
+    }
+
+    @Override
+    public boolean bury(String shortCode, LinkStatus reason, long atMillis) {
+        if (!delegate.bury(shortCode, reason, atMillis)) {
+            return false;
+        }
+        pendingClicks.remove(shortCode);
+        log.append(Mutation.Type.BURY, shortCode, null, reason, atMillis);
+        return true;
+    }
+
+    @Override
+    public List<ShortUrl> buryIf(Predicate<ShortUrl> predicate, LinkStatus reason, long atMillis) {
+        List<ShortUrl> buried = delegate.buryIf(predicate, reason, atMillis);
+        for (ShortUrl shortUrl : buried) {
+            pendingClicks.remove(shortUrl.getShortCode());
+            log.append(Mutation.Type.BURY, shortUrl.getShortCode(), null, reason, atMillis);
+        }
+        return buried;
+    }
+
+    @Override
+    public Optional<LinkStatus> findTombstone(String shortCode) {
+        return delegate.findTombstone(shortCode);
+    }
+
+    @Override
+    public boolean isTombstoned(String shortCode) {
+        return delegate.isTombstoned(shortCode);
+    }
+
+    @Override
+    public int pruneTombstones(long olderThanMillis) {
+        int pruned = delegate.pruneTombstones(olderThanMillis);
+        if (pruned > 0) {
+            log.append(Mutation.Type.PRUNE, null, null, null, olderThanMillis);
+        }
+        return pruned;
+    }
+
+    @Override
+    public int tombstoneCount() {
+        return delegate.tombstoneCount();
+    }
+
+    @Override
+    public void forEachTombstone(TombstoneConsumer action) {
+        delegate.forEachTombstone(action);
+    }
+
+    /**
+     * Records the tombstone and sends it to replicas as a burial, which they record as a tombstone.
+     */
+    @Override
+    public boolean restoreTombstone(String shortCode, LinkStatus reason, long atMillis) {
+        if (!delegate.restoreTombstone(shortCode, reason, atMillis)) {
+            return false;
+        }
+        log.append(Mutation.Type.BURY, shortCode, null, reason, atMillis);
+        return true;
+    }
+
+    /**
+     * Drops the tombstone here only; replicas keep theirs until it is pruned.
+     */
+    @Override
+    public boolean removeTombstone(String shortCode) {
+        return delegate.removeTombstone(shortCode);
+    }
+
+    @Override
+    public List<ShortUrl> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean exists(String shortCode) {
+        return delegate.exists(shortCode);
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        return delegate.getMemoryFootprint();
+    }
+
+    @Override
+    public double filterExpectedFalsePositiveRate() {
+        return delegate.filterExpectedFalsePositiveRate();
+    }
+
+    @Override
+    public double filterObservedFalsePositiveRate() {
+        return delegate.filterObservedFalsePositiveRate();
+    }
+
+    @Override
+    public long filterRejectionCount() {
+        return delegate.filterRejectionCount();
+    }
+
+    @Override
+    public long filterMemoryBytes() {
+        return delegate.filterMemoryBytes();
+    }
+
+    /**
+     * Stops the periodic click flush, appends the remaining click counts and closes the wrapped repository.
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flushClicks();
+        delegate.close();
+    }
+
+    private void flushClicksQuietly() {
+        try {
+            flushClicks();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot append click counts to the replication log", e);
+        }
+    }
+}
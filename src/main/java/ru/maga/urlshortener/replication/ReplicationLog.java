@@ -0,0 +1,98 @@
+package ru.maga.urlshortener.replication;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.TimeSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered log of the primary's mutations, kept in a ring of the most recent ones for replicas to read.
+ * Sequence numbers start at 1 and have no gaps. A replica that falls further behind than the ring holds
+ * can no longer be served from the log and has to start over from a snapshot. The epoch is random per log,
+ * so a replica can tell that its sequence numbers came from an earlier run of the primary.
+ */
+public class ReplicationLog {
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    private final Mutation[] ring;
+    private final TimeSource timeSource;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private long lastSequence;
+
+    public ReplicationLog() {
+        this(DEFAULT_CAPACITY, TimeSource.system());
+    }
+
+    /**
+     * @param capacity how many of the latest mutations are kept for replicas that are behind
+     */
+    public ReplicationLog(int capacity, TimeSource timeSource) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Log capacity must be positive: " + capacity);
+        }
+        this.ring = new Mutation[capacity];
+        this.timeSource = timeSource;
+    }
+
+    public long append(Mutation.Type type, String shortCode, ShortUrl link, LinkStatus reason, long value) {
+        synchronized (ring) {
+            long sequence = ++lastSequence;
+            ring[(int) (sequence % ring.length)] =
+                    new Mutation(sequence, timeSource.currentTimeMillis(), type, shortCode, link, reason, value);
+            ring.notifyAll();
+            return sequence;
+        }
+    }
+
+    /**
+     * Returns up to {@code maxCount} mutations following the given sequence number, waiting up to the
+     * timeout for one to be appended if there are none yet. Returns null if the mutation right after
+     * {@code afterSequence} is no longer kept.
+     */
+    public List<Mutation> read(long afterSequence, int maxCount, long timeoutMillis) throws InterruptedException {
+        synchronized (ring) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            long remaining;
+            while (lastSequence <= afterSequence && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(ring, remaining);
+            }
+            if (!contains(afterSequence)) {
+                return null;
+            }
+            int count = (int) Math.min(maxCount, lastSequence - afterSequence);
+            List<Mutation> mutations = new ArrayList<>(count);
+            for (long sequence = afterSequence + 1; sequence <= afterSequence + count; sequence++) {
+                mutations.add(ring[(int) (sequence % ring.length)]);
+            }
+            return mutations;
+        }
+    }
+
+    /**
+     * Returns true if a replica that has applied everything up to the sequence number can continue from
+     * the log.
+     */
+    public boolean contains(long afterSequence) {
+        synchronized (ring) {
+            return afterSequence <= lastSequence && afterSequence >= lastSequence - ring.length;
+        }
+    }
+
+    public long getLastSequence() {
+        synchronized (ring) {
+            return lastSequence;
+        }
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long currentTimeMillis() {
+        return timeSource.currentTimeMillis();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.maga.urlshortener.replication;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Wire format between a primary and its replicas. The replica opens with {@link #MAGIC}, the epoch and the
+ * last sequence number it has applied; the primary answers with either a snapshot or a resume frame and
+ * then streams mutation and heartbeat frames. Everything is big-endian {@link DataOutputStream} encoding.
+ * The link encoding is public for other node-to-node protocols.
+ */
+public final class ReplicationProtocol {
+    static final int MAGIC = 0x55524C52;
+
+    /**
+     * Epoch, sequence number and count, followed by that many links: the state as of the sequence number.
+     */
+    static final byte SNAPSHOT = 'S';
+    /**
+     * Epoch; mutations continue right after the replica's last applied one.
+     */
+    static final byte RESUME = 'R';
+    static final byte MUTATION = 'M';
+    /**
+     * Last sequence number and current time of the primary, sent whenever the stream is idle.
+     */
+    static final byte HEARTBEAT = 'H';
+
+    private static final Mutation.Type[] TYPES = Mutation.Type.values();
+    private static final LinkStatus[] STATUSES = LinkStatus.values();
+
+    private ReplicationProtocol() {
+    }
+
+    public static void writeLink(DataOutputStream out, ShortUrl link) throws IOException {
+        out.writeUTF(link.getShortCode());
+        out.writeUTF(link.getOriginalUrl());
+        out.writeLong(link.getOwnerId().getMostSignificantBits());
+        out.writeLong(link.getOwnerId().getLeastSignificantBits());
+        out.writeLong(link.getCreatedAtMillis());
+        out.writeLong(link.getExpiresAtMillis());
+        out.writeInt(link.getClickLimit());
+        out.writeInt(link.getClickCount());
+    }
+
+    public static ShortUrl readLink(DataInputStream in) throws IOException {
+        String shortCode = in.readUTF();
+        String originalUrl = in.readUTF();
+        UUID ownerId = new UUID(in.readLong(), in.readLong());
+        long createdAtMillis = in.readLong();
+        long expiresAtMillis = in.readLong();
+        int clickLimit = in.readInt();
+        int clickCount = in.readInt();
+        return new ShortUrl(shortCode, originalUrl, ownerId, createdAtMillis, expiresAtMillis, clickLimit, clickCount);
+    }
+
+    static void writeMutation(DataOutputStream out, Mutation mutation) throws IOException {
+        out.writeByte(MUTATION);
+        out.writeLong(mutation.getSequence());
+        out.writeLong(mutation.getTimeMillis());
+        out.writeByte(mutation.getType().ordinal());
+        switch (mutation.getType()) {
+            case SAVE -> writeLink(out, mutation.getLink());
+            case DELETE -> out.writeUTF(mutation.getShortCode());
+            case BURY -> {
+                out.writeUTF(mutation.getShortCode());
+                out.writeByte(mutation.getReason().ordinal());
+                out.writeLong(mutation.getValue());
+            }
+            case LIMIT, CLICKS -> {
+                out.writeUTF(mutation.getShortCode());
+                out.writeLong(mutation.getValue());
+            }
+            case PRUNE -> out.writeLong(mutation.getValue());
+        }
+    }
+
+    /**
+     * Reads a mutation frame whose type byte has already been read.
+     */
+    static Mutation readMutation(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        long timeMillis = in.readLong();
+        Mutation.Type type = TYPES[in.readUnsignedByte()];
+        return switch (type) {
+            case SAVE -> {
+                ShortUrl link = readLink(in);
+                yield new Mutation(sequence, timeMillis, type, link.getShortCode(), link, null, 0);
+            }
+            case DELETE -> new Mutation(sequence, timeMillis, type, in.readUTF(), null, null, 0);
+            case BURY -> new Mutation(sequence, timeMillis, type, in.readUTF(), null,
+                    STATUSES[in.readUnsignedByte()], in.readLong());
+            case LIMIT, CLICKS -> new Mutation(sequence, timeMillis, type, in.readUTF(), null, null, in.readLong());
+            case PRUNE -> new Mutation(sequence, timeMillis, type, null, null, null, in.readLong());
+        };
+    }
+}
@@ -0,0 +1,205 @@
+package ru.maga.urlshortener.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Primary side of replication: accepts replicas over TCP and streams the {@link ReplicationLog} to each
+ * of them from a thread of its own. A replica that is still covered by the log resumes right after its
+ * last applied mutation, and a new one replays the log if it still holds every mutation; any other replica
+ * first gets a snapshot of all links as of the current end of the log. The snapshot is read while
+ * mutations go on, so some of the mutations after it may already be in it; every mutation can be applied
+ * twice, so that is harmless. Tombstones are not in snapshots, only in the mutations. Idle streams get a
+ * heartbeat, so replicas can tell how far behind they are.
+ */
+public class ReplicationServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationServer.class);
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 200;
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final ReplicationLog log;
+    private final ShortUrlRepository repository;
+    private final long heartbeatMillis;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> replicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger replicaThreads = new AtomicInteger();
+    private volatile boolean closed;
+
+    public ReplicationServer(int port, ReplicationLog log, ShortUrlRepository repository) {
+        this(new InetSocketAddress(port), log, repository, DEFAULT_HEARTBEAT_MILLIS);
+    }
+
+    /**
+     * Binds the listening socket; port 0 picks a free port, see {@link #getPort()}. Replicas are accepted
+     * once {@link #start()} is called.
+     *
+     * @param repository where snapshots are read from: the repository the log's mutations are applied to
+     */
+    public ReplicationServer(InetSocketAddress address, ReplicationLog log, ShortUrlRepository repository,
+                             long heartbeatMillis) {
+        this.log = log;
+        this.repository = repository;
+        this.heartbeatMillis = heartbeatMillis;
+        try {
+            this.serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for replicas on " + address, e);
+        }
+    }
+
+    /**
+     * Returns a started server on a free loopback port.
+     */
+    public static ReplicationServer onLoopback(ReplicationLog log, ShortUrlRepository repository) {
+        return new ReplicationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), log, repository,
+                DEFAULT_HEARTBEAT_MILLIS).start();
+    }
+
+    /**
+     * Starts accepting replicas on a thread of its own; returns this server.
+     */
+    public ReplicationServer start() {
+        Thread acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Replication primary listening on port {}", getPort());
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of replicas connected right now.
+     */
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close replication listener", e);
+        }
+        for (Socket replica : replicas) {
+            closeQuietly(replica);
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread sender = new Thread(() -> serve(socket),
+                        "replication-sender-" + replicaThreads.incrementAndGet());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Cannot accept replica connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        replicas.add(socket);
+        String peer = String.valueOf(socket.getRemoteSocketAddress());
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (in.readInt() != ReplicationProtocol.MAGIC) {
+                logger.warn("Rejected connection from {}: not a replica", peer);
+                return;
+            }
+            long replicaEpoch = in.readLong();
+            long applied = in.readLong();
+            // A new replica replays the whole log while it still starts at the first mutation
+            if ((replicaEpoch == log.getEpoch() || applied == 0) && log.contains(applied)) {
+                out.writeByte(ReplicationProtocol.RESUME);
+                out.writeLong(log.getEpoch());
+                logger.info("Replica {} resumes after mutation {}", peer, applied);
+            } else {
+                applied = sendSnapshot(out);
+                logger.info("Replica {} starts from a snapshot at mutation {}", peer, applied);
+            }
+            out.flush();
+            stream(out, applied);
+        } catch (IOException e) {
+            if (!closed) {
+                logger.info("Replica {} disconnected: {}", peer, e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replicas.remove(socket);
+        }
+    }
+
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        long sequence = log.getLastSequence();
+        List<ShortUrl> links = repository.findAll();
+        out.writeByte(ReplicationProtocol.SNAPSHOT);
+        out.writeLong(log.getEpoch());
+        out.writeLong(sequence);
+        out.writeInt(links.size());
+        for (ShortUrl link : links) {
+            ReplicationProtocol.writeLink(out, link);
+        }
+        return sequence;
+    }
+
+    private void stream(DataOutputStream out, long applied) throws IOException, InterruptedException {
+        while (!closed) {
+            List<Mutation> mutations = log.read(applied, BATCH_SIZE, heartbeatMillis);
+            if (mutations == null) {
+                // Fell behind the log; the replica reconnects and starts over from a snapshot
+                logger.warn("Replica fell more than the log holds behind, disconnecting");
+                return;
+            }
+            for (Mutation mutation : mutations) {
+                ReplicationProtocol.writeMutation(out, mutation);
+                applied = mutation.getSequence();
+            }
+            if (mutations.size() < BATCH_SIZE) {
+                out.writeByte(ReplicationProtocol.HEARTBEAT);
+                out.writeLong(log.getLastSequence());
+                out.writeLong(log.currentTimeMillis());
+                out.flush();
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Cannot close replica connection", e);
+        }
+    }
+}
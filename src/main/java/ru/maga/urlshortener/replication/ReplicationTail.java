@@ -0,0 +1,40 @@
+package ru.maga.urlshortener.replication;
+
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Follows a primary as a replica with an in-memory repository and prints every mutation it applies.
+ * With a count, exits once that many mutations have been applied.
+ *
+ * <pre>
+ * java -cp url-shortener.jar ru.maga.urlshortener.replication.ReplicationTail localhost 7070 [count]
+ * </pre>
+ */
+public class ReplicationTail {
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Использование: ReplicationTail <хост> <порт> [число изменений]");
+            System.exit(2);
+        }
+        InetSocketAddress primary = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+        long limit = args.length == 3 ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+        CountDownLatch done = new CountDownLatch(1);
+        long[] applied = new long[1];
+        ReplicaClient replica = new ReplicaClient(primary, new InMemoryShortUrlRepository(), mutation -> {
+            System.out.println(mutation);
+            if (++applied[0] >= limit) {
+                done.countDown();
+            }
+        }).start();
+        try {
+            done.await();
+            System.out.flush();
+        } finally {
+            replica.close();
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.LongLongHashMap;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Click counts of links in a memory-mapped file, so they survive a crash of the process without a write
+ * per redirect. Every link is given a 16-byte slot when it is created: the short code packed by
+ * {@link ShortCodeCodec} and the click state packed as in the link itself (limit in the high half, count
+ * in the low half). A click is one atomic add on the mapped state, a limit change one CAS; the OS writes
+ * the pages out on its own and {@link #flush()} forces them. On startup {@link #restore} puts the counts
+ * back into the stored links. Freed slots are reused, and the file doubles when it runs out of slots.
+ * Links whose codes cannot be packed get no slot, and their clicks are not kept here.
+ * <p>
+ * Clicks and limit changes take no lock: the mapping and the code-to-slot table are published together as
+ * one immutable snapshot that growing the file replaces, and readers probe the table without locking.
+ * A freed slot is reused only after {@link #RELEASE_GRACE_NANOS}, so a click that looked the slot up just
+ * before the link was removed cannot land on the link that gets the slot next.
+ * <p>
+ * The file mirrors the count in the link, which decides whether a click is within the limit: a click is
+ * added here only after the link has counted it, so a crash between the two loses that one click.
+ */
+public class ClickCounterFile implements AutoCloseable {
+    public static final int DEFAULT_INITIAL_SLOTS = 1024;
+
+    static final int HEADER_BYTES = 16;
+    static final int SLOT_BYTES = 16;
+    static final int CODE_OFFSET = 0;
+    static final int STATE_OFFSET = 8;
+    static final long MAGIC = 0x534E544E_43434C4BL;
+    static final long RELEASE_GRACE_NANOS = 1_000_000_000L;
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long FREE = 0;
+
+    /**
+     * The current mapping with the table of the slots in use; replaced as a whole, never changed in place
+     * except for entries added to and deleted from its table.
+     */
+    private record Mapping(MappedByteBuffer buffer, int capacity, SlotTable slots) {
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<ReleasedSlot> released = new ArrayDeque<>();
+    private volatile Mapping mapping;
+    private int[] freeSlots;
+    private int freeCount;
+
+    public ClickCounterFile(Path file) {
+        this(file, DEFAULT_INITIAL_SLOTS);
+    }
+
+    /**
+     * Opens the counter file, creating it with room for the given number of slots if it does not exist,
+     * and reads back the slots in use.
+     */
+    public ClickCounterFile(Path file, int initialSlots) {
+        if (initialSlots <= 0) {
+            throw new IllegalArgumentException("Initial slot count must be positive: " + initialSlots);
+        }
+        this.file = file;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long size = channel.size();
+            MappedByteBuffer buffer;
+            int capacity;
+            if (size == 0) {
+                capacity = initialSlots;
+                buffer = map(capacity);
+                LONG_VIEW.setRelease(buffer, 0, MAGIC);
+            } else {
+                if (size < HEADER_BYTES || (size - HEADER_BYTES) % SLOT_BYTES != 0) {
+                    throw new IllegalStateException("Corrupt click counter file " + file + ": size " + size);
+                }
+                capacity = (int) ((size - HEADER_BYTES) / SLOT_BYTES);
+                buffer = map(capacity);
+                if ((long) LONG_VIEW.getAcquire(buffer, 0) != MAGIC) {
+                    throw new IllegalStateException("Not a click counter file: " + file);
+                }
+            }
+            SlotTable slots = new SlotTable(capacity);
+            freeSlots = new int[capacity];
+            // Pushed from the end so the lowest free slot is reused first
+            for (int slot = capacity - 1; slot >= 0; slot--) {
+                long code = (long) LONG_VIEW.getAcquire(buffer, codeOffset(slot));
+                if (code == FREE) {
+                    freeSlots[freeCount++] = slot;
+                } else {
+                    slots.put(code, slot);
+                }
+            }
+            this.mapping = new Mapping(buffer, capacity, slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open click counter file " + file, e);
+        }
+    }
+
+    /**
+     * Gives the link a slot holding its current click state, or overwrites the slot it already has.
+     * Returns false if the code cannot be packed.
+     */
+    public boolean assign(ShortUrl shortUrl) {
+        long code = ShortCodeCodec.encode(shortUrl.getShortCode());
+        if (code == ShortCodeCodec.NOT_ENCODABLE) {
+            return false;
+        }
+        lock.lock();
+        try {
+            int slot = mapping.slots().get(code);
+            boolean added = slot < 0;
+            if (added) {
+                slot = takeFreeSlot();
+            }
+            Mapping current = mapping;
+            int offset = codeOffset(slot);
+            LONG_VIEW.setRelease(current.buffer(), offset + STATE_OFFSET,
+                    pack(shortUrl.getClickLimit(), shortUrl.getClickCount()));
+            LONG_VIEW.setRelease(current.buffer(), offset + CODE_OFFSET, code);
+            if (added) {
+                current.slots().put(code, slot);
+                if (current.slots().isCrowded()) {
+                    publish(current.buffer(), current.capacity());
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts one click of the link in its slot; does nothing if the link has no slot. Takes no lock and
+     * never allocates.
+     */
+    public void increment(String shortCode) {
+        Mapping current = mapping;
+        int slot = current.slots().get(ShortCodeCodec.encode(shortCode));
+        if (slot >= 0) {
+            LONG_VIEW.getAndAdd(current.buffer(), codeOffset(slot) + STATE_OFFSET, 1L);
+        }
+    }
+
+    /**
+     * Stores a new click limit in the link's slot, keeping the count.
+     */
+    public void setClickLimit(String shortCode, int clickLimit) {
+        Mapping current = mapping;
+        int slot = current.slots().get(ShortCodeCodec.encode(shortCode));
+        if (slot < 0) {
+            return;
+        }
+        int offset = codeOffset(slot) + STATE_OFFSET;
+        long state;
+        do {
+            state = (long) LONG_VIEW.getVolatile(current.buffer(), offset);
+        } while (!LONG_VIEW.compareAndSet(current.buffer(), offset, state, pack(clickLimit, countOf(state))));
+    }
+
+    /**
+     * Returns the click count kept for the link, or -1 if it has no slot.
+     */
+    public int getClickCount(String shortCode) {
+        Mapping current = mapping;
+        int slot = current.slots().get(ShortCodeCodec.encode(shortCode));
+        if (slot < 0) {
+            return -1;
+        }
+        return countOf((long) LONG_VIEW.getVolatile(current.buffer(), codeOffset(slot) + STATE_OFFSET));
+    }
+
+    /**
+     * Frees the link's slot; it is handed out again once {@link #RELEASE_GRACE_NANOS} have passed.
+     */
+    public void release(String shortCode) {
+        long code = ShortCodeCodec.encode(shortCode);
+        lock.lock();
+        try {
+            releaseSlot(code);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Brings the repository in line with the file after a restart: links whose kept click state differs
+     * are saved again with it, links without a slot are given one, and slots of links no longer stored
+     * are freed. Returns the number of links whose click state was restored.
+     */
+    public int restore(ShortUrlRepository repository) {
+        List<ShortUrl> links = repository.findAll();
+        LongLongHashMap live = new LongLongHashMap(links.size(), -1);
+        int restored = 0;
+        lock.lock();
+        try {
+            Mapping current = mapping;
+            for (ShortUrl link : links) {
+                long code = ShortCodeCodec.encode(link.getShortCode());
+                if (code == ShortCodeCodec.NOT_ENCODABLE) {
+                    continue;
+                }
+                live.put(code, 1);
+                int slot = current.slots().get(code);
+                if (slot < 0) {
+                    continue;
+                }
+                long state = (long) LONG_VIEW.getVolatile(current.buffer(), codeOffset(slot) + STATE_OFFSET);
+                if (countOf(state) != link.getClickCount() || limitOf(state) != link.getClickLimit()) {
+                    repository.save(new ShortUrl(link.getShortCode(), link.getOriginalUrl(), link.getOwnerId(),
+                            link.getCreatedAtMillis(), link.getExpiresAtMillis(), limitOf(state), countOf(state)));
+                    restored++;
+                }
+            }
+            for (long code : current.slots().codes()) {
+                if (live.get(code) < 0) {
+                    releaseSlot(code);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (ShortUrl link : links) {
+            if (ShortCodeCodec.encode(link.getShortCode()) != ShortCodeCodec.NOT_ENCODABLE
+                    && getClickCount(link.getShortCode()) < 0) {
+                assign(link);
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Returns the number of slots in use.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return mapping.slots().size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of slots the file has room for.
+     */
+    public int capacity() {
+        return mapping.capacity();
+    }
+
+    /**
+     * Forces the counters to disk.
+     */
+    public void flush() {
+        mapping.buffer().force();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close click counter file " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot for a new link: a never used or long freed one if there is any, else one of the
+     * slots added by growing the file.
+     */
+    private int takeFreeSlot() {
+        if (freeCount == 0) {
+            long now = System.nanoTime();
+            while (!released.isEmpty() && now - released.peek().releasedAt() >= RELEASE_GRACE_NANOS) {
+                freeSlots[freeCount++] = released.poll().slot();
+            }
+        }
+        if (freeCount == 0) {
+            grow();
+        }
+        return freeSlots[--freeCount];
+    }
+
+    private void releaseSlot(long code) {
+        Mapping current = mapping;
+        int slot = current.slots().remove(code);
+        if (slot >= 0) {
+            LONG_VIEW.setRelease(current.buffer(), codeOffset(slot) + CODE_OFFSET, FREE);
+            released.add(new ReleasedSlot(slot, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Doubles the file and maps it again; slots keep their offsets. Clicks through the old mapping
+     * still reach the same pages of the file.
+     */
+    private void grow() {
+        int previous = mapping.capacity();
+        int capacity = previous * 2;
+        try {
+            publish(map(capacity), capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow click counter file " + file, e);
+        }
+        int[] free = Arrays.copyOf(freeSlots, capacity);
+        for (int slot = capacity - 1; slot >= previous; slot--) {
+            free[freeCount++] = slot;
+        }
+        freeSlots = free;
+    }
+
+    /**
+     * Publishes a new snapshot with a fresh copy of the slot table, sized for the given capacity.
+     */
+    private void publish(MappedByteBuffer buffer, int capacity) {
+        SlotTable slots = new SlotTable(capacity);
+        Mapping current = mapping;
+        for (long code : current.slots().codes()) {
+            slots.put(code, current.slots().get(code));
+        }
+        mapping = new Mapping(buffer, capacity, slots);
+    }
+
+    private MappedByteBuffer map(int slotCount) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_BYTES + (long) slotCount * SLOT_BYTES);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+
+    private static int codeOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static long pack(int clickLimit, int clickCount) {
+        return ((long) clickLimit << 32) | (clickCount & 0xFFFFFFFFL);
+    }
+
+    private static int countOf(long state) {
+        return (int) state;
+    }
+
+    private static int limitOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private record ReleasedSlot(int slot, long releasedAt) {
+    }
+
+    /**
+     * Open-addressing table from packed code to slot that readers probe without locking while one writer,
+     * holding the lock, adds and deletes entries. A key is published after its slot, and a deleted entry
+     * keeps a marker that is never reused, so a reader that found a key always reads that key's slot.
+     * Markers only go away when a new table is built, once the table is three quarters full.
+     */
+    private static final class SlotTable {
+        private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+        private static final long EMPTY = 0;
+        private static final long DELETED = Long.MIN_VALUE;
+
+        private final long[] keys;
+        private final int[] slots;
+        private int size;
+        private int used;
+
+        SlotTable(int slotCount) {
+            int length = Integer.highestOneBit(Math.max(2, slotCount) * 4 - 1);
+            this.keys = new long[length];
+            this.slots = new int[length];
+        }
+
+        int get(long code) {
+            int mask = keys.length - 1;
+            for (int index = indexFor(code, mask); ; index = (index + 1) & mask) {
+                long key = (long) KEYS.getAcquire(keys, index);
+                if (key == code) {
+                    return slots[index];
+                }
+                if (key == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long code, int slot) {
+            int mask = keys.length - 1;
+            int index = indexFor(code, mask);
+            while (keys[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = slot;
+            KEYS.setRelease(keys, index, code);
+            size++;
+            used++;
+        }
+
+        int remove(long code) {
+            int mask = keys.length - 1;
+            for (int index = indexFor(code, mask); keys[index] != EMPTY; index = (index + 1) & mask) {
+                if (keys[index] == code) {
+                    KEYS.setRelease(keys, index, DELETED);
+                    size--;
+                    return slots[index];
+                }
+            }
+            return -1;
+        }
+
+        long[] codes() {
+            long[] codes = new long[size];
+            int count = 0;
+            for (long key : keys) {
+                if (key != EMPTY && key != DELETED) {
+                    codes[count++] = key;
+                }
+            }
+            return codes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns true once live and deleted entries fill three quarters of the table.
+         */
+        boolean isCrowded() {
+            return used * 4L >= keys.length * 3L;
+        }
+
+        private static int indexFor(long code, int mask) {
+            long hash = code * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package ru.maga.urlshortener.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.LongLongHashMap;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Disk tier for links: an append-only record log plus an append-only index file.
+ * Each write appends the full record to {@code links.log} and a (code, offset) entry to
+ * {@code links.idx}; the newest entry for a code wins and offset -1 marks a removal. Lookups keep only
+ * a primitive code-to-offset table on the heap and read records with positional {@link FileChannel}
+ * reads. Index entries are flushed with every write, after the record they point to, so a process
+ * that dies without {@link #close()} loses no acknowledged write; a torn last entry is ignored on load.
+ * The log is rewritten once superseded records outweigh live ones.
+ */
+class ColdLinkStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ColdLinkStore.class);
+    private static final String LOG_FILE = "links.log";
+    private static final String INDEX_FILE = "links.idx";
+    private static final long REMOVED = -1;
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongHashMap offsets = new LongLongHashMap(1024, REMOVED);
+    private final Map<String, Long> overflowOffsets = new HashMap<>();
+    private FileChannel log;
+    private DataOutputStream index;
+    private long logSize;
+    private long garbageBytes;
+
+    ColdLinkStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            loadIndex();
+            openFiles();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open link storage in " + directory, e);
+        }
+    }
+
+    ShortUrl read(String shortCode) {
+        lock.readLock().lock();
+        try {
+            long offset = offsetOf(shortCode);
+            return offset == REMOVED ? null : readRecord(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read link " + shortCode, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(String shortCode) {
+        lock.readLock().lock();
+        try {
+            return offsetOf(shortCode) != REMOVED;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void write(ShortUrl shortUrl) {
+        lock.writeLock().lock();
+        try {
+            byte[] record = encode(shortUrl);
+            long offset = logSize;
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+            buffer.putInt(record.length).put(record).flip();
+            while (buffer.hasRemaining()) {
+                log.write(buffer, offset + buffer.position());
+            }
+            logSize += buffer.limit();
+            long previous = putOffset(shortUrl.getShortCode(), offset);
+            if (previous != REMOVED) {
+                garbageBytes += recordSize(previous);
+            }
+            index.writeUTF(shortUrl.getShortCode());
+            index.writeLong(offset);
+            index.flush();
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write link " + shortUrl.getShortCode(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean remove(String shortCode) {
+        lock.writeLock().lock();
+        try {
+            long previous = removeOffset(shortCode);
+            if (previous == REMOVED) {
+                return false;
+            }
+            garbageBytes += recordSize(previous);
+            index.writeUTF(shortCode);
+            index.writeLong(REMOVED);
+            index.flush();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot remove link " + shortCode, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of all stored codes.
+     */
+    List<String> codes() {
+        lock.readLock().lock();
+        try {
+            List<String> codes = new ArrayList<>(size());
+            offsets.forEach((key, offset) -> codes.add(ShortCodeCodec.decode(key)));
+            codes.addAll(overflowOffsets.keySet());
+            return codes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return offsets.size() + overflowOffsets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getFileBytes() {
+        lock.readLock().lock();
+        try {
+            return logSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getIndexMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return offsets.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            index.close();
+            log.close();
+        } catch (IOException e) {
+            logger.warn("Error closing link storage in {}", directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (garbageBytes < MIN_COMPACTION_BYTES || garbageBytes < logSize - garbageBytes) {
+            return;
+        }
+        long before = logSize;
+        Path compactedLog = directory.resolve(LOG_FILE + ".compact");
+        Path compactedIndex = directory.resolve(INDEX_FILE + ".compact");
+        LongLongHashMap newOffsets = new LongLongHashMap(offsets.size(), REMOVED);
+        Map<String, Long> newOverflow = new HashMap<>();
+        try (FileChannel target = FileChannel.open(compactedLog, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream targetIndex = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(compactedIndex)))) {
+            long[] position = {0};
+            IOException[] failure = {null};
+            offsets.forEach((key, offset) -> {
+                if (failure[0] == null) {
+                    try {
+                        long moved = copyRecord(offset, target, position, targetIndex, ShortCodeCodec.decode(key));
+                        newOffsets.put(key, moved);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            for (Map.Entry<String, Long> entry : overflowOffsets.entrySet()) {
+                newOverflow.put(entry.getKey(),
+                        copyRecord(entry.getValue(), target, position, targetIndex, entry.getKey()));
+            }
+        }
+        index.close();
+        log.close();
+        Files.move(compactedLog, directory.resolve(LOG_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.move(compactedIndex, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        offsets.clear();
+        newOffsets.forEach(offsets::put);
+        overflowOffsets.clear();
+        overflowOffsets.putAll(newOverflow);
+        garbageBytes = 0;
+        openFiles();
+        logger.info("Compacted link storage: {} -> {} bytes", before, logSize);
+    }
+
+    private long copyRecord(long offset, FileChannel target, long[] position,
+                            DataOutputStream targetIndex, String shortCode) throws IOException {
+        int size = recordSize(offset);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        readFully(buffer, offset);
+        buffer.flip();
+        long newOffset = position[0];
+        while (buffer.hasRemaining()) {
+            target.write(buffer, newOffset + buffer.position());
+        }
+        position[0] += size;
+        targetIndex.writeUTF(shortCode);
+        targetIndex.writeLong(newOffset);
+        return newOffset;
+    }
+
+    private void loadIndex() throws IOException {
+        Path indexPath = directory.resolve(INDEX_FILE);
+        if (!Files.exists(indexPath)) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            while (true) {
+                String shortCode;
+                long offset;
+                try {
+                    shortCode = input.readUTF();
+                    offset = input.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (offset == REMOVED) {
+                    removeOffset(shortCode);
+                } else {
+                    putOffset(shortCode, offset);
+                }
+            }
+        }
+    }
+
+    private void openFiles() throws IOException {
+        log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logSize = log.size();
+        index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private long offsetOf(String shortCode) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.NOT_ENCODABLE) {
+            return overflowOffsets.getOrDefault(shortCode, REMOVED);
+        }
+        return offsets.get(key);
+    }
+
+    private long putOffset(String shortCode, long offset) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.NOT_ENCODABLE) {
+            Long previous = overflowOffsets.put(shortCode, offset);
+            return previous == null ? REMOVED : previous;
+        }
+        return offsets.put(key, offset);
+    }
+
+    private long removeOffset(String shortCode) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.NOT_ENCODABLE) {
+            Long previous = overflowOffsets.remove(shortCode);
+            return previous == null ? REMOVED : previous;
+        }
+        return offsets.remove(key);
+    }
+
+    private int recordSize(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(header, offset);
+        return Integer.BYTES + header.getInt(0);
+    }
+
+    private ShortUrl readRecord(long offset) throws IOException {
+        int size = recordSize(offset);
+        ByteBuffer buffer = ByteBuffer.allocate(size - Integer.BYTES);
+        readFully(buffer, offset + Integer.BYTES);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+        String shortCode = input.readUTF();
+        String originalUrl = input.readUTF();
+        UUID ownerId = new UUID(input.readLong(), input.readLong());
+        long createdAt = input.readLong();
+        long expiresAt = input.readLong();
+        int clickLimit = input.readInt();
+        int clickCount = input.readInt();
+        return new ShortUrl(shortCode, originalUrl, ownerId, createdAt, expiresAt, clickLimit, clickCount);
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of link log at " + offset);
+            }
+        }
+    }
+
+    private static byte[] encode(ShortUrl shortUrl) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeUTF(shortUrl.getShortCode());
+        output.writeUTF(shortUrl.getOriginalUrl());
+        output.writeLong(shortUrl.getOwnerId().getMostSignificantBits());
+        output.writeLong(shortUrl.getOwnerId().getLeastSignificantBits());
+        output.writeLong(shortUrl.getCreatedAtMillis());
+        output.writeLong(shortUrl.getExpiresAtMillis());
+        output.writeInt(shortUrl.getClickLimit());
+        output.writeInt(shortUrl.getClickCount());
+        return bytes.toByteArray();
+    }
+}
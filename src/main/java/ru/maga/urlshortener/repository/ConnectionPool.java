@@ -0,0 +1,163 @@
+package ru.maga.urlshortener.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small fixed-size pool of JDBC connections for the JDBC repositories.
+ * Connections are opened on demand up to the pool size and reused, most recently returned first;
+ * a caller that finds them all busy waits up to the acquire timeout. A connection that fails its
+ * validity check when handed out, or whose work failed with the connection closed, is replaced.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 5000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    /**
+     * Work done with a connection.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int size;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int size) {
+        this(url, user, password, size, DEFAULT_ACQUIRE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param size                 maximum number of open connections
+     * @param acquireTimeoutMillis how long a caller waits for a free connection before failing
+     */
+    public ConnectionPool(String url, String user, String password, int size, long acquireTimeoutMillis) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.size = size;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Runs the work with a connection in auto-commit mode.
+     */
+    public <T> T withConnection(SqlWork<T> work) {
+        Connection connection = acquire();
+        try {
+            return work.apply(connection);
+        } catch (SQLException e) {
+            throw new RepositoryException("Database operation failed: " + e.getMessage(), e);
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * Runs the work in one transaction, committed if the work returns and rolled back if it throws.
+     */
+    public <T> T inTransaction(SqlWork<T> work) {
+        return withConnection(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.apply(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of open connections not handed out right now.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private Connection acquire() {
+        if (closed) {
+            throw new RepositoryException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RepositoryException("No free database connection within " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            Connection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return connection;
+                }
+                closeQuietly(connection);
+            }
+            return DriverManager.getConnection(url, user, password);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e instanceof RepositoryException re ? re
+                    : new RepositoryException("Cannot connect to database " + url, e);
+        }
+    }
+
+    private void release(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+            } else {
+                idle.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Cannot close database connection", e);
+        }
+    }
+}
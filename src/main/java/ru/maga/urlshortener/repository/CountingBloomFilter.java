@@ -0,0 +1,137 @@
+package ru.maga.urlshortener.repository;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counting Bloom filter over short codes.
+ * Uses 4-bit counters packed sixteen to a {@code long}, so entries can be removed again. A negative
+ * answer is exact; a positive answer is wrong with roughly the configured probability. Counters that
+ * reach 15 saturate and are never decremented, which can only raise the false-positive rate.
+ */
+public class CountingBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+
+    private final AtomicLongArray words;
+    private final long counterCount;
+    private final int hashCount;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * @param expectedInsertions number of entries the filter is sized for
+     * @param falsePositiveRate  target false-positive probability at the expected size
+     */
+    public CountingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int wordCount = (int) Math.max(1, (bits + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        this.words = new AtomicLongArray(wordCount);
+        this.counterCount = (long) wordCount * COUNTERS_PER_WORD;
+        this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedInsertions * ln2));
+    }
+
+    public void add(String shortCode) {
+        long hash = mix(shortCode.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            increment(indexFor(h1 + i * h2));
+        }
+        size.increment();
+    }
+
+    public void remove(String shortCode) {
+        long hash = mix(shortCode.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            decrement(indexFor(h1 + i * h2));
+        }
+        size.decrement();
+    }
+
+    /**
+     * Returns false if the code was definitely never added (or was removed), true if it may be present.
+     */
+    public boolean mightContain(String shortCode) {
+        long hash = mix(shortCode.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = indexFor(h1 + i * h2);
+            long word = words.get((int) (index >>> 4));
+            if (((word >>> shiftOf(index)) & COUNTER_MASK) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the false-positive probability expected for the current number of entries.
+     */
+    public double getExpectedFalsePositiveRate() {
+        double fill = 1 - Math.exp(-(double) hashCount * Math.max(0, size.sum()) / counterCount);
+        return Math.pow(fill, hashCount);
+    }
+
+    public long getMemoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    private long indexFor(int hash) {
+        return ((hash & 0xFFFFFFFFL) * counterCount) >>> 32;
+    }
+
+    private static int shiftOf(long index) {
+        return (int) (index & (COUNTERS_PER_WORD - 1)) * 4;
+    }
+
+    private void increment(long index) {
+        int wordIndex = (int) (index >>> 4);
+        int shift = shiftOf(index);
+        while (true) {
+            long word = words.get(wordIndex);
+            long counter = (word >>> shift) & COUNTER_MASK;
+            if (counter == COUNTER_MASK || words.compareAndSet(wordIndex, word, word + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(long index) {
+        int wordIndex = (int) (index >>> 4);
+        int shift = shiftOf(index);
+        while (true) {
+            long word = words.get(wordIndex);
+            long counter = (word >>> shift) & COUNTER_MASK;
+            if (counter == 0 || counter == COUNTER_MASK
+                    || words.compareAndSet(wordIndex, word, word - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static long mix(int hashCode) {
+        long h = hashCode * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 29;
+        return h;
+    }
+}
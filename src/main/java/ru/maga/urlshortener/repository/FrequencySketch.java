@@ -0,0 +1,76 @@
+package ru.maga.urlshortener.repository;
+
+/**
+ * Count-Min sketch with 4-bit counters used as the TinyLFU popularity estimate.
+ * Counts are halved once the number of recorded accesses reaches ten times the cache size,
+ * so the estimate follows recent popularity. Not thread-safe; callers guard it with their own lock.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNTER = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        int size = Integer.highestOneBit(Math.max(2, maximumSize) - 1) << 1;
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    /**
+     * Returns the estimated number of recent accesses, at most 15.
+     */
+    int frequency(int hashCode) {
+        int frequency = MAX_COUNTER;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hashCode, i);
+            int shift = offsetOf(hashCode, i);
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xF));
+        }
+        return frequency;
+    }
+
+    void increment(int hashCode) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hashCode, i);
+            int shift = offsetOf(hashCode, i);
+            if (((table[index] >>> shift) & 0xF) < MAX_COUNTER) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    long memoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hashCode, int row) {
+        long hash = (hashCode + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return (int) hash & tableMask;
+    }
+
+    private static int offsetOf(int hashCode, int row) {
+        // Each row uses a different 4-bit counter within the word
+        return (((hashCode >>> 24) & 0x3) << 2 | row) << 2;
+    }
+}
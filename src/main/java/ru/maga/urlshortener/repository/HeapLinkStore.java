@@ -0,0 +1,50 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps every link on the heap in a concurrent map.
+ */
+public class HeapLinkStore implements LinkStore {
+    private final Map<String, ShortUrl> urlsByShortCode = new ConcurrentHashMap<>();
+
+    @Override
+    public ShortUrl get(String shortCode) {
+        return urlsByShortCode.get(shortCode);
+    }
+
+    @Override
+    public ShortUrl peek(String shortCode) {
+        return urlsByShortCode.get(shortCode);
+    }
+
+    @Override
+    public ShortUrl put(ShortUrl shortUrl) {
+        return urlsByShortCode.put(shortUrl.getShortCode(), shortUrl);
+    }
+
+    @Override
+    public ShortUrl remove(String shortCode) {
+        return urlsByShortCode.remove(shortCode);
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        urlsByShortCode.values().forEach(action);
+    }
+
+    @Override
+    public long getStructureMemoryBytes() {
+        return MemoryLayout.concurrentHashMapBytes(urlsByShortCode.size());
+    }
+
+    @Override
+    public int size() {
+        return urlsByShortCode.size();
+    }
+}
@@ -0,0 +1,284 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded on-heap cache of links with a W-TinyLFU admission policy.
+ * New entries go to a small LRU window; when the window overflows its oldest entry competes with the
+ * oldest entry of the main segmented LRU, and the one with the higher {@link FrequencySketch}
+ * estimate stays. Reads are lock-free; access bookkeeping is skipped when the policy lock is busy.
+ */
+class HotLinkCache {
+
+    /**
+     * Receives links pushed out of the cache, together with whether they changed since they were stored.
+     */
+    @FunctionalInterface
+    interface EvictionListener {
+        void onEviction(ShortUrl shortUrl, boolean dirty);
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int[] EVICTION_ORDER = {PROBATION, PROTECTED, WINDOW};
+
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final EvictionListener listener;
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final Node[] queues = {new Node(null), new Node(null), new Node(null)};
+    private final int[] queueSizes = new int[3];
+
+    HotLinkCache(int maximumSize, EvictionListener listener) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+        this.listener = listener;
+        for (Node sentinel : queues) {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+    }
+
+    /**
+     * Returns the cached link and records the access.
+     */
+    ShortUrl get(String shortCode) {
+        Node node = nodes.get(shortCode);
+        if (node == null) {
+            return null;
+        }
+        if (policyLock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    ShortUrl peek(String shortCode) {
+        Node node = nodes.get(shortCode);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Adds a clean link unless the code is already cached, and returns the cached instance.
+     */
+    ShortUrl admit(ShortUrl shortUrl) {
+        policyLock.lock();
+        try {
+            Node existing = nodes.get(shortUrl.getShortCode());
+            if (existing != null) {
+                onAccess(existing);
+                return existing.value;
+            }
+            insert(shortUrl);
+            return shortUrl;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a clean link.
+     */
+    void put(ShortUrl shortUrl) {
+        policyLock.lock();
+        try {
+            Node existing = nodes.get(shortUrl.getShortCode());
+            if (existing != null) {
+                existing.value = shortUrl;
+                existing.markClean();
+                onAccess(existing);
+            } else {
+                insert(shortUrl);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    void invalidate(String shortCode) {
+        policyLock.lock();
+        try {
+            Node node = nodes.remove(shortCode);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Hands every link whose click count or limit changed since it was stored to the eviction listener,
+     * keeping it cached, and marks it clean. A click during the write marks the link dirty again.
+     */
+    void writeBackDirty() {
+        policyLock.lock();
+        try {
+            for (Node node : nodes.values()) {
+                if (node.isDirty()) {
+                    node.markClean();
+                    listener.onEviction(node.value, true);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    void forEach(Consumer<ShortUrl> action) {
+        for (Node node : nodes.values()) {
+            ShortUrl shortUrl = node.value;
+            if (shortUrl != null) {
+                action.accept(shortUrl);
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate heap held by the map, the queue nodes and the frequency sketch in bytes,
+     * not counting the cached links.
+     */
+    long memoryBytes() {
+        int size = nodes.size();
+        return MemoryLayout.concurrentHashMapBytes(size)
+                + size * MemoryLayout.objectBytes(3 * Integer.BYTES, 3)
+                + sketch.memoryBytes();
+    }
+
+    private void insert(ShortUrl shortUrl) {
+        Node node = new Node(shortUrl);
+        nodes.put(shortUrl.getShortCode(), node);
+        sketch.increment(shortUrl.getShortCode().hashCode());
+        append(WINDOW, node);
+
+        Node candidate = null;
+        if (queueSizes[WINDOW] > windowMaximum) {
+            candidate = queues[WINDOW].next;
+            unlink(candidate);
+            append(PROBATION, candidate);
+        }
+        while (nodes.size() > maximumSize) {
+            if (candidate != null) {
+                evictFromMain(candidate);
+                candidate = null;
+            } else {
+                evict(oldest());
+            }
+        }
+    }
+
+    private Node oldest() {
+        for (int queue : EVICTION_ORDER) {
+            if (queueSizes[queue] > 0) {
+                return queues[queue].next;
+            }
+        }
+        throw new IllegalStateException("Cache is over capacity but all queues are empty");
+    }
+
+    private void evictFromMain(Node candidate) {
+        Node victim = queues[PROBATION].next;
+        if (victim == candidate && queueSizes[PROTECTED] > 0) {
+            victim = queues[PROTECTED].next;
+        }
+        int candidateFrequency = sketch.frequency(candidate.value.getShortCode().hashCode());
+        int victimFrequency = sketch.frequency(victim.value.getShortCode().hashCode());
+        evict(candidateFrequency > victimFrequency ? victim : candidate);
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        listener.onEviction(node.value, node.isDirty());
+        nodes.remove(node.value.getShortCode(), node);
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.value.getShortCode().hashCode());
+        if (node.queue < 0) {
+            return;
+        }
+        if (node.queue == PROBATION) {
+            unlink(node);
+            append(PROTECTED, node);
+            if (queueSizes[PROTECTED] > protectedMaximum) {
+                Node demoted = queues[PROTECTED].next;
+                unlink(demoted);
+                append(PROBATION, demoted);
+            }
+        } else {
+            int queue = node.queue;
+            unlink(node);
+            append(queue, node);
+        }
+    }
+
+    private void append(int queue, Node node) {
+        Node sentinel = queues[queue];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+        node.queue = queue;
+        queueSizes[queue]++;
+    }
+
+    private void unlink(Node node) {
+        if (node.queue < 0) {
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        queueSizes[node.queue]--;
+        node.queue = -1;
+    }
+
+    private static final class Node {
+        volatile ShortUrl value;
+        Node prev;
+        Node next;
+        int queue = -1;
+        private int storedClickCount;
+        private int storedClickLimit;
+
+        Node(ShortUrl value) {
+            this.value = value;
+            if (value != null) {
+                markClean();
+            }
+        }
+
+        void markClean() {
+            storedClickCount = value.getClickCount();
+            storedClickLimit = value.getClickLimit();
+        }
+
+        boolean isDirty() {
+            return value.getClickCount() != storedClickCount || value.getClickLimit() != storedClickLimit;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package ru.maga.urlshortener.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Repository that keeps all short URLs in memory.
+ * Links are split into shards by code hash; each {@link RepositoryShard} owns its own link store and
+ * compact owner index keyed by the dense user ids of {@link UserIdRegistry}, and keeps them consistent
+ * under its own lock, so writes to different shards never contend
+ * and bulk scans, cleanup and restore run on all shards in parallel.
+ * Dead links are demoted to a compact {@link TombstoneStore} so lookups can still tell
+ * an expired or deleted code apart from one that never existed.
+ * Lookups of unknown codes are rejected by a {@link CountingBloomFilter} before touching the shards.
+ * Live links are kept in {@link LinkStore}s: all on the heap by default, or tiered between heap and disk.
+ */
+public class InMemoryShortUrlRepository implements ShortUrlRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryShortUrlRepository.class);
+    private static final int DEFAULT_SHARD_COUNT = 16;
+    private static final int DEFAULT_FILTER_EXPECTED_LINKS = 100_000;
+    private static final double DEFAULT_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    private final RepositoryShard[] shards;
+    private final int shardMask;
+    private final TombstoneStore tombstones = new TombstoneStore();
+    private final CountingBloomFilter filter;
+    private final LongAdder filterRejections = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+
+    public InMemoryShortUrlRepository() {
+        this(DEFAULT_FILTER_EXPECTED_LINKS, DEFAULT_FILTER_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @param filterExpectedLinks       number of live links the negative-lookup filter is sized for
+     * @param filterFalsePositiveRate   target false-positive rate of the filter at that size
+     */
+    public InMemoryShortUrlRepository(int filterExpectedLinks, double filterFalsePositiveRate) {
+        this(new UserIdRegistry(), DEFAULT_SHARD_COUNT, shard -> new HeapLinkStore(),
+                filterExpectedLinks, filterFalsePositiveRate);
+    }
+
+    /**
+     * Creates a single-shard repository over the given store, rebuilding the owner index and the filter
+     * from the links it already holds.
+     */
+    public InMemoryShortUrlRepository(LinkStore store, int filterExpectedLinks, double filterFalsePositiveRate) {
+        this(new UserIdRegistry(), 1, shard -> store, filterExpectedLinks, filterFalsePositiveRate);
+    }
+
+    /**
+     * Creates a sharded repository, rebuilding the owner indexes and the filter from the links the stores
+     * already hold. Links found in a shard they no longer hash to, e.g. after the shard count changed,
+     * are moved to the right one.
+     *
+     * @param userIds      registry of dense user ids shared with the {@link UserRepository}
+     * @param shardCount   number of shards, rounded up to a power of two
+     * @param storeFactory creates the link store of the shard with the given index
+     */
+    public InMemoryShortUrlRepository(UserIdRegistry userIds, int shardCount, IntFunction<LinkStore> storeFactory,
+                                      int filterExpectedLinks, double filterFalsePositiveRate) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        int count = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shards = new RepositoryShard[count];
+        this.shardMask = count - 1;
+        this.filter = new CountingBloomFilter(filterExpectedLinks, filterFalsePositiveRate);
+        IntStream.range(0, count).parallel()
+                .forEach(shard -> shards[shard] = new RepositoryShard(storeFactory.apply(shard), userIds));
+        List<ShortUrl> misplaced = IntStream.range(0, count).parallel()
+                .mapToObj(this::restore)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        for (ShortUrl shortUrl : misplaced) {
+            put(shortUrl);
+        }
+        if (!misplaced.isEmpty()) {
+            logger.info("Moved {} links to other shards after a shard count change", misplaced.size());
+        }
+    }
+
+    @Override
+    public void save(ShortUrl shortUrl) {
+        put(shortUrl);
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        return Optional.ofNullable(lookup(shortCode));
+    }
+
+    /**
+     * Returns the live link for the code, or null; unlike {@link #findByShortCode} allocates nothing.
+     */
+    @Override
+    public ShortUrl getByShortCode(String shortCode) {
+        return lookup(shortCode);
+    }
+
+    @Override
+    public List<ShortUrl> findByOwnerId(UUID ownerId) {
+        List<ShortUrl> links = new ArrayList<>();
+        for (RepositoryShard shard : shards) {
+            links.addAll(shard.findByOwnerId(ownerId));
+        }
+        return links;
+    }
+
+    /**
+     * Does nothing: the link is the stored object, so the click is already in the repository.
+     */
+    @Override
+    public void recordClick(ShortUrl shortUrl) {
+    }
+
+    /**
+     * Does nothing: the link is the stored object, so the new limit is already in the repository.
+     */
+    @Override
+    public void update(ShortUrl shortUrl) {
+    }
+
+    @Override
+    public void delete(String shortCode) {
+        remove(shortCode);
+    }
+
+    @Override
+    public boolean bury(String shortCode, LinkStatus reason, long atMillis) {
+        if (remove(shortCode) == null) {
+            return false;
+        }
+        tombstones.record(shortCode, reason, atMillis);
+        return true;
+    }
+
+    /**
+     * Buries every live link matching the predicate, scanning all shards in parallel,
+     * and returns the buried links.
+     */
+    @Override
+    public List<ShortUrl> buryIf(Predicate<ShortUrl> predicate, LinkStatus reason, long atMillis) {
+        List<ShortUrl> buried = Collections.synchronizedList(new ArrayList<>());
+        Arrays.stream(shards).parallel().forEach(shard -> shard.removeIf(predicate, shortUrl -> {
+            filter.remove(shortUrl.getShortCode());
+            tombstones.record(shortUrl.getShortCode(), reason, atMillis);
+            buried.add(shortUrl);
+        }));
+        return buried;
+    }
+
+    @Override
+    public Optional<LinkStatus> findTombstone(String shortCode) {
+        return Optional.ofNullable(tombstones.findReason(shortCode));
+    }
+
+    @Override
+    public boolean isTombstoned(String shortCode) {
+        return tombstones.contains(shortCode);
+    }
+
+    @Override
+    public int pruneTombstones(long olderThanMillis) {
+        return tombstones.prune(olderThanMillis);
+    }
+
+    @Override
+    public int tombstoneCount() {
+        return tombstones.size();
+    }
+
+    @Override
+    public void forEachTombstone(TombstoneConsumer action) {
+        tombstones.forEach(action);
+    }
+
+    @Override
+    public boolean restoreTombstone(String shortCode, LinkStatus reason, long atMillis) {
+        if (shardFor(shortCode).peek(shortCode) != null || tombstones.contains(shortCode)) {
+            return false;
+        }
+        tombstones.record(shortCode, reason, atMillis);
+        return true;
+    }
+
+    @Override
+    public boolean removeTombstone(String shortCode) {
+        return tombstones.remove(shortCode);
+    }
+
+    /**
+     * Returns a copy of all live links, taken shard by shard in parallel.
+     */
+    @Override
+    public List<ShortUrl> findAll() {
+        return Arrays.stream(shards).parallel()
+                .map(RepositoryShard::snapshot)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean exists(String shortCode) {
+        return lookup(shortCode) != null;
+    }
+
+    @Override
+    public int count() {
+        int count = 0;
+        for (RepositoryShard shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the approximate memory held by the owner indexes of all shards in bytes.
+     */
+    public long ownerIndexMemoryBytes() {
+        long bytes = 0;
+        for (RepositoryShard shard : shards) {
+            bytes += shard.ownerIndexMemoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the heap held by the repository by component, in bytes:
+     * <ul>
+     *     <li>{@code links.store} - maps from code to link, and in tiered mode the cache and disk index</li>
+     *     <li>{@code links.objects} - link objects with their click counters and timestamps</li>
+     *     <li>{@code links.codes}, {@code links.urls} - short code and original URL strings</li>
+     *     <li>{@code links.owner-index} - owner indexes of all shards</li>
+     *     <li>{@code links.filter} - the negative-lookup filter, allocated up front</li>
+     *     <li>{@code links.tombstones} - tombstones of removed links</li>
+     * </ul>
+     * Scans every link held on the heap, shards in parallel.
+     */
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        Map<String, Long> totals = new ConcurrentHashMap<>();
+        Arrays.stream(shards).parallel().forEach(shard -> shard.addMemoryBytes(totals));
+        Map<String, Long> footprint = new LinkedHashMap<>();
+        for (String component : List.of("links.store", "links.objects", "links.codes", "links.urls",
+                "links.owner-index")) {
+            footprint.put(component, totals.getOrDefault(component, 0L));
+        }
+        footprint.put("links.filter", filter.getMemoryBytes());
+        footprint.put("links.tombstones", tombstones.getMemoryBytes());
+        return footprint;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public double filterExpectedFalsePositiveRate() {
+        return filter.getExpectedFalsePositiveRate();
+    }
+
+    @Override
+    public double filterObservedFalsePositiveRate() {
+        long falsePositives = filterFalsePositives.sum();
+        long negatives = falsePositives + filterRejections.sum();
+        return negatives == 0 ? 0.0 : (double) falsePositives / negatives;
+    }
+
+    @Override
+    public long filterRejectionCount() {
+        return filterRejections.sum();
+    }
+
+    @Override
+    public long filterMemoryBytes() {
+        return filter.getMemoryBytes();
+    }
+
+    @Override
+    public void close() {
+        for (RepositoryShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    private ShortUrl lookup(String shortCode) {
+        if (!filter.mightContain(shortCode)) {
+            filterRejections.increment();
+            return null;
+        }
+        ShortUrl shortUrl = shardFor(shortCode).get(shortCode);
+        if (shortUrl == null) {
+            filterFalsePositives.increment();
+        }
+        return shortUrl;
+    }
+
+    private void put(ShortUrl shortUrl) {
+        if (shardFor(shortUrl.getShortCode()).put(shortUrl) == null) {
+            filter.add(shortUrl.getShortCode());
+        }
+    }
+
+    private ShortUrl remove(String shortCode) {
+        ShortUrl removed = shardFor(shortCode).remove(shortCode);
+        if (removed != null) {
+            filter.remove(shortCode);
+        }
+        return removed;
+    }
+
+    /**
+     * Adds the shard's links to the filter and takes out the ones that belong to another shard.
+     */
+    private List<ShortUrl> restore(int index) {
+        RepositoryShard shard = shards[index];
+        List<ShortUrl> misplaced = new ArrayList<>();
+        for (ShortUrl shortUrl : shard.snapshot()) {
+            if (shardFor(shortUrl.getShortCode()) == shard) {
+                filter.add(shortUrl.getShortCode());
+            } else {
+                misplaced.add(shortUrl);
+                shard.remove(shortUrl.getShortCode());
+            }
+        }
+        return misplaced;
+    }
+
+    private RepositoryShard shardFor(String shortCode) {
+        int hash = shortCode.hashCode() * 0x9E3779B9;
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+}
@@ -0,0 +1,74 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.User;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository that keeps all users in memory.
+ * Every saved user is also given a dense {@code int} id in a {@link UserIdRegistry}
+ * that other indexes use instead of the UUID.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final Map<UUID, User> users = new ConcurrentHashMap<>();
+    private final UserIdRegistry userIds;
+
+    public InMemoryUserRepository() {
+        this(new UserIdRegistry());
+    }
+
+    public InMemoryUserRepository(UserIdRegistry userIds) {
+        this.userIds = userIds;
+    }
+
+    @Override
+    public void save(User user) {
+        userIds.idOf(user.getId());
+        users.put(user.getId(), user);
+    }
+
+    @Override
+    public int findInternalId(UUID userId) {
+        return userIds.find(userId);
+    }
+
+    @Override
+    public UserIdRegistry getIdRegistry() {
+        return userIds;
+    }
+
+    @Override
+    public Optional<User> findById(UUID userId) {
+        return Optional.ofNullable(users.get(userId));
+    }
+
+    @Override
+    public boolean exists(UUID userId) {
+        return users.containsKey(userId);
+    }
+
+    @Override
+    public int count() {
+        return users.size();
+    }
+
+    /**
+     * Estimates the heap held by users by component, in bytes: {@code users.store} for the map,
+     * {@code users.objects} for the users with their UUIDs and creation {@code Instant}s,
+     * and {@code users.id-registry} for the dense id registry.
+     */
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        int count = users.size();
+        Map<String, Long> footprint = new LinkedHashMap<>();
+        footprint.put("users.store", MemoryLayout.concurrentHashMapBytes(count));
+        footprint.put("users.objects", count * User.objectMemoryBytes());
+        footprint.put("users.id-registry", userIds.getMemoryBytes());
+        return footprint;
+    }
+}
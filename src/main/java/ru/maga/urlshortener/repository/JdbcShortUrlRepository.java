@@ -0,0 +1,693 @@
+package ru.maga.urlshortener.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Repository that keeps links and tombstones in a relational database, reached through a {@link ConnectionPool}.
+ * A bounded {@link HotLinkCache} sits in front of lookups and is filled as links are read, so serving a
+ * cached link does not touch the database. Clicks are write-behind: a clicked link is only marked, and
+ * the click counts of marked links are written in one batch of UPDATEs per flush interval, never lowering
+ * a stored count. Until then a marked link stays reachable even if the cache evicts it, so its unwritten
+ * clicks are not lost. Link creation, limit changes and removals are written immediately;
+ * bulk removals and {@link #saveAll} are sent as batches in one transaction.
+ * Two {@link CountingBloomFilter}s, one over live codes and one over tombstoned codes, are loaded from the
+ * tables at startup and kept in step with every write, so lookups of codes that never existed do not reach
+ * the database. Codes are added to a filter before their row is written and taken out after it is deleted.
+ */
+public final class JdbcShortUrlRepository implements ShortUrlRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcShortUrlRepository.class);
+    public static final int DEFAULT_CACHE_CAPACITY = 100_000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_FILTER_EXPECTED_LINKS = 100_000;
+    public static final double DEFAULT_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final String COLUMNS =
+            "code, original_url, owner_id, created_at, expires_at, click_limit, click_count";
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS links ("
+                    + "code VARCHAR(64) PRIMARY KEY, "
+                    + "original_url VARCHAR(8192) NOT NULL, "
+                    + "owner_id VARCHAR(36) NOT NULL, "
+                    + "created_at BIGINT NOT NULL, "
+                    + "expires_at BIGINT NOT NULL, "
+                    + "click_limit INT NOT NULL, "
+                    + "click_count INT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS links_owner ON links (owner_id)",
+            "CREATE TABLE IF NOT EXISTS tombstones ("
+                    + "code VARCHAR(64) PRIMARY KEY, "
+                    + "reason VARCHAR(16) NOT NULL, "
+                    + "buried_at BIGINT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS tombstones_buried_at ON tombstones (buried_at)"
+    };
+
+    private final ConnectionPool pool;
+    private final HotLinkCache cache;
+    private final Map<String, ShortUrl> pendingClicks = new ConcurrentHashMap<>();
+    private final ReentrantLock mutationLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder flushedLinks = new LongAdder();
+    private final CountingBloomFilter filter;
+    private final CountingBloomFilter tombstoneFilter;
+    private final LongAdder filterRejections = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+    private volatile long removals;
+
+    public JdbcShortUrlRepository(ConnectionPool pool) {
+        this(pool, DEFAULT_CACHE_CAPACITY, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FILTER_EXPECTED_LINKS,
+                DEFAULT_FILTER_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Creates the tables if they do not exist yet, loads the stored codes into the filters and starts
+     * flushing click counts.
+     *
+     * @param cacheCapacity           maximum number of links kept on the heap
+     * @param flushIntervalMillis     how often click counts are written to the database
+     * @param filterExpectedLinks     number of codes each negative-lookup filter is sized for
+     * @param filterFalsePositiveRate target false-positive rate of the filters at that size
+     */
+    public JdbcShortUrlRepository(ConnectionPool pool, int cacheCapacity, long flushIntervalMillis,
+                                  int filterExpectedLinks, double filterFalsePositiveRate) {
+        this.pool = pool;
+        this.cache = new HotLinkCache(cacheCapacity, (shortUrl, dirty) -> {
+        });
+        this.filter = new CountingBloomFilter(filterExpectedLinks, filterFalsePositiveRate);
+        this.tombstoneFilter = new CountingBloomFilter(filterExpectedLinks, filterFalsePositiveRate);
+        pool.withConnection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+                loadCodes(statement, "SELECT code FROM links", filter);
+                loadCodes(statement, "SELECT code FROM tombstones", tombstoneFilter);
+            }
+            return null;
+        });
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jdbc-click-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(ShortUrl shortUrl) {
+        mutationLock.lock();
+        boolean inserted = false;
+        try {
+            filter.add(shortUrl.getShortCode());
+            inserted = pool.withConnection(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE links SET original_url = ?, owner_id = ?, created_at = ?, expires_at = ?, "
+                                + "click_limit = ?, click_count = ? WHERE code = ?")) {
+                    update.setString(1, shortUrl.getOriginalUrl());
+                    update.setString(2, shortUrl.getOwnerId().toString());
+                    update.setLong(3, shortUrl.getCreatedAtMillis());
+                    update.setLong(4, shortUrl.getExpiresAtMillis());
+                    update.setInt(5, shortUrl.getClickLimit());
+                    update.setInt(6, shortUrl.getClickCount());
+                    update.setString(7, shortUrl.getShortCode());
+                    if (update.executeUpdate() > 0) {
+                        return false;
+                    }
+                }
+                try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                    bindInsert(insert, shortUrl);
+                    insert.executeUpdate();
+                }
+                return true;
+            });
+            cache.put(shortUrl);
+        } finally {
+            if (!inserted) {
+                filter.remove(shortUrl.getShortCode());
+            }
+            mutationLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts new links in one batch and transaction.
+     */
+    @Override
+    public void saveAll(Collection<ShortUrl> shortUrls) {
+        if (shortUrls.isEmpty()) {
+            return;
+        }
+        mutationLock.lock();
+        try {
+            for (ShortUrl shortUrl : shortUrls) {
+                filter.add(shortUrl.getShortCode());
+            }
+            pool.inTransaction(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                    for (ShortUrl shortUrl : shortUrls) {
+                        bindInsert(insert, shortUrl);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return null;
+            });
+            for (ShortUrl shortUrl : shortUrls) {
+                cache.invalidate(shortUrl.getShortCode());
+            }
+        } catch (RuntimeException e) {
+            for (ShortUrl shortUrl : shortUrls) {
+                filter.remove(shortUrl.getShortCode());
+            }
+            throw e;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<ShortUrl> findByShortCode(String shortCode) {
+        return Optional.ofNullable(getByShortCode(shortCode));
+    }
+
+    @Override
+    public ShortUrl getByShortCode(String shortCode) {
+        if (!filter.mightContain(shortCode)) {
+            filterRejections.increment();
+            return null;
+        }
+        ShortUrl shortUrl = cache.get(shortCode);
+        if (shortUrl != null) {
+            return shortUrl;
+        }
+        long seenRemovals = removals;
+        ShortUrl stored = pendingClicks.get(shortCode);
+        if (stored == null) {
+            stored = select("SELECT " + COLUMNS + " FROM links WHERE code = ?", shortCode).stream()
+                    .findFirst().orElse(null);
+            if (stored == null) {
+                filterFalsePositives.increment();
+                return null;
+            }
+        }
+        mutationLock.lock();
+        try {
+            // A link removed while it was being read is returned once but not cached
+            if (removals != seenRemovals) {
+                return stored;
+            }
+            ShortUrl pending = pendingClicks.get(shortCode);
+            return cache.admit(pending != null ? pending : stored);
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ShortUrl> findByOwnerId(UUID ownerId) {
+        return select("SELECT " + COLUMNS + " FROM links WHERE owner_id = ?", ownerId.toString());
+    }
+
+    @Override
+    public void recordClick(ShortUrl shortUrl) {
+        pendingClicks.putIfAbsent(shortUrl.getShortCode(), shortUrl);
+    }
+
+    @Override
+    public void update(ShortUrl shortUrl) {
+        pool.withConnection(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE links SET click_limit = ? WHERE code = ?")) {
+                update.setInt(1, shortUrl.getClickLimit());
+                update.setString(2, shortUrl.getShortCode());
+                return update.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void delete(String shortCode) {
+        removeAll(List.of(shortCode), null, 0);
+    }
+
+    @Override
+    public boolean bury(String shortCode, LinkStatus reason, long atMillis) {
+        return !removeAll(List.of(shortCode), reason, atMillis).isEmpty();
+    }
+
+    /**
+     * Buries every live link matching the predicate; reads all links, then removes the matching ones in batches.
+     * Links removed by another call in between are not buried again and not returned.
+     */
+    @Override
+    public List<ShortUrl> buryIf(Predicate<ShortUrl> predicate, LinkStatus reason, long atMillis) {
+        List<ShortUrl> matching = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        for (ShortUrl shortUrl : findAll()) {
+            if (predicate.test(shortUrl)) {
+                matching.add(shortUrl);
+                codes.add(shortUrl.getShortCode());
+            }
+        }
+        if (codes.isEmpty()) {
+            return matching;
+        }
+        Set<String> buried = new HashSet<>(removeAll(codes, reason, atMillis));
+        matching.removeIf(shortUrl -> !buried.contains(shortUrl.getShortCode()));
+        return matching;
+    }
+
+    @Override
+    public Optional<LinkStatus> findTombstone(String shortCode) {
+        if (!tombstoneFilter.mightContain(shortCode)) {
+            return Optional.empty();
+        }
+        return pool.withConnection(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT reason FROM tombstones WHERE code = ?")) {
+                select.setString(1, shortCode);
+                try (ResultSet rows = select.executeQuery()) {
+                    return rows.next() ? Optional.of(LinkStatus.valueOf(rows.getString(1))) : Optional.empty();
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean isTombstoned(String shortCode) {
+        return findTombstone(shortCode).isPresent();
+    }
+
+    @Override
+    public int pruneTombstones(long olderThanMillis) {
+        mutationLock.lock();
+        try {
+            List<String> pruned = pool.inTransaction(connection -> {
+                List<String> codes = new ArrayList<>();
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT code FROM tombstones WHERE buried_at < ?")) {
+                    select.setLong(1, olderThanMillis);
+                    try (ResultSet rows = select.executeQuery()) {
+                        while (rows.next()) {
+                            codes.add(rows.getString(1));
+                        }
+                    }
+                }
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM tombstones WHERE buried_at < ?")) {
+                    delete.setLong(1, olderThanMillis);
+                    delete.executeUpdate();
+                }
+                return codes;
+            });
+            for (String code : pruned) {
+                tombstoneFilter.remove(code);
+            }
+            return pruned.size();
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public int tombstoneCount() {
+        return countRows("tombstones");
+    }
+
+    @Override
+    public void forEachTombstone(TombstoneConsumer action) {
+        pool.withConnection(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT code, reason, buried_at FROM tombstones")) {
+                while (rows.next()) {
+                    action.accept(rows.getString(1), LinkStatus.valueOf(rows.getString(2)), rows.getLong(3));
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public boolean restoreTombstone(String shortCode, LinkStatus reason, long atMillis) {
+        mutationLock.lock();
+        try {
+            if (getByShortCode(shortCode) != null || isTombstoned(shortCode)) {
+                return false;
+            }
+            // Added before the row, as in removeAll, and taken out again if the insert fails
+            tombstoneFilter.add(shortCode);
+            try {
+                pool.withConnection(connection -> {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO tombstones (code, reason, buried_at) VALUES (?, ?, ?)")) {
+                        insert.setString(1, shortCode);
+                        insert.setString(2, reason.name());
+                        insert.setLong(3, atMillis);
+                        return insert.executeUpdate();
+                    }
+                });
+            } catch (RuntimeException e) {
+                tombstoneFilter.remove(shortCode);
+                throw e;
+            }
+            return true;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeTombstone(String shortCode) {
+        mutationLock.lock();
+        try {
+            int deleted = pool.withConnection(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM tombstones WHERE code = ?")) {
+                    delete.setString(1, shortCode);
+                    return delete.executeUpdate();
+                }
+            });
+            if (deleted > 0) {
+                tombstoneFilter.remove(shortCode);
+            }
+            return deleted > 0;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ShortUrl> findAll() {
+        return select("SELECT " + COLUMNS + " FROM links", null);
+    }
+
+    @Override
+    public boolean exists(String shortCode) {
+        return getByShortCode(shortCode) != null;
+    }
+
+    @Override
+    public int count() {
+        return countRows("links");
+    }
+
+    /**
+     * Writes the click counts of all links clicked since the last flush in one batch,
+     * and returns the number of links written.
+     */
+    public int flush() {
+        if (pendingClicks.isEmpty()) {
+            return 0;
+        }
+        List<ShortUrl> clicked = new ArrayList<>();
+        for (String shortCode : pendingClicks.keySet()) {
+            ShortUrl shortUrl = pendingClicks.remove(shortCode);
+            if (shortUrl != null) {
+                clicked.add(shortUrl);
+            }
+        }
+        try {
+            pool.inTransaction(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE links SET click_count = ? WHERE code = ? AND click_count < ?")) {
+                    for (ShortUrl shortUrl : clicked) {
+                        // Read after unmarking, so a click counted from here on marks the link again
+                        int clickCount = shortUrl.getClickCount();
+                        update.setInt(1, clickCount);
+                        update.setString(2, shortUrl.getShortCode());
+                        update.setInt(3, clickCount);
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            for (ShortUrl shortUrl : clicked) {
+                pendingClicks.putIfAbsent(shortUrl.getShortCode(), shortUrl);
+            }
+            throw e;
+        }
+        flushedLinks.add(clicked.size());
+        return clicked.size();
+    }
+
+    /**
+     * Returns the number of links with clicks not written to the database yet.
+     */
+    public int getPendingCount() {
+        return pendingClicks.size();
+    }
+
+    /**
+     * Returns the number of link click counts written by flushes so far.
+     */
+    public long getFlushedCount() {
+        return flushedLinks.sum();
+    }
+
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Estimates the heap held by the repository by component, in bytes: the cache and its links, the
+     * links waiting for their clicks to be written, and the filters over live and tombstoned codes.
+     */
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        long[] links = new long[3];
+        cache.forEach(shortUrl -> {
+            links[0] += ShortUrl.objectMemoryBytes();
+            links[1] += MemoryLayout.stringBytes(shortUrl.getShortCode());
+            links[2] += MemoryLayout.stringBytes(shortUrl.getOriginalUrl());
+        });
+        Map<String, Long> footprint = new LinkedHashMap<>();
+        footprint.put("links.store", cache.memoryBytes());
+        footprint.put("links.objects", links[0]);
+        footprint.put("links.codes", links[1]);
+        footprint.put("links.urls", links[2]);
+        footprint.put("links.pending-clicks", MemoryLayout.concurrentHashMapBytes(pendingClicks.size()));
+        footprint.put("links.filter", filter.getMemoryBytes());
+        footprint.put("links.tombstones", tombstoneFilter.getMemoryBytes());
+        return footprint;
+    }
+
+    @Override
+    public double filterExpectedFalsePositiveRate() {
+        return filter.getExpectedFalsePositiveRate();
+    }
+
+    @Override
+    public double filterObservedFalsePositiveRate() {
+        long falsePositives = filterFalsePositives.sum();
+        long negatives = falsePositives + filterRejections.sum();
+        return negatives == 0 ? 0.0 : (double) falsePositives / negatives;
+    }
+
+    @Override
+    public long filterRejectionCount() {
+        return filterRejections.sum();
+    }
+
+    @Override
+    public long filterMemoryBytes() {
+        return filter.getMemoryBytes();
+    }
+
+    /**
+     * Stops the periodic flush and writes the remaining click counts; the pool is left open.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Deletes the links in one transaction, replacing the ones whose row it deleted with tombstones unless
+     * the reason is null, and returns the codes of those links. Codes already removed by another call are
+     * left alone, so their tombstones keep the reason they were removed for.
+     */
+    private List<String> removeAll(List<String> codes, LinkStatus reason, long atMillis) {
+        mutationLock.lock();
+        List<String> removed = new ArrayList<>();
+        // Codes whose old tombstone was replaced
+        List<String> replaced = new ArrayList<>();
+        boolean[] tombstonesAdded = {false};
+        try {
+            pool.inTransaction(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM links WHERE code = ?")) {
+                    for (String code : codes) {
+                        delete.setString(1, code);
+                        delete.addBatch();
+                    }
+                    int[] results = delete.executeBatch();
+                    for (int i = 0; i < results.length; i++) {
+                        if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                            removed.add(codes.get(i));
+                        }
+                    }
+                }
+                if (reason != null && !removed.isEmpty()) {
+                    for (String code : removed) {
+                        tombstoneFilter.add(code);
+                    }
+                    tombstonesAdded[0] = true;
+                    recordTombstones(connection, removed, reason, atMillis, replaced);
+                }
+                return removed.size();
+            });
+            removals++;
+            for (String code : codes) {
+                cache.invalidate(code);
+                pendingClicks.remove(code);
+            }
+            for (String code : removed) {
+                filter.remove(code);
+            }
+            for (String code : replaced) {
+                tombstoneFilter.remove(code);
+            }
+            return removed;
+        } catch (RuntimeException e) {
+            if (tombstonesAdded[0]) {
+                for (String code : removed) {
+                    tombstoneFilter.remove(code);
+                }
+            }
+            throw e;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the tombstones of the codes, adding to {@code replaced} the codes whose old tombstone was
+     * deleted.
+     */
+    private static void recordTombstones(Connection connection, List<String> codes, LinkStatus reason,
+                                         long atMillis, List<String> replaced) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM tombstones WHERE code = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO tombstones (code, reason, buried_at) VALUES (?, ?, ?)")) {
+            for (String code : codes) {
+                delete.setString(1, code);
+                delete.addBatch();
+                insert.setString(1, code);
+                insert.setString(2, reason.name());
+                insert.setLong(3, atMillis);
+                insert.addBatch();
+            }
+            int[] results = delete.executeBatch();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] > 0) {
+                    replaced.add(codes.get(i));
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void loadCodes(Statement statement, String sql, CountingBloomFilter target)
+            throws SQLException {
+        try (ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                target.add(rows.getString(1));
+            }
+        }
+    }
+
+    /**
+     * Runs a query for links; links that are cached or have unwritten clicks are returned as the live
+     * objects, the rest as read.
+     */
+    private List<ShortUrl> select(String sql, String parameter) {
+        return pool.withConnection(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(sql)) {
+                if (parameter != null) {
+                    select.setString(1, parameter);
+                }
+                List<ShortUrl> links = new ArrayList<>();
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        String code = rows.getString(1);
+                        ShortUrl live = cache.peek(code);
+                        if (live == null) {
+                            live = pendingClicks.get(code);
+                        }
+                        links.add(live != null ? live : new ShortUrl(code, rows.getString(2),
+                                UUID.fromString(rows.getString(3)), rows.getLong(4), rows.getLong(5),
+                                rows.getInt(6), rows.getInt(7)));
+                    }
+                }
+                return links;
+            }
+        });
+    }
+
+    private int countRows(String table) {
+        return pool.withConnection(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot write click counts, will retry", e);
+        }
+    }
+
+    private static String insertSql() {
+        return "INSERT INTO links (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    private static void bindInsert(PreparedStatement insert, ShortUrl shortUrl) throws SQLException {
+        insert.setString(1, shortUrl.getShortCode());
+        insert.setString(2, shortUrl.getOriginalUrl());
+        insert.setString(3, shortUrl.getOwnerId().toString());
+        insert.setLong(4, shortUrl.getCreatedAtMillis());
+        insert.setLong(5, shortUrl.getExpiresAtMillis());
+        insert.setInt(6, shortUrl.getClickLimit());
+        insert.setInt(7, shortUrl.getClickCount());
+    }
+}
@@ -0,0 +1,133 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.User;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository that keeps users in a relational database, reached through a {@link ConnectionPool}.
+ * Users are cached on the heap once saved or read. Dense ids are not stored: every stored user is
+ * given one when the repository opens, and new users when they are saved.
+ */
+public class JdbcUserRepository implements UserRepository {
+    private final ConnectionPool pool;
+    private final UserIdRegistry userIds;
+    private final Map<UUID, User> cache = new ConcurrentHashMap<>();
+
+    public JdbcUserRepository(ConnectionPool pool) {
+        this(pool, new UserIdRegistry());
+    }
+
+    /**
+     * Creates the table if it does not exist yet and assigns dense ids to the stored users.
+     */
+    public JdbcUserRepository(ConnectionPool pool, UserIdRegistry userIds) {
+        this.pool = pool;
+        this.userIds = userIds;
+        pool.withConnection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS users ("
+                        + "id VARCHAR(36) PRIMARY KEY, "
+                        + "created_at BIGINT NOT NULL)");
+                try (ResultSet rows = statement.executeQuery("SELECT id FROM users ORDER BY created_at")) {
+                    while (rows.next()) {
+                        userIds.idOf(UUID.fromString(rows.getString(1)));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void save(User user) {
+        pool.withConnection(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE users SET created_at = ? WHERE id = ?")) {
+                update.setLong(1, user.getCreatedAt().toEpochMilli());
+                update.setString(2, user.getId().toString());
+                if (update.executeUpdate() > 0) {
+                    return null;
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (id, created_at) VALUES (?, ?)")) {
+                insert.setString(1, user.getId().toString());
+                insert.setLong(2, user.getCreatedAt().toEpochMilli());
+                insert.executeUpdate();
+            }
+            return null;
+        });
+        userIds.idOf(user.getId());
+        cache.put(user.getId(), user);
+    }
+
+    @Override
+    public int findInternalId(UUID userId) {
+        return userIds.find(userId);
+    }
+
+    @Override
+    public UserIdRegistry getIdRegistry() {
+        return userIds;
+    }
+
+    @Override
+    public Optional<User> findById(UUID userId) {
+        User cached = cache.get(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        User stored = pool.withConnection(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT created_at FROM users WHERE id = ?")) {
+                select.setString(1, userId.toString());
+                try (ResultSet rows = select.executeQuery()) {
+                    return rows.next() ? new User(userId, Instant.ofEpochMilli(rows.getLong(1))) : null;
+                }
+            }
+        });
+        if (stored == null) {
+            return Optional.empty();
+        }
+        return Optional.of(cache.computeIfAbsent(userId, id -> stored));
+    }
+
+    @Override
+    public boolean exists(UUID userId) {
+        return findById(userId).isPresent();
+    }
+
+    @Override
+    public int count() {
+        return pool.withConnection(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        });
+    }
+
+    /**
+     * Estimates the heap held by users by component, in bytes: {@code users.cache} for the cached users
+     * and {@code users.id-registry} for the dense id registry.
+     */
+    @Override
+    public Map<String, Long> getMemoryFootprint() {
+        int cached = cache.size();
+        Map<String, Long> footprint = new LinkedHashMap<>();
+        footprint.put("users.cache", MemoryLayout.concurrentHashMapBytes(cached) + cached * User.objectMemoryBytes());
+        footprint.put("users.id-registry", userIds.getMemoryBytes());
+        return footprint;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.util.function.Consumer;
+
+/**
+ * Storage of live links by short code behind {@link ShortUrlRepository}.
+ * Implementations must be thread-safe.
+ */
+public interface LinkStore extends AutoCloseable {
+
+    /**
+     * Returns the link for serving a request; implementations may count this as an access.
+     */
+    ShortUrl get(String shortCode);
+
+    /**
+     * Returns the link without affecting caching decisions.
+     */
+    ShortUrl peek(String shortCode);
+
+    /**
+     * Stores the link and returns the one previously stored under its code, or null.
+     */
+    ShortUrl put(ShortUrl shortUrl);
+
+    /**
+     * Removes the link and returns it, or null if it was not stored.
+     */
+    ShortUrl remove(String shortCode);
+
+    void forEach(Consumer<ShortUrl> action);
+
+    /**
+     * Visits the links currently held on the heap; the same as {@link #forEach} unless the store
+     * keeps some links elsewhere.
+     */
+    default void forEachOnHeap(Consumer<ShortUrl> action) {
+        forEach(action);
+    }
+
+    /**
+     * Returns the approximate heap held by the store's own maps, caches and indexes in bytes,
+     * not counting the links themselves.
+     */
+    long getStructureMemoryBytes();
+
+    int size();
+
+    @Override
+    default void close() {
+    }
+}
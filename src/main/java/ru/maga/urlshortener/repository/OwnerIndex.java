@@ -0,0 +1,234 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.util.LongLongHashMap;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Index of short codes by owner, keyed by the dense ids of {@link UserIdRegistry} and holding codes
+ * packed with {@link ShortCodeCodec}.
+ * An owner with a single link costs one slot of a primitive table, with the code stored in place.
+ * Owners with more links get a {@code long[]}, which turns into a primitive hash set once it grows large.
+ * Owners are dropped as soon as their last code is removed, and lists shrink as they empty.
+ * Codes that cannot be packed fall back to regular sets. Not thread-safe; guarded by the shard lock.
+ */
+class OwnerIndex {
+    private static final long NO_ENTRY = Long.MIN_VALUE;
+    private static final int MIN_LIST_CAPACITY = 4;
+    private static final int MAX_LIST_CAPACITY = 32;
+
+    // Value per owner: a packed code if non-negative, otherwise the complement of a list slot
+    private final LongLongHashMap entries = new LongLongHashMap(16, NO_ENTRY);
+    private Object[] lists = new Object[16];
+    private int[] listSizes = new int[16];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int usedSlots;
+    private final Map<Integer, Set<String>> overflow = new HashMap<>();
+
+    /**
+     * Adds a code to the owner; the caller guarantees the code is not indexed yet.
+     */
+    void add(int ownerId, String shortCode) {
+        long code = ShortCodeCodec.encode(shortCode);
+        if (code == ShortCodeCodec.NOT_ENCODABLE) {
+            overflow.computeIfAbsent(ownerId, k -> new HashSet<>()).add(shortCode);
+            return;
+        }
+        long key = keyOf(ownerId);
+        long entry = entries.get(key);
+        if (entry == NO_ENTRY) {
+            entries.put(key, code);
+        } else if (entry >= 0) {
+            int slot = allocateSlot();
+            long[] list = new long[MIN_LIST_CAPACITY];
+            list[0] = entry;
+            list[1] = code;
+            lists[slot] = list;
+            listSizes[slot] = 2;
+            entries.put(key, ~slot);
+        } else {
+            addToList((int) ~entry, code);
+        }
+    }
+
+    boolean remove(int ownerId, String shortCode) {
+        long code = ShortCodeCodec.encode(shortCode);
+        if (code == ShortCodeCodec.NOT_ENCODABLE) {
+            Set<String> codes = overflow.get(ownerId);
+            if (codes == null || !codes.remove(shortCode)) {
+                return false;
+            }
+            if (codes.isEmpty()) {
+                overflow.remove(ownerId);
+            }
+            return true;
+        }
+        long key = keyOf(ownerId);
+        long entry = entries.get(key);
+        if (entry == NO_ENTRY) {
+            return false;
+        }
+        if (entry >= 0) {
+            if (entry != code) {
+                return false;
+            }
+            entries.remove(key);
+            return true;
+        }
+        int slot = (int) ~entry;
+        if (!removeFromList(slot, code)) {
+            return false;
+        }
+        if (listSizes[slot] == 1) {
+            entries.put(key, onlyCode(slot));
+            freeSlot(slot);
+        }
+        return true;
+    }
+
+    void forEach(int ownerId, Consumer<String> action) {
+        long entry = entries.get(keyOf(ownerId));
+        if (entry >= 0) {
+            action.accept(ShortCodeCodec.decode(entry));
+        } else if (entry != NO_ENTRY) {
+            Object list = lists[(int) ~entry];
+            if (list instanceof long[]) {
+                long[] codes = (long[]) list;
+                for (int i = 0; i < listSizes[(int) ~entry]; i++) {
+                    action.accept(ShortCodeCodec.decode(codes[i]));
+                }
+            } else {
+                ((LongLongHashMap) list).forEach((code, unused) -> action.accept(ShortCodeCodec.decode(code)));
+            }
+        }
+        Set<String> codes = overflow.get(ownerId);
+        if (codes != null) {
+            codes.forEach(action);
+        }
+    }
+
+    int ownerCount() {
+        int count = entries.size();
+        for (Integer ownerId : overflow.keySet()) {
+            if (entries.get(keyOf(ownerId)) == NO_ENTRY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the approximate memory held by the primitive tables and lists in bytes.
+     */
+    long memoryBytes() {
+        long bytes = entries.memoryBytes() + (long) lists.length * (Integer.BYTES * 3);
+        for (int slot = 0; slot < usedSlots; slot++) {
+            Object list = lists[slot];
+            if (list instanceof long[]) {
+                bytes += 16 + ((long[]) list).length * (long) Long.BYTES;
+            } else if (list != null) {
+                bytes += ((LongLongHashMap) list).memoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private void addToList(int slot, long code) {
+        Object list = lists[slot];
+        if (list instanceof LongLongHashMap) {
+            ((LongLongHashMap) list).put(code, 0);
+        } else {
+            long[] codes = (long[]) list;
+            int size = listSizes[slot];
+            if (size == codes.length) {
+                if (codes.length == MAX_LIST_CAPACITY) {
+                    LongLongHashMap set = new LongLongHashMap(MAX_LIST_CAPACITY * 2, -1);
+                    for (long existing : codes) {
+                        set.put(existing, 0);
+                    }
+                    set.put(code, 0);
+                    lists[slot] = set;
+                    listSizes[slot] = size + 1;
+                    return;
+                }
+                codes = Arrays.copyOf(codes, codes.length * 2);
+                lists[slot] = codes;
+            }
+            codes[size] = code;
+        }
+        listSizes[slot]++;
+    }
+
+    private boolean removeFromList(int slot, long code) {
+        Object list = lists[slot];
+        if (list instanceof LongLongHashMap) {
+            LongLongHashMap set = (LongLongHashMap) list;
+            if (set.remove(code) == -1) {
+                return false;
+            }
+            listSizes[slot]--;
+            if (listSizes[slot] <= MAX_LIST_CAPACITY / 2) {
+                long[] codes = new long[MAX_LIST_CAPACITY];
+                int[] position = {0};
+                set.forEach((existing, unused) -> codes[position[0]++] = existing);
+                lists[slot] = codes;
+            }
+            return true;
+        }
+        long[] codes = (long[]) list;
+        int size = listSizes[slot];
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == code) {
+                codes[i] = codes[size - 1];
+                codes[size - 1] = 0;
+                listSizes[slot] = --size;
+                if (codes.length > MIN_LIST_CAPACITY && size * 4 <= codes.length) {
+                    lists[slot] = Arrays.copyOf(codes, codes.length / 2);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long onlyCode(int slot) {
+        Object list = lists[slot];
+        if (list instanceof long[]) {
+            return ((long[]) list)[0];
+        }
+        long[] code = {NO_ENTRY};
+        ((LongLongHashMap) list).forEach((existing, unused) -> code[0] = existing);
+        return code[0];
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (usedSlots == lists.length) {
+            int capacity = lists.length * 2;
+            lists = Arrays.copyOf(lists, capacity);
+            listSizes = Arrays.copyOf(listSizes, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return usedSlots++;
+    }
+
+    private void freeSlot(int slot) {
+        lists[slot] = null;
+        listSizes[slot] = 0;
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private static long keyOf(int ownerId) {
+        // Key 0 is reserved by the table
+        return ownerId + 1L;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.maga.urlshortener.repository;
+
+/**
+ * Thrown when a repository cannot reach or update the database or cluster node behind it.
+ */
+public class RepositoryException extends RuntimeException {
+
+    public RepositoryException(String message) {
+        super(message);
+    }
+
+    public RepositoryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
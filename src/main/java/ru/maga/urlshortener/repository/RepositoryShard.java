@@ -0,0 +1,187 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * One slice of {@link ShortUrlRepository}: the links whose codes hash to it and the owner index for them.
+ * Writes take the shard's write lock and update the store and the owner index together, so the two never
+ * disagree; lookups by code go straight to the thread-safe store.
+ */
+class RepositoryShard implements AutoCloseable {
+    private final LinkStore store;
+    private final UserIdRegistry userIds;
+    private final OwnerIndex shortCodesByOwner = new OwnerIndex();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    RepositoryShard(LinkStore store, UserIdRegistry userIds) {
+        this.store = store;
+        this.userIds = userIds;
+        store.forEach(this::index);
+    }
+
+    ShortUrl get(String shortCode) {
+        return store.get(shortCode);
+    }
+
+    ShortUrl peek(String shortCode) {
+        return store.peek(shortCode);
+    }
+
+    /**
+     * Stores the link and returns the one previously stored under its code, or null.
+     */
+    ShortUrl put(ShortUrl shortUrl) {
+        lock.writeLock().lock();
+        try {
+            ShortUrl previous = store.put(shortUrl);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(shortUrl);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the link and returns it, or null if it was not stored.
+     */
+    ShortUrl remove(String shortCode) {
+        lock.writeLock().lock();
+        try {
+            ShortUrl removed = store.remove(shortCode);
+            if (removed != null) {
+                unindex(removed);
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all links matching the predicate, passing each one to the callback while the shard is locked.
+     */
+    int removeIf(Predicate<ShortUrl> predicate, Consumer<ShortUrl> onRemoved) {
+        lock.writeLock().lock();
+        try {
+            List<ShortUrl> matching = new ArrayList<>();
+            store.forEach(shortUrl -> {
+                if (predicate.test(shortUrl)) {
+                    matching.add(shortUrl);
+                }
+            });
+            for (ShortUrl shortUrl : matching) {
+                store.remove(shortUrl.getShortCode());
+                unindex(shortUrl);
+                onRemoved.accept(shortUrl);
+            }
+            return matching.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<ShortUrl> findByOwnerId(UUID ownerId) {
+        int ownerKey = userIds.find(ownerId);
+        if (ownerKey < 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<ShortUrl> links = new ArrayList<>();
+            shortCodesByOwner.forEach(ownerKey, shortCode -> {
+                ShortUrl shortUrl = store.peek(shortCode);
+                if (shortUrl != null) {
+                    links.add(shortUrl);
+                }
+            });
+            return links;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a consistent copy of the links in this shard.
+     */
+    List<ShortUrl> snapshot() {
+        lock.readLock().lock();
+        try {
+            List<ShortUrl> links = new ArrayList<>(store.size());
+            store.forEach(links::add);
+            return links;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        return store.size();
+    }
+
+    long ownerIndexMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return shortCodesByOwner.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds this shard's heap estimate to the totals by component: store structures, link objects,
+     * short code strings, URL strings and the owner index.
+     */
+    void addMemoryBytes(Map<String, Long> totals) {
+        long[] links = new long[3];
+        long structures;
+        long ownerIndex;
+        lock.readLock().lock();
+        try {
+            store.forEachOnHeap(shortUrl -> {
+                links[0] += ShortUrl.objectMemoryBytes();
+                links[1] += MemoryLayout.stringBytes(shortUrl.getShortCode());
+                links[2] += MemoryLayout.stringBytes(shortUrl.getOriginalUrl());
+            });
+            structures = store.getStructureMemoryBytes();
+            ownerIndex = shortCodesByOwner.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+        totals.merge("links.store", structures, Long::sum);
+        totals.merge("links.objects", links[0], Long::sum);
+        totals.merge("links.codes", links[1], Long::sum);
+        totals.merge("links.urls", links[2], Long::sum);
+        totals.merge("links.owner-index", ownerIndex, Long::sum);
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            store.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(ShortUrl shortUrl) {
+        shortCodesByOwner.add(userIds.idOf(shortUrl.getOwnerId()), shortUrl.getShortCode());
+    }
+
+    private void unindex(ShortUrl shortUrl) {
+        shortCodesByOwner.remove(userIds.idOf(shortUrl.getOwnerId()), shortUrl.getShortCode());
+    }
+}
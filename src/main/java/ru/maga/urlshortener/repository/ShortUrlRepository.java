@@ -1,60 +1,146 @@
 package ru.maga.urlshortener.repository;
 
+import ru.maga.urlshortener.domain.LinkStatus;
 import ru.maga.urlshortener.domain.ShortUrl;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
 
 /**
- * Thread-safe repository for managing short URLs.
+ * Live links by short code, and tombstones of removed ones.
+ * Links returned by lookups are live objects: clicks and limit changes are made on them and then reported
+ * with {@link #recordClick} and {@link #update}, so implementations that persist links elsewhere can write
+ * the change out. Implementations must be thread-safe.
  */
-public class ShortUrlRepository {
-    private final Map<String, ShortUrl> urlsByShortCode = new ConcurrentHashMap<>();
-    private final Map<UUID, Set<String>> shortCodesByOwner = new ConcurrentHashMap<>();
-
-    public void save(ShortUrl shortUrl) {
-        urlsByShortCode.put(shortUrl.getShortCode(), shortUrl);
-        shortCodesByOwner
-                .computeIfAbsent(shortUrl.getOwnerId(), k -> ConcurrentHashMap.newKeySet())
-                .add(shortUrl.getShortCode());
-    }
+public interface ShortUrlRepository extends AutoCloseable {
 
-    public Optional<ShortUrl> findByShortCode(String shortCode) {
-        return Optional.ofNullable(urlsByShortCode.get(shortCode));
+    /**
+     * Receives a tombstone: the code of a dead link with the reason and time it died.
+     */
+    @FunctionalInterface
+    interface TombstoneConsumer {
+        void accept(String shortCode, LinkStatus reason, long atMillis);
     }
 
-    public List<ShortUrl> findByOwnerId(UUID ownerId) {
-        Set<String> codes = shortCodesByOwner.get(ownerId);
-        if (codes == null) {
-            return Collections.emptyList();
+    void save(ShortUrl shortUrl);
+
+    /**
+     * Saves many new links at once.
+     */
+    default void saveAll(Collection<ShortUrl> shortUrls) {
+        for (ShortUrl shortUrl : shortUrls) {
+            save(shortUrl);
         }
-        return codes.stream()
-                .map(urlsByShortCode::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
     }
 
-    public void delete(String shortCode) {
-        ShortUrl removed = urlsByShortCode.remove(shortCode);
-        if (removed != null) {
-            Set<String> codes = shortCodesByOwner.get(removed.getOwnerId());
-            if (codes != null) {
-                codes.remove(shortCode);
-            }
+    Optional<ShortUrl> findByShortCode(String shortCode);
+
+    /**
+     * Returns the live link for the code, or null; unlike {@link #findByShortCode} need not allocate.
+     */
+    ShortUrl getByShortCode(String shortCode);
+
+    List<ShortUrl> findByOwnerId(UUID ownerId);
+
+    /**
+     * Records that a click was counted on the link returned by a lookup.
+     */
+    void recordClick(ShortUrl shortUrl);
+
+    /**
+     * Counts a click on the link returned by a lookup unless its click limit is reached, and records it.
+     * Returns false if the limit was reached. Repositories whose lookups return copies decide against the
+     * stored link instead.
+     */
+    default boolean tryClick(ShortUrl shortUrl) {
+        if (!shortUrl.tryIncrementClickCount()) {
+            return false;
         }
+        recordClick(shortUrl);
+        return true;
     }
 
-    public List<ShortUrl> findAll() {
-        return new ArrayList<>(urlsByShortCode.values());
-    }
+    /**
+     * Records that the click limit of the link returned by a lookup was changed.
+     */
+    void update(ShortUrl shortUrl);
 
-    public boolean exists(String shortCode) {
-        return urlsByShortCode.containsKey(shortCode);
-    }
+    void delete(String shortCode);
 
-    public int count() {
-        return urlsByShortCode.size();
-    }
-}
+    /**
+     * Removes a live link and replaces it with a tombstone holding the reason and time of death.
+     * Returns false if the link was not live.
+     */
+    boolean bury(String shortCode, LinkStatus reason, long atMillis);
+
+    /**
+     * Buries every live link matching the predicate and returns the buried links.
+     */
+    List<ShortUrl> buryIf(Predicate<ShortUrl> predicate, LinkStatus reason, long atMillis);
+
+    /**
+     * Returns the reason a dead link was removed, if a tombstone exists for the code.
+     */
+    Optional<LinkStatus> findTombstone(String shortCode);
+
+    boolean isTombstoned(String shortCode);
+
+    /**
+     * Drops tombstones recorded before the given time.
+     */
+    int pruneTombstones(long olderThanMillis);
 
+    int tombstoneCount();
+
+    /**
+     * Calls the action with every tombstone.
+     */
+    void forEachTombstone(TombstoneConsumer action);
+
+    /**
+     * Records a tombstone moved here from another store, unless the code already has a live link or a
+     * tombstone here. Returns whether it was recorded.
+     */
+    boolean restoreTombstone(String shortCode, LinkStatus reason, long atMillis);
+
+    /**
+     * Drops the tombstone of the code, as after moving it to another store. Returns whether there was one.
+     */
+    boolean removeTombstone(String shortCode);
+
+    /**
+     * Returns a copy of all live links.
+     */
+    List<ShortUrl> findAll();
+
+    boolean exists(String shortCode);
+
+    int count();
+
+    /**
+     * Estimates the heap held by the repository by component, in bytes. Always has {@code links.filter},
+     * the heap allocated up front whatever the number of links.
+     */
+    Map<String, Long> getMemoryFootprint();
+
+    /**
+     * Returns the false-positive rate of the negative-lookup filter expected for the current number of links.
+     */
+    double filterExpectedFalsePositiveRate();
+
+    /**
+     * Returns the share of lookups for absent codes that the filter failed to reject.
+     */
+    double filterObservedFalsePositiveRate();
+
+    long filterRejectionCount();
+
+    long filterMemoryBytes();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,129 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Two-tier link storage: a bounded {@link HotLinkCache} on the heap in front of a {@link ColdLinkStore}
+ * on disk. Every link is written through to disk, so the disk tier always holds all links; the cache
+ * holds the working set. Links read from disk are promoted into the cache, and links the cache pushes
+ * out are written back to disk only if their click count or limit changed while cached, and so are all
+ * changed links still cached when the store is closed.
+ * A click that races with the demotion of its link may be lost.
+ */
+public class TieredLinkStore implements LinkStore {
+    private final ColdLinkStore cold;
+    private final HotLinkCache hot;
+    private final ReentrantLock mutationLock = new ReentrantLock();
+
+    /**
+     * @param hotCapacity   maximum number of links kept on the heap
+     * @param coldDirectory directory for the record log and index files
+     */
+    public TieredLinkStore(int hotCapacity, Path coldDirectory) {
+        this.cold = new ColdLinkStore(coldDirectory);
+        this.hot = new HotLinkCache(hotCapacity, (shortUrl, dirty) -> {
+            if (dirty) {
+                cold.write(shortUrl);
+            }
+        });
+    }
+
+    @Override
+    public ShortUrl get(String shortCode) {
+        ShortUrl shortUrl = hot.get(shortCode);
+        if (shortUrl != null) {
+            return shortUrl;
+        }
+        shortUrl = cold.read(shortCode);
+        if (shortUrl == null) {
+            return null;
+        }
+        mutationLock.lock();
+        try {
+            // The link may have been removed between the disk read and now
+            return cold.contains(shortCode) ? hot.admit(shortUrl) : null;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public ShortUrl peek(String shortCode) {
+        ShortUrl shortUrl = hot.peek(shortCode);
+        return shortUrl != null ? shortUrl : cold.read(shortCode);
+    }
+
+    @Override
+    public ShortUrl put(ShortUrl shortUrl) {
+        mutationLock.lock();
+        try {
+            ShortUrl previous = peek(shortUrl.getShortCode());
+            cold.write(shortUrl);
+            hot.put(shortUrl);
+            return previous;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public ShortUrl remove(String shortCode) {
+        mutationLock.lock();
+        try {
+            ShortUrl previous = peek(shortCode);
+            hot.invalidate(shortCode);
+            cold.remove(shortCode);
+            return previous;
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        for (String shortCode : cold.codes()) {
+            ShortUrl shortUrl = peek(shortCode);
+            if (shortUrl != null) {
+                action.accept(shortUrl);
+            }
+        }
+    }
+
+    @Override
+    public void forEachOnHeap(Consumer<ShortUrl> action) {
+        hot.forEach(action);
+    }
+
+    @Override
+    public long getStructureMemoryBytes() {
+        return hot.memoryBytes() + cold.getIndexMemoryBytes();
+    }
+
+    @Override
+    public int size() {
+        return cold.size();
+    }
+
+    public int hotSize() {
+        return hot.size();
+    }
+
+    public long coldFileBytes() {
+        return cold.getFileBytes();
+    }
+
+    @Override
+    public void close() {
+        mutationLock.lock();
+        try {
+            hot.writeBackDirty();
+            cold.close();
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ru.maga.urlshortener.repository;
+
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.util.LongLongHashMap;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact store of dead links.
+ * Keeps only the reason and the time a link died, packed into one {@code long} and keyed by the
+ * short code packed with {@link ShortCodeCodec}: 16 bytes per slot in open-addressing tables, with
+ * no per-entry objects. Codes that cannot be packed fall back to a regular map. A lock-free
+ * {@link CountingBloomFilter} answers for codes that were never buried, so most misses take no lock.
+ */
+public class TombstoneStore {
+    private static final int SEGMENT_COUNT = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 48;
+    private static final int FILTER_EXPECTED_TOMBSTONES = 16_384;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+    private static final int REASON_SHIFT = 56;
+    private static final long TIME_MASK = (1L << REASON_SHIFT) - 1;
+    private static final LinkStatus[] REASONS = LinkStatus.values();
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final Map<String, Long> overflow = new ConcurrentHashMap<>();
+    private final CountingBloomFilter filter =
+            new CountingBloomFilter(FILTER_EXPECTED_TOMBSTONES, FILTER_FALSE_POSITIVE_RATE);
+
+    public TombstoneStore() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Records that the link died for the given reason at the given time.
+     */
+    public void record(String shortCode, LinkStatus reason, long atMillis) {
+        long packed = ((long) reason.ordinal() << REASON_SHIFT) | (atMillis & TIME_MASK);
+        long key = ShortCodeCodec.encode(shortCode);
+        // Added before the table, so a reader never finds the tombstone missing from the filter
+        filter.add(shortCode);
+        boolean replaced = key == ShortCodeCodec.NOT_ENCODABLE
+                ? overflow.put(shortCode, packed) != null
+                : segmentFor(key).put(key, packed) >= 0;
+        if (replaced) {
+            filter.remove(shortCode);
+        }
+    }
+
+    /**
+     * Returns the reason the link died, or null if there is no tombstone for the code.
+     */
+    public LinkStatus findReason(String shortCode) {
+        long packed = find(shortCode);
+        return packed < 0 ? null : REASONS[(int) (packed >>> REASON_SHIFT)];
+    }
+
+    /**
+     * Returns the time the link died in epoch milliseconds, or -1 if there is no tombstone for the code.
+     */
+    public long findTime(String shortCode) {
+        long packed = find(shortCode);
+        return packed < 0 ? -1 : packed & TIME_MASK;
+    }
+
+    public boolean contains(String shortCode) {
+        return find(shortCode) >= 0;
+    }
+
+    /**
+     * Removes tombstones recorded before the given time and returns how many were removed.
+     */
+    public int prune(long olderThanMillis) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.prune(olderThanMillis, filter);
+        }
+        Iterator<Map.Entry<String, Long>> iterator = overflow.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if ((entry.getValue() & TIME_MASK) < olderThanMillis) {
+                iterator.remove();
+                filter.remove(entry.getKey());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the tombstone of the code and returns whether there was one.
+     */
+    public boolean remove(String shortCode) {
+        long key = ShortCodeCodec.encode(shortCode);
+        boolean removed = key == ShortCodeCodec.NOT_ENCODABLE
+                ? overflow.remove(shortCode) != null
+                : segmentFor(key).remove(key) >= 0;
+        if (removed) {
+            filter.remove(shortCode);
+        }
+        return removed;
+    }
+
+    /**
+     * Calls the action with every tombstone, a segment at a time.
+     */
+    public void forEach(ShortUrlRepository.TombstoneConsumer action) {
+        for (Segment segment : segments) {
+            segment.forEach((key, packed) -> action.accept(ShortCodeCodec.decode(key),
+                    REASONS[(int) (packed >>> REASON_SHIFT)], packed & TIME_MASK));
+        }
+        overflow.forEach((shortCode, packed) -> action.accept(shortCode,
+                REASONS[(int) (packed >>> REASON_SHIFT)], packed & TIME_MASK));
+    }
+
+    public int size() {
+        int size = overflow.size();
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the approximate memory held by the primitive tables and the filter in bytes.
+     */
+    public long getMemoryBytes() {
+        long bytes = filter.getMemoryBytes();
+        for (Segment segment : segments) {
+            bytes += segment.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private long find(String shortCode) {
+        if (!filter.mightContain(shortCode)) {
+            return -1;
+        }
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.NOT_ENCODABLE) {
+            Long packed = overflow.get(shortCode);
+            return packed == null ? -1 : packed;
+        }
+        return segmentFor(key).get(key);
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (mix(key) >>> 60) & (SEGMENT_COUNT - 1)];
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * One lock-guarded slice of the primitive table.
+     */
+    private static final class Segment {
+        private final LongLongHashMap table = new LongLongHashMap(INITIAL_SEGMENT_CAPACITY, -1);
+
+        /**
+         * Stores the value and returns the previous one, or -1 if the key was absent.
+         */
+        synchronized long put(long key, long value) {
+            return table.put(key, value);
+        }
+
+        synchronized long get(long key) {
+            return table.get(key);
+        }
+
+        synchronized long remove(long key) {
+            return table.remove(key);
+        }
+
+        synchronized void forEach(LongLongHashMap.EntryConsumer consumer) {
+            table.forEach(consumer);
+        }
+
+        synchronized int prune(long olderThanMillis, CountingBloomFilter filter) {
+            return table.removeIf((key, value) -> {
+                if ((value & TIME_MASK) >= olderThanMillis) {
+                    return false;
+                }
+                filter.remove(ShortCodeCodec.decode(key));
+                return true;
+            });
+        }
+
+        synchronized int size() {
+            return table.size();
+        }
+
+        synchronized long memoryBytes() {
+            return table.memoryBytes();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.maga.urlshortener.repository;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Assigns dense {@code int} ids to user UUIDs so indexes can key on users with primitives.
+ * Ids are handed out in order starting from 0 and never reused. The UUIDs are kept as two
+ * {@code long} arrays indexed by id, and the lookup table holds only ids, probing into those arrays:
+ * about 24 bytes per user with no per-user objects.
+ */
+public class UserIdRegistry {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EMPTY = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] mostSignificantBits = new long[INITIAL_CAPACITY];
+    private long[] leastSignificantBits = new long[INITIAL_CAPACITY];
+    private int[] table = newTable(INITIAL_CAPACITY * 2);
+    private int size;
+
+    /**
+     * Returns the id of the user, assigning the next free one if the user has none yet.
+     */
+    public int idOf(UUID userId) {
+        int id = find(userId);
+        if (id != EMPTY) {
+            return id;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(userId.getMostSignificantBits(), userId.getLeastSignificantBits());
+            if (table[slot] != EMPTY) {
+                return table[slot];
+            }
+            if (size == mostSignificantBits.length) {
+                grow();
+                slot = slotOf(userId.getMostSignificantBits(), userId.getLeastSignificantBits());
+            }
+            id = size++;
+            mostSignificantBits[id] = userId.getMostSignificantBits();
+            leastSignificantBits[id] = userId.getLeastSignificantBits();
+            table[slot] = id;
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the id of the user, or -1 if the user has no id.
+     */
+    public int find(UUID userId) {
+        lock.readLock().lock();
+        try {
+            return table[slotOf(userId.getMostSignificantBits(), userId.getLeastSignificantBits())];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the UUID the id was assigned to.
+     */
+    public UUID uuidOf(int id) {
+        lock.readLock().lock();
+        try {
+            if (id < 0 || id >= size) {
+                throw new IllegalArgumentException("Unknown user id: " + id);
+            }
+            return new UUID(mostSignificantBits[id], leastSignificantBits[id]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the memory held by the backing arrays in bytes.
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) mostSignificantBits.length * Long.BYTES * 2 + (long) table.length * Integer.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the slot holding the id of the UUID, or the empty slot where it would be inserted.
+     */
+    private int slotOf(long most, long least) {
+        int mask = table.length - 1;
+        int slot = hash(most, least) & mask;
+        while (table[slot] != EMPTY) {
+            int id = table[slot];
+            if (mostSignificantBits[id] == most && leastSignificantBits[id] == least) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = mostSignificantBits.length * 2;
+        mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+        leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+        table = newTable(capacity * 2);
+        for (int id = 0; id < size; id++) {
+            table[slotOf(mostSignificantBits[id], leastSignificantBits[id])] = id;
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int hash(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
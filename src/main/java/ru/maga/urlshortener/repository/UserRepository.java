@@ -5,28 +5,34 @@ import ru.maga.urlshortener.domain.User;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Thread-safe repository for managing users.
+ * Users by id. Every user the repository knows of is also given a dense {@code int} id in a
+ * {@link UserIdRegistry} that other indexes use instead of the UUID. Implementations must be thread-safe.
  */
-public class UserRepository {
-    private final Map<UUID, User> users = new ConcurrentHashMap<>();
+public interface UserRepository extends AutoCloseable {
 
-    public void save(User user) {
-        users.put(user.getId(), user);
-    }
+    void save(User user);
 
-    public Optional<User> findById(UUID userId) {
-        return Optional.ofNullable(users.get(userId));
-    }
+    /**
+     * Returns the dense id of the user, or -1 if the user has none.
+     */
+    int findInternalId(UUID userId);
 
-    public boolean exists(UUID userId) {
-        return users.containsKey(userId);
-    }
+    UserIdRegistry getIdRegistry();
+
+    Optional<User> findById(UUID userId);
 
-    public int count() {
-        return users.size();
+    boolean exists(UUID userId);
+
+    int count();
+
+    /**
+     * Estimates the heap held by users by component, in bytes.
+     */
+    Map<String, Long> getMemoryFootprint();
+
+    @Override
+    default void close() {
     }
 }
-
@@ -0,0 +1,110 @@
+package ru.maga.urlshortener.service;
+
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link LinkManagementService}: every call runs on its own virtual thread and
+ * completes a future, so callers never park a platform thread on storage. At most {@code maxConcurrency}
+ * calls run at a time; the rest wait on parked virtual threads, which cost a few hundred bytes each.
+ * Failures complete the future exceptionally with the same exceptions the blocking service throws.
+ */
+public class AsyncLinkManagementService implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENCY = 10_000;
+
+    private final LinkManagementService service;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final ExecutorService executor;
+
+    public AsyncLinkManagementService(LinkManagementService service) {
+        this(service, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * @param maxConcurrency how many calls may run against the service at the same time
+     */
+    public AsyncLinkManagementService(LinkManagementService service, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.service = service;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("link-async-", 0).factory());
+    }
+
+    public CompletableFuture<ShortUrl> createShortUrl(String originalUrl, UUID userId, Integer customClickLimit) {
+        return submit(() -> service.createShortUrl(originalUrl, userId, customClickLimit));
+    }
+
+    /**
+     * Resolves a short code and counts the click, completing with the original URL if the link can be opened.
+     */
+    public CompletableFuture<Optional<String>> processClick(String shortCode, UUID clientId) {
+        return submit(() -> service.processClick(shortCode, clientId));
+    }
+
+    public CompletableFuture<Void> updateClickLimit(String shortCode, UUID userId, int newLimit) {
+        return submit(() -> {
+            service.updateClickLimit(shortCode, userId, newLimit);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteShortUrl(String shortCode, UUID userId) {
+        return submit(() -> {
+            service.deleteShortUrl(shortCode, userId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<ShortUrl>> getUserLinks(UUID userId) {
+        return submit(() -> service.getUserLinks(userId));
+    }
+
+    /**
+     * Returns the number of calls running against the service right now.
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Returns an estimate of the number of calls waiting for a free slot.
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public LinkManagementService getService() {
+        return service;
+    }
+
+    /**
+     * Stops accepting calls and waits for the ones already submitted to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+}
@@ -2,17 +2,41 @@ package ru.maga.urlshortener.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.analytics.ClickAnalytics;
+import ru.maga.urlshortener.analytics.ClickHistory;
+import ru.maga.urlshortener.analytics.HeavyHitter;
+import ru.maga.urlshortener.analytics.HeavyHitters;
+import ru.maga.urlshortener.analytics.HeavyHittersMXBean;
 import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ResolvedLink;
 import ru.maga.urlshortener.domain.ShortUrl;
 import ru.maga.urlshortener.domain.User;
+import ru.maga.urlshortener.events.LinkEvent;
+import ru.maga.urlshortener.events.LinkEventPublisher;
+import ru.maga.urlshortener.jfr.CleanupEvent;
+import ru.maga.urlshortener.jfr.CodeCollisionEvent;
+import ru.maga.urlshortener.jfr.LinkCreatedEvent;
+import ru.maga.urlshortener.jfr.RedirectEvent;
+import ru.maga.urlshortener.journal.ClickJournal;
+import ru.maga.urlshortener.journal.ClickJournalQueryEngine;
+import ru.maga.urlshortener.journal.ClickQuery;
+import ru.maga.urlshortener.journal.ClickReport;
+import ru.maga.urlshortener.metrics.LatencyHistogram;
+import ru.maga.urlshortener.metrics.MemoryFootprint;
+import ru.maga.urlshortener.metrics.MetricsRegistry;
+import ru.maga.urlshortener.repository.ClickCounterFile;
 import ru.maga.urlshortener.repository.ShortUrlRepository;
 import ru.maga.urlshortener.repository.UserRepository;
+import ru.maga.urlshortener.util.TimeSource;
 import ru.maga.urlshortener.util.UrlValidator;
 
-import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Main service for link management operations.
@@ -26,17 +50,87 @@ public class LinkManagementService {
     private final UrlShortenerService urlShortenerService;
     private final NotificationService notificationService;
     private final AppConfig config;
+    private final TimeSource timeSource;
+    private final MetricsRegistry metrics;
+    private final ClickAnalytics analytics;
+    private final ClickJournal journal;
+    private final ClickCounterFile clickCounters;
+    private final ClickJournalQueryEngine journalQueries;
+    private final LinkEventPublisher events;
+    private final LatencyHistogram clickLatency;
+    private final LongAdder[] clicksByStatus = new LongAdder[LinkStatus.values().length];
+    private final LatencyHistogram createLatency;
+    private final LongAdder codeGenerationRetries;
+    private final LatencyHistogram cleanupDuration;
+    private final LongAdder cleanupRemoved;
+
+    private LinkManagementService(Builder builder) {
+        this.userRepository = builder.userRepository;
+        this.shortUrlRepository = builder.shortUrlRepository;
+        this.urlShortenerService = builder.urlShortenerService;
+        this.notificationService = builder.notificationService;
+        this.config = builder.config;
+        this.timeSource = builder.timeSource != null ? builder.timeSource : TimeSource.system();
+        this.metrics = builder.metrics != null ? builder.metrics : new MetricsRegistry();
+        this.analytics = builder.analytics != null ? builder.analytics
+                : new ClickAnalytics(new HeavyHitters(config.getAnalyticsTopCapacity(),
+                        config.getAnalyticsSketchWidth(), config.getAnalyticsDecaySeconds() * 1000L, timeSource),
+                        config.getAnalyticsVisitorPrecision());
+        this.journal = builder.journal;
+        this.journalQueries = journal != null ? new ClickJournalQueryEngine(journal.getDirectory()) : null;
+        this.events = builder.events != null ? builder.events
+                : new LinkEventPublisher(config.getEventsBufferCapacity());
+        this.clickCounters = builder.clickCounters;
+        if (clickCounters != null) {
+            int restored = clickCounters.restore(shortUrlRepository);
+            if (restored > 0) {
+                logger.info("Restored click counts of {} links from {}", restored, clickCounters.getFile());
+            }
+        }
+        this.clickLatency = metrics.histogram("click.latency");
+        for (LinkStatus status : LinkStatus.values()) {
+            clicksByStatus[status.ordinal()] = metrics.counter("click." + status.name().toLowerCase());
+        }
+        this.createLatency = metrics.histogram("create.latency");
+        this.codeGenerationRetries = metrics.counter("create.code.retries");
+        this.cleanupDuration = metrics.histogram("cleanup.duration");
+        this.cleanupRemoved = metrics.counter("cleanup.removed");
+    }
+
+    /**
+     * Starts building a service over the given repositories and settings; every other component has a
+     * default.
+     */
+    public static Builder builder(UserRepository userRepository,
+                                  ShortUrlRepository shortUrlRepository,
+                                  UrlShortenerService urlShortenerService,
+                                  NotificationService notificationService,
+                                  AppConfig config) {
+        return new Builder(userRepository, shortUrlRepository, urlShortenerService, notificationService, config);
+    }
 
-    public LinkManagementService(UserRepository userRepository,
-                                 ShortUrlRepository shortUrlRepository,
-                                 UrlShortenerService urlShortenerService,
-                                 NotificationService notificationService,
-                                 AppConfig config) {
-        this.userRepository = userRepository;
-        this.shortUrlRepository = shortUrlRepository;
-        this.urlShortenerService = urlShortenerService;
-        this.notificationService = notificationService;
-        this.config = config;
+    /**
+     * Registers the gauges that read the service; done once it is built, so they never see it half set up.
+     */
+    private void registerGauges() {
+        metrics.gauge("users", userRepository::count);
+        metrics.gauge("links", shortUrlRepository::count);
+        metrics.gauge("links.removed", shortUrlRepository::tombstoneCount);
+        metrics.gauge("notifications.sent", notificationService::getSentCount);
+        metrics.gauge("notifications.suppressed", notificationService::getSuppressedCount);
+        metrics.memoryFootprint(this::getMemoryFootprint);
+        metrics.gauge("analytics.dropped", analytics.getHeavyHitters()::getDroppedCount);
+        metrics.view("analytics", "heavy-hitters", analytics.getHeavyHitters(), HeavyHittersMXBean.class);
+        if (journal != null) {
+            metrics.gauge("journal.events", journal::getEventCount);
+            metrics.gauge("journal.dropped", journal::getDroppedCount);
+        }
+        if (clickCounters != null) {
+            metrics.gauge("counters.slots", clickCounters::size);
+        }
+        metrics.gauge("events.published", events::getPublishedCount);
+        metrics.gauge("events.dropped", events::getDroppedCount);
+        metrics.gauge("events.lag", events::getMaximumLag);
     }
 
     /**
@@ -60,6 +154,8 @@ public class LinkManagementService {
      * Creates a short URL for the given original URL and user.
      */
     public ShortUrl createShortUrl(String originalUrl, UUID userId, Integer customClickLimit) {
+        long start = System.nanoTime();
+        LinkCreatedEvent event = LinkCreatedEvent.start();
         UrlValidator.validate(originalUrl);
 
         if (!userExists(userId)) {
@@ -67,14 +163,20 @@ public class LinkManagementService {
         }
 
         String shortCode = generateUniqueShortCode(originalUrl, userId);
-        Instant now = Instant.now();
-        Instant expiresAt = now.plusSeconds(config.getLinkTtlSeconds());
+        long now = timeSource.currentTimeMillis();
+        long expiresAt = now + config.getLinkTtlSeconds() * 1000L;
         int clickLimit = customClickLimit != null ? customClickLimit : config.getDefaultClickLimit();
 
-        ShortUrl shortUrl = new ShortUrl(shortCode, originalUrl, userId, now, expiresAt, clickLimit);
+        ShortUrl shortUrl = new ShortUrl(shortCode, originalUrl, userId, now, expiresAt, clickLimit, 0);
         shortUrlRepository.save(shortUrl);
+        if (clickCounters != null) {
+            clickCounters.assign(shortUrl);
+        }
+        events.publish(LinkEvent.Type.CREATED, shortCode, originalUrl, userId, null, now);
 
         logger.info("Created short URL: {} -> {} for user {}", shortCode, originalUrl, userId);
+        createLatency.record(System.nanoTime() - start);
+        LinkCreatedEvent.finish(event, shortCode);
         return shortUrl;
     }
 
@@ -82,33 +184,90 @@ public class LinkManagementService {
      * Retrieves the original URL and processes the click (if accessible).
      */
     public Optional<String> processClick(String shortCode) {
-        Optional<ShortUrl> shortUrlOpt = shortUrlRepository.findByShortCode(shortCode);
+        return processClick(shortCode, null);
+    }
+
+    /**
+     * Retrieves the original URL and processes the click (if accessible) made by the given client.
+     */
+    public Optional<String> processClick(String shortCode, UUID clientId) {
+        ResolvedLink resolved = new ResolvedLink();
+        return resolve(shortCode, clientId, resolved) == LinkStatus.ACTIVE
+                ? Optional.of(resolved.getOriginalUrl())
+                : Optional.empty();
+    }
+
+    /**
+     * Resolves a short code for a redirect and counts the click.
+     * On success fills the holder with the link and returns {@link LinkStatus#ACTIVE} without allocating;
+     * otherwise clears the holder and returns why the link cannot be opened.
+     */
+    public LinkStatus resolve(String shortCode, ResolvedLink result) {
+        return resolve(shortCode, null, result);
+    }
 
-        if (shortUrlOpt.isEmpty()) {
-            return Optional.empty();
+    /**
+     * Resolves a short code for a redirect made by the given client, which is counted as a visitor of the link.
+     *
+     * @param clientId identifies who follows the link, e.g. their user id; null if unknown
+     */
+    public LinkStatus resolve(String shortCode, UUID clientId, ResolvedLink result) {
+        long start = System.nanoTime();
+        RedirectEvent event = RedirectEvent.start();
+        LinkStatus status = resolveAndCount(shortCode, clientId, result);
+        if (journal != null) {
+            journal.append(timeSource.currentTimeMillis(), shortCode, clientId, status);
         }
+        clickLatency.record(System.nanoTime() - start);
+        clicksByStatus[status.ordinal()].increment();
+        RedirectEvent.finish(event, shortCode, status);
+        return status;
+    }
 
-        ShortUrl shortUrl = shortUrlOpt.get();
+    private LinkStatus resolveAndCount(String shortCode, UUID clientId, ResolvedLink result) {
+        result.clear();
+        ShortUrl shortUrl = shortUrlRepository.getByShortCode(shortCode);
+
+        if (shortUrl == null) {
+            return shortUrlRepository.findTombstone(shortCode).orElse(LinkStatus.NOT_FOUND);
+        }
 
         // Check if expired
-        if (shortUrl.isExpired()) {
+        long now = timeSource.currentTimeMillis();
+        if (shortUrl.isExpired(now)) {
+            // A concurrent redirect or the cleanup may have buried it first and reported it already
+            if (!shortUrlRepository.bury(shortCode, LinkStatus.EXPIRED, now)) {
+                return LinkStatus.EXPIRED;
+            }
+            releaseCounter(shortCode);
+            analytics.forget(shortCode);
+            events.publish(LinkEvent.Type.EXPIRED, shortCode, shortUrl.getOriginalUrl(), shortUrl.getOwnerId(),
+                    null, now);
             notificationService.notifyLinkExpired(shortCode, shortUrl.getOriginalUrl());
-            return Optional.empty();
+            return LinkStatus.EXPIRED;
         }
 
-        // Check if click limit reached
-        if (shortUrl.hasReachedClickLimit()) {
+        // Count the click unless the click limit is reached; the repository decides, since the link may be a copy
+        if (!shortUrlRepository.tryClick(shortUrl)) {
             notificationService.notifyClickLimitReached(
                     shortCode, shortUrl.getOriginalUrl(), shortUrl.getClickLimit());
-            return Optional.empty();
+            return LinkStatus.LIMIT_REACHED;
+        }
+
+        if (clickCounters != null) {
+            clickCounters.increment(shortCode);
         }
+        analytics.recordClick(shortUrl.getShortCode(), clientId, now);
+        events.publish(LinkEvent.Type.CLICKED, shortUrl.getShortCode(), shortUrl.getOriginalUrl(),
+                shortUrl.getOwnerId(), clientId, now);
 
-        // Increment counter and return URL
-        shortUrl.incrementClickCount();
-        logger.info("Processed click for {}: count={}/{}", shortCode,
-                shortUrl.getClickCount(), shortUrl.getClickLimit());
+        if (logger.isTraceEnabled()) {
+            logger.trace("Processed click for {}: count={}/{}", shortCode,
+                    shortUrl.getClickCount(), shortUrl.getClickLimit());
+        }
 
-        return Optional.of(shortUrl.getOriginalUrl());
+        result.set(shortUrl);
+        return LinkStatus.ACTIVE;
     }
 
     /**
@@ -128,6 +287,12 @@ public class LinkManagementService {
         }
 
         shortUrl.setClickLimit(newLimit);
+        shortUrlRepository.update(shortUrl);
+        if (clickCounters != null) {
+            clickCounters.setClickLimit(shortCode, newLimit);
+        }
+        events.publish(LinkEvent.Type.UPDATED, shortCode, shortUrl.getOriginalUrl(), userId, null,
+                timeSource.currentTimeMillis());
         logger.info("Updated click limit for {}: {}", shortCode, newLimit);
     }
 
@@ -143,7 +308,11 @@ public class LinkManagementService {
             throw new SecurityException("У вас нет прав на удаление этой ссылки");
         }
 
-        shortUrlRepository.delete(shortCode);
+        long now = timeSource.currentTimeMillis();
+        shortUrlRepository.bury(shortCode, LinkStatus.DELETED, now);
+        releaseCounter(shortCode);
+        analytics.forget(shortCode);
+        events.publish(LinkEvent.Type.DELETED, shortCode, shortUrl.getOriginalUrl(), userId, null, now);
         logger.info("Deleted short URL: {} by user {}", shortCode, userId);
     }
 
@@ -162,23 +331,92 @@ public class LinkManagementService {
     }
 
     /**
-     * Cleans up expired links.
+     * Gets the clicks of a link per minute, hour and day.
+     * Only the owner can see them.
      */
-    public int cleanupExpiredLinks() {
-        List<ShortUrl> allLinks = shortUrlRepository.findAll();
-        int deletedCount = 0;
-
-        for (ShortUrl link : allLinks) {
-            if (link.isExpired()) {
-                shortUrlRepository.delete(link.getShortCode());
-                notificationService.notifyLinkExpired(link.getShortCode(), link.getOriginalUrl());
-                deletedCount++;
+    public ClickHistory getClickHistory(String shortCode, UUID userId) {
+        ShortUrl shortUrl = shortUrlRepository.findByShortCode(shortCode)
+                .orElseThrow(() -> new IllegalArgumentException("Ссылка не найдена: " + shortCode));
+
+        if (!shortUrl.isOwnedBy(userId)) {
+            throw new SecurityException("У вас нет прав на просмотр статистики этой ссылки");
+        }
+
+        return analytics.getClickHistory(shortCode, timeSource.currentTimeMillis());
+    }
+
+    /**
+     * Gets the estimated number of distinct clients that followed a link.
+     * Only the owner can see it.
+     */
+    public long getUniqueVisitors(String shortCode, UUID userId) {
+        ShortUrl shortUrl = shortUrlRepository.findByShortCode(shortCode)
+                .orElseThrow(() -> new IllegalArgumentException("Ссылка не найдена: " + shortCode));
+
+        if (!shortUrl.isOwnedBy(userId)) {
+            throw new SecurityException("У вас нет прав на просмотр статистики этой ссылки");
+        }
+
+        return analytics.getUniqueVisitors(shortCode);
+    }
+
+    public boolean isJournalEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Aggregates the click journal over the query's time range, scanning its segments in parallel.
+     */
+    public ClickReport queryClickJournal(ClickQuery query) {
+        if (journalQueries == null) {
+            throw new IllegalStateException("Журнал переходов отключён");
+        }
+        return journalQueries.run(query);
+    }
+
+    /**
+     * Gets the status of a short code, including links that were already removed.
+     * Links whose click limit is exhausted stay live so the owner can still raise the limit.
+     */
+    public LinkStatus getLinkStatus(String shortCode) {
+        Optional<ShortUrl> shortUrlOpt = shortUrlRepository.findByShortCode(shortCode);
+        if (shortUrlOpt.isPresent()) {
+            ShortUrl shortUrl = shortUrlOpt.get();
+            if (shortUrl.isExpired(timeSource.currentTimeMillis())) {
+                return LinkStatus.EXPIRED;
             }
+            return shortUrl.hasReachedClickLimit() ? LinkStatus.LIMIT_REACHED : LinkStatus.ACTIVE;
         }
+        return shortUrlRepository.findTombstone(shortCode).orElse(LinkStatus.NOT_FOUND);
+    }
 
-        if (deletedCount > 0) {
-            logger.info("Cleanup: removed {} expired links", deletedCount);
+    /**
+     * Cleans up expired links and drops tombstones older than the retention period.
+     * Repository shards are scanned in parallel.
+     */
+    public int cleanupExpiredLinks() {
+        long start = System.nanoTime();
+        CleanupEvent event = CleanupEvent.start();
+        int scanned = shortUrlRepository.count();
+        long now = timeSource.currentTimeMillis();
+        List<ShortUrl> expired = shortUrlRepository.buryIf(link -> link.isExpired(now), LinkStatus.EXPIRED, now);
+        for (ShortUrl link : expired) {
+            releaseCounter(link.getShortCode());
+            analytics.forget(link.getShortCode());
+            events.publish(LinkEvent.Type.EXPIRED, link.getShortCode(), link.getOriginalUrl(), link.getOwnerId(),
+                    null, now);
+            notificationService.notifyLinkExpired(link.getShortCode(), link.getOriginalUrl());
+        }
+        int deletedCount = expired.size();
+
+        int pruned = shortUrlRepository.pruneTombstones(now - config.getTombstoneRetentionSeconds() * 1000L);
+
+        if (deletedCount > 0 || pruned > 0) {
+            logger.info("Cleanup: removed {} expired links, pruned {} tombstones", deletedCount, pruned);
         }
+        cleanupRemoved.add(deletedCount);
+        cleanupDuration.record(System.nanoTime() - start);
+        CleanupEvent.finish(event, scanned, deletedCount, pruned);
 
         return deletedCount;
     }
@@ -188,24 +426,205 @@ public class LinkManagementService {
      */
     public String getStatistics() {
         return String.format(
-                "Пользователей: %d, Ссылок: %d",
+                "Пользователей: %d, Ссылок: %d, Удалённых ссылок: %d",
                 userRepository.count(),
-                shortUrlRepository.count()
+                shortUrlRepository.count(),
+                shortUrlRepository.tombstoneCount()
+        );
+    }
+
+    /**
+     * Gets statistics of the negative-lookup filter in front of the link repository.
+     */
+    public String getFilterStatistics() {
+        return String.format(
+                "Фильтр: %d КБ, ожидаемые ложные срабатывания: %.4f%%, фактические: %.4f%%, отсечено: %d",
+                shortUrlRepository.filterMemoryBytes() / 1024,
+                shortUrlRepository.filterExpectedFalsePositiveRate() * 100,
+                shortUrlRepository.filterObservedFalsePositiveRate() * 100,
+                shortUrlRepository.filterRejectionCount()
         );
     }
 
+    /**
+     * Gets up to {@code limit} of the links clicked most in the recent past, hottest first.
+     */
+    public List<HeavyHitter> getTopLinks(int limit) {
+        return analytics.getTopLinks(limit);
+    }
+
+    /**
+     * Gets all service metrics: counters and gauges, then latency percentiles since start.
+     */
+    public String getDetailedStatistics() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : metrics.getValues().entrySet()) {
+            text.append(String.format("%-26s %d%n", entry.getKey(), entry.getValue()));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            text.append(String.format("%-26s %d оп, p50=%.1f мкс, p99=%.1f мкс, p999=%.1f мкс, max=%.1f мкс%n",
+                    entry.getKey(),
+                    histogram.getCount(),
+                    histogram.getValueAtPercentile(50) / 1e3,
+                    histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getValueAtPercentile(99.9) / 1e3,
+                    histogram.getMax() / 1e3));
+        }
+        return text.toString().stripTrailing();
+    }
+
+    /**
+     * Estimates the heap held by links and users by component; scans all links held on the heap.
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        Map<String, Long> components = new LinkedHashMap<>(shortUrlRepository.getMemoryFootprint());
+        components.putAll(userRepository.getMemoryFootprint());
+        components.put("links.click-history", analytics.getHistoryMemoryBytes());
+        components.put("links.visitors", analytics.getVisitorMemoryBytes());
+        components.put("analytics", analytics.getMemoryBytes());
+        return new MemoryFootprint(components, shortUrlRepository.count(),
+                components.get("links.filter") + components.get("analytics"));
+    }
+
+    /**
+     * Gets the memory estimate by component and the heap projected for the given number of links.
+     */
+    public String getMemoryStatistics(long targetLinks) {
+        MemoryFootprint footprint = getMemoryFootprint();
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : footprint.getComponents().entrySet()) {
+            text.append(String.format("%-20s %,12d КБ%n", entry.getKey(), entry.getValue() / 1024));
+        }
+        text.append(String.format("%-20s %,12d КБ%n", "Итого", footprint.getTotalBytes() / 1024));
+        if (footprint.getLinkCount() == 0) {
+            text.append("Прогноз недоступен: нет ссылок для оценки");
+        } else {
+            text.append(String.format("На ссылку: %.0f байт%n", footprint.getBytesPerLink()));
+            text.append(String.format("Прогноз для %,d ссылок: данные %,d МБ, рекомендуемая куча (-Xmx) %,d МБ",
+                    targetLinks,
+                    footprint.projectLiveBytes(targetLinks) / (1024 * 1024),
+                    footprint.projectHeapBytes(targetLinks) / (1024 * 1024)));
+        }
+        return text.toString();
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the publisher of link lifecycle events; subscribers must keep up or lose events, redirects never wait.
+     */
+    public LinkEventPublisher getEvents() {
+        return events;
+    }
+
     private String generateUniqueShortCode(String originalUrl, UUID userId) {
         String shortCode;
-        int attempts = 0;
-        do {
+        int attempt = 0;
+        while (true) {
             shortCode = urlShortenerService.generateShortCode(originalUrl, userId);
-            attempts++;
-            if (attempts > 10) {
+            attempt++;
+            if (!shortUrlRepository.exists(shortCode) && !shortUrlRepository.isTombstoned(shortCode)) {
+                break;
+            }
+            codeGenerationRetries.increment();
+            CodeCollisionEvent.emit(shortCode, attempt);
+            if (attempt >= 10) {
                 throw new RuntimeException("Не удалось сгенерировать уникальный код после 10 попыток");
             }
-        } while (shortUrlRepository.exists(shortCode));
-
+        }
         return shortCode;
     }
-}
 
+    private void releaseCounter(String shortCode) {
+        if (clickCounters != null) {
+            clickCounters.release(shortCode);
+        }
+    }
+
+    /**
+     * Builds a {@link LinkManagementService}; components that are not set get their defaults.
+     */
+    public static final class Builder {
+        private final UserRepository userRepository;
+        private final ShortUrlRepository shortUrlRepository;
+        private final UrlShortenerService urlShortenerService;
+        private final NotificationService notificationService;
+        private final AppConfig config;
+        private TimeSource timeSource;
+        private MetricsRegistry metrics;
+        private ClickAnalytics analytics;
+        private ClickJournal journal;
+        private LinkEventPublisher events;
+        private ClickCounterFile clickCounters;
+
+        private Builder(UserRepository userRepository,
+                        ShortUrlRepository shortUrlRepository,
+                        UrlShortenerService urlShortenerService,
+                        NotificationService notificationService,
+                        AppConfig config) {
+            this.userRepository = userRepository;
+            this.shortUrlRepository = shortUrlRepository;
+            this.urlShortenerService = urlShortenerService;
+            this.notificationService = notificationService;
+            this.config = config;
+        }
+
+        /**
+         * Clock used for link creation times and all expiry decisions; the system clock by default.
+         */
+        public Builder timeSource(TimeSource timeSource) {
+            this.timeSource = timeSource;
+            return this;
+        }
+
+        /**
+         * Registry the service records its latencies and counters in; a new one by default.
+         */
+        public Builder metrics(MetricsRegistry metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Click analytics fed from every successful redirect; by default sized from the config.
+         */
+        public Builder analytics(ClickAnalytics analytics) {
+            this.analytics = analytics;
+            return this;
+        }
+
+        /**
+         * Where every redirect and its outcome is recorded; not recorded by default.
+         */
+        public Builder journal(ClickJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Where link lifecycle events are published; by default a publisher sized from the config.
+         */
+        public Builder events(LinkEventPublisher events) {
+            this.events = events;
+            return this;
+        }
+
+        /**
+         * Memory-mapped file the click state of every link is kept in; by default it is kept only in the
+         * repository. The stored links are brought in line with the file when the service is built.
+         */
+        public Builder clickCounters(ClickCounterFile clickCounters) {
+            this.clickCounters = clickCounters;
+            return this;
+        }
+
+        public LinkManagementService build() {
+            LinkManagementService service = new LinkManagementService(this);
+            service.registerGauges();
+            return service;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.maga.urlshortener.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free "already notified" filter.
+ * Each (short code, notification kind) pair maps to one slot of a fixed-size table. A slot keeps a
+ * 32-bit fingerprint of the key and the second it was last notified, so a link raises each kind of
+ * notification at most once per window. Keys that collide on a slot overwrite each other, which can
+ * only cause an extra notification; suppressing a foreign key requires a full fingerprint match.
+ */
+public class NotificationDeduplicator {
+
+    /**
+     * Kinds of notification that are deduplicated independently.
+     */
+    public enum Kind {
+        LINK_EXPIRED,
+        CLICK_LIMIT_REACHED
+    }
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long windowSeconds;
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * @param capacity      number of slots, rounded up to a power of two (8 bytes each)
+     * @param windowSeconds minimum interval between two notifications of the same kind for one link
+     */
+    public NotificationDeduplicator(int capacity, long windowSeconds) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + windowSeconds);
+        }
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.windowSeconds = windowSeconds;
+    }
+
+    /**
+     * Returns true if the caller should send the notification now, false if the same notification
+     * was already sent for this link within the current window.
+     */
+    public boolean tryAcquire(String shortCode, Kind kind) {
+        return tryAcquire(shortCode, kind, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(String shortCode, Kind kind, long nowMillis) {
+        int index = mix(shortCode.hashCode() * 31 + kind.ordinal()) & mask;
+        long fingerprint = fingerprint(shortCode, kind) & 0xFFFFFFFFL;
+        long nowSeconds = (nowMillis / 1000) & 0xFFFFFFFFL;
+        long stamp = (fingerprint << 32) | nowSeconds;
+
+        long current = slots.get(index);
+        if ((current >>> 32) == fingerprint && nowSeconds - (current & 0xFFFFFFFFL) < windowSeconds) {
+            suppressed.increment();
+            return false;
+        }
+        if (slots.compareAndSet(index, current, stamp)) {
+            return true;
+        }
+        // Lost the race: another thread just notified for this slot. Re-check whether it was for our key.
+        current = slots.get(index);
+        if ((current >>> 32) == fingerprint) {
+            suppressed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of notifications suppressed since startup.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Returns the memory held by the slot table in bytes.
+     */
+    public long getMemoryBytes() {
+        return (long) slots.length() * Long.BYTES;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int fingerprint(String shortCode, Kind kind) {
+        // FNV-1a over the characters, independent from String.hashCode() used for the slot index
+        int h = 0x811c9dc5 ^ kind.ordinal();
+        for (int i = 0; i < shortCode.length(); i++) {
+            h ^= shortCode.charAt(i);
+            h *= 0x01000193;
+        }
+        return h;
+    }
+}
@@ -2,21 +2,40 @@ package ru.maga.urlshortener.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.jfr.NotificationEvent;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service for sending notifications to users.
  * Currently uses console output, can be extended to email/SMS.
+ * Expiry and click-limit notifications are deduplicated per link, so repeated hits on a dead link
+ * notify the owner at most once per deduplication window.
  */
 public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+    private static final int DEFAULT_DEDUP_CAPACITY = 16384;
+    private static final long DEFAULT_DEDUP_WINDOW_SECONDS = 3600;
+
     private final boolean enabled;
+    private final NotificationDeduplicator deduplicator;
+    private final LongAdder sent = new LongAdder();
 
     public NotificationService(boolean enabled) {
+        this(enabled, new NotificationDeduplicator(DEFAULT_DEDUP_CAPACITY, DEFAULT_DEDUP_WINDOW_SECONDS));
+    }
+
+    public NotificationService(boolean enabled, NotificationDeduplicator deduplicator) {
         this.enabled = enabled;
+        this.deduplicator = deduplicator;
     }
 
     public void notifyLinkExpired(String shortCode, String originalUrl) {
         if (!enabled) return;
+        if (!deduplicator.tryAcquire(shortCode, NotificationDeduplicator.Kind.LINK_EXPIRED)) {
+            NotificationEvent.emit(shortCode, NotificationDeduplicator.Kind.LINK_EXPIRED.name(), false);
+            return;
+        }
         String message = String.format(
                 "\n⚠️  УВЕДОМЛЕНИЕ: Срок действия ссылки истёк!\n" +
                         "   Короткая ссылка: %s\n" +
@@ -24,11 +43,17 @@ public class NotificationService {
                 shortCode, originalUrl
         );
         System.out.println(message);
+        sent.increment();
+        NotificationEvent.emit(shortCode, NotificationDeduplicator.Kind.LINK_EXPIRED.name(), true);
         logger.info("Link expired notification: {}", shortCode);
     }
 
     public void notifyClickLimitReached(String shortCode, String originalUrl, int limit) {
         if (!enabled) return;
+        if (!deduplicator.tryAcquire(shortCode, NotificationDeduplicator.Kind.CLICK_LIMIT_REACHED)) {
+            NotificationEvent.emit(shortCode, NotificationDeduplicator.Kind.CLICK_LIMIT_REACHED.name(), false);
+            return;
+        }
         String message = String.format(
                 "\n⚠️  УВЕДОМЛЕНИЕ: Достигнут лимит переходов!\n" +
                         "   Короткая ссылка: %s\n" +
@@ -37,6 +62,8 @@ public class NotificationService {
                 shortCode, originalUrl, limit
         );
         System.out.println(message);
+        sent.increment();
+        NotificationEvent.emit(shortCode, NotificationDeduplicator.Kind.CLICK_LIMIT_REACHED.name(), true);
         logger.info("Click limit reached notification: {}", shortCode);
     }
 
@@ -49,7 +76,22 @@ public class NotificationService {
                 shortCode
         );
         System.out.println(message);
+        sent.increment();
+        NotificationEvent.emit(shortCode, "LINK_UNAVAILABLE", true);
         logger.info("Link unavailable notification: {}", shortCode);
     }
-}
 
+    /**
+     * Returns the number of notifications delivered so far.
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Returns the number of duplicate notifications that were suppressed.
+     */
+    public long getSuppressedCount() {
+        return deduplicator.getSuppressedCount();
+    }
+}
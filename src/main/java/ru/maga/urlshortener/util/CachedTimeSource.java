@@ -0,0 +1,46 @@
+package ru.maga.urlshortener.util;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse clock that reads the system time once per tick on a background daemon thread
+ * and serves it from a volatile field, so callers get the time with a single memory read.
+ * The returned time lags the system clock by at most one tick.
+ */
+public class CachedTimeSource implements TimeSource, AutoCloseable {
+    private final long tickNanos;
+    private final Thread ticker;
+    private volatile long currentTimeMillis = System.currentTimeMillis();
+    private volatile boolean running = true;
+
+    /**
+     * @param tickMillis how often the cached time is refreshed
+     */
+    public CachedTimeSource(long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.ticker = new Thread(this::tick, "time-source-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tick() {
+        while (running) {
+            currentTimeMillis = System.currentTimeMillis();
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+}
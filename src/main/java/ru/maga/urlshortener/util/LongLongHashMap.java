@@ -0,0 +1,210 @@
+package ru.maga.urlshortener.util;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code long} values.
+ * Holds no per-entry objects: two parallel arrays with linear probing, 16 bytes per slot.
+ * Key 0 marks an empty slot, so keys must be non-zero. Not thread-safe.
+ */
+public class LongLongHashMap {
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Receives entries from {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    /**
+     * Selects entries for {@link #removeIf(EntryPredicate)}.
+     */
+    @FunctionalInterface
+    public interface EntryPredicate {
+        boolean test(long key, long value);
+    }
+
+    private final long noValue;
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    /**
+     * @param initialCapacity expected number of entries
+     * @param noValue         value returned by lookups of absent keys
+     */
+    public LongLongHashMap(int initialCapacity, long noValue) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < initialCapacity * 4) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.noValue = noValue;
+    }
+
+    /**
+     * Associates the value with the key and returns the previous value, or the no-value marker.
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int index = indexFor(key, mask);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                long previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return noValue;
+    }
+
+    /**
+     * Adds the delta to the key's value, taking an absent key as 0, and returns the new value.
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int index = indexFor(key, mask);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return values[index] += delta;
+            }
+            index = (index + 1) & mask;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    public long get(long key) {
+        int mask = keys.length - 1;
+        int index = indexFor(key, mask);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return noValue;
+    }
+
+    /**
+     * Removes the key and returns its value, or the no-value marker.
+     */
+    public long remove(long key) {
+        int mask = keys.length - 1;
+        int index = indexFor(key, mask);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                long previous = values[index];
+                shiftBack(index, mask);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return noValue;
+    }
+
+    /**
+     * Removes all entries matching the predicate and returns how many were removed.
+     */
+    public int removeIf(EntryPredicate predicate) {
+        int before = size;
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int capacity = keys.length;
+        keys = new long[capacity];
+        values = new long[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0 && !predicate.test(oldKeys[i], oldValues[i])) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+        while (capacity > MIN_CAPACITY && size * 8 < capacity) {
+            capacity >>= 1;
+        }
+        if (capacity != keys.length) {
+            rehash(capacity);
+        }
+        return before - size;
+    }
+
+    public void clear() {
+        keys = new long[MIN_CAPACITY];
+        values = new long[MIN_CAPACITY];
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the memory held by the backing arrays in bytes.
+     */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES * 2;
+    }
+
+    private void shiftBack(int hole, int mask) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (keys[index] == 0) {
+                break;
+            }
+            int home = indexFor(keys[index], mask);
+            // Move the entry into the hole unless its home slot lies cyclically in (hole, index]
+            boolean movable = hole <= index ? (home <= hole || home > index) : (home <= hole && home > index);
+            if (movable) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int indexFor(long key, int mask) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.maga.urlshortener.util;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Estimates of the heap size of objects on a 64-bit HotSpot JVM, for memory accounting.
+ * Assumes compact strings and compressed class pointers; whether references are compressed is read
+ * from the running JVM (it is not above a 32 GB heap).
+ */
+public final class MemoryLayout {
+    public static final boolean COMPRESSED_OOPS = detectCompressedOops();
+    public static final int OBJECT_HEADER = COMPRESSED_OOPS ? 12 : 16;
+    public static final int ARRAY_HEADER = 16;
+    public static final int REFERENCE = COMPRESSED_OOPS ? 4 : 8;
+
+    private MemoryLayout() {
+    }
+
+    public static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Returns the size of an object with the given bytes of primitive fields and number of reference fields.
+     */
+    public static long objectBytes(int primitiveBytes, int references) {
+        return align(OBJECT_HEADER + primitiveBytes + (long) references * REFERENCE);
+    }
+
+    public static long arrayBytes(long length, int elementBytes) {
+        return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    public static long referenceArrayBytes(long length) {
+        return arrayBytes(length, REFERENCE);
+    }
+
+    /**
+     * Returns the size of a string with its value array; one byte per char if it is all Latin-1.
+     */
+    public static long stringBytes(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        // hash, hashIsZero, coder and the value reference
+        return objectBytes(Integer.BYTES + 2, 1) + arrayBytes(value.length(), bytesPerChar);
+    }
+
+    /**
+     * Returns the size of a {@link java.util.concurrent.ConcurrentHashMap} with the given number of entries,
+     * not counting the keys and values: the bucket table at its default load factor plus one node per entry.
+     */
+    public static long concurrentHashMapBytes(long size) {
+        long tableLength = 16;
+        while (size >= tableLength - (tableLength >>> 2)) {
+            tableLength <<= 1;
+        }
+        long node = objectBytes(Integer.BYTES, 3);
+        return objectBytes(Long.BYTES + 4 * Integer.BYTES, 6) + referenceArrayBytes(tableLength) + size * node;
+    }
+
+    private static boolean detectCompressedOops() {
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return diagnostics == null || Boolean.parseBoolean(diagnostics.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.maga.urlshortener.util;
+
+/**
+ * Packs short codes into a single {@code long}.
+ * Codes of up to {@link #MAX_LENGTH} Base62 characters are mapped one-to-one to positive longs using
+ * bijective base-62 numbering, so primitive structures can key on codes without holding the strings.
+ */
+public final class ShortCodeCodec {
+    public static final int MAX_LENGTH = 10;
+
+    /**
+     * Returned by {@link #encode(String)} for codes that cannot be packed.
+     */
+    public static final long NOT_ENCODABLE = -1L;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int RADIX = ALPHABET.length();
+
+    private ShortCodeCodec() {
+    }
+
+    /**
+     * Encodes a short code, or returns {@link #NOT_ENCODABLE} if it is empty, longer than
+     * {@link #MAX_LENGTH} or contains characters outside the Base62 alphabet.
+     */
+    public static long encode(String shortCode) {
+        int length = shortCode.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return NOT_ENCODABLE;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = digitOf(shortCode.charAt(i));
+            if (digit < 0) {
+                return NOT_ENCODABLE;
+            }
+            value = value * RADIX + digit + 1;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a value produced by {@link #encode(String)}.
+     */
+    public static String decode(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Not an encoded short code: " + value);
+        }
+        char[] buffer = new char[MAX_LENGTH];
+        int position = MAX_LENGTH;
+        while (value > 0) {
+            long digit = (value - 1) % RADIX;
+            buffer[--position] = ALPHABET.charAt((int) digit);
+            value = (value - 1) / RADIX;
+        }
+        return new String(buffer, position, MAX_LENGTH - position);
+    }
+
+    private static int digitOf(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 36;
+        }
+        return -1;
+    }
+}
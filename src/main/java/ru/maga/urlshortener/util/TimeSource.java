@@ -0,0 +1,19 @@
+package ru.maga.urlshortener.util;
+
+/**
+ * Source of the current time in epoch milliseconds.
+ * Injected wherever link expiry is decided, so the time can be cached for the hot path
+ * or moved by hand in tests.
+ */
+@FunctionalInterface
+public interface TimeSource {
+
+    long currentTimeMillis();
+
+    /**
+     * Returns a time source that reads the system clock on every call.
+     */
+    static TimeSource system() {
+        return System::currentTimeMillis;
+    }
+}
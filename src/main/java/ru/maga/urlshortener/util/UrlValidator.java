@@ -1,8 +1,7 @@
 package ru.maga.urlshortener.util;
 
 import java.net.MalformedURLException;
-import java.net.URISyntaxException;
-import java.net.URL;
+import java.net.URI;
 
 /**
  * Utility class for URL validation.
@@ -15,9 +14,9 @@ public class UrlValidator {
         }
 
         try {
-            new URL(url).toURI();
+            URI.create(url).toURL();
             return url.startsWith("http://") || url.startsWith("https://");
-        } catch (MalformedURLException | URISyntaxException e) {
+        } catch (MalformedURLException | IllegalArgumentException e) {
             return false;
         }
     }
@@ -0,0 +1,53 @@
+package ru.maga.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    @Test
+    void shouldNeverUnderestimate() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        Map<String, Integer> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int i = 0; i < 100_000; i++) {
+            String key = "code" + random.nextInt(5_000);
+            sketch.increment(key.hashCode());
+            exact.merge(key, 1, Integer::sum);
+        }
+
+        exact.forEach((key, count) -> assertThat(sketch.estimate(key.hashCode())).isGreaterThanOrEqualTo(count));
+    }
+
+    @Test
+    void shouldBeExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1 << 16);
+
+        for (int i = 0; i < 1_000; i++) {
+            sketch.increment("hot".hashCode());
+        }
+        sketch.increment("cold".hashCode());
+
+        assertThat(sketch.estimate("hot".hashCode())).isEqualTo(1_000);
+        assertThat(sketch.estimate("cold".hashCode())).isEqualTo(1);
+        assertThat(sketch.estimate("absent".hashCode())).isZero();
+    }
+
+    @Test
+    void shouldHalveCounts() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(42);
+        }
+
+        sketch.halve();
+
+        assertThat(sketch.estimate(42)).isEqualTo(50);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.maga.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.loadgen.ZipfSampler;
+import ru.maga.urlshortener.util.ManualTimeSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void shouldFindHottestLinksOfSkewedStream() {
+        HeavyHitters heavyHitters = new HeavyHitters(20, 4096, 60_000, new ManualTimeSource(0));
+        ZipfSampler sampler = new ZipfSampler(100_000, 1.1);
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 500_000; i++) {
+            heavyHitters.record("link" + sampler.next(random));
+        }
+
+        List<String> top = new ArrayList<>();
+        heavyHitters.top(5).forEach(hitter -> top.add(hitter.getShortCode()));
+        assertThat(top).containsExactly("link0", "link1", "link2", "link3", "link4");
+    }
+
+    @Test
+    void shouldFollowRecentPopularityAfterDecay() {
+        ManualTimeSource clock = new ManualTimeSource(0);
+        HeavyHitters heavyHitters = new HeavyHitters(2, 1024, 60_000, clock);
+
+        for (int i = 0; i < 1_000; i++) {
+            heavyHitters.record("old");
+        }
+        clock.advance(Duration.ofMinutes(5));
+        for (int i = 0; i < 200; i++) {
+            heavyHitters.record("new");
+        }
+
+        List<HeavyHitter> top = heavyHitters.top(2);
+        assertThat(top.get(0).getShortCode()).isEqualTo("new");
+        assertThat(top.get(1).getShortCode()).isEqualTo("old");
+        // Five halvings, plus at most one drain threshold of clicks still buffered when they happened
+        assertThat(top.get(1).getClicks()).isLessThanOrEqualTo(1_000 / 32 + ClickBuffer.drainThreshold());
+    }
+
+    @Test
+    void shouldKeepOnlyCapacityLinks() {
+        HeavyHitters heavyHitters = new HeavyHitters(3, 1024, 60_000, new ManualTimeSource(0));
+
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.record("link" + i);
+        }
+
+        assertThat(heavyHitters.top(10)).hasSize(3);
+        assertThat(heavyHitters.getTopLinks()).hasSize(3);
+    }
+
+    @Test
+    void shouldAcceptClicksFromManyThreads() throws InterruptedException {
+        HeavyHitters heavyHitters = new HeavyHitters(10, 4096, 60_000, new ManualTimeSource(0));
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    heavyHitters.record(i % 10 == 0 ? "cold" + (i % 1000) : "hot");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        HeavyHitter hottest = heavyHitters.top(1).get(0);
+        assertThat(hottest.getShortCode()).isEqualTo("hot");
+        // Every click is either counted or reported as dropped
+        assertThat(hottest.getClicks() + heavyHitters.getDroppedCount()).isGreaterThanOrEqualTo(8 * 45_000);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.maga.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class HyperLogLogTest {
+
+    @Test
+    void shouldCountFewVisitorsSparselyAndExactly() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 20; i++) {
+            UUID visitor = new UUID(0, i);
+            sketch.add(visitor);
+            sketch.add(visitor);
+        }
+
+        assertThat(sketch.isSparse()).isTrue();
+        assertThat(sketch.estimate()).isEqualTo(20);
+        assertThat(sketch.memoryBytes()).isLessThan(200);
+    }
+
+    @Test
+    void shouldEstimateManyVisitorsInBoundedMemory() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.add(UUID.randomUUID());
+        }
+
+        assertThat(sketch.isSparse()).isFalse();
+        // Standard error is 1.6% at precision 12; allow four of them
+        assertThat((double) sketch.estimate()).isCloseTo(1_000_000, withinPercentage(6.5));
+        assertThat(sketch.memoryBytes()).isLessThanOrEqualTo(
+                MemoryLayout.objectBytes(2 * Integer.BYTES, 2) + MemoryLayout.arrayBytes(1 << 12, 1));
+    }
+
+    @Test
+    void shouldMergeSketchesIntoTheirUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        HyperLogLog sparse = new HyperLogLog(12);
+        for (long i = 0; i < 60_000; i++) {
+            first.add(i);
+        }
+        for (long i = 40_000; i < 100_000; i++) {
+            second.add(i);
+        }
+        sparse.add(-1L);
+
+        first.merge(second);
+        first.merge(sparse);
+        sparse.merge(second);
+
+        assertThat((double) first.estimate()).isCloseTo(100_001, withinPercentage(6.5));
+        assertThat((double) sparse.estimate()).isCloseTo(60_001, withinPercentage(6.5));
+        assertThatThrownBy(() -> first.merge(new HyperLogLog(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldCountConcurrentVisitors() throws InterruptedException {
+        HyperLogLog sketch = new HyperLogLog(12);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t * 25_000L;
+            threads[t] = new Thread(() -> {
+                for (long i = 0; i < 25_000; i++) {
+                    sketch.add(offset + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat((double) sketch.estimate()).isCloseTo(100_000, withinPercentage(6.5));
+    }
+}
@@ -0,0 +1,94 @@
+package ru.maga.urlshortener.analytics;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.util.ManualTimeSource;
+import ru.maga.urlshortener.util.MemoryLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinkClickHistoryTest {
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long START = 1_000 * DAY;
+
+    @Test
+    void shouldCountClicksPerMinuteHourAndDay() {
+        LinkClickHistory history = new LinkClickHistory();
+        history.record(START);
+        history.record(START + 30_000);
+        history.record(START + MINUTE);
+
+        ClickHistory snapshot = history.snapshot(START + MINUTE);
+
+        assertThat(snapshot.getMinutes()[58]).isEqualTo(2);
+        assertThat(snapshot.getMinutes()[59]).isEqualTo(1);
+        assertThat(snapshot.getHours()[23]).isEqualTo(3);
+        assertThat(snapshot.getDays()[29]).isEqualTo(3);
+        assertThat(snapshot.getLastHourTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRollMinutesUpIntoHoursAndDays() {
+        LinkClickHistory history = new LinkClickHistory();
+        // One click every 10 minutes for three days, so every minute slot is reused many times
+        for (long time = START; time < START + 3 * DAY; time += 10 * MINUTE) {
+            history.record(time);
+        }
+        long now = START + 3 * DAY - 1;
+
+        ClickHistory snapshot = history.snapshot(now);
+
+        assertThat(snapshot.getTotal()).isEqualTo(3 * 24 * 6);
+        assertThat(snapshot.getDays()).endsWith(144, 144, 144);
+        assertThat(snapshot.getHours()).containsOnly(6);
+        assertThat(snapshot.getLastHourTotal()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldIgnoreClicksOlderThanDayRing() {
+        LinkClickHistory history = new LinkClickHistory();
+        history.record(START);
+        history.record(START + 40 * DAY);
+        // Touch every minute slot once more so the old click has to be rolled up
+        for (int minute = 1; minute <= LinkClickHistory.MINUTES; minute++) {
+            history.record(START + 40 * DAY + minute * MINUTE);
+        }
+
+        ClickHistory snapshot = history.snapshot(START + 40 * DAY + 61 * MINUTE);
+
+        assertThat(snapshot.getTotal()).isEqualTo(LinkClickHistory.MINUTES + 1);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentClicks() throws InterruptedException {
+        LinkClickHistory history = new LinkClickHistory();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    history.record(START + (i / 1_000) * MINUTE);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(history.snapshot(START + 100 * MINUTE).getTotal()).isEqualTo(400_000);
+    }
+
+    @Test
+    void shouldReturnEmptyHistoryForLinkWithoutClicks() {
+        ClickAnalytics analytics = new ClickAnalytics(
+                new HeavyHitters(10, 256, 60_000, new ManualTimeSource(0)));
+
+        assertThat(analytics.getClickHistory("none", START).getTotal()).isZero();
+        assertThat(analytics.getHistoryMemoryBytes()).isEqualTo(
+                MemoryLayout.concurrentHashMapBytes(0));
+    }
+}
@@ -0,0 +1,121 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.loadgen.ZipfSampler;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+import ru.maga.urlshortener.repository.UserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirect throughput on all cores with a Zipf-skewed choice of links, so a handful of hot links
+ * take most of the clicks and their counters are written from every thread at once.
+ * The grouped benchmark reads link data on some threads while others click the same hot links,
+ * which is where counters sharing a cache line with the link data would hurt.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClickBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Links {
+        @Param({"10000"})
+        public int linkCount;
+
+        @Param({"1.1"})
+        public double exponent;
+
+        LinkManagementService service;
+        ShortUrlRepository repository;
+        String[] codes;
+        ZipfSampler sampler;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Measure the redirect path, not the per-click log appender
+            ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LinkManagementService.class))
+                    .setLevel(ch.qos.logback.classic.Level.WARN);
+            UserRepository userRepository = new InMemoryUserRepository();
+            repository = new InMemoryShortUrlRepository();
+            service = LinkManagementService.builder(userRepository, repository,
+                    new UrlShortenerService(8), new NotificationService(false), new AppConfig()).build();
+            UUID userId = service.createUser();
+            codes = new String[linkCount];
+            for (int i = 0; i < linkCount; i++) {
+                codes[i] = service.createShortUrl("https://example.com/page/" + i, userId, -1).getShortCode();
+            }
+            sampler = new ZipfSampler(linkCount, exponent);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(Thread.currentThread().threadId());
+        }
+
+        String nextCode(Links links) {
+            return links.codes[links.sampler.next(random)];
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<String> redirect(Links links, Client client) {
+        return links.service.processClick(client.nextCode(links));
+    }
+
+    @Benchmark
+    @Group("readWhileClicking")
+    @GroupThreads(3)
+    public int readLinkData(Links links, Client client) {
+        ShortUrl shortUrl = links.repository.findByShortCode(client.nextCode(links)).orElseThrow();
+        return shortUrl.getOriginalUrl().length() + shortUrl.getOwnerId().hashCode()
+                + (shortUrl.isExpired() ? 1 : 0);
+    }
+
+    @Benchmark
+    @Group("readWhileClicking")
+    @GroupThreads(1)
+    public Optional<String> click(Links links, Client client) {
+        return links.service.processClick(client.nextCode(links));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ClickBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.journal.ClickJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of appending redirects to the {@link ClickJournal}, from one thread and from four contending for
+ * the same segment. Each iteration appends a fixed batch per thread, so a run writes a bounded amount of
+ * journal; milliseconds per batch of a million are nanoseconds per append. Segments are rotated during
+ * the run, so their mapping cost is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = ClickJournalBenchmark.BATCH)
+@Measurement(iterations = 5, batchSize = ClickJournalBenchmark.BATCH)
+@Fork(1)
+public class ClickJournalBenchmark {
+    static final int BATCH = 1_000_000;
+
+    private final UUID client = UUID.randomUUID();
+    private Path directory;
+    private ClickJournal journal;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("click-journal");
+        journal = new ClickJournal(directory, 16L * 1024 * 1024);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(1_700_000_000_000L, "aB3Xy9", client, LinkStatus.ACTIVE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        journal.append(1_700_000_000_000L, "aB3Xy9", client, LinkStatus.ACTIVE);
+    }
+}
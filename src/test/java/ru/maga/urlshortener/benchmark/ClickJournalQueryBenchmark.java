@@ -0,0 +1,87 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.journal.ClickJournal;
+import ru.maga.urlshortener.journal.ClickJournalQueryEngine;
+import ru.maga.urlshortener.journal.ClickQuery;
+import ru.maga.urlshortener.journal.ClickReport;
+import ru.maga.urlshortener.loadgen.ZipfSampler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full scans of a click journal of five million events (200 MB) over Zipf-distributed links and clients,
+ * with and without a single-link filter. The files stay in the page cache between scans, so this measures
+ * the scan and aggregation rather than the disk; divide 200 MB by the time for GB/s, or see
+ * {@link ClickReport#getGigabytesPerSecond()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickJournalQueryBenchmark {
+    private static final int EVENTS = 5_000_000;
+    private static final int LINKS = 100_000;
+    private static final int CLIENTS = 10_000;
+
+    private Path directory;
+    private ClickJournalQueryEngine engine;
+    private String hotCode;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("click-journal-query");
+        ZipfSampler links = new ZipfSampler(LINKS, 1.1);
+        ZipfSampler clients = new ZipfSampler(CLIENTS, 0.8);
+        SplittableRandom random = new SplittableRandom(42);
+        LinkStatus[] outcomes = LinkStatus.values();
+        long start = 1_700_000_000_000L;
+        try (ClickJournal journal = new ClickJournal(directory, 64L * 1024 * 1024)) {
+            for (int i = 0; i < EVENTS; i++) {
+                LinkStatus outcome = random.nextInt(20) == 0 ? outcomes[random.nextInt(outcomes.length)] : LinkStatus.ACTIVE;
+                long client = clients.next(random) + 1;
+                journal.append(start + i * 10L, "link" + links.next(random), new UUID(client * 0x9E3779B97F4A7C15L, client), outcome);
+            }
+        }
+        hotCode = "link0";
+        engine = new ClickJournalQueryEngine(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public ClickReport scanAll() {
+        return engine.run(ClickQuery.all());
+    }
+
+    @Benchmark
+    public ClickReport scanOneLink() {
+        return engine.run(new ClickQuery(Long.MIN_VALUE, Long.MAX_VALUE, hotCode));
+    }
+}
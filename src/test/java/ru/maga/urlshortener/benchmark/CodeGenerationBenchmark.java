@@ -0,0 +1,50 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.maga.urlshortener.service.UrlShortenerService;
+import ru.maga.urlshortener.util.UrlValidator;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-link work done before anything is stored: URL validation and code generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeGenerationBenchmark {
+    private static final String[] URLS = {
+            "https://example.com",
+            "https://www.example.com/articles/2024/performance-engineering?utm_source=newsletter&utm_medium=email",
+            "http://localhost:8080/api/v1/users/42/links",
+            "not a url at all",
+    };
+
+    private final UrlShortenerService shortener = new UrlShortenerService(6);
+    private final UUID userId = UUID.randomUUID();
+    private int next;
+
+    @Benchmark
+    public String generateShortCode() {
+        next++;
+        return shortener.generateShortCode(URLS[next & 1], userId);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        next++;
+        return UrlValidator.isValid(URLS[next & 3]);
+    }
+}
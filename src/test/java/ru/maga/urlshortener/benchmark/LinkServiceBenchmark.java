@@ -0,0 +1,127 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.loadgen.ZipfSampler;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.repository.ShortUrlRepository;
+import ru.maga.urlshortener.repository.UserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Core service operations against a repository pre-filled with {@code linkCount} links,
+ * ten links per owner. The 10M case needs a heap of about 8 GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class LinkServiceBenchmark {
+    private static final int LINKS_PER_OWNER = 10;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int linkCount;
+
+    private LinkManagementService service;
+    private ShortUrlRepository repository;
+    private String[] codes;
+    private UUID[] owners;
+    private UUID creatingUser;
+    private ZipfSampler sampler;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LinkManagementService.class))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        UserRepository userRepository = new InMemoryUserRepository();
+        repository = new InMemoryShortUrlRepository(linkCount, 0.01);
+        service = LinkManagementService.builder(userRepository, repository, new UrlShortenerService(8),
+                new NotificationService(false), new AppConfig()).build();
+
+        long now = System.currentTimeMillis();
+        owners = new UUID[linkCount / LINKS_PER_OWNER];
+        for (int i = 0; i < owners.length; i++) {
+            owners[i] = UUID.randomUUID();
+        }
+        codes = new String[linkCount];
+        for (int i = 0; i < linkCount; i++) {
+            codes[i] = ShortCodeCodec.decode(i + 1);
+            repository.save(new ShortUrl(codes[i], "https://example.com/page/" + i, owners[i / LINKS_PER_OWNER],
+                    now, now + TimeUnit.DAYS.toMillis(1), -1, 0));
+        }
+        creatingUser = service.createUser();
+        sampler = new ZipfSampler(linkCount, 1.1);
+    }
+
+    @Benchmark
+    public ShortUrl createShortUrl() {
+        return service.createShortUrl("https://example.org/new/" + random.nextLong(), creatingUser, -1);
+    }
+
+    @Benchmark
+    public Optional<String> processClickHotLink() {
+        return service.processClick(codes[0]);
+    }
+
+    @Benchmark
+    public Optional<String> processClickZipf() {
+        return service.processClick(codes[sampler.next(random)]);
+    }
+
+    @Benchmark
+    public List<ShortUrl> findByOwnerId() {
+        return repository.findByOwnerId(owners[random.nextInt(owners.length)]);
+    }
+
+    /**
+     * A full cleanup pass over all links, one percent of which have expired since the last pass.
+     */
+    @State(Scope.Benchmark)
+    public static class ExpiringLinks {
+        private static final int EXPIRED_SHARE = 100;
+
+        @Setup(Level.Iteration)
+        public void expireSome(LinkServiceBenchmark benchmark) {
+            long past = System.currentTimeMillis() - 1;
+            for (int i = 0; i < benchmark.linkCount; i += EXPIRED_SHARE) {
+                benchmark.repository.save(new ShortUrl(benchmark.codes[i], "https://example.com/page/" + i,
+                        benchmark.owners[i / LINKS_PER_OWNER], past - 1, past, -1, 0));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int cleanupExpiredLinks(ExpiringLinks expiring) {
+        return service.cleanupExpiredLinks();
+    }
+}
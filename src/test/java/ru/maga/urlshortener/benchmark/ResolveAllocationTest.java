@@ -0,0 +1,38 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link ResolveBenchmark} under the JMH GC profiler and checks that a successful redirect
+ * allocates nothing once compiled, both without the click journal and with it, as by default.
+ */
+class ResolveAllocationTest {
+
+    @Test
+    void shouldNotAllocateOnSuccessfulRedirect() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(ResolveBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        assertThat(results).hasSize(2);
+        for (RunResult result : results) {
+            Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            // Allow a fraction of a byte for allocations outside the measured loop, e.g. by JMH itself,
+            // or by mapping the next journal segment
+            assertThat(allocation.getScore())
+                    .as("journal=%s", result.getParams().getParam("journal"))
+                    .isLessThan(1.0);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.maga.urlshortener.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ResolvedLink;
+import ru.maga.urlshortener.journal.ClickJournal;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+import ru.maga.urlshortener.util.CachedTimeSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of one successful redirect through {@link LinkManagementService#resolve}, with and
+ * without the click journal, which is on by default. Run with the GC profiler to see the bytes allocated per
+ * redirect, which should be zero either way.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ResolveBenchmark {
+    private static final int LINK_COUNT = 1024;
+
+    /**
+     * Whether redirects are appended to a {@link ClickJournal} in a temporary directory.
+     */
+    @Param({"false", "true"})
+    public boolean journal;
+
+    private final ResolvedLink resolved = new ResolvedLink();
+    private Path journalDirectory;
+    private ClickJournal clickJournal;
+    private LinkManagementService service;
+    private String[] codes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        AppConfig config = new AppConfig();
+        if (journal) {
+            journalDirectory = Files.createTempDirectory("resolve-journal");
+            clickJournal = new ClickJournal(journalDirectory, config.getJournalSegmentMegabytes() * 1024L * 1024L);
+        }
+        service = LinkManagementService.builder(new InMemoryUserRepository(), new InMemoryShortUrlRepository(),
+                        new UrlShortenerService(8), new NotificationService(false), config)
+                .timeSource(new CachedTimeSource(10))
+                .journal(clickJournal)
+                .build();
+        UUID userId = service.createUser();
+        codes = new String[LINK_COUNT];
+        for (int i = 0; i < LINK_COUNT; i++) {
+            codes[i] = service.createShortUrl("https://example.com/page/" + i, userId, -1).getShortCode();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (clickJournal == null) {
+            return;
+        }
+        clickJournal.close();
+        try (var paths = Files.walk(journalDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public LinkStatus resolve() {
+        next = (next + 1) & (LINK_COUNT - 1);
+        return service.resolve(codes[next], resolved);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.maga.urlshortener.cluster;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs cluster nodes as separate JVMs on localhost next to one in this JVM.
+ */
+class ClusterProcessTest {
+
+    @Test
+    void shouldPartitionAndRebalanceAcrossNodeProcesses() throws IOException, InterruptedException {
+        List<Process> processes = new ArrayList<>();
+        try {
+            String seed = startNode(processes, null);
+            startNode(processes, seed);
+            try (ClusteredShortUrlRepository cluster = new ClusteredShortUrlRepository(
+                    ClusterNode.onLoopback(new InMemoryShortUrlRepository()))) {
+                ClusterNode node = cluster.getNode();
+                node.join(seed);
+                awaitRebalanced(node, 3);
+                int total = 3000;
+                for (int i = 0; i < total; i++) {
+                    cluster.save(createShortUrl("code" + i));
+                }
+                assertThat(cluster.countByNode()).hasSize(3).allSatisfy((member, count) ->
+                        assertThat(count).isBetween(total / 6, total / 2));
+
+                String added = startNode(processes, seed);
+                awaitRebalanced(node, 4);
+
+                Map<String, Integer> counts = cluster.countByNode();
+                assertThat(counts.values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(total);
+                assertThat(counts.get(added)).isBetween(total / 8, total * 3 / 8);
+                for (int i = 0; i < total; i++) {
+                    assertThat(cluster.getByShortCode("code" + i)).as("code" + i).isNotNull();
+                }
+            }
+            for (Process process : processes) {
+                process.getOutputStream().close();
+                assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+                assertThat(process.exitValue()).isZero();
+            }
+        } finally {
+            processes.forEach(Process::destroyForcibly);
+        }
+    }
+
+    /**
+     * Starts a node process on a free port and returns its name once it is on the ring.
+     */
+    private static String startNode(List<Process> processes, String member) throws IOException {
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        List<String> command = new ArrayList<>(List.of(java.toString(), "-cp", classPath,
+                StorageNode.class.getName(), "127.0.0.1", "0"));
+        if (member != null) {
+            command.add(member);
+        }
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        processes.add(process);
+        BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        do {
+            line = output.readLine();
+            assertThat(line).as("node process output").isNotNull();
+        } while (!line.contains(" HashRing{"));
+        // Keep reading the log, so the process never blocks on a full pipe
+        Thread drain = new Thread(() -> {
+            try {
+                while (output.readLine() != null) {
+                    // Discard
+                }
+            } catch (IOException e) {
+                // Process exited
+            }
+        });
+        drain.setDaemon(true);
+        drain.start();
+        return line.substring(0, line.indexOf(' '));
+    }
+
+    private static void awaitRebalanced(ClusterNode node, int nodes) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (node.isRebalancing() || node.getRing().getNodes().size() != nodes) {
+            assertThat(System.nanoTime() - deadline).as("timed out waiting for rebalance").isNegative();
+            Thread.sleep(10);
+        }
+    }
+
+    private static ShortUrl createShortUrl(String shortCode) {
+        return new ShortUrl(shortCode, "https://example.com/" + shortCode, UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
@@ -0,0 +1,287 @@
+package ru.maga.urlshortener.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            resources.get(i).close();
+        }
+    }
+
+    @Test
+    void shouldKeepEachLinkOnItsOwner() {
+        ClusteredShortUrlRepository first = startNode();
+        ClusteredShortUrlRepository second = startNode(first);
+        ClusteredShortUrlRepository third = startNode(second);
+        awaitRebalanced(first, second, third);
+
+        UUID ownerId = UUID.randomUUID();
+        for (int i = 0; i < 300; i++) {
+            first.save(createShortUrl("code" + i, ownerId));
+        }
+
+        for (ClusteredShortUrlRepository node : List.of(first, second, third)) {
+            assertThat(node.count()).isEqualTo(300);
+            assertThat(node.getNode().getLocal().count()).isPositive();
+            for (ShortUrl link : node.getNode().getLocal().findAll()) {
+                assertThat(node.getNode().getRing().ownerOf(link.getShortCode())).isEqualTo(node.getNode().getName());
+            }
+        }
+        assertThat(third.findByOwnerId(ownerId)).hasSize(300);
+        assertThat(second.getByShortCode("code7").getOriginalUrl()).isEqualTo("https://example.com/code7");
+        assertThat(second.getByShortCode("missing")).isNull();
+        assertThat(first.getForwardedCount()).isPositive();
+    }
+
+    @Test
+    void shouldApplyChangesOnOwnerWhicheverNodeMakesThem() {
+        ClusteredShortUrlRepository first = startNode();
+        ClusteredShortUrlRepository second = startNode(first);
+        awaitRebalanced(first, second);
+        String remoteCode = codeOwnedBy(second, first);
+        first.save(createShortUrl(remoteCode, UUID.randomUUID()));
+
+        ShortUrl copy = first.getByShortCode(remoteCode);
+        copy.tryIncrementClickCount();
+        first.recordClick(copy);
+        copy.setClickLimit(5);
+        first.update(copy);
+
+        ShortUrl owned = second.getNode().getLocal().getByShortCode(remoteCode);
+        assertThat(owned.getClickCount()).isEqualTo(1);
+        assertThat(owned.getClickLimit()).isEqualTo(5);
+
+        assertThat(first.bury(remoteCode, LinkStatus.DELETED, 100)).isTrue();
+        assertThat(first.exists(remoteCode)).isFalse();
+        assertThat(first.findTombstone(remoteCode)).contains(LinkStatus.DELETED);
+        assertThat(first.tombstoneCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeClicksThroughServicesOnDifferentNodes() {
+        ClusteredShortUrlRepository first = startNode();
+        ClusteredShortUrlRepository second = startNode(first);
+        awaitRebalanced(first, second);
+        LinkManagementService firstService = createService(first);
+        LinkManagementService secondService = createService(second);
+
+        UUID userId = firstService.createUser();
+        List<ShortUrl> links = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            links.add(firstService.createShortUrl("https://example.com/" + i, userId, 2));
+        }
+
+        for (ShortUrl link : links) {
+            assertThat(secondService.processClick(link.getShortCode())).contains(link.getOriginalUrl());
+            assertThat(secondService.processClick(link.getShortCode())).isPresent();
+            assertThat(firstService.processClick(link.getShortCode())).isEmpty();
+        }
+        assertThat(secondService.getUserLinks(userId)).hasSize(20)
+                .allSatisfy(link -> assertThat(link.getClickCount()).isEqualTo(2));
+    }
+
+    @Test
+    void shouldLetOwnerDecideLastClickBeforeLimit() {
+        ClusteredShortUrlRepository owner = startNode();
+        ClusteredShortUrlRepository second = startNode(owner);
+        ClusteredShortUrlRepository third = startNode(owner);
+        awaitRebalanced(owner, second, third);
+        String code = codeOwnedBy(owner, second);
+        owner.save(new ShortUrl(code, "https://example.com/" + code, UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 3));
+        ShortUrl owned = owner.getByShortCode(code);
+        assertThat(owner.tryClick(owned)).isTrue();
+        assertThat(owner.tryClick(owned)).isTrue();
+
+        // Both copies are taken at limit - 1, as by two redirects arriving at once
+        ShortUrl fromSecond = second.getByShortCode(code);
+        ShortUrl fromThird = third.getByShortCode(code);
+        assertThat(fromSecond.hasReachedClickLimit()).isFalse();
+        assertThat(fromThird.hasReachedClickLimit()).isFalse();
+
+        assertThat(second.tryClick(fromSecond)).isTrue();
+        assertThat(third.tryClick(fromThird)).isFalse();
+        assertThat(fromSecond.getClickCount()).isEqualTo(3);
+        assertThat(owner.getNode().getLocal().getByShortCode(code).getClickCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldServeOneOfConcurrentRedirectsAtLimitFromTwoNodes() throws InterruptedException {
+        ClusteredShortUrlRepository owner = startNode();
+        ClusteredShortUrlRepository second = startNode(owner);
+        ClusteredShortUrlRepository third = startNode(owner);
+        awaitRebalanced(owner, second, third);
+        LinkManagementService ownerService = createService(owner);
+        List<LinkManagementService> services = List.of(createService(second), createService(third));
+        UUID userId = ownerService.createUser();
+
+        for (int i = 0; i < 20; i++) {
+            ShortUrl link = ownerService.createShortUrl("https://example.com/" + i, userId, 2);
+            assertThat(ownerService.processClick(link.getShortCode())).isPresent();
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger served = new AtomicInteger();
+            List<Thread> redirects = new ArrayList<>();
+            for (LinkManagementService service : services) {
+                Thread redirect = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (service.processClick(link.getShortCode()).isPresent()) {
+                        served.incrementAndGet();
+                    }
+                });
+                redirect.start();
+                redirects.add(redirect);
+            }
+            start.countDown();
+            for (Thread redirect : redirects) {
+                redirect.join();
+            }
+
+            assertThat(served.get()).as(link.getShortCode()).isEqualTo(1);
+            assertThat(ownerService.getShortUrlInfo(link.getShortCode())).get()
+                    .extracting(ShortUrl::getClickCount).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldStreamLinksToJoiningNodeAndKeepThemReachable() {
+        ClusteredShortUrlRepository first = startNode();
+        ClusteredShortUrlRepository second = startNode(first);
+        awaitRebalanced(first, second);
+        int total = 20_000;
+        List<ShortUrl> links = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            links.add(createShortUrl("link" + i, UUID.randomUUID()));
+        }
+        first.saveAll(links);
+
+        ClusteredShortUrlRepository third = startNode(first);
+        // Read through the new node while links are still moving to it
+        for (ShortUrl link : links) {
+            assertThat(third.getByShortCode(link.getShortCode())).as(link.getShortCode()).isNotNull();
+        }
+        awaitRebalanced(first, second, third);
+
+        Map<String, Integer> counts = third.countByNode();
+        assertThat(counts.values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(total);
+        int taken = counts.get(third.getNode().getName());
+        assertThat(taken / (double) total).isBetween(0.2, 0.45);
+        // A link handed off early may still be streamed, and is then skipped by the new owner
+        long moved = first.getNode().getMovedLinkCount() + second.getNode().getMovedLinkCount();
+        assertThat(moved).isLessThanOrEqualTo(taken);
+        assertThat(moved + third.getNode().getHandedOffLinkCount()).isGreaterThanOrEqualTo(taken);
+        assertThat(third.getNode().getMovedLinkCount()).isZero();
+    }
+
+    @Test
+    void shouldMoveTombstonesToJoiningNode() {
+        ClusteredShortUrlRepository first = startNode();
+        ClusteredShortUrlRepository second = startNode(first);
+        awaitRebalanced(first, second);
+        int total = 300;
+        for (int i = 0; i < total; i++) {
+            first.save(createShortUrl("dead" + i, UUID.randomUUID()));
+            assertThat(first.bury("dead" + i, i % 2 == 0 ? LinkStatus.DELETED : LinkStatus.EXPIRED, 100)).isTrue();
+        }
+
+        ClusteredShortUrlRepository third = startNode(first);
+        awaitRebalanced(first, second, third);
+
+        assertThat(third.getNode().getLocal().tombstoneCount()).isPositive();
+        assertThat(third.tombstoneCount()).isEqualTo(total);
+        for (ClusteredShortUrlRepository node : List.of(first, second, third)) {
+            for (int i = 0; i < total; i++) {
+                assertThat(node.findTombstone("dead" + i)).as("dead" + i)
+                        .contains(i % 2 == 0 ? LinkStatus.DELETED : LinkStatus.EXPIRED);
+            }
+        }
+        for (ClusteredShortUrlRepository node : List.of(first, second, third)) {
+            node.getNode().getLocal().forEachTombstone((shortCode, reason, atMillis) ->
+                    assertThat(node.getNode().getRing().ownerOf(shortCode)).isEqualTo(node.getNode().getName()));
+        }
+    }
+
+    private ClusteredShortUrlRepository startNode() {
+        ClusteredShortUrlRepository repository = new ClusteredShortUrlRepository(
+                ClusterNode.onLoopback(new InMemoryShortUrlRepository()));
+        resources.add(repository);
+        return repository;
+    }
+
+    private ClusteredShortUrlRepository startNode(ClusteredShortUrlRepository member) {
+        ClusteredShortUrlRepository repository = startNode();
+        repository.getNode().join(member.getNode().getName());
+        return repository;
+    }
+
+    private static String codeOwnedBy(ClusteredShortUrlRepository owner, ClusteredShortUrlRepository other) {
+        for (int i = 0; ; i++) {
+            String code = "code" + i;
+            if (other.getNode().getRing().ownerOf(code).equals(owner.getNode().getName())) {
+                return code;
+            }
+        }
+    }
+
+    private static LinkManagementService createService(ClusteredShortUrlRepository repository) {
+        return LinkManagementService.builder(new InMemoryUserRepository(), repository, new UrlShortenerService(6),
+                new NotificationService(false), new AppConfig()).build();
+    }
+
+    private static void awaitRebalanced(ClusteredShortUrlRepository... nodes) {
+        awaitTrue(() -> {
+            for (ClusteredShortUrlRepository node : nodes) {
+                if (node.getNode().isRebalancing() || node.getNode().getRing().getNodes().size() != nodes.length) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("timed out waiting for rebalance").isNegative();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static ShortUrl createShortUrl(String shortCode, UUID ownerId) {
+        return new ShortUrl(shortCode, "https://example.com/" + shortCode, ownerId,
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.maga.urlshortener.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTest {
+
+    private static final int CODES = 100_000;
+
+    @Test
+    void shouldSpreadCodesEvenlyAcrossNodes() {
+        HashRing ring = new HashRing(1, List.of("a:1", "b:1", "c:1", "d:1"), HashRing.DEFAULT_VIRTUAL_NODES);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < CODES; i++) {
+            counts.merge(ring.ownerOf(code(i)), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count ->
+                assertThat(count / (double) CODES).isBetween(0.18, 0.32));
+    }
+
+    @Test
+    void shouldMoveOnlyCodesTakenByAddedNode() {
+        HashRing ring = new HashRing(1, List.of("a:1", "b:1", "c:1"), HashRing.DEFAULT_VIRTUAL_NODES);
+        HashRing grown = ring.withNode("d:1");
+
+        int moved = 0;
+        for (int i = 0; i < CODES; i++) {
+            String before = ring.ownerOf(code(i));
+            String after = grown.ownerOf(code(i));
+            if (!before.equals(after)) {
+                assertThat(after).isEqualTo("d:1");
+                moved++;
+            }
+        }
+
+        assertThat(grown.getVersion()).isEqualTo(2);
+        assertThat(moved / (double) CODES).isBetween(0.18, 0.32);
+    }
+
+    @Test
+    void shouldNotDependOnOrderOfNodes() {
+        HashRing ring = new HashRing(1, List.of("a:1", "b:1", "c:1"), 16);
+        HashRing reordered = new HashRing(1, List.of("c:1", "a:1", "b:1"), 16);
+
+        assertThat(reordered.getNodes()).containsExactly("a:1", "b:1", "c:1");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(reordered.ownerOf(code(i))).isEqualTo(ring.ownerOf(code(i)));
+        }
+        assertThat(ring.withNode("b:1")).isSameAs(ring);
+    }
+
+    private static String code(int i) {
+        return "c" + Integer.toString(i, 36);
+    }
+}
@@ -6,6 +6,7 @@ import java.time.Instant;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ShortUrlTest {
 
@@ -189,5 +190,91 @@ class ShortUrlTest {
         shortUrl.setClickLimit(50);
         assertThat(shortUrl.getClickLimit()).isEqualTo(50);
     }
-}
 
+    @Test
+    void shouldRefuseClickOnceLimitIsReached() {
+        ShortUrl shortUrl = new ShortUrl(
+                "abc123",
+                "https://example.com",
+                UUID.randomUUID(),
+                Instant.now(),
+                Instant.now().plusSeconds(3600),
+                2
+        );
+
+        assertThat(shortUrl.tryIncrementClickCount()).isTrue();
+        assertThat(shortUrl.tryIncrementClickCount()).isTrue();
+        assertThat(shortUrl.tryIncrementClickCount()).isFalse();
+        assertThat(shortUrl.getClickCount()).isEqualTo(2);
+
+        shortUrl.setClickLimit(3);
+        assertThat(shortUrl.getClickCount()).isEqualTo(2);
+        assertThat(shortUrl.tryIncrementClickCount()).isTrue();
+    }
+
+    @Test
+    void shouldNotLoseOrOvershootClicksUnderContention() throws InterruptedException {
+        ShortUrl shortUrl = new ShortUrl(
+                "abc123",
+                "https://example.com",
+                UUID.randomUUID(),
+                Instant.now(),
+                Instant.now().plusSeconds(3600),
+                30_000
+        );
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    shortUrl.tryIncrementClickCount();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(shortUrl.getClickCount()).isEqualTo(30_000);
+        assertThat(shortUrl.getClickLimit()).isEqualTo(30_000);
+    }
+
+    @Test
+    void shouldKeepClicksAndLimitWhenLinkTurnsHot() {
+        ShortUrl shortUrl = new ShortUrl("abc123", "https://example.com", UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 5000, ClickCounter.HOT_CLICKS - 2);
+
+        shortUrl.incrementClickCount();
+        assertThat(shortUrl.tryIncrementClickCount()).isTrue();
+        shortUrl.setClickLimit(ClickCounter.HOT_CLICKS + 1);
+
+        assertThat(shortUrl.getClickCount()).isEqualTo(ClickCounter.HOT_CLICKS);
+        assertThat(shortUrl.tryIncrementClickCount()).isTrue();
+        assertThat(shortUrl.tryIncrementClickCount()).isFalse();
+        assertThat(shortUrl.getClickLimit()).isEqualTo(ClickCounter.HOT_CLICKS + 1);
+    }
+
+    @Test
+    void shouldRaiseClickCountOnlyUpwards() {
+        ShortUrl shortUrl = new ShortUrl("abc123", "https://example.com", UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 5000, 10);
+
+        assertThat(shortUrl.raiseClickCountTo(4)).isFalse();
+        assertThat(shortUrl.raiseClickCountTo(10)).isFalse();
+        assertThat(shortUrl.getClickCount()).isEqualTo(10);
+        assertThat(shortUrl.raiseClickCountTo(ClickCounter.HOT_CLICKS + 5)).isTrue();
+        shortUrl.incrementClickCount();
+
+        assertThat(shortUrl.getClickCount()).isEqualTo(ClickCounter.HOT_CLICKS + 6);
+        assertThat(shortUrl.getClickLimit()).isEqualTo(5000);
+        assertThat(shortUrl.raiseClickCountTo(ClickCounter.HOT_CLICKS)).isFalse();
+        assertThat(shortUrl.getClickCount()).isEqualTo(ClickCounter.HOT_CLICKS + 6);
+    }
+
+    @Test
+    void shouldRejectNegativeClickCount() {
+        assertThatThrownBy(() -> new ShortUrl("abc123", "https://example.com", UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 5, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.maga.urlshortener.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinkEventPublisherTest {
+    private static final UUID OWNER = new UUID(1, 1);
+
+    @Test
+    void shouldNotCountEventsWithoutSubscribers() {
+        LinkEventPublisher publisher = new LinkEventPublisher();
+
+        publisher.publish(LinkEvent.Type.CREATED, "aB3Xy9", "https://example.com", OWNER, null, 1);
+
+        assertThat(publisher.hasSubscribers()).isFalse();
+        assertThat(publisher.getPublishedCount()).isZero();
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldDeliverEventsInOrderAndComplete() throws InterruptedException {
+        LinkEventPublisher publisher = new LinkEventPublisher(16);
+        Collector collector = new Collector(Long.MAX_VALUE);
+        publisher.subscribe(collector);
+
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(LinkEvent.Type.CLICKED, "aB3Xy9", "https://example.com", OWNER, null, i);
+        }
+        publisher.close();
+
+        assertThat(collector.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(collector.events).extracting(LinkEvent::getTimeMillis)
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(publisher.getDroppedCount()).isZero();
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldDropEventsForSubscriberThatFallsBehindWithoutWaiting() throws InterruptedException {
+        LinkEventPublisher publisher = new LinkEventPublisher(16);
+        Collector stuck = new Collector(0);
+        publisher.subscribe(stuck);
+
+        for (int i = 0; i < 1000; i++) {
+            publisher.publish(LinkEvent.Type.CLICKED, "aB3Xy9", "https://example.com", OWNER, null, i);
+        }
+
+        assertThat(publisher.getPublishedCount()).isEqualTo(1000);
+        assertThat(publisher.getDroppedCount()).isGreaterThanOrEqualTo(1000 - 16);
+        assertThat(publisher.getMaximumLag()).isLessThanOrEqualTo(16);
+
+        // What fit into the buffer is still delivered, oldest first
+        assertThat(stuck.subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+        stuck.subscription.request(Long.MAX_VALUE);
+        publisher.close();
+        assertThat(stuck.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stuck.events).isNotEmpty().hasSizeLessThanOrEqualTo(16);
+        assertThat(stuck.events.get(0).getTimeMillis()).isZero();
+    }
+
+    private static final class Collector implements Flow.Subscriber<LinkEvent> {
+        final List<LinkEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final long initialRequest;
+        volatile Flow.Subscription subscription;
+
+        Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(LinkEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.maga.urlshortener.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRecordServiceEvents() throws Exception {
+        AppConfig config = new AppConfig();
+        LinkManagementService service = LinkManagementService.builder(
+                new InMemoryUserRepository(),
+                new InMemoryShortUrlRepository(),
+                new UrlShortenerService(config.getShortenerCodeLength()),
+                new NotificationService(false),
+                config).build();
+        Path file = tempDir.resolve("events.jfr");
+        ShortUrl shortUrl;
+
+        try (Recording recording = new Recording()) {
+            recording.enable(RedirectEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(LinkCreatedEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(CleanupEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            UUID userId = service.createUser();
+            shortUrl = service.createShortUrl("https://example.com", userId, 1);
+            service.processClick(shortUrl.getShortCode());
+            service.processClick(shortUrl.getShortCode());
+            service.processClick("unknown");
+            service.cleanupExpiredLinks();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).filteredOn(e -> e.getEventType().getName().equals("ru.maga.urlshortener.Redirect"))
+                .extracting(e -> e.getString("outcome"))
+                .containsExactly("ACTIVE", "LIMIT_REACHED", "NOT_FOUND");
+        assertThat(events).filteredOn(e -> e.getEventType().getName().equals("ru.maga.urlshortener.LinkCreated"))
+                .extracting(e -> e.getString("shortCode"))
+                .containsExactly(shortUrl.getShortCode());
+        assertThat(events).filteredOn(e -> e.getEventType().getName().equals("ru.maga.urlshortener.Cleanup"))
+                .singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getInt("scanned")).isEqualTo(1);
+                    assertThat(e.getInt("removed")).isZero();
+                });
+    }
+
+    @Test
+    void shouldNotAllocateEventsWhenNotRecording() {
+        assertThat(RedirectEvent.start()).isNull();
+        assertThat(CleanupEvent.start()).isNull();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.maga.urlshortener.journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.maga.urlshortener.domain.LinkStatus;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClickJournalQueryEngineTest {
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1_700_000_000_000L / HOUR * HOUR;
+    private static final UUID ALICE = new UUID(1, 1);
+    private static final UUID BOB = new UUID(2, 2);
+
+    @TempDir
+    Path directory;
+
+    private ClickJournalQueryEngine engine;
+
+    /**
+     * Two days of traffic, one event a minute: "hot" is opened by Alice every minute, "cold" by Bob at the
+     * start of every hour, and every tenth minute someone tries a removed link.
+     */
+    @BeforeEach
+    void setUp() {
+        try (ClickJournal journal = new ClickJournal(directory, 40 * 500)) {
+            for (long minute = 0; minute < 48 * 60; minute++) {
+                long time = START + minute * 60_000;
+                journal.append(time, "hot", ALICE, LinkStatus.ACTIVE);
+                if (minute % 60 == 0) {
+                    journal.append(time, "cold", BOB, LinkStatus.ACTIVE);
+                }
+                if (minute % 10 == 0) {
+                    journal.append(time, "gone", null, LinkStatus.DELETED);
+                }
+            }
+        }
+        engine = new ClickJournalQueryEngine(directory, new ForkJoinPool(4));
+    }
+
+    @Test
+    void shouldAggregateWholeJournal() {
+        ClickReport report = engine.run(ClickQuery.all());
+
+        assertThat(report.getEventCount()).isEqualTo(2880 + 48 + 288);
+        assertThat(report.getOutcomes().get(LinkStatus.ACTIVE)).isEqualTo(2880 + 48);
+        assertThat(report.getOutcomes().get(LinkStatus.DELETED)).isEqualTo(288);
+        assertThat(report.getTopLinks(10)).containsExactly(
+                Map.entry("hot", 2880L), Map.entry("cold", 48L));
+        assertThat(report.getTopClients(1)).containsOnlyKeys(ALICE);
+        assertThat(report.getTopClients(5)).containsEntry(BOB, 48L);
+        assertThat(report.getSegmentsSkipped()).isZero();
+        assertThat(report.getScannedBytes()).isGreaterThan(0);
+    }
+
+    @Test
+    void shouldPushDownTimeRangeAndCode() {
+        long from = START + 30 * HOUR;
+        ClickReport report = engine.run(new ClickQuery(from, from + 3 * HOUR, "hot"));
+
+        assertThat(report.getEventCount()).isEqualTo(180);
+        assertThat(report.getHourlyClicks("hot")).containsOnlyKeys(
+                Instant.ofEpochMilli(from), Instant.ofEpochMilli(from + HOUR), Instant.ofEpochMilli(from + 2 * HOUR));
+        assertThat(report.getHourlyClicks("hot").values()).containsOnly(60L);
+        assertThat(report.getHourlyClicks("cold")).isEmpty();
+        // Each 500-record segment covers about three hours, so most of the two days is never read
+        assertThat(report.getSegmentsSkipped()).isGreaterThan(report.getSegmentsScanned());
+    }
+
+    @Test
+    void shouldReturnEmptyReportForEmptyJournal(@TempDir Path empty) {
+        ClickReport report = new ClickJournalQueryEngine(empty).run(ClickQuery.all());
+
+        assertThat(report.getEventCount()).isZero();
+        assertThat(report.getTopLinks(10)).isEmpty();
+    }
+}
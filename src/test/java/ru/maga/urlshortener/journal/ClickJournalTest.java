@@ -0,0 +1,112 @@
+package ru.maga.urlshortener.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.maga.urlshortener.domain.LinkStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClickJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackAppendedEvents() {
+        UUID client = UUID.randomUUID();
+        try (ClickJournal journal = new ClickJournal(directory, 1024)) {
+            journal.append(1_000L, "aB3Xy9", client, LinkStatus.ACTIVE);
+            journal.append(2_000L, "missing", null, LinkStatus.NOT_FOUND);
+            journal.append(3_000L, "not a code!", null, LinkStatus.NOT_FOUND);
+        }
+
+        List<ClickEvent> events = new ArrayList<>();
+        new ClickJournalReader(directory, 0).poll(events::add);
+
+        assertThat(events).hasSize(3);
+        assertThat(events.get(0).getTimeMillis()).isEqualTo(1_000L);
+        assertThat(events.get(0).getShortCode()).isEqualTo("aB3Xy9");
+        assertThat(events.get(0).getClientId()).isEqualTo(client);
+        assertThat(events.get(0).getOutcome()).isEqualTo(LinkStatus.ACTIVE);
+        assertThat(events.get(1).getShortCode()).isEqualTo("missing");
+        assertThat(events.get(1).getClientId()).isNull();
+        assertThat(events.get(2).getShortCode()).isNull();
+    }
+
+    @Test
+    void shouldRotateSegmentsUnderConcurrentAppends() throws InterruptedException, IOException {
+        int threads = 4;
+        int perThread = 10_000;
+        try (ClickJournal journal = new ClickJournal(directory, 64 * 1024)) {
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = t * (long) perThread;
+                writers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(base + i, "code" + (i % 100), null, LinkStatus.ACTIVE);
+                    }
+                }));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            assertThat(journal.getEventCount()).isEqualTo(threads * perThread);
+            assertThat(journal.getDroppedCount()).isZero();
+        }
+
+        Set<Long> times = new HashSet<>();
+        ClickJournalReader reader = new ClickJournalReader(directory, 0);
+        reader.poll(event -> times.add(event.getTimeMillis()));
+
+        assertThat(times).hasSize(threads * perThread);
+        assertThat(reader.getSkippedCount()).isZero();
+        assertThat(ClickJournal.listSegments(directory)).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void shouldFollowJournalWhileItIsWritten() {
+        try (ClickJournal journal = new ClickJournal(directory, 400)) {
+            ClickJournalReader reader = new ClickJournalReader(directory);
+            assertThat(reader.poll(event -> { })).isZero();
+
+            for (int i = 0; i < 7; i++) {
+                journal.append(i, "abc", null, LinkStatus.ACTIVE);
+            }
+            assertThat(reader.poll(event -> { })).isEqualTo(7);
+
+            // Crosses into the next 10-record segment
+            for (int i = 0; i < 5; i++) {
+                journal.append(i, "abc", null, LinkStatus.EXPIRED);
+            }
+            List<ClickEvent> events = new ArrayList<>();
+            assertThat(reader.poll(events::add)).isEqualTo(5);
+            assertThat(events).extracting(ClickEvent::getOutcome).containsOnly(LinkStatus.EXPIRED);
+        }
+    }
+
+    @Test
+    void shouldStartNewSegmentAfterReopening() {
+        try (ClickJournal journal = new ClickJournal(directory, 4000)) {
+            journal.append(1, "abc", null, LinkStatus.ACTIVE);
+        }
+        try (ClickJournal journal = new ClickJournal(directory, 4000)) {
+            journal.append(2, "abc", null, LinkStatus.ACTIVE);
+        }
+
+        List<Long> times = new ArrayList<>();
+        ClickJournalReader reader = new ClickJournalReader(directory, 0);
+        reader.poll(event -> times.add(event.getTimeMillis()));
+
+        assertThat(times).containsExactly(1L, 2L);
+        assertThat(reader.getSkippedCount()).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.maga.urlshortener.loadgen;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.metrics.LatencyHistogram;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadGeneratorTest {
+
+    @Test
+    void shouldRunMixAgainstInProcessService() throws InterruptedException {
+        AppConfig config = new AppConfig();
+        LinkManagementService service = LinkManagementService.builder(
+                new InMemoryUserRepository(),
+                new InMemoryShortUrlRepository(1_000, 0.01),
+                new UrlShortenerService(config.getShortenerCodeLength()),
+                new NotificationService(false),
+                config).build();
+        LoadOptions options = LoadOptions.parse(new String[]{
+                "--users", "10", "--links", "200", "--threads", "2", "--duration", "1", "--rate", "2000"});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        LoadGenerator generator = new LoadGenerator(new InProcessLoadTarget(service), options,
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+        Map<Operation, LatencyHistogram> latencies = generator.run();
+
+        assertThat(latencies.get(Operation.REDIRECT).getCount()).isPositive();
+        long total = latencies.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+        assertThat(total).isBetween(500L, 2_500L);
+        assertThat(generator.getErrorCount()).isZero();
+        assertThat(output.toString(StandardCharsets.UTF_8)).contains("Итого:", "REDIRECT");
+    }
+
+    @Test
+    void shouldParseOptionsAndMix() {
+        LoadOptions options = LoadOptions.parse(new String[]{
+                "--target", "http://localhost:8080", "--threads", "4", "--mix", "redirect=95,info=5"});
+
+        assertThat(options.getTarget()).isEqualTo("http://localhost:8080");
+        assertThat(options.getThreads()).isEqualTo(4);
+        assertThat(options.getWeight(Operation.REDIRECT)).isEqualTo(95);
+        assertThat(options.getWeight(Operation.INFO)).isEqualTo(5);
+        assertThat(options.getWeight(Operation.CREATE)).isZero();
+    }
+
+    @Test
+    void shouldRejectUnknownOption() {
+        assertThatThrownBy(() -> LoadOptions.parse(new String[]{"--speed", "1"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("--speed");
+    }
+}
@@ -0,0 +1,39 @@
+package ru.maga.urlshortener.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZipfSamplerTest {
+
+    @Test
+    void shouldFavourLowRanks() {
+        ZipfSampler sampler = new ZipfSampler(1000, 1.1);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[sampler.size()];
+
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.next(random)]++;
+        }
+
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[10]);
+        int top10 = 0;
+        for (int rank = 0; rank < 10; rank++) {
+            top10 += counts[rank];
+        }
+        assertThat(top10).isGreaterThan(40_000);
+    }
+
+    @Test
+    void shouldStayWithinRange() {
+        ZipfSampler sampler = new ZipfSampler(5, 0.0);
+        SplittableRandom random = new SplittableRandom(2);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(sampler.next(random)).isBetween(0, 4);
+        }
+    }
+}
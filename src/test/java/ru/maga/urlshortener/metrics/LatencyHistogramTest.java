@@ -0,0 +1,76 @@
+package ru.maga.urlshortener.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getMax()).isEqualTo(100_000_000);
+        assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(50_000_000, within(1_600_000.0));
+        assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(99_000_000, within(3_100_000.0));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000_000);
+        assertThat(histogram.getMean()).isCloseTo(50_000_500.0, within(1.0));
+    }
+
+    @Test
+    void shouldKeepSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(-5);
+
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(3);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(7);
+    }
+
+    @Test
+    void shouldMapEveryValueToBucketCoveringIt() {
+        for (long value = 0; value < 1_000_000; value += 37) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.upperBoundOf(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.upperBoundOf(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void shouldDrainIntoNewHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.record(2_000);
+
+        LatencyHistogram drained = histogram.drain();
+
+        assertThat(drained.getCount()).isEqualTo(2);
+        assertThat(drained.getMax()).isEqualTo(2_000);
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+    }
+
+    @Test
+    void shouldAddOtherHistogram() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(20);
+        second.record(30);
+
+        first.add(second);
+
+        assertThat(first.getCount()).isEqualTo(3);
+        assertThat(first.getMax()).isEqualTo(30);
+        assertThat(first.getValueAtPercentile(100)).isEqualTo(30);
+    }
+}
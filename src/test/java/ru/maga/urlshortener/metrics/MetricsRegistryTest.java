@@ -0,0 +1,54 @@
+package ru.maga.urlshortener.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsRegistryTest {
+
+    @Test
+    void shouldReturnSameMetricForSameName() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        registry.counter("clicks").increment();
+        registry.counter("clicks").add(2);
+        registry.histogram("latency").record(100);
+
+        assertThat(registry.getValues()).containsEntry("clicks", 3L);
+        assertThat(registry.histogram("latency").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadGaugeWhenReported() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong depth = new AtomicLong();
+        registry.gauge("depth", depth::get);
+
+        depth.set(42);
+
+        assertThat(registry.getValues()).containsEntry("depth", 42L);
+    }
+
+    @Test
+    void shouldPublishExistingAndLaterMetricsAsMBeans() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("clicks").add(5);
+
+        registry.registerMBeans(server);
+        LatencyHistogram latency = registry.histogram("click.latency");
+        latency.record(1_000);
+        latency.record(3_000);
+
+        ObjectName counterName = new ObjectName("ru.maga.urlshortener:type=counter,name=\"clicks\"");
+        ObjectName histogramName = new ObjectName("ru.maga.urlshortener:type=histogram,name=\"click.latency\"");
+        assertThat(server.getAttribute(counterName, "Count")).isEqualTo(5L);
+        assertThat(server.getAttribute(histogramName, "Count")).isEqualTo(2L);
+        assertThat((Long) server.getAttribute(histogramName, "MaxNanos")).isEqualTo(3_000L);
+    }
+}
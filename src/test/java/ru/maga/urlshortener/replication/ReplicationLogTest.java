@@ -0,0 +1,60 @@
+package ru.maga.urlshortener.replication;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.util.ManualTimeSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicationLogTest {
+
+    @Test
+    void shouldReadMutationsInOrderAfterSequence() throws InterruptedException {
+        ReplicationLog log = new ReplicationLog(8, new ManualTimeSource(1000));
+        for (int i = 0; i < 5; i++) {
+            log.append(Mutation.Type.LIMIT, "c" + i, null, null, i);
+        }
+
+        List<Mutation> mutations = log.read(2, 10, 0);
+
+        assertThat(mutations).extracting(Mutation::getSequence).containsExactly(3L, 4L, 5L);
+        assertThat(mutations).extracting(Mutation::getShortCode).containsExactly("c2", "c3", "c4");
+        assertThat(mutations.get(0).getTimeMillis()).isEqualTo(1000);
+        assertThat(log.read(5, 10, 10)).isEmpty();
+        assertThat(log.read(0, 2, 0)).extracting(Mutation::getSequence).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldForgetMutationsBeyondCapacity() throws InterruptedException {
+        ReplicationLog log = new ReplicationLog(4, new ManualTimeSource(0));
+        for (int i = 0; i < 10; i++) {
+            log.append(Mutation.Type.DELETE, "c" + i, null, null, 0);
+        }
+
+        assertThat(log.contains(5)).isFalse();
+        assertThat(log.read(5, 10, 0)).isNull();
+        assertThat(log.contains(6)).isTrue();
+        assertThat(log.read(6, 10, 0)).extracting(Mutation::getSequence).containsExactly(7L, 8L, 9L, 10L);
+        assertThat(log.contains(11)).isFalse();
+    }
+
+    @Test
+    void shouldWakeUpReaderWhenMutationIsAppended() throws InterruptedException {
+        ReplicationLog log = new ReplicationLog(4, new ManualTimeSource(0));
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.append(Mutation.Type.DELETE, "late", null, null, 0);
+        });
+        writer.start();
+
+        List<Mutation> mutations = log.read(0, 10, 10_000);
+        writer.join();
+
+        assertThat(mutations).extracting(Mutation::getShortCode).containsExactly("late");
+    }
+}
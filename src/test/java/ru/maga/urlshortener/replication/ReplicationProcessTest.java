@@ -0,0 +1,65 @@
+package ru.maga.urlshortener.replication;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.util.TimeSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs replicas as separate JVMs following a primary in this one.
+ */
+class ReplicationProcessTest {
+
+    @Test
+    void shouldReplicateToSeveralReplicaProcesses() throws IOException, InterruptedException {
+        ReplicationLog log = new ReplicationLog(1000, TimeSource.system());
+        InMemoryShortUrlRepository primaryStore = new InMemoryShortUrlRepository();
+        try (ReplicatingShortUrlRepository primary = new ReplicatingShortUrlRepository(primaryStore, log, 10);
+             ReplicationServer server = ReplicationServer.onLoopback(log, primaryStore)) {
+            primary.save(createShortUrl("first"));
+            primary.save(createShortUrl("second"));
+
+            List<Process> replicas = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                replicas.add(startTail(server.getPort(), 3));
+            }
+            primary.delete("first");
+
+            try {
+                for (Process process : replicas) {
+                    assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+                    String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                    assertThat(process.exitValue()).as(output).isZero();
+                    assertThat(output).contains("SAVE first", "SAVE second", "DELETE first");
+                }
+            } finally {
+                replicas.forEach(Process::destroyForcibly);
+            }
+        }
+    }
+
+    private static Process startTail(int port, int count) throws IOException {
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        return new ProcessBuilder(java.toString(), "-cp", classPath, ReplicationTail.class.getName(),
+                "127.0.0.1", String.valueOf(port), String.valueOf(count))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    private static ShortUrl createShortUrl(String shortCode) {
+        return new ShortUrl(shortCode, "https://example.com/" + shortCode, UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
@@ -0,0 +1,171 @@
+package ru.maga.urlshortener.replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.service.LinkManagementService;
+import ru.maga.urlshortener.service.NotificationService;
+import ru.maga.urlshortener.service.UrlShortenerService;
+import ru.maga.urlshortener.util.TimeSource;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            resources.get(i).close();
+        }
+    }
+
+    @Test
+    void shouldStreamMutationsToReplica() {
+        ReplicationLog log = new ReplicationLog(1000, TimeSource.system());
+        InMemoryShortUrlRepository primaryStore = new InMemoryShortUrlRepository();
+        ReplicatingShortUrlRepository primary = open(new ReplicatingShortUrlRepository(primaryStore, log, 10));
+        ReplicationServer server = open(ReplicationServer.onLoopback(log, primaryStore));
+        InMemoryShortUrlRepository replicaStore = new InMemoryShortUrlRepository();
+        ReplicaClient replica = open(new ReplicaClient(addressOf(server), replicaStore).start());
+
+        primary.save(createShortUrl("clicked"));
+        primary.save(createShortUrl("buried"));
+        ShortUrl live = primary.getByShortCode("clicked");
+        for (int i = 0; i < 3; i++) {
+            live.incrementClickCount();
+            primary.recordClick(live);
+        }
+        live.setClickLimit(50);
+        primary.update(live);
+        primary.bury("buried", LinkStatus.DELETED, 100);
+
+        awaitTrue(() -> replica.getAppliedSequence() == log.getLastSequence() && log.getLastSequence() >= 5);
+        ShortUrl replicated = replicaStore.getByShortCode("clicked");
+        assertThat(replicated.getClickCount()).isEqualTo(3);
+        assertThat(replicated.getClickLimit()).isEqualTo(50);
+        assertThat(replicaStore.exists("buried")).isFalse();
+        assertThat(replicaStore.findTombstone("buried")).contains(LinkStatus.DELETED);
+        assertThat(replica.getLagMutations()).isZero();
+        assertThat(replica.getLagMillis()).isZero();
+        assertThat(server.getReplicaCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStartFromSnapshotWhenLogNoLongerHoldsMutations() {
+        ReplicationLog log = new ReplicationLog(4, TimeSource.system());
+        InMemoryShortUrlRepository primaryStore = new InMemoryShortUrlRepository();
+        ReplicatingShortUrlRepository primary = open(new ReplicatingShortUrlRepository(primaryStore, log, 10));
+        for (int i = 0; i < 10; i++) {
+            primary.save(createShortUrl("c" + i));
+        }
+        ReplicationServer server = open(ReplicationServer.onLoopback(log, primaryStore));
+        InMemoryShortUrlRepository replicaStore = new InMemoryShortUrlRepository();
+        replicaStore.save(createShortUrl("stale"));
+
+        ReplicaClient replica = open(new ReplicaClient(addressOf(server), replicaStore).start());
+        awaitTrue(() -> replicaStore.count() == 10 && !replicaStore.exists("stale"));
+        primary.save(createShortUrl("after"));
+
+        awaitTrue(() -> replicaStore.exists("after"));
+        assertThat(replica.getSnapshotCount()).isEqualTo(1);
+        assertThat(replica.getAppliedSequence()).isEqualTo(11);
+    }
+
+    @Test
+    void shouldResumeFromLogAfterReconnecting() {
+        ReplicationLog log = new ReplicationLog(1000, TimeSource.system());
+        InMemoryShortUrlRepository primaryStore = new InMemoryShortUrlRepository();
+        ReplicatingShortUrlRepository primary = open(new ReplicatingShortUrlRepository(primaryStore, log, 10));
+        ReplicationServer server = ReplicationServer.onLoopback(log, primaryStore);
+        InetSocketAddress address = addressOf(server);
+        InMemoryShortUrlRepository replicaStore = new InMemoryShortUrlRepository();
+        ReplicaClient replica = open(new ReplicaClient(address, replicaStore).start());
+        primary.save(createShortUrl("before"));
+        awaitTrue(() -> replicaStore.exists("before"));
+
+        server.close();
+        awaitTrue(() -> !replica.isConnected());
+        primary.save(createShortUrl("during"));
+        primary.delete("before");
+        open(new ReplicationServer(address, log, primaryStore, ReplicationServer.DEFAULT_HEARTBEAT_MILLIS).start());
+
+        awaitTrue(() -> replicaStore.exists("during") && !replicaStore.exists("before"));
+        assertThat(replica.getSnapshotCount()).isZero();
+        assertThat(replica.getAppliedSequence()).isEqualTo(log.getLastSequence());
+    }
+
+    @Test
+    void shouldRejectLinkChangesOnReplica() {
+        InMemoryShortUrlRepository replicaStore = new InMemoryShortUrlRepository();
+        ShortUrl live = createShortUrl("live");
+        replicaStore.save(live);
+        replicaStore.save(new ShortUrl("expired", "https://example.com/expired", UUID.randomUUID(),
+                Instant.now().minusSeconds(7200), Instant.now().minusSeconds(3600), 100));
+        AppConfig config = new AppConfig();
+        LinkManagementService service = LinkManagementService.builder(
+                new InMemoryUserRepository(),
+                new ReadOnlyShortUrlRepository(replicaStore),
+                new UrlShortenerService(config.getShortenerCodeLength()),
+                new NotificationService(false),
+                config).build();
+        UUID owner = live.getOwnerId();
+
+        assertThatThrownBy(() -> service.createShortUrl("https://example.com/new", service.createUser(), null))
+                .isInstanceOf(UnsupportedOperationException.class)
+                .hasMessage(ReadOnlyShortUrlRepository.READ_ONLY_MESSAGE);
+        assertThatThrownBy(() -> service.updateClickLimit("live", owner, 5))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> service.deleteShortUrl("live", owner))
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(replicaStore.count()).isEqualTo(2);
+        assertThat(live.getClickLimit()).isEqualTo(100);
+        assertThat(service.processClick("live")).contains("https://example.com/live");
+        assertThat(live.getClickCount()).isEqualTo(1);
+        assertThat(service.getLinkStatus("expired")).isEqualTo(LinkStatus.EXPIRED);
+        assertThat(service.processClick("expired")).isEmpty();
+        assertThat(service.cleanupExpiredLinks()).isZero();
+        assertThat(replicaStore.exists("expired")).isTrue();
+    }
+
+    private <T extends AutoCloseable> T open(T resource) {
+        resources.add(resource);
+        return resource;
+    }
+
+    private static InetSocketAddress addressOf(ReplicationServer server) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("timed out waiting for replication").isNegative();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static ShortUrl createShortUrl(String shortCode) {
+        return new ShortUrl(shortCode, "https://example.com/" + shortCode, UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
@@ -0,0 +1,149 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClickCounterFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldKeepCountsWithoutClosingTheFile() {
+        Path file = directory.resolve("counters.bin");
+        ClickCounterFile counters = new ClickCounterFile(file);
+        counters.assign(createShortUrl("abc123", 10));
+        for (int i = 0; i < 5; i++) {
+            counters.increment("abc123");
+        }
+        counters.setClickLimit("abc123", 20);
+
+        // Opened again while the first mapping is still live, as after a crash
+        try (ClickCounterFile reopened = new ClickCounterFile(file)) {
+            InMemoryShortUrlRepository repository = new InMemoryShortUrlRepository();
+            repository.save(createShortUrl("abc123", 10));
+
+            assertThat(reopened.restore(repository)).isEqualTo(1);
+            ShortUrl restored = repository.getByShortCode("abc123");
+            assertThat(restored.getClickCount()).isEqualTo(5);
+            assertThat(restored.getClickLimit()).isEqualTo(20);
+        }
+        counters.close();
+    }
+
+    @Test
+    void shouldGrowAndReuseFreedSlots() {
+        try (ClickCounterFile counters = new ClickCounterFile(directory.resolve("counters.bin"), 4)) {
+            for (int i = 0; i < 10; i++) {
+                counters.assign(createShortUrl("c" + i, 100));
+                counters.increment("c" + i);
+            }
+
+            assertThat(counters.size()).isEqualTo(10);
+            assertThat(counters.capacity()).isEqualTo(16);
+            for (int i = 0; i < 10; i++) {
+                assertThat(counters.getClickCount("c" + i)).isEqualTo(1);
+            }
+
+            counters.release("c3");
+            counters.assign(createShortUrl("fresh", 100));
+
+            assertThat(counters.getClickCount("c3")).isEqualTo(-1);
+            assertThat(counters.getClickCount("fresh")).isZero();
+            assertThat(counters.size()).isEqualTo(10);
+            assertThat(counters.capacity()).isEqualTo(16);
+        }
+    }
+
+    @Test
+    void shouldNotHandOutJustFreedSlot() {
+        try (ClickCounterFile counters = new ClickCounterFile(directory.resolve("counters.bin"), 4)) {
+            for (int i = 0; i < 4; i++) {
+                counters.assign(createShortUrl("c" + i, 100));
+            }
+            counters.release("c0");
+            // A click that found the old slot before the release must not reach the new link
+            counters.assign(createShortUrl("fresh", 100));
+
+            assertThat(counters.capacity()).isEqualTo(8);
+            assertThat(counters.size()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void shouldCountEveryClickWhileFileGrows() throws InterruptedException {
+        try (ClickCounterFile counters = new ClickCounterFile(directory.resolve("counters.bin"), 4)) {
+            counters.assign(createShortUrl("hot", 0));
+            int threads = 4;
+            int clicksPerThread = 50_000;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> clickers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread clicker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < clicksPerThread; i++) {
+                        counters.increment("hot");
+                    }
+                });
+                clicker.start();
+                clickers.add(clicker);
+            }
+            start.countDown();
+            for (int i = 0; i < 5000; i++) {
+                counters.assign(createShortUrl("c" + i, 100));
+                if (i % 3 == 0) {
+                    counters.release("c" + i);
+                }
+            }
+            for (Thread clicker : clickers) {
+                clicker.join();
+            }
+
+            assertThat(counters.getClickCount("hot")).isEqualTo(threads * clicksPerThread);
+            assertThat(counters.capacity()).isGreaterThanOrEqualTo(5001);
+        }
+    }
+
+    @Test
+    void shouldFreeSlotsOfMissingLinksAndAssignNewOnesOnRestore() {
+        Path file = directory.resolve("counters.bin");
+        try (ClickCounterFile counters = new ClickCounterFile(file)) {
+            counters.assign(createShortUrl("gone", 10));
+            counters.assign(createShortUrl("kept", 10));
+        }
+
+        try (ClickCounterFile counters = new ClickCounterFile(file)) {
+            InMemoryShortUrlRepository repository = new InMemoryShortUrlRepository();
+            repository.save(createShortUrl("kept", 10));
+            repository.save(createShortUrl("added", 10));
+            repository.save(createShortUrl("not-base62", 10));
+
+            assertThat(counters.restore(repository)).isZero();
+            assertThat(counters.getClickCount("gone")).isEqualTo(-1);
+            assertThat(counters.getClickCount("kept")).isZero();
+            assertThat(counters.getClickCount("added")).isZero();
+            assertThat(counters.getClickCount("not-base62")).isEqualTo(-1);
+            assertThat(counters.size()).isEqualTo(2);
+        }
+    }
+
+    private static ShortUrl createShortUrl(String shortCode, int clickLimit) {
+        return new ShortUrl(shortCode, "https://example.com/" + shortCode, UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), clickLimit);
+    }
+}
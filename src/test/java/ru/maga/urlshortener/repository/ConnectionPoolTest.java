@@ -0,0 +1,96 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", 1, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shouldReuseConnections() {
+        Connection first = pool.withConnection(connection -> connection);
+        Connection second = pool.withConnection(connection -> connection);
+
+        assertThat(second).isSameAs(first);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailWhenNoConnectionIsFreeInTime() throws InterruptedException {
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> pool.withConnection(connection -> {
+            acquired.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        acquired.await();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            pool.withConnection(connection -> null);
+        } catch (RepositoryException e) {
+            failure.set(e);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        assertThat(failure.get()).hasMessageContaining("No free database connection");
+    }
+
+    @Test
+    void shouldRollBackFailedTransaction() {
+        pool.withConnection(connection -> execute(connection, "CREATE TABLE t (v INT)"));
+
+        assertThatThrownBy(() -> pool.inTransaction(connection -> {
+            execute(connection, "INSERT INTO t VALUES (1)");
+            throw new SQLException("boom");
+        })).isInstanceOf(RepositoryException.class).hasMessageContaining("boom");
+
+        int rows = pool.withConnection(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM t")) {
+                result.next();
+                return result.getInt(1);
+            }
+        });
+        assertThat(rows).isZero();
+        assertThat(pool.withConnection(Connection::getAutoCommit)).isTrue();
+    }
+
+    private static Void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+        return null;
+    }
+}
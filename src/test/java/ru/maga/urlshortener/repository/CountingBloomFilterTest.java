@@ -0,0 +1,69 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void shouldContainAddedCodes() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("code" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("code" + i)).isTrue();
+        }
+        assertThat(filter.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    void shouldRejectMostUnknownCodes() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("code" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.03);
+        assertThat(filter.getExpectedFalsePositiveRate()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void shouldForgetRemovedCodes() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01);
+        filter.add("abc123");
+        filter.add("def456");
+
+        filter.remove("abc123");
+
+        assertThat(filter.mightContain("abc123")).isFalse();
+        assertThat(filter.mightContain("def456")).isTrue();
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldUseAboutFiveBytesPerEntryAtOnePercent() {
+        CountingBloomFilter filter = new CountingBloomFilter(100_000, 0.01);
+
+        assertThat(filter.getMemoryBytes()).isBetween(450_000L, 500_000L);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> new CountingBloomFilter(0, 0.01))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountingBloomFilter(100, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotLinkCacheTest {
+
+    private final List<ShortUrl> evicted = new ArrayList<>();
+    private final List<Boolean> evictedDirty = new ArrayList<>();
+
+    @Test
+    void shouldNeverExceedMaximumSize() {
+        HotLinkCache cache = newCache(100);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.admit(createShortUrl("c" + i));
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(evicted).hasSize(900);
+    }
+
+    @Test
+    void shouldKeepFrequentLinksDuringScan() {
+        HotLinkCache cache = newCache(100);
+        for (int i = 0; i < 50; i++) {
+            cache.admit(createShortUrl("hot" + i));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot" + i);
+            }
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.admit(createShortUrl("scan" + i));
+        }
+
+        int hotSurvivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.peek("hot" + i) != null) {
+                hotSurvivors++;
+            }
+        }
+        assertThat(hotSurvivors).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    void shouldReportDirtyLinksOnEviction() {
+        HotLinkCache cache = newCache(1);
+        ShortUrl clicked = createShortUrl("clicked");
+        cache.admit(clicked);
+        clicked.incrementClickCount();
+
+        cache.admit(createShortUrl("other"));
+
+        assertThat(evicted).hasSize(1);
+        assertThat(evictedDirty.get(0)).isEqualTo(evicted.get(0) == clicked);
+    }
+
+    @Test
+    void shouldReturnResidentInstanceOnSecondAdmit() {
+        HotLinkCache cache = newCache(10);
+        ShortUrl first = createShortUrl("abc123");
+        cache.admit(first);
+
+        ShortUrl resident = cache.admit(createShortUrl("abc123"));
+
+        assertThat(resident).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInvalidateWithoutEvictionCallback() {
+        HotLinkCache cache = newCache(10);
+        cache.admit(createShortUrl("abc123"));
+
+        cache.invalidate("abc123");
+
+        assertThat(cache.peek("abc123")).isNull();
+        assertThat(evicted).isEmpty();
+    }
+
+    private HotLinkCache newCache(int size) {
+        return new HotLinkCache(size, (shortUrl, dirty) -> {
+            evicted.add(shortUrl);
+            evictedDirty.add(dirty);
+        });
+    }
+
+    private ShortUrl createShortUrl(String shortCode) {
+        return new ShortUrl(shortCode, "https://example.com", UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
@@ -0,0 +1,250 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryShortUrlRepositoryTest {
+
+    private InMemoryShortUrlRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryShortUrlRepository();
+    }
+
+    @Test
+    void shouldSaveAndFindShortUrl() {
+        ShortUrl shortUrl = createShortUrl("abc123", UUID.randomUUID());
+        repository.save(shortUrl);
+
+        Optional<ShortUrl> found = repository.findByShortCode("abc123");
+
+        assertThat(found).isPresent();
+        assertThat(found.get()).isEqualTo(shortUrl);
+    }
+
+    @Test
+    void shouldReturnEmptyWhenShortUrlNotFound() {
+        Optional<ShortUrl> found = repository.findByShortCode("nonexistent");
+
+        assertThat(found).isEmpty();
+    }
+
+    @Test
+    void shouldFindUrlsByOwner() {
+        UUID owner1 = UUID.randomUUID();
+        UUID owner2 = UUID.randomUUID();
+
+        ShortUrl url1 = createShortUrl("abc123", owner1);
+        ShortUrl url2 = createShortUrl("def456", owner1);
+        ShortUrl url3 = createShortUrl("ghi789", owner2);
+
+        repository.save(url1);
+        repository.save(url2);
+        repository.save(url3);
+
+        List<ShortUrl> owner1Urls = repository.findByOwnerId(owner1);
+        List<ShortUrl> owner2Urls = repository.findByOwnerId(owner2);
+
+        assertThat(owner1Urls).hasSize(2).contains(url1, url2);
+        assertThat(owner2Urls).hasSize(1).contains(url3);
+    }
+
+    @Test
+    void shouldReturnEmptyListWhenOwnerHasNoUrls() {
+        List<ShortUrl> urls = repository.findByOwnerId(UUID.randomUUID());
+
+        assertThat(urls).isEmpty();
+    }
+
+    @Test
+    void shouldDeleteShortUrl() {
+        ShortUrl shortUrl = createShortUrl("abc123", UUID.randomUUID());
+        repository.save(shortUrl);
+
+        repository.delete("abc123");
+
+        assertThat(repository.findByShortCode("abc123")).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveUrlFromOwnerIndexOnDelete() {
+        UUID ownerId = UUID.randomUUID();
+        ShortUrl shortUrl = createShortUrl("abc123", ownerId);
+        repository.save(shortUrl);
+
+        repository.delete("abc123");
+
+        assertThat(repository.findByOwnerId(ownerId)).isEmpty();
+    }
+
+    @Test
+    void shouldFindAllUrls() {
+        ShortUrl url1 = createShortUrl("abc123", UUID.randomUUID());
+        ShortUrl url2 = createShortUrl("def456", UUID.randomUUID());
+
+        repository.save(url1);
+        repository.save(url2);
+
+        List<ShortUrl> all = repository.findAll();
+
+        assertThat(all).hasSize(2).contains(url1, url2);
+    }
+
+    @Test
+    void shouldCheckIfShortCodeExists() {
+        ShortUrl shortUrl = createShortUrl("abc123", UUID.randomUUID());
+        repository.save(shortUrl);
+
+        assertThat(repository.exists("abc123")).isTrue();
+        assertThat(repository.exists("nonexistent")).isFalse();
+    }
+
+    @Test
+    void shouldCountUrls() {
+        assertThat(repository.count()).isZero();
+
+        repository.save(createShortUrl("abc123", UUID.randomUUID()));
+        assertThat(repository.count()).isEqualTo(1);
+
+        repository.save(createShortUrl("def456", UUID.randomUUID()));
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReplaceBuriedUrlWithTombstone() {
+        UUID ownerId = UUID.randomUUID();
+        repository.save(createShortUrl("abc123", ownerId));
+
+        boolean buried = repository.bury("abc123", LinkStatus.EXPIRED, System.currentTimeMillis());
+
+        assertThat(buried).isTrue();
+        assertThat(repository.exists("abc123")).isFalse();
+        assertThat(repository.findByOwnerId(ownerId)).isEmpty();
+        assertThat(repository.findTombstone("abc123")).contains(LinkStatus.EXPIRED);
+        assertThat(repository.tombstoneCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotBuryUnknownUrl() {
+        assertThat(repository.bury("nonexistent", LinkStatus.EXPIRED, System.currentTimeMillis())).isFalse();
+        assertThat(repository.findTombstone("nonexistent")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectUnknownCodesThroughFilter() {
+        repository.save(createShortUrl("abc123", UUID.randomUUID()));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(repository.findByShortCode("missing" + i)).isEmpty();
+        }
+
+        assertThat(repository.filterRejectionCount()).isGreaterThan(950);
+        assertThat(repository.filterObservedFalsePositiveRate()).isLessThan(0.05);
+        assertThat(repository.filterMemoryBytes()).isPositive();
+    }
+
+    @Test
+    void shouldFindUrlAgainAfterResave() {
+        ShortUrl shortUrl = createShortUrl("abc123", UUID.randomUUID());
+        repository.save(shortUrl);
+        repository.save(shortUrl);
+
+        repository.delete("abc123");
+        assertThat(repository.exists("abc123")).isFalse();
+
+        repository.save(shortUrl);
+        assertThat(repository.exists("abc123")).isTrue();
+    }
+
+    @Test
+    void shouldRoundShardCountUpToPowerOfTwo() {
+        InMemoryShortUrlRepository sharded = new InMemoryShortUrlRepository(new UserIdRegistry(), 5, shard -> new HeapLinkStore(), 1000, 0.01);
+
+        assertThat(sharded.shardCount()).isEqualTo(8);
+        assertThat(repository.shardCount()).isEqualTo(16);
+    }
+
+    @Test
+    void shouldBuryMatchingUrlsAcrossShards() {
+        UUID ownerId = UUID.randomUUID();
+        for (int i = 0; i < 100; i++) {
+            Instant expiresAt = i % 2 == 0 ? Instant.now().minusSeconds(1) : Instant.now().plusSeconds(3600);
+            repository.save(new ShortUrl("c" + i, "https://example.com", ownerId, Instant.now(), expiresAt, 100));
+        }
+
+        List<ShortUrl> buried = repository.buryIf(ShortUrl::isExpired, LinkStatus.EXPIRED, System.currentTimeMillis());
+
+        assertThat(buried).hasSize(50);
+        assertThat(repository.count()).isEqualTo(50);
+        assertThat(repository.findByOwnerId(ownerId)).hasSize(50);
+        assertThat(repository.findTombstone("c0")).contains(LinkStatus.EXPIRED);
+        assertThat(repository.exists("c1")).isTrue();
+    }
+
+    @Test
+    void shouldKeepOwnerIndexConsistentUnderConcurrentWrites() throws InterruptedException {
+        UUID ownerId = UUID.randomUUID();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String code = "t" + offset + "c" + i;
+                    repository.save(createShortUrl(code, ownerId));
+                    if (i % 2 == 1) {
+                        repository.delete(code);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(repository.count()).isEqualTo(4000);
+        assertThat(repository.findByOwnerId(ownerId)).hasSize(4000);
+    }
+
+    @Test
+    void shouldMoveLinksToTheirShardWhenShardCountChanges() {
+        UUID ownerId = UUID.randomUUID();
+        HeapLinkStore[] stores = {new HeapLinkStore(), new HeapLinkStore()};
+        InMemoryShortUrlRepository twoShards = new InMemoryShortUrlRepository(new UserIdRegistry(), 2, shard -> stores[shard], 1000, 0.01);
+        for (int i = 0; i < 100; i++) {
+            twoShards.save(createShortUrl("c" + i, ownerId));
+        }
+        HeapLinkStore[] moreStores = {stores[0], stores[1], new HeapLinkStore(), new HeapLinkStore()};
+
+        InMemoryShortUrlRepository fourShards = new InMemoryShortUrlRepository(new UserIdRegistry(), 4, shard -> moreStores[shard], 1000, 0.01);
+
+        assertThat(fourShards.count()).isEqualTo(100);
+        assertThat(fourShards.findByOwnerId(ownerId)).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(fourShards.findByShortCode("c" + i)).isPresent();
+        }
+        assertThat(moreStores[2].size() + moreStores[3].size()).isPositive();
+    }
+
+    private ShortUrl createShortUrl(String shortCode, UUID ownerId) {
+        return new ShortUrl(
+                shortCode,
+                "https://example.com",
+                ownerId,
+                Instant.now(),
+                Instant.now().plusSeconds(3600),
+                100
+        );
+    }
+}
+
@@ -9,13 +9,13 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-class UserRepositoryTest {
+class InMemoryUserRepositoryTest {
 
-    private UserRepository repository;
+    private InMemoryUserRepository repository;
 
     @BeforeEach
     void setUp() {
-        repository = new UserRepository();
+        repository = new InMemoryUserRepository();
     }
 
     @Test
@@ -0,0 +1,202 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.LinkStatus;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcShortUrlRepositoryTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shouldPersistLinksAcrossInstances() {
+        ShortUrl shortUrl = createShortUrl("abc123", UUID.randomUUID());
+        try (JdbcShortUrlRepository repository = open(10)) {
+            repository.save(shortUrl);
+            assertThat(repository.getByShortCode("abc123")).isSameAs(shortUrl);
+        }
+
+        try (JdbcShortUrlRepository reopened = open(10)) {
+            ShortUrl found = reopened.getByShortCode("abc123");
+
+            assertThat(found.getOriginalUrl()).isEqualTo(shortUrl.getOriginalUrl());
+            assertThat(found.getOwnerId()).isEqualTo(shortUrl.getOwnerId());
+            assertThat(found.getExpiresAtMillis()).isEqualTo(shortUrl.getExpiresAtMillis());
+            assertThat(reopened.getByShortCode("abc123")).isSameAs(found);
+            assertThat(reopened.findByShortCode("missing")).isEmpty();
+            assertThat(reopened.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldWriteClicksBehindInOneFlush() {
+        try (JdbcShortUrlRepository repository = open(10)) {
+            repository.save(createShortUrl("abc123", UUID.randomUUID()));
+            ShortUrl live = repository.getByShortCode("abc123");
+            for (int i = 0; i < 3; i++) {
+                live.incrementClickCount();
+                repository.recordClick(live);
+            }
+
+            assertThat(repository.getPendingCount()).isEqualTo(1);
+            assertThat(storedClickCount("abc123")).isZero();
+            assertThat(repository.flush()).isEqualTo(1);
+            assertThat(repository.getPendingCount()).isZero();
+            assertThat(storedClickCount("abc123")).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldKeepUnwrittenClicksWhenLinkIsEvicted() {
+        try (JdbcShortUrlRepository repository = open(1)) {
+            repository.save(createShortUrl("clicked", UUID.randomUUID()));
+            ShortUrl live = repository.getByShortCode("clicked");
+            live.incrementClickCount();
+            repository.recordClick(live);
+
+            for (int i = 0; i < 20; i++) {
+                repository.save(createShortUrl("c" + i, UUID.randomUUID()));
+                repository.getByShortCode("c" + i);
+            }
+
+            assertThat(repository.getByShortCode("clicked").getClickCount()).isEqualTo(1);
+        }
+        try (JdbcShortUrlRepository reopened = open(1)) {
+            assertThat(reopened.getByShortCode("clicked").getClickCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldWriteClickLimitChangesImmediately() {
+        try (JdbcShortUrlRepository repository = open(10)) {
+            repository.save(createShortUrl("abc123", UUID.randomUUID()));
+            ShortUrl live = repository.getByShortCode("abc123");
+            live.setClickLimit(7);
+            repository.update(live);
+        }
+
+        try (JdbcShortUrlRepository reopened = open(10)) {
+            assertThat(reopened.getByShortCode("abc123").getClickLimit()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void shouldBuryLinksAndPruneTombstones() {
+        try (JdbcShortUrlRepository repository = open(10)) {
+            UUID owner = UUID.randomUUID();
+            repository.saveAll(List.of(createShortUrl("a", owner), createShortUrl("b", owner),
+                    createShortUrl("c", UUID.randomUUID())));
+
+            assertThat(repository.bury("a", LinkStatus.EXPIRED, 100)).isTrue();
+            assertThat(repository.bury("a", LinkStatus.EXPIRED, 100)).isFalse();
+            List<ShortUrl> buried = repository.buryIf(link -> link.isOwnedBy(owner), LinkStatus.LIMIT_REACHED, 200);
+
+            assertThat(buried).extracting(ShortUrl::getShortCode).containsExactly("b");
+            assertThat(repository.findTombstone("a")).contains(LinkStatus.EXPIRED);
+            assertThat(repository.findTombstone("b")).contains(LinkStatus.LIMIT_REACHED);
+            assertThat(repository.isTombstoned("c")).isFalse();
+            assertThat(repository.exists("a")).isFalse();
+            assertThat(repository.findAll()).extracting(ShortUrl::getShortCode).containsExactly("c");
+            assertThat(repository.tombstoneCount()).isEqualTo(2);
+
+            assertThat(repository.pruneTombstones(150)).isEqualTo(1);
+            assertThat(repository.isTombstoned("a")).isFalse();
+            assertThat(repository.isTombstoned("b")).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNotBuryAgainLinkRemovedWhileMatching() {
+        try (JdbcShortUrlRepository repository = open(10)) {
+            repository.saveAll(List.of(createShortUrl("a", UUID.randomUUID()), createShortUrl("b", UUID.randomUUID())));
+
+            // "b" is deleted by its owner after the snapshot was read and before the matching links are removed
+            List<ShortUrl> buried = repository.buryIf(link -> {
+                if (link.getShortCode().equals("a")) {
+                    assertThat(repository.bury("b", LinkStatus.DELETED, 100)).isTrue();
+                }
+                return true;
+            }, LinkStatus.EXPIRED, 200);
+
+            assertThat(buried).extracting(ShortUrl::getShortCode).containsExactly("a");
+            assertThat(repository.findTombstone("a")).contains(LinkStatus.EXPIRED);
+            assertThat(repository.findTombstone("b")).contains(LinkStatus.DELETED);
+            assertThat(repository.tombstoneCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldFindLinksByOwnerAndDelete() {
+        try (JdbcShortUrlRepository repository = open(10)) {
+            UUID owner = UUID.randomUUID();
+            repository.save(createShortUrl("a", owner));
+            repository.save(createShortUrl("b", owner));
+            repository.save(createShortUrl("c", UUID.randomUUID()));
+            ShortUrl cached = repository.getByShortCode("a");
+
+            assertThat(repository.findByOwnerId(owner)).extracting(ShortUrl::getShortCode)
+                    .containsExactlyInAnyOrder("a", "b");
+            assertThat(repository.findByOwnerId(owner)).contains(cached);
+
+            repository.delete("a");
+
+            assertThat(repository.findByOwnerId(owner)).extracting(ShortUrl::getShortCode).containsExactly("b");
+            assertThat(repository.isTombstoned("a")).isFalse();
+            assertThat(repository.getMemoryFootprint()).containsKey("links.filter");
+        }
+    }
+
+    @Test
+    void shouldAnswerUnknownCodesWithoutDatabaseAfterRestart() {
+        try (JdbcShortUrlRepository repository = open(10)) {
+            repository.saveAll(List.of(createShortUrl("a", UUID.randomUUID()), createShortUrl("b", UUID.randomUUID())));
+            repository.bury("b", LinkStatus.DELETED, 100);
+        }
+
+        try (JdbcShortUrlRepository reopened = open(10)) {
+            assertThat(reopened.getByShortCode("a")).isNotNull();
+            assertThat(reopened.findTombstone("b")).contains(LinkStatus.DELETED);
+            // Codes that never existed are rejected by the filters, so the database is not needed
+            pool.close();
+
+            assertThat(reopened.getByShortCode("missing")).isNull();
+            assertThat(reopened.exists("b")).isFalse();
+            assertThat(reopened.findTombstone("missing")).isEmpty();
+            assertThat(reopened.filterRejectionCount()).isEqualTo(2);
+            assertThat(reopened.filterMemoryBytes()).isPositive();
+        }
+    }
+
+    private JdbcShortUrlRepository open(int cacheCapacity) {
+        return new JdbcShortUrlRepository(pool, cacheCapacity, 60_000, 1000, 0.01);
+    }
+
+    private int storedClickCount(String shortCode) {
+        try (JdbcShortUrlRepository fresh = open(10)) {
+            return fresh.getByShortCode(shortCode).getClickCount();
+        }
+    }
+
+    private static ShortUrl createShortUrl(String shortCode, UUID ownerId) {
+        return new ShortUrl(shortCode, "https://example.com/" + shortCode, ownerId,
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.User;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcUserRepositoryTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shouldPersistUsersAcrossInstances() {
+        User user = User.create();
+        new JdbcUserRepository(pool).save(user);
+
+        JdbcUserRepository reopened = new JdbcUserRepository(pool);
+
+        assertThat(reopened.findById(user.getId())).contains(user);
+        assertThat(reopened.findById(user.getId()).get().getCreatedAt().toEpochMilli())
+                .isEqualTo(user.getCreatedAt().toEpochMilli());
+        assertThat(reopened.exists(UUID.randomUUID())).isFalse();
+        assertThat(reopened.count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAssignDenseIdsToStoredUsersOnOpen() {
+        JdbcUserRepository repository = new JdbcUserRepository(pool);
+        User first = User.create();
+        User second = User.create();
+        repository.save(first);
+        repository.save(second);
+        repository.save(first);
+
+        JdbcUserRepository reopened = new JdbcUserRepository(pool);
+
+        assertThat(reopened.count()).isEqualTo(2);
+        assertThat(reopened.findInternalId(first.getId())).isNotNegative();
+        assertThat(reopened.findInternalId(second.getId())).isNotNegative();
+        assertThat(reopened.findInternalId(UUID.randomUUID())).isEqualTo(-1);
+        assertThat(reopened.getMemoryFootprint()).containsKeys("users.cache", "users.id-registry");
+    }
+}
@@ -0,0 +1,86 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.domain.User;
+import ru.maga.urlshortener.metrics.MemoryFootprint;
+import ru.maga.urlshortener.util.ShortCodeCodec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class MemoryFootprintTest {
+    private static final int LINKS_PER_USER = 10;
+
+    @Test
+    void shouldEstimateHeapOfLinksWithinFivePercent() throws InterruptedException {
+        assertEstimateWithinFivePercent(200_000);
+    }
+
+    @Test
+    @Tag("slow")
+    void shouldEstimateHeapOfMillionsOfLinksWithinFivePercent() throws InterruptedException {
+        assertEstimateWithinFivePercent(2_000_000);
+    }
+
+    @Test
+    void shouldRefuseToProjectWithoutLinks() {
+        MemoryFootprint footprint = new MemoryFootprint(Map.of("links.filter", 1_000L), 0, 1_000L);
+
+        assertThat(footprint.getBytesPerLink()).isZero();
+        assertThatThrownBy(() -> footprint.projectHeapBytes(1_000))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void assertEstimateWithinFivePercent(int linkCount) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeapAfterGc(memory);
+
+        UserIdRegistry userIds = new UserIdRegistry();
+        UserRepository users = new InMemoryUserRepository(userIds);
+        ShortUrlRepository links = new InMemoryShortUrlRepository(userIds, 16, shard -> new HeapLinkStore(),
+                linkCount, 0.01);
+        long now = System.currentTimeMillis();
+        User owner = null;
+        for (int i = 0; i < linkCount; i++) {
+            if (i % LINKS_PER_USER == 0) {
+                owner = User.create();
+                users.save(owner);
+            }
+            // Offset keeps every code six characters long, like generated ones
+            String code = ShortCodeCodec.decode(1_000_000_000L + i * 7919L);
+            links.save(new ShortUrl(code, "https://example.com/articles/" + i, owner.getId(),
+                    now, now + 86_400_000L, 100, 0));
+        }
+
+        long measured = usedHeapAfterGc(memory) - before;
+        Map<String, Long> components = new HashMap<>(links.getMemoryFootprint());
+        components.putAll(users.getMemoryFootprint());
+        MemoryFootprint footprint = new MemoryFootprint(components, links.count(), components.get("links.filter"));
+
+        assertThat((double) footprint.getTotalBytes()).isCloseTo(measured, within(measured * 0.05));
+        assertThat(footprint.projectLiveBytes(linkCount)).isEqualTo(footprint.getTotalBytes());
+        assertThat(footprint.projectLiveBytes(2L * linkCount))
+                .isBetween(2 * footprint.getTotalBytes() - footprint.getComponents().get("links.filter"),
+                        2 * footprint.getTotalBytes());
+        // Keep everything reachable until measured
+        assertThat(users.count() + links.count()).isPositive();
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
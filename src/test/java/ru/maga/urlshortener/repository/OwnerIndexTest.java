@@ -0,0 +1,106 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OwnerIndexTest {
+
+    private static final int OWNERS = 1_000_000;
+
+    private final OwnerIndex index = new OwnerIndex();
+
+    @Test
+    void shouldGrowAndShrinkOwnerLists() {
+        for (int i = 0; i < 100; i++) {
+            index.add(7, "c" + i);
+        }
+        assertThat(codesOf(7)).hasSize(100).contains("c0", "c99");
+
+        for (int i = 0; i < 99; i++) {
+            assertThat(index.remove(7, "c" + i)).isTrue();
+        }
+
+        assertThat(codesOf(7)).containsExactly("c99");
+        assertThat(index.remove(7, "c0")).isFalse();
+    }
+
+    @Test
+    void shouldDropOwnerWhenLastCodeIsRemoved() {
+        index.add(1, "abc123");
+        index.add(1, "def456");
+        index.add(2, "ghi789");
+
+        index.remove(1, "abc123");
+        index.remove(1, "def456");
+
+        assertThat(codesOf(1)).isEmpty();
+        assertThat(index.ownerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCodesThatCannotBePacked() {
+        index.add(3, "abc123");
+        index.add(3, "not-base62!");
+
+        assertThat(codesOf(3)).containsExactlyInAnyOrder("abc123", "not-base62!");
+
+        assertThat(index.remove(3, "not-base62!")).isTrue();
+        assertThat(codesOf(3)).containsExactly("abc123");
+    }
+
+    @Test
+    @Tag("slow")
+    void shouldUseFarLessMemoryThanMapOfSetsAtOneMillionOwners() {
+        List<UUID> owners = new ArrayList<>(OWNERS);
+        List<String> codes = new ArrayList<>(OWNERS);
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(UUID.randomUUID());
+            codes.add(Integer.toString(i, 36));
+        }
+
+        long before = usedHeap();
+        Map<UUID, Set<String>> mapOfSets = new ConcurrentHashMap<>();
+        for (int i = 0; i < OWNERS; i++) {
+            mapOfSets.computeIfAbsent(owners.get(i), k -> ConcurrentHashMap.newKeySet()).add(codes.get(i));
+        }
+        long mapOfSetsBytes = usedHeap() - before;
+        assertThat(mapOfSets).hasSize(OWNERS);
+        mapOfSets = null;
+
+        before = usedHeap();
+        UserIdRegistry registry = new UserIdRegistry();
+        OwnerIndex compact = new OwnerIndex();
+        for (int i = 0; i < OWNERS; i++) {
+            compact.add(registry.idOf(owners.get(i)), codes.get(i));
+        }
+        long compactBytes = usedHeap() - before;
+        assertThat(compact.ownerCount()).isEqualTo(OWNERS);
+
+        assertThat(compactBytes).as("ids + compact index vs map of sets of %d bytes", mapOfSetsBytes)
+                .isLessThan(mapOfSetsBytes / 4);
+    }
+
+    private Set<String> codesOf(int ownerId) {
+        Set<String> codes = new HashSet<>();
+        index.forEach(ownerId, codes::add);
+        return codes;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,150 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.maga.urlshortener.domain.ShortUrl;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredLinkStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldServeLinksBeyondHotCapacityFromDisk() {
+        try (TieredLinkStore store = new TieredLinkStore(10, directory)) {
+            for (int i = 0; i < 100; i++) {
+                store.put(createShortUrl("c" + i, "https://example.com/" + i));
+            }
+
+            assertThat(store.size()).isEqualTo(100);
+            assertThat(store.hotSize()).isEqualTo(10);
+            for (int i = 0; i < 100; i++) {
+                assertThat(store.get("c" + i).getOriginalUrl()).isEqualTo("https://example.com/" + i);
+            }
+        }
+    }
+
+    @Test
+    void shouldWriteBackClicksWhenLinkIsDemoted() {
+        try (TieredLinkStore store = new TieredLinkStore(5, directory)) {
+            store.put(createShortUrl("clicked", "https://example.com"));
+            store.get("clicked").incrementClickCount();
+            store.get("clicked").incrementClickCount();
+
+            for (int i = 0; i < 50; i++) {
+                store.put(createShortUrl("c" + i, "https://example.com/" + i));
+            }
+
+            assertThat(store.get("clicked").getClickCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldWriteBackCachedChangesOnClose() {
+        try (TieredLinkStore store = new TieredLinkStore(5, directory)) {
+            store.put(createShortUrl("clicked", "https://example.com"));
+            store.get("clicked").incrementClickCount();
+            store.get("clicked").incrementClickCount();
+            store.get("clicked").setClickLimit(7);
+        }
+
+        try (TieredLinkStore reopened = new TieredLinkStore(5, directory)) {
+            ShortUrl restored = reopened.get("clicked");
+            assertThat(restored.getClickCount()).isEqualTo(2);
+            assertThat(restored.getClickLimit()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void shouldRemoveFromBothTiers() {
+        try (TieredLinkStore store = new TieredLinkStore(5, directory)) {
+            ShortUrl shortUrl = createShortUrl("abc123", "https://example.com");
+            store.put(shortUrl);
+
+            assertThat(store.remove("abc123")).isEqualTo(shortUrl);
+            assertThat(store.get("abc123")).isNull();
+            assertThat(store.size()).isZero();
+        }
+    }
+
+    @Test
+    void shouldVisitAllLinks() {
+        try (TieredLinkStore store = new TieredLinkStore(3, directory)) {
+            for (int i = 0; i < 20; i++) {
+                store.put(createShortUrl("c" + i, "https://example.com/" + i));
+            }
+            List<ShortUrl> visited = new ArrayList<>();
+
+            store.forEach(visited::add);
+
+            assertThat(visited).hasSize(20);
+        }
+    }
+
+    @Test
+    void shouldRestoreRepositoryFromDiskAfterReopen() {
+        UUID ownerId = UUID.randomUUID();
+        try (TieredLinkStore store = new TieredLinkStore(5, directory)) {
+            ShortUrlRepository repository = new InMemoryShortUrlRepository(store, 1000, 0.01);
+            for (int i = 0; i < 20; i++) {
+                repository.save(new ShortUrl("c" + i, "https://example.com/" + i, ownerId,
+                        Instant.now(), Instant.now().plusSeconds(3600), 100));
+            }
+            repository.delete("c0");
+        }
+
+        try (ShortUrlRepository reopened = new InMemoryShortUrlRepository(new TieredLinkStore(5, directory), 1000, 0.01)) {
+            assertThat(reopened.count()).isEqualTo(19);
+            assertThat(reopened.exists("c0")).isFalse();
+            assertThat(reopened.findByShortCode("c7")).isPresent();
+            assertThat(reopened.findByOwnerId(ownerId)).hasSize(19);
+        }
+    }
+
+    @Test
+    void shouldKeepWritesOfStoreThatWasNeverClosed() {
+        ColdLinkStore crashed = new ColdLinkStore(directory);
+        try {
+            for (int i = 0; i < 10; i++) {
+                crashed.write(createShortUrl("c" + i, "https://example.com/" + i));
+            }
+            crashed.remove("c0");
+
+            try (ColdLinkStore reopened = new ColdLinkStore(directory)) {
+                assertThat(reopened.size()).isEqualTo(9);
+                assertThat(reopened.contains("c0")).isFalse();
+                assertThat(reopened.read("c9").getOriginalUrl()).isEqualTo("https://example.com/9");
+            }
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    void shouldCompactLogWhenMostRecordsAreSuperseded() {
+        try (TieredLinkStore store = new TieredLinkStore(1, directory)) {
+            String longUrl = "https://example.com/" + "x".repeat(1000);
+            for (int round = 0; round < 3000; round++) {
+                store.put(createShortUrl("c" + (round % 10), longUrl));
+            }
+
+            assertThat(store.coldFileBytes()).isLessThan(2L << 20);
+            for (int i = 0; i < 10; i++) {
+                assertThat(store.get("c" + i).getOriginalUrl()).isEqualTo(longUrl);
+            }
+        }
+    }
+
+    private ShortUrl createShortUrl(String shortCode, String url) {
+        return new ShortUrl(shortCode, url, UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(3600), 100);
+    }
+}
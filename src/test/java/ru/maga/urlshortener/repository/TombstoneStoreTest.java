@@ -0,0 +1,122 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.domain.LinkStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class TombstoneStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private TombstoneStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TombstoneStore();
+    }
+
+    @Test
+    void shouldRecordReasonAndTime() {
+        store.record("abc123", LinkStatus.EXPIRED, NOW);
+
+        assertThat(store.findReason("abc123")).isEqualTo(LinkStatus.EXPIRED);
+        assertThat(store.findTime("abc123")).isEqualTo(NOW);
+        assertThat(store.contains("abc123")).isTrue();
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownCode() {
+        assertThat(store.findReason("abc123")).isNull();
+        assertThat(store.findTime("abc123")).isEqualTo(-1);
+        assertThat(store.contains("abc123")).isFalse();
+    }
+
+    @Test
+    void shouldOverwriteExistingTombstone() {
+        store.record("abc123", LinkStatus.LIMIT_REACHED, NOW);
+        store.record("abc123", LinkStatus.DELETED, NOW + 1);
+
+        assertThat(store.findReason("abc123")).isEqualTo(LinkStatus.DELETED);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStoreCodesThatCannotBePacked() {
+        store.record("not-base62!", LinkStatus.DELETED, NOW);
+
+        assertThat(store.findReason("not-base62!")).isEqualTo(LinkStatus.DELETED);
+    }
+
+    @Test
+    void shouldGrowAndKeepAllEntries() {
+        for (int i = 0; i < 10_000; i++) {
+            store.record("c" + i, LinkStatus.EXPIRED, NOW + i);
+        }
+
+        assertThat(store.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(store.findTime("c" + i)).isEqualTo(NOW + i);
+        }
+    }
+
+    @Test
+    void shouldPruneOldTombstones() {
+        for (int i = 0; i < 1000; i++) {
+            store.record("c" + i, LinkStatus.EXPIRED, NOW + i);
+        }
+        store.record("bad-code", LinkStatus.EXPIRED, NOW);
+
+        int removed = store.prune(NOW + 500);
+
+        assertThat(removed).isEqualTo(501);
+        assertThat(store.size()).isEqualTo(500);
+        assertThat(store.contains("c499")).isFalse();
+        assertThat(store.contains("c500")).isTrue();
+        assertThat(store.contains("bad-code")).isFalse();
+    }
+
+    @Test
+    void shouldFindTombstoneRecordedAgainAfterPrune() {
+        store.record("abc123", LinkStatus.EXPIRED, NOW);
+        store.record("bad-code", LinkStatus.EXPIRED, NOW);
+        store.prune(NOW + 1);
+
+        store.record("abc123", LinkStatus.DELETED, NOW + 2);
+        store.record("bad-code", LinkStatus.DELETED, NOW + 2);
+
+        assertThat(store.findReason("abc123")).isEqualTo(LinkStatus.DELETED);
+        assertThat(store.findReason("bad-code")).isEqualTo(LinkStatus.DELETED);
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldVisitAndRemoveTombstones() {
+        store.record("abc123", LinkStatus.DELETED, 100);
+        store.record("not-base62", LinkStatus.EXPIRED, 200);
+        Map<String, Long> visited = new HashMap<>();
+
+        store.forEach((shortCode, reason, atMillis) -> visited.put(shortCode + ":" + reason, atMillis));
+
+        assertThat(visited).containsOnly(entry("abc123:DELETED", 100L), entry("not-base62:EXPIRED", 200L));
+        assertThat(store.remove("abc123")).isTrue();
+        assertThat(store.remove("abc123")).isFalse();
+        assertThat(store.remove("not-base62")).isTrue();
+        assertThat(store.contains("abc123")).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void shouldUseFewBytesPerTombstone() {
+        for (int i = 0; i < 100_000; i++) {
+            store.record("c" + i, LinkStatus.EXPIRED, NOW);
+        }
+
+        assertThat(store.getMemoryBytes() / store.size()).isLessThanOrEqualTo(48);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.maga.urlshortener.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserIdRegistryTest {
+
+    private final UserIdRegistry registry = new UserIdRegistry();
+
+    @Test
+    void shouldAssignDenseIdsInOrder() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        assertThat(registry.idOf(first)).isZero();
+        assertThat(registry.idOf(second)).isEqualTo(1);
+        assertThat(registry.idOf(first)).isZero();
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMapIdsBackToUuidsAfterGrowth() {
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID user = UUID.randomUUID();
+            users.add(user);
+            registry.idOf(user);
+        }
+
+        for (int id = 0; id < users.size(); id++) {
+            assertThat(registry.find(users.get(id))).isEqualTo(id);
+            assertThat(registry.uuidOf(id)).isEqualTo(users.get(id));
+        }
+    }
+
+    @Test
+    void shouldNotAssignIdOnFind() {
+        assertThat(registry.find(UUID.randomUUID())).isEqualTo(-1);
+        assertThat(registry.size()).isZero();
+        assertThatThrownBy(() -> registry.uuidOf(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.maga.urlshortener.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
+import ru.maga.urlshortener.util.TimeSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncLinkManagementServiceTest {
+    private static final int MAX_CONCURRENCY = 3;
+
+    private final AtomicInteger inside = new AtomicInteger();
+    private final AtomicInteger maxInside = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blocking;
+
+    private LinkManagementService service;
+    private AsyncLinkManagementService async;
+
+    @BeforeEach
+    void setUp() {
+        // While blocking, calls made on the facade's virtual threads hold on the clock until released
+        TimeSource clock = () -> {
+            if (blocking && Thread.currentThread().isVirtual()) {
+                maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inside.decrementAndGet();
+            }
+            return System.currentTimeMillis();
+        };
+        service = LinkManagementService.builder(new InMemoryUserRepository(), new InMemoryShortUrlRepository(),
+                        new UrlShortenerService(6), new NotificationService(false), new AppConfig())
+                .timeSource(clock)
+                .build();
+        async = new AsyncLinkManagementService(service, MAX_CONCURRENCY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        async.close();
+    }
+
+    @Test
+    void shouldRunLinkLifecycleAsynchronously() {
+        UUID ownerId = service.createUser();
+
+        ShortUrl shortUrl = async.createShortUrl("https://example.com", ownerId, 5).join();
+        Optional<String> url = async.processClick(shortUrl.getShortCode(), ownerId).join();
+        async.updateClickLimit(shortUrl.getShortCode(), ownerId, 10).join();
+        List<ShortUrl> links = async.getUserLinks(ownerId).join();
+        async.deleteShortUrl(shortUrl.getShortCode(), ownerId).join();
+
+        assertThat(url).contains("https://example.com");
+        assertThat(links).extracting(ShortUrl::getShortCode).containsExactly(shortUrl.getShortCode());
+        assertThat(links.get(0).getClickLimit()).isEqualTo(10);
+        assertThat(async.getUserLinks(ownerId).join()).isEmpty();
+        assertThat(async.processClick(shortUrl.getShortCode(), ownerId).join()).isEmpty();
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWithServiceErrors() {
+        UUID ownerId = service.createUser();
+        ShortUrl shortUrl = async.createShortUrl("https://example.com", ownerId, 5).join();
+
+        assertThatThrownBy(() -> async.createShortUrl("not a url", ownerId, null).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> async.deleteShortUrl(shortUrl.getShortCode(), UUID.randomUUID()).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    @Timeout(10)
+    void shouldBoundConcurrentCalls() throws InterruptedException {
+        UUID ownerId = service.createUser();
+        blocking = true;
+
+        List<CompletableFuture<ShortUrl>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(async.createShortUrl("https://example.com/" + i, ownerId, null));
+        }
+        awaitTrue(() -> inside.get() == MAX_CONCURRENCY && async.getWaitingCount() == 10 - MAX_CONCURRENCY);
+        Thread.sleep(50);
+
+        assertThat(inside.get()).isEqualTo(MAX_CONCURRENCY);
+        assertThat(async.getActiveCount()).isEqualTo(MAX_CONCURRENCY);
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(maxInside.get()).isEqualTo(MAX_CONCURRENCY);
+        assertThat(service.getUserLinks(ownerId)).hasSize(10);
+        assertThat(async.getActiveCount()).isZero();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -2,14 +2,32 @@ package ru.maga.urlshortener.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.maga.urlshortener.analytics.ClickHistory;
 import ru.maga.urlshortener.config.AppConfig;
+import ru.maga.urlshortener.domain.LinkStatus;
 import ru.maga.urlshortener.domain.ShortUrl;
+import ru.maga.urlshortener.events.LinkEvent;
+import ru.maga.urlshortener.metrics.MetricsRegistry;
+import ru.maga.urlshortener.repository.ClickCounterFile;
+import ru.maga.urlshortener.repository.InMemoryShortUrlRepository;
+import ru.maga.urlshortener.repository.InMemoryUserRepository;
 import ru.maga.urlshortener.repository.ShortUrlRepository;
 import ru.maga.urlshortener.repository.UserRepository;
+import ru.maga.urlshortener.util.ManualTimeSource;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -20,6 +38,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
  */
 class LinkManagementServiceTest {
 
+    @TempDir
+    Path directory;
+
     private UserRepository userRepository;
     private ShortUrlRepository shortUrlRepository;
     private UrlShortenerService urlShortenerService;
@@ -30,19 +51,19 @@ class LinkManagementServiceTest {
     @BeforeEach
     void setUp() {
         // Use real instances instead of mocks
-        userRepository = new UserRepository();
-        shortUrlRepository = new ShortUrlRepository();
+        userRepository = new InMemoryUserRepository();
+        shortUrlRepository = new InMemoryShortUrlRepository();
         urlShortenerService = new UrlShortenerService(6);
         notificationService = new NotificationService(false); // Disable for tests
         config = new AppConfig();
 
-        service = new LinkManagementService(
+        service = LinkManagementService.builder(
                 userRepository,
                 shortUrlRepository,
                 urlShortenerService,
                 notificationService,
                 config
-        );
+        ).build();
     }
 
     @Test
@@ -221,5 +242,269 @@ class LinkManagementServiceTest {
         assertThat(deleted).isEqualTo(1);
         assertThat(shortUrlRepository.exists("expired")).isFalse();
     }
-}
 
+    @Test
+    void shouldDemoteExpiredUrlToTombstoneOnClick() {
+        UUID userId = service.createUser();
+        ShortUrl expiredUrl = new ShortUrl(
+                "expired",
+                "https://example.com",
+                userId,
+                Instant.now().minusSeconds(1000),
+                Instant.now().minusSeconds(1),
+                10
+        );
+        shortUrlRepository.save(expiredUrl);
+
+        service.processClick("expired");
+
+        assertThat(shortUrlRepository.exists("expired")).isFalse();
+        assertThat(service.getLinkStatus("expired")).isEqualTo(LinkStatus.EXPIRED);
+    }
+
+    @Test
+    void shouldReportStatusOfLinks() {
+        UUID userId = service.createUser();
+        ShortUrl active = service.createShortUrl("https://example.com", userId, 1);
+        ShortUrl deleted = service.createShortUrl("https://example.org", userId, 10);
+
+        assertThat(service.getLinkStatus(active.getShortCode())).isEqualTo(LinkStatus.ACTIVE);
+        service.processClick(active.getShortCode());
+        assertThat(service.getLinkStatus(active.getShortCode())).isEqualTo(LinkStatus.LIMIT_REACHED);
+
+        service.deleteShortUrl(deleted.getShortCode(), userId);
+        assertThat(service.getLinkStatus(deleted.getShortCode())).isEqualTo(LinkStatus.DELETED);
+        assertThat(service.getLinkStatus("unknown")).isEqualTo(LinkStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldExpireLinkWhenClockPassesTtl() {
+        ManualTimeSource clock = new ManualTimeSource(1_000_000L);
+        LinkManagementService clockedService = LinkManagementService.builder(
+                userRepository, shortUrlRepository, urlShortenerService, notificationService, config)
+                .timeSource(clock)
+                .build();
+        UUID userId = clockedService.createUser();
+        ShortUrl shortUrl = clockedService.createShortUrl("https://example.com", userId, null);
+
+        assertThat(shortUrl.getCreatedAtMillis()).isEqualTo(1_000_000L);
+        clock.advance(Duration.ofSeconds(config.getLinkTtlSeconds()));
+        assertThat(clockedService.processClick(shortUrl.getShortCode())).isPresent();
+
+        clock.advance(Duration.ofMillis(1));
+        assertThat(clockedService.getLinkStatus(shortUrl.getShortCode())).isEqualTo(LinkStatus.EXPIRED);
+        assertThat(clockedService.cleanupExpiredLinks()).isEqualTo(1);
+        assertThat(clockedService.getLinkStatus(shortUrl.getShortCode())).isEqualTo(LinkStatus.EXPIRED);
+    }
+
+    @Test
+    void shouldRecordClickAndCreateMetrics() {
+        UUID userId = service.createUser();
+        ShortUrl shortUrl = service.createShortUrl("https://example.com", userId, 1);
+
+        service.processClick(shortUrl.getShortCode());
+        service.processClick(shortUrl.getShortCode());
+        service.processClick("unknown");
+        service.cleanupExpiredLinks();
+
+        MetricsRegistry metrics = service.getMetrics();
+        assertThat(metrics.getValues())
+                .containsEntry("click.active", 1L)
+                .containsEntry("click.limit_reached", 1L)
+                .containsEntry("click.not_found", 1L)
+                .containsEntry("links", 1L)
+                .containsEntry("users", 1L);
+        assertThat(metrics.getHistograms().get("click.latency").getCount()).isEqualTo(3);
+        assertThat(metrics.getHistograms().get("create.latency").getCount()).isEqualTo(1);
+        assertThat(metrics.getHistograms().get("cleanup.duration").getCount()).isEqualTo(1);
+        assertThat(service.getDetailedStatistics()).contains("click.active", "click.latency", "p99=");
+    }
+
+    @Test
+    void shouldReportHottestLinks() {
+        UUID userId = service.createUser();
+        ShortUrl hot = service.createShortUrl("https://example.com", userId, -1);
+        ShortUrl cold = service.createShortUrl("https://example.org", userId, -1);
+
+        for (int i = 0; i < 100; i++) {
+            service.processClick(hot.getShortCode());
+        }
+        service.processClick(cold.getShortCode());
+
+        assertThat(service.getTopLinks(1)).singleElement()
+                .satisfies(hitter -> {
+                    assertThat(hitter.getShortCode()).isEqualTo(hot.getShortCode());
+                    assertThat(hitter.getClicks()).isEqualTo(100);
+                });
+        assertThat(service.getTopLinks(10)).hasSize(2);
+    }
+
+    @Test
+    void shouldShowClickHistoryOnlyToOwner() {
+        ManualTimeSource clock = new ManualTimeSource(1_000_000L);
+        LinkManagementService clockedService = LinkManagementService.builder(
+                userRepository, shortUrlRepository, urlShortenerService, notificationService, config)
+                .timeSource(clock)
+                .build();
+        UUID ownerId = clockedService.createUser();
+        UUID otherId = clockedService.createUser();
+        ShortUrl shortUrl = clockedService.createShortUrl("https://example.com", ownerId, -1);
+
+        clockedService.processClick(shortUrl.getShortCode());
+        clock.advance(Duration.ofMinutes(2));
+        clockedService.processClick(shortUrl.getShortCode());
+        clockedService.processClick(shortUrl.getShortCode());
+
+        ClickHistory history = clockedService.getClickHistory(shortUrl.getShortCode(), ownerId);
+        long[] minutes = history.getMinutes();
+        assertThat(minutes[59]).isEqualTo(2);
+        assertThat(minutes[57]).isEqualTo(1);
+        assertThat(history.getTotal()).isEqualTo(3);
+        assertThatThrownBy(() -> clockedService.getClickHistory(shortUrl.getShortCode(), otherId))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    void shouldCountUniqueVisitors() {
+        UUID ownerId = service.createUser();
+        ShortUrl shortUrl = service.createShortUrl("https://example.com", ownerId, -1);
+        UUID firstVisitor = UUID.randomUUID();
+        UUID secondVisitor = UUID.randomUUID();
+
+        service.processClick(shortUrl.getShortCode(), firstVisitor);
+        service.processClick(shortUrl.getShortCode(), firstVisitor);
+        service.processClick(shortUrl.getShortCode(), secondVisitor);
+        service.processClick(shortUrl.getShortCode());
+
+        assertThat(service.getUniqueVisitors(shortUrl.getShortCode(), ownerId)).isEqualTo(2);
+        assertThat(shortUrl.getClickCount()).isEqualTo(4);
+        assertThatThrownBy(() -> service.getUniqueVisitors(shortUrl.getShortCode(), firstVisitor))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    void shouldPublishLinkLifecycleEvents() throws InterruptedException {
+        List<LinkEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        service.getEvents().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(LinkEvent event) {
+                received.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        UUID ownerId = service.createUser();
+        UUID visitorId = UUID.randomUUID();
+
+        ShortUrl shortUrl = service.createShortUrl("https://example.com", ownerId, 10);
+        service.processClick(shortUrl.getShortCode(), visitorId);
+        service.updateClickLimit(shortUrl.getShortCode(), ownerId, 20);
+        service.deleteShortUrl(shortUrl.getShortCode(), ownerId);
+        service.processClick(shortUrl.getShortCode(), visitorId);
+        service.getEvents().close();
+
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).extracting(LinkEvent::getType).containsExactly(
+                LinkEvent.Type.CREATED, LinkEvent.Type.CLICKED, LinkEvent.Type.UPDATED, LinkEvent.Type.DELETED);
+        assertThat(received).extracting(LinkEvent::getShortCode).containsOnly(shortUrl.getShortCode());
+        assertThat(received).extracting(LinkEvent::getOwnerId).containsOnly(ownerId);
+        assertThat(received.get(1).getClientId()).isEqualTo(visitorId);
+    }
+
+    @Test
+    void shouldReportExpiryOnceWhenLinkWasAlreadyBuried() throws InterruptedException {
+        ManualTimeSource clock = new ManualTimeSource(1_000_000L);
+        Map<String, ShortUrl> buried = new ConcurrentHashMap<>();
+        // Keeps returning buried links, as a lookup that raced with another redirect's bury would
+        ShortUrlRepository racingRepository = new InMemoryShortUrlRepository() {
+            @Override
+            public ShortUrl getByShortCode(String shortCode) {
+                ShortUrl shortUrl = super.getByShortCode(shortCode);
+                return shortUrl != null ? shortUrl : buried.get(shortCode);
+            }
+        };
+        LinkManagementService clockedService = LinkManagementService.builder(
+                userRepository, racingRepository, urlShortenerService, notificationService, config)
+                .timeSource(clock)
+                .build();
+        List<LinkEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        clockedService.getEvents().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(LinkEvent event) {
+                received.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        UUID userId = clockedService.createUser();
+        ShortUrl shortUrl = clockedService.createShortUrl("https://example.com", userId, null);
+        buried.put(shortUrl.getShortCode(), shortUrl);
+        clock.advance(Duration.ofSeconds(config.getLinkTtlSeconds() + 1));
+
+        assertThat(clockedService.processClick(shortUrl.getShortCode())).isEmpty();
+        assertThat(clockedService.processClick(shortUrl.getShortCode())).isEmpty();
+        clockedService.getEvents().close();
+
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).extracting(LinkEvent::getType)
+                .containsExactly(LinkEvent.Type.CREATED, LinkEvent.Type.EXPIRED);
+    }
+
+    @Test
+    void shouldRestoreClickCountsFromCounterFileAfterCrash() {
+        Path file = directory.resolve("counters.bin");
+        UUID userId = service.createUser();
+        LinkManagementService countedService = serviceWithCounters(shortUrlRepository, new ClickCounterFile(file));
+        ShortUrl shortUrl = countedService.createShortUrl("https://example.com", userId, 3);
+        // What a store that persists links but not their clicks holds
+        ShortUrl stored = new ShortUrl(shortUrl.getShortCode(), shortUrl.getOriginalUrl(), userId,
+                shortUrl.getCreatedAtMillis(), shortUrl.getExpiresAtMillis(), 3, 0);
+        countedService.processClick(shortUrl.getShortCode());
+        countedService.processClick(shortUrl.getShortCode());
+
+        // Restart without closing the counter file
+        ShortUrlRepository restartedRepository = new InMemoryShortUrlRepository();
+        restartedRepository.save(stored);
+        LinkManagementService restarted = serviceWithCounters(restartedRepository, new ClickCounterFile(file));
+
+        assertThat(restartedRepository.getByShortCode(shortUrl.getShortCode()).getClickCount()).isEqualTo(2);
+        assertThat(restarted.processClick(shortUrl.getShortCode())).isPresent();
+        assertThat(restarted.processClick(shortUrl.getShortCode())).isEmpty();
+        assertThat(restarted.getMetrics().getValues()).containsEntry("counters.slots", 1L);
+    }
+
+    private LinkManagementService serviceWithCounters(ShortUrlRepository repository, ClickCounterFile counters) {
+        return LinkManagementService.builder(userRepository, repository, urlShortenerService, notificationService,
+                        config)
+                .clickCounters(counters)
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.maga.urlshortener.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.maga.urlshortener.service.NotificationDeduplicator.Kind;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationDeduplicatorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private NotificationDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        deduplicator = new NotificationDeduplicator(1024, 60);
+    }
+
+    @Test
+    void shouldAllowFirstNotification() {
+        assertThat(deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW)).isTrue();
+    }
+
+    @Test
+    void shouldSuppressRepeatedNotificationWithinWindow() {
+        deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW);
+
+        assertThat(deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW + 1_000)).isFalse();
+        assertThat(deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW + 59_000)).isFalse();
+        assertThat(deduplicator.getSuppressedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldAllowNotificationAgainAfterWindow() {
+        deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW);
+
+        assertThat(deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW + 60_000)).isTrue();
+    }
+
+    @Test
+    void shouldTrackKindsIndependently() {
+        deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW);
+
+        assertThat(deduplicator.tryAcquire("abc123", Kind.CLICK_LIMIT_REACHED, NOW)).isTrue();
+    }
+
+    @Test
+    void shouldTrackLinksIndependently() {
+        deduplicator.tryAcquire("abc123", Kind.LINK_EXPIRED, NOW);
+
+        assertThat(deduplicator.tryAcquire("def456", Kind.LINK_EXPIRED, NOW)).isTrue();
+    }
+
+    @Test
+    void shouldUseFixedMemory() {
+        for (int i = 0; i < 100_000; i++) {
+            deduplicator.tryAcquire("code" + i, Kind.LINK_EXPIRED, NOW);
+        }
+
+        assertThat(deduplicator.getMemoryBytes()).isEqualTo(1024L * Long.BYTES);
+    }
+
+    @Test
+    void shouldLetOnlyOneConcurrentCallerNotify() throws InterruptedException {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger acquired = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 1000; j++) {
+                    if (deduplicator.tryAcquire("hot123", Kind.CLICK_LIMIT_REACHED, NOW)) {
+                        acquired.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(acquired.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> new NotificationDeduplicator(0, 60))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new NotificationDeduplicator(16, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
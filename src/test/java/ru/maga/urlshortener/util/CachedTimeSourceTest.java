@@ -0,0 +1,27 @@
+package ru.maga.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachedTimeSourceTest {
+
+    @Test
+    void shouldStayWithinOneTickOfSystemClock() throws InterruptedException {
+        try (CachedTimeSource timeSource = new CachedTimeSource(5)) {
+            long start = timeSource.currentTimeMillis();
+            Thread.sleep(50);
+
+            long cached = timeSource.currentTimeMillis();
+
+            assertThat(cached).isGreaterThan(start);
+            assertThat(System.currentTimeMillis() - cached).isBetween(0L, 200L);
+        }
+    }
+
+    @Test
+    void shouldRejectNonPositiveTick() {
+        assertThatThrownBy(() -> new CachedTimeSource(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.maga.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    @Test
+    void shouldPutGetAndReplace() {
+        LongLongHashMap map = new LongLongHashMap(4, -1);
+
+        assertThat(map.put(42, 1)).isEqualTo(-1);
+        assertThat(map.put(42, 2)).isEqualTo(1);
+        assertThat(map.get(42)).isEqualTo(2);
+        assertThat(map.get(43)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMatchHashMapUnderRandomOperations() {
+        LongLongHashMap map = new LongLongHashMap(16, -1);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                Long expected = reference.remove(key);
+                assertThat(map.remove(key)).isEqualTo(expected == null ? -1 : expected);
+            } else {
+                long value = random.nextInt(1_000_000);
+                Long expected = reference.put(key, value);
+                assertThat(map.put(key, value)).isEqualTo(expected == null ? -1 : expected);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(reference.size());
+        reference.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+    }
+
+    @Test
+    void shouldRemoveMatchingEntriesAndShrink() {
+        LongLongHashMap map = new LongLongHashMap(16, -1);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key);
+        }
+        long grown = map.memoryBytes();
+
+        int removed = map.removeIf((key, value) -> value > 100);
+
+        assertThat(removed).isEqualTo(9_900);
+        assertThat(map.size()).isEqualTo(100);
+        assertThat(map.get(100)).isEqualTo(100);
+        assertThat(map.get(101)).isEqualTo(-1);
+        assertThat(map.memoryBytes()).isLessThan(grown);
+    }
+
+    @Test
+    void shouldAddToAbsentAndPresentKeys() {
+        LongLongHashMap map = new LongLongHashMap(4, -1);
+        for (long key = 1; key <= 1_000; key++) {
+            map.addTo(key, 1);
+            map.addTo(key, key);
+        }
+
+        assertThat(map.size()).isEqualTo(1_000);
+        assertThat(map.get(1)).isEqualTo(2);
+        assertThat(map.addTo(1_000, 5)).isEqualTo(1_006);
+    }
+
+    @Test
+    void shouldRejectZeroKey() {
+        assertThatThrownBy(() -> new LongLongHashMap(4, -1).put(0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.maga.urlshortener.util;
+
+import java.time.Duration;
+
+/**
+ * Time source for tests that only moves when told to.
+ */
+public class ManualTimeSource implements TimeSource {
+    private volatile long currentTimeMillis;
+
+    public ManualTimeSource(long startMillis) {
+        this.currentTimeMillis = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    public void advance(Duration duration) {
+        currentTimeMillis += duration.toMillis();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.maga.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShortCodeCodecTest {
+
+    @Test
+    void shouldRoundTripBase62Codes() {
+        for (String code : new String[]{"0", "z", "abc123", "aB3Xy9", "zzzzzzzzzz", "0000000000"}) {
+            long encoded = ShortCodeCodec.encode(code);
+
+            assertThat(encoded).isPositive();
+            assertThat(ShortCodeCodec.decode(encoded)).isEqualTo(code);
+        }
+    }
+
+    @Test
+    void shouldDistinguishLeadingZeros() {
+        assertThat(ShortCodeCodec.encode("0")).isNotEqualTo(ShortCodeCodec.encode("00"));
+        assertThat(ShortCodeCodec.encode("0a")).isNotEqualTo(ShortCodeCodec.encode("a"));
+    }
+
+    @Test
+    void shouldEncodeDistinctCodesToDistinctValues() {
+        Set<Long> values = new HashSet<>();
+        String alphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+        for (int i = 0; i < alphabet.length(); i++) {
+            for (int j = 0; j < alphabet.length(); j++) {
+                values.add(ShortCodeCodec.encode("" + alphabet.charAt(i) + alphabet.charAt(j)));
+            }
+        }
+
+        assertThat(values).hasSize(62 * 62);
+    }
+
+    @Test
+    void shouldRejectCodesThatCannotBePacked() {
+        assertThat(ShortCodeCodec.encode("")).isEqualTo(ShortCodeCodec.NOT_ENCODABLE);
+        assertThat(ShortCodeCodec.encode("abcdefghijk")).isEqualTo(ShortCodeCodec.NOT_ENCODABLE);
+        assertThat(ShortCodeCodec.encode("ab-12")).isEqualTo(ShortCodeCodec.NOT_ENCODABLE);
+    }
+}